@@ -42,6 +42,26 @@ public final class JudgeCore {
      */
     com.google.protobuf.ByteString
         getExpectedOutputBytes();
+
+    /**
+     * <pre>
+     * 输入的原始字节，非空时代替input，不做UTF-8校验，可以是任意二进制数据
+     * </pre>
+     *
+     * <code>bytes input_data = 3;</code>
+     * @return The inputData.
+     */
+    com.google.protobuf.ByteString getInputData();
+
+    /**
+     * <pre>
+     * 期望输出的原始字节，非空时代替expected_output
+     * </pre>
+     *
+     * <code>bytes expected_output_data = 4;</code>
+     * @return The expectedOutputData.
+     */
+    com.google.protobuf.ByteString getExpectedOutputData();
   }
   /**
    * <pre>
@@ -62,6 +82,8 @@ public final class JudgeCore {
     private Case() {
       input_ = "";
       expectedOutput_ = "";
+      inputData_ = com.google.protobuf.ByteString.EMPTY;
+      expectedOutputData_ = com.google.protobuf.ByteString.EMPTY;
     }
 
     @java.lang.Override
@@ -162,6 +184,36 @@ public final class JudgeCore {
       }
     }
 
+    public static final int INPUT_DATA_FIELD_NUMBER = 3;
+    private com.google.protobuf.ByteString inputData_ = com.google.protobuf.ByteString.EMPTY;
+    /**
+     * <pre>
+     * 输入的原始字节，非空时代替input，不做UTF-8校验，可以是任意二进制数据
+     * </pre>
+     *
+     * <code>bytes input_data = 3;</code>
+     * @return The inputData.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString getInputData() {
+      return inputData_;
+    }
+
+    public static final int EXPECTED_OUTPUT_DATA_FIELD_NUMBER = 4;
+    private com.google.protobuf.ByteString expectedOutputData_ = com.google.protobuf.ByteString.EMPTY;
+    /**
+     * <pre>
+     * 期望输出的原始字节，非空时代替expected_output
+     * </pre>
+     *
+     * <code>bytes expected_output_data = 4;</code>
+     * @return The expectedOutputData.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString getExpectedOutputData() {
+      return expectedOutputData_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -182,6 +234,12 @@ public final class JudgeCore {
       if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(expectedOutput_)) {
         com.google.protobuf.GeneratedMessageV3.writeString(output, 2, expectedOutput_);
       }
+      if (!inputData_.isEmpty()) {
+        output.writeBytes(3, inputData_);
+      }
+      if (!expectedOutputData_.isEmpty()) {
+        output.writeBytes(4, expectedOutputData_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -197,6 +255,14 @@ public final class JudgeCore {
       if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(expectedOutput_)) {
         size += com.google.protobuf.GeneratedMessageV3.computeStringSize(2, expectedOutput_);
       }
+      if (!inputData_.isEmpty()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(3, inputData_);
+      }
+      if (!expectedOutputData_.isEmpty()) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBytesSize(4, expectedOutputData_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -216,6 +282,10 @@ public final class JudgeCore {
           .equals(other.getInput())) return false;
       if (!getExpectedOutput()
           .equals(other.getExpectedOutput())) return false;
+      if (!getInputData()
+          .equals(other.getInputData())) return false;
+      if (!getExpectedOutputData()
+          .equals(other.getExpectedOutputData())) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -231,6 +301,10 @@ public final class JudgeCore {
       hash = (53 * hash) + getInput().hashCode();
       hash = (37 * hash) + EXPECTED_OUTPUT_FIELD_NUMBER;
       hash = (53 * hash) + getExpectedOutput().hashCode();
+      hash = (37 * hash) + INPUT_DATA_FIELD_NUMBER;
+      hash = (53 * hash) + getInputData().hashCode();
+      hash = (37 * hash) + EXPECTED_OUTPUT_DATA_FIELD_NUMBER;
+      hash = (53 * hash) + getExpectedOutputData().hashCode();
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -368,6 +442,8 @@ public final class JudgeCore {
         bitField0_ = 0;
         input_ = "";
         expectedOutput_ = "";
+        inputData_ = com.google.protobuf.ByteString.EMPTY;
+        expectedOutputData_ = com.google.protobuf.ByteString.EMPTY;
         return this;
       }
 
@@ -407,6 +483,12 @@ public final class JudgeCore {
         if (((from_bitField0_ & 0x00000002) != 0)) {
           result.expectedOutput_ = expectedOutput_;
         }
+        if (((from_bitField0_ & 0x00000004) != 0)) {
+          result.inputData_ = inputData_;
+        }
+        if (((from_bitField0_ & 0x00000008) != 0)) {
+          result.expectedOutputData_ = expectedOutputData_;
+        }
       }
 
       @java.lang.Override
@@ -463,6 +545,12 @@ public final class JudgeCore {
           bitField0_ |= 0x00000002;
           onChanged();
         }
+        if (other.getInputData() != com.google.protobuf.ByteString.EMPTY) {
+          setInputData(other.getInputData());
+        }
+        if (other.getExpectedOutputData() != com.google.protobuf.ByteString.EMPTY) {
+          setExpectedOutputData(other.getExpectedOutputData());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -499,6 +587,16 @@ public final class JudgeCore {
                 bitField0_ |= 0x00000002;
                 break;
               } // case 18
+              case 26: {
+                inputData_ = input.readBytes();
+                bitField0_ |= 0x00000004;
+                break;
+              } // case 26
+              case 34: {
+                expectedOutputData_ = input.readBytes();
+                bitField0_ |= 0x00000008;
+                break;
+              } // case 34
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -659,6 +757,94 @@ public final class JudgeCore {
         onChanged();
         return this;
       }
+
+      private com.google.protobuf.ByteString inputData_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       * 输入的原始字节，非空时代替input，不做UTF-8校验，可以是任意二进制数据
+       * </pre>
+       *
+       * <code>bytes input_data = 3;</code>
+       * @return The inputData.
+       */
+      @java.lang.Override
+      public com.google.protobuf.ByteString getInputData() {
+        return inputData_;
+      }
+      /**
+       * <pre>
+       * 输入的原始字节，非空时代替input，不做UTF-8校验，可以是任意二进制数据
+       * </pre>
+       *
+       * <code>bytes input_data = 3;</code>
+       * @param value The inputData to set.
+       * @return This builder for chaining.
+       */
+      public Builder setInputData(com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        inputData_ = value;
+        bitField0_ |= 0x00000004;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 输入的原始字节，非空时代替input，不做UTF-8校验，可以是任意二进制数据
+       * </pre>
+       *
+       * <code>bytes input_data = 3;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearInputData() {
+        bitField0_ = (bitField0_ & ~0x00000004);
+        inputData_ = getDefaultInstance().getInputData();
+        onChanged();
+        return this;
+      }
+
+      private com.google.protobuf.ByteString expectedOutputData_ = com.google.protobuf.ByteString.EMPTY;
+      /**
+       * <pre>
+       * 期望输出的原始字节，非空时代替expected_output
+       * </pre>
+       *
+       * <code>bytes expected_output_data = 4;</code>
+       * @return The expectedOutputData.
+       */
+      @java.lang.Override
+      public com.google.protobuf.ByteString getExpectedOutputData() {
+        return expectedOutputData_;
+      }
+      /**
+       * <pre>
+       * 期望输出的原始字节，非空时代替expected_output
+       * </pre>
+       *
+       * <code>bytes expected_output_data = 4;</code>
+       * @param value The expectedOutputData to set.
+       * @return This builder for chaining.
+       */
+      public Builder setExpectedOutputData(com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        expectedOutputData_ = value;
+        bitField0_ |= 0x00000008;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 期望输出的原始字节，非空时代替expected_output
+       * </pre>
+       *
+       * <code>bytes expected_output_data = 4;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearExpectedOutputData() {
+        bitField0_ = (bitField0_ & ~0x00000008);
+        expectedOutputData_ = getDefaultInstance().getExpectedOutputData();
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -794,6 +980,56 @@ public final class JudgeCore {
      * @return The memoryLimit.
      */
     long getMemoryLimit();
+
+    /**
+     * <pre>
+     * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+     * </pre>
+     *
+     * <code>string compile_profile = 6;</code>
+     * @return The compileProfile.
+     */
+    java.lang.String getCompileProfile();
+    /**
+     * <pre>
+     * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+     * </pre>
+     *
+     * <code>string compile_profile = 6;</code>
+     * @return The bytes for compileProfile.
+     */
+    com.google.protobuf.ByteString
+        getCompileProfileBytes();
+
+    /**
+     * <pre>
+     * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+     * </pre>
+     *
+     * <code>string problem_id = 7;</code>
+     * @return The problemId.
+     */
+    java.lang.String getProblemId();
+    /**
+     * <pre>
+     * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+     * </pre>
+     *
+     * <code>string problem_id = 7;</code>
+     * @return The bytes for problemId.
+     */
+    com.google.protobuf.ByteString
+        getProblemIdBytes();
+
+    /**
+     * <pre>
+     * 题目版本，为0时使用最新版本
+     * </pre>
+     *
+     * <code>int64 problem_version = 8;</code>
+     * @return The problemVersion.
+     */
+    long getProblemVersion();
   }
   /**
    * <pre>
@@ -815,6 +1051,8 @@ public final class JudgeCore {
       code_ = "";
       language_ = "";
       cases_ = java.util.Collections.emptyList();
+      compileProfile_ = "";
+      problemId_ = "";
     }
 
     @java.lang.Override
@@ -986,6 +1224,115 @@ public final class JudgeCore {
       return memoryLimit_;
     }
 
+    public static final int COMPILE_PROFILE_FIELD_NUMBER = 6;
+    @SuppressWarnings("serial")
+    private volatile java.lang.Object compileProfile_ = "";
+    /**
+     * <pre>
+     * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+     * </pre>
+     *
+     * <code>string compile_profile = 6;</code>
+     * @return The compileProfile.
+     */
+    @java.lang.Override
+    public java.lang.String getCompileProfile() {
+      java.lang.Object ref = compileProfile_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        compileProfile_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+     * </pre>
+     *
+     * <code>string compile_profile = 6;</code>
+     * @return The bytes for compileProfile.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString
+        getCompileProfileBytes() {
+      java.lang.Object ref = compileProfile_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        compileProfile_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int PROBLEM_ID_FIELD_NUMBER = 7;
+    @SuppressWarnings("serial")
+    private volatile java.lang.Object problemId_ = "";
+    /**
+     * <pre>
+     * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+     * </pre>
+     *
+     * <code>string problem_id = 7;</code>
+     * @return The problemId.
+     */
+    @java.lang.Override
+    public java.lang.String getProblemId() {
+      java.lang.Object ref = problemId_;
+      if (ref instanceof java.lang.String) {
+        return (java.lang.String) ref;
+      } else {
+        com.google.protobuf.ByteString bs = 
+            (com.google.protobuf.ByteString) ref;
+        java.lang.String s = bs.toStringUtf8();
+        problemId_ = s;
+        return s;
+      }
+    }
+    /**
+     * <pre>
+     * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+     * </pre>
+     *
+     * <code>string problem_id = 7;</code>
+     * @return The bytes for problemId.
+     */
+    @java.lang.Override
+    public com.google.protobuf.ByteString
+        getProblemIdBytes() {
+      java.lang.Object ref = problemId_;
+      if (ref instanceof java.lang.String) {
+        com.google.protobuf.ByteString b = 
+            com.google.protobuf.ByteString.copyFromUtf8(
+                (java.lang.String) ref);
+        problemId_ = b;
+        return b;
+      } else {
+        return (com.google.protobuf.ByteString) ref;
+      }
+    }
+
+    public static final int PROBLEM_VERSION_FIELD_NUMBER = 8;
+    private long problemVersion_ = 0L;
+    /**
+     * <pre>
+     * 题目版本，为0时使用最新版本
+     * </pre>
+     *
+     * <code>int64 problem_version = 8;</code>
+     * @return The problemVersion.
+     */
+    @java.lang.Override
+    public long getProblemVersion() {
+      return problemVersion_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -1015,6 +1362,15 @@ public final class JudgeCore {
       if (memoryLimit_ != 0L) {
         output.writeInt64(5, memoryLimit_);
       }
+      if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(compileProfile_)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 6, compileProfile_);
+      }
+      if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(problemId_)) {
+        com.google.protobuf.GeneratedMessageV3.writeString(output, 7, problemId_);
+      }
+      if (problemVersion_ != 0L) {
+        output.writeInt64(8, problemVersion_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -1042,6 +1398,16 @@ public final class JudgeCore {
         size += com.google.protobuf.CodedOutputStream
           .computeInt64Size(5, memoryLimit_);
       }
+      if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(compileProfile_)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(6, compileProfile_);
+      }
+      if (!com.google.protobuf.GeneratedMessageV3.isStringEmpty(problemId_)) {
+        size += com.google.protobuf.GeneratedMessageV3.computeStringSize(7, problemId_);
+      }
+      if (problemVersion_ != 0L) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt64Size(8, problemVersion_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -1067,6 +1433,12 @@ public final class JudgeCore {
           != other.getTimeLimit()) return false;
       if (getMemoryLimit()
           != other.getMemoryLimit()) return false;
+      if (!getCompileProfile()
+          .equals(other.getCompileProfile())) return false;
+      if (!getProblemId()
+          .equals(other.getProblemId())) return false;
+      if (getProblemVersion()
+          != other.getProblemVersion()) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -1092,6 +1464,13 @@ public final class JudgeCore {
       hash = (37 * hash) + MEMORY_LIMIT_FIELD_NUMBER;
       hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
           getMemoryLimit());
+      hash = (37 * hash) + COMPILE_PROFILE_FIELD_NUMBER;
+      hash = (53 * hash) + getCompileProfile().hashCode();
+      hash = (37 * hash) + PROBLEM_ID_FIELD_NUMBER;
+      hash = (53 * hash) + getProblemId().hashCode();
+      hash = (37 * hash) + PROBLEM_VERSION_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashLong(
+          getProblemVersion());
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -1238,6 +1617,9 @@ public final class JudgeCore {
         bitField0_ = (bitField0_ & ~0x00000004);
         timeLimit_ = 0L;
         memoryLimit_ = 0L;
+        compileProfile_ = "";
+        problemId_ = "";
+        problemVersion_ = 0L;
         return this;
       }
 
@@ -1296,6 +1678,15 @@ public final class JudgeCore {
         if (((from_bitField0_ & 0x00000010) != 0)) {
           result.memoryLimit_ = memoryLimit_;
         }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.compileProfile_ = compileProfile_;
+        }
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          result.problemId_ = problemId_;
+        }
+        if (((from_bitField0_ & 0x00000080) != 0)) {
+          result.problemVersion_ = problemVersion_;
+        }
       }
 
       @java.lang.Override
@@ -1384,6 +1775,19 @@ public final class JudgeCore {
         if (other.getMemoryLimit() != 0L) {
           setMemoryLimit(other.getMemoryLimit());
         }
+        if (!other.getCompileProfile().isEmpty()) {
+          compileProfile_ = other.compileProfile_;
+          bitField0_ |= 0x00000020;
+          onChanged();
+        }
+        if (!other.getProblemId().isEmpty()) {
+          problemId_ = other.problemId_;
+          bitField0_ |= 0x00000040;
+          onChanged();
+        }
+        if (other.getProblemVersion() != 0L) {
+          setProblemVersion(other.getProblemVersion());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -1443,6 +1847,21 @@ public final class JudgeCore {
                 bitField0_ |= 0x00000010;
                 break;
               } // case 40
+              case 50: {
+                compileProfile_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 50
+              case 58: {
+                problemId_ = input.readStringRequireUtf8();
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 58
+              case 64: {
+                problemVersion_ = input.readInt64();
+                bitField0_ |= 0x00000080;
+                break;
+              } // case 64
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -1931,6 +2350,234 @@ public final class JudgeCore {
         onChanged();
         return this;
       }
+
+      private java.lang.Object compileProfile_ = "";
+      /**
+       * <pre>
+       * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+       * </pre>
+       *
+       * <code>string compile_profile = 6;</code>
+       * @return The compileProfile.
+       */
+      public java.lang.String getCompileProfile() {
+        java.lang.Object ref = compileProfile_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          compileProfile_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <pre>
+       * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+       * </pre>
+       *
+       * <code>string compile_profile = 6;</code>
+       * @return The bytes for compileProfile.
+       */
+      public com.google.protobuf.ByteString
+          getCompileProfileBytes() {
+        java.lang.Object ref = compileProfile_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          compileProfile_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+       * </pre>
+       *
+       * <code>string compile_profile = 6;</code>
+       * @param value The compileProfile to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompileProfile(
+          java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        compileProfile_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+       * </pre>
+       *
+       * <code>string compile_profile = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCompileProfile() {
+        compileProfile_ = getDefaultInstance().getCompileProfile();
+        bitField0_ = (bitField0_ & ~0x00000020);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 编译档位 FAST/STANDARD/OPTIMIZED，为空时STANDARD
+       * </pre>
+       *
+       * <code>string compile_profile = 6;</code>
+       * @param value The bytes for compileProfile to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCompileProfileBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        compileProfile_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+
+      private java.lang.Object problemId_ = "";
+      /**
+       * <pre>
+       * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+       * </pre>
+       *
+       * <code>string problem_id = 7;</code>
+       * @return The problemId.
+       */
+      public java.lang.String getProblemId() {
+        java.lang.Object ref = problemId_;
+        if (!(ref instanceof java.lang.String)) {
+          com.google.protobuf.ByteString bs =
+              (com.google.protobuf.ByteString) ref;
+          java.lang.String s = bs.toStringUtf8();
+          problemId_ = s;
+          return s;
+        } else {
+          return (java.lang.String) ref;
+        }
+      }
+      /**
+       * <pre>
+       * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+       * </pre>
+       *
+       * <code>string problem_id = 7;</code>
+       * @return The bytes for problemId.
+       */
+      public com.google.protobuf.ByteString
+          getProblemIdBytes() {
+        java.lang.Object ref = problemId_;
+        if (ref instanceof String) {
+          com.google.protobuf.ByteString b = 
+              com.google.protobuf.ByteString.copyFromUtf8(
+                  (java.lang.String) ref);
+          problemId_ = b;
+          return b;
+        } else {
+          return (com.google.protobuf.ByteString) ref;
+        }
+      }
+      /**
+       * <pre>
+       * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+       * </pre>
+       *
+       * <code>string problem_id = 7;</code>
+       * @param value The problemId to set.
+       * @return This builder for chaining.
+       */
+      public Builder setProblemId(
+          java.lang.String value) {
+        if (value == null) { throw new NullPointerException(); }
+        problemId_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+       * </pre>
+       *
+       * <code>string problem_id = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearProblemId() {
+        problemId_ = getDefaultInstance().getProblemId();
+        bitField0_ = (bitField0_ & ~0x00000040);
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 题目标识，指定时使用判题机存储的测试数据，忽略cases
+       * </pre>
+       *
+       * <code>string problem_id = 7;</code>
+       * @param value The bytes for problemId to set.
+       * @return This builder for chaining.
+       */
+      public Builder setProblemIdBytes(
+          com.google.protobuf.ByteString value) {
+        if (value == null) { throw new NullPointerException(); }
+        checkByteStringIsUtf8(value);
+        problemId_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+
+      private long problemVersion_ ;
+      /**
+       * <pre>
+       * 题目版本，为0时使用最新版本
+       * </pre>
+       *
+       * <code>int64 problem_version = 8;</code>
+       * @return The problemVersion.
+       */
+      @java.lang.Override
+      public long getProblemVersion() {
+        return problemVersion_;
+      }
+      /**
+       * <pre>
+       * 题目版本，为0时使用最新版本
+       * </pre>
+       *
+       * <code>int64 problem_version = 8;</code>
+       * @param value The problemVersion to set.
+       * @return This builder for chaining.
+       */
+      public Builder setProblemVersion(long value) {
+
+        problemVersion_ = value;
+        bitField0_ |= 0x00000080;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 题目版本，为0时使用最新版本
+       * </pre>
+       *
+       * <code>int64 problem_version = 8;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearProblemVersion() {
+        bitField0_ = (bitField0_ & ~0x00000080);
+        problemVersion_ = 0L;
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -2913,6 +3560,26 @@ public final class JudgeCore {
      * <code>.grpc.ReturnCaseInfo case_info = 5;</code>
      */
     org.laoli.api.JudgeCore.ReturnCaseInfoOrBuilder getCaseInfoOrBuilder();
+
+    /**
+     * <pre>
+     * 流式进度消息对应的用例下标，从0开始
+     * </pre>
+     *
+     * <code>int32 case_index = 6;</code>
+     * @return The caseIndex.
+     */
+    int getCaseIndex();
+
+    /**
+     * <pre>
+     * 是否为整个提交的最终结果，流式进度中最后一条消息为true
+     * </pre>
+     *
+     * <code>bool final_verdict = 7;</code>
+     * @return The finalVerdict.
+     */
+    boolean getFinalVerdict();
   }
   /**
    * <pre>
@@ -3090,6 +3757,36 @@ public final class JudgeCore {
       return caseInfo_ == null ? org.laoli.api.JudgeCore.ReturnCaseInfo.getDefaultInstance() : caseInfo_;
     }
 
+    public static final int CASE_INDEX_FIELD_NUMBER = 6;
+    private int caseIndex_ = 0;
+    /**
+     * <pre>
+     * 流式进度消息对应的用例下标，从0开始
+     * </pre>
+     *
+     * <code>int32 case_index = 6;</code>
+     * @return The caseIndex.
+     */
+    @java.lang.Override
+    public int getCaseIndex() {
+      return caseIndex_;
+    }
+
+    public static final int FINAL_VERDICT_FIELD_NUMBER = 7;
+    private boolean finalVerdict_ = false;
+    /**
+     * <pre>
+     * 是否为整个提交的最终结果，流式进度中最后一条消息为true
+     * </pre>
+     *
+     * <code>bool final_verdict = 7;</code>
+     * @return The finalVerdict.
+     */
+    @java.lang.Override
+    public boolean getFinalVerdict() {
+      return finalVerdict_;
+    }
+
     private byte memoizedIsInitialized = -1;
     @java.lang.Override
     public final boolean isInitialized() {
@@ -3119,6 +3816,12 @@ public final class JudgeCore {
       if (((bitField0_ & 0x00000001) != 0)) {
         output.writeMessage(5, getCaseInfo());
       }
+      if (caseIndex_ != 0) {
+        output.writeInt32(6, caseIndex_);
+      }
+      if (finalVerdict_ != false) {
+        output.writeBool(7, finalVerdict_);
+      }
       getUnknownFields().writeTo(output);
     }
 
@@ -3146,6 +3849,14 @@ public final class JudgeCore {
         size += com.google.protobuf.CodedOutputStream
           .computeMessageSize(5, getCaseInfo());
       }
+      if (caseIndex_ != 0) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeInt32Size(6, caseIndex_);
+      }
+      if (finalVerdict_ != false) {
+        size += com.google.protobuf.CodedOutputStream
+          .computeBoolSize(7, finalVerdict_);
+      }
       size += getUnknownFields().getSerializedSize();
       memoizedSize = size;
       return size;
@@ -3174,6 +3885,10 @@ public final class JudgeCore {
         if (!getCaseInfo()
             .equals(other.getCaseInfo())) return false;
       }
+      if (getCaseIndex()
+          != other.getCaseIndex()) return false;
+      if (getFinalVerdict()
+          != other.getFinalVerdict()) return false;
       if (!getUnknownFields().equals(other.getUnknownFields())) return false;
       return true;
     }
@@ -3199,6 +3914,11 @@ public final class JudgeCore {
         hash = (37 * hash) + CASE_INFO_FIELD_NUMBER;
         hash = (53 * hash) + getCaseInfo().hashCode();
       }
+      hash = (37 * hash) + CASE_INDEX_FIELD_NUMBER;
+      hash = (53 * hash) + getCaseIndex();
+      hash = (37 * hash) + FINAL_VERDICT_FIELD_NUMBER;
+      hash = (53 * hash) + com.google.protobuf.Internal.hashBoolean(
+          getFinalVerdict());
       hash = (29 * hash) + getUnknownFields().hashCode();
       memoizedHashCode = hash;
       return hash;
@@ -3349,6 +4069,8 @@ public final class JudgeCore {
           caseInfoBuilder_.dispose();
           caseInfoBuilder_ = null;
         }
+        caseIndex_ = 0;
+        finalVerdict_ = false;
         return this;
       }
 
@@ -3401,6 +4123,12 @@ public final class JudgeCore {
               : caseInfoBuilder_.build();
           to_bitField0_ |= 0x00000001;
         }
+        if (((from_bitField0_ & 0x00000020) != 0)) {
+          result.caseIndex_ = caseIndex_;
+        }
+        if (((from_bitField0_ & 0x00000040) != 0)) {
+          result.finalVerdict_ = finalVerdict_;
+        }
         result.bitField0_ |= to_bitField0_;
       }
 
@@ -3467,6 +4195,12 @@ public final class JudgeCore {
         if (other.hasCaseInfo()) {
           mergeCaseInfo(other.getCaseInfo());
         }
+        if (other.getCaseIndex() != 0) {
+          setCaseIndex(other.getCaseIndex());
+        }
+        if (other.getFinalVerdict() != false) {
+          setFinalVerdict(other.getFinalVerdict());
+        }
         this.mergeUnknownFields(other.getUnknownFields());
         onChanged();
         return this;
@@ -3520,6 +4254,16 @@ public final class JudgeCore {
                 bitField0_ |= 0x00000010;
                 break;
               } // case 42
+              case 48: {
+                caseIndex_ = input.readInt32();
+                bitField0_ |= 0x00000020;
+                break;
+              } // case 48
+              case 56: {
+                finalVerdict_ = input.readBool();
+                bitField0_ |= 0x00000040;
+                break;
+              } // case 56
               default: {
                 if (!super.parseUnknownField(input, extensionRegistry, tag)) {
                   done = true; // was an endgroup tag
@@ -3889,6 +4633,94 @@ public final class JudgeCore {
         }
         return caseInfoBuilder_;
       }
+
+      private int caseIndex_ ;
+      /**
+       * <pre>
+       * 流式进度消息对应的用例下标，从0开始
+       * </pre>
+       *
+       * <code>int32 case_index = 6;</code>
+       * @return The caseIndex.
+       */
+      @java.lang.Override
+      public int getCaseIndex() {
+        return caseIndex_;
+      }
+      /**
+       * <pre>
+       * 流式进度消息对应的用例下标，从0开始
+       * </pre>
+       *
+       * <code>int32 case_index = 6;</code>
+       * @param value The caseIndex to set.
+       * @return This builder for chaining.
+       */
+      public Builder setCaseIndex(int value) {
+
+        caseIndex_ = value;
+        bitField0_ |= 0x00000020;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 流式进度消息对应的用例下标，从0开始
+       * </pre>
+       *
+       * <code>int32 case_index = 6;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearCaseIndex() {
+        bitField0_ = (bitField0_ & ~0x00000020);
+        caseIndex_ = 0;
+        onChanged();
+        return this;
+      }
+
+      private boolean finalVerdict_ ;
+      /**
+       * <pre>
+       * 是否为整个提交的最终结果，流式进度中最后一条消息为true
+       * </pre>
+       *
+       * <code>bool final_verdict = 7;</code>
+       * @return The finalVerdict.
+       */
+      @java.lang.Override
+      public boolean getFinalVerdict() {
+        return finalVerdict_;
+      }
+      /**
+       * <pre>
+       * 是否为整个提交的最终结果，流式进度中最后一条消息为true
+       * </pre>
+       *
+       * <code>bool final_verdict = 7;</code>
+       * @param value The finalVerdict to set.
+       * @return This builder for chaining.
+       */
+      public Builder setFinalVerdict(boolean value) {
+
+        finalVerdict_ = value;
+        bitField0_ |= 0x00000040;
+        onChanged();
+        return this;
+      }
+      /**
+       * <pre>
+       * 是否为整个提交的最终结果，流式进度中最后一条消息为true
+       * </pre>
+       *
+       * <code>bool final_verdict = 7;</code>
+       * @return This builder for chaining.
+       */
+      public Builder clearFinalVerdict() {
+        bitField0_ = (bitField0_ & ~0x00000040);
+        finalVerdict_ = false;
+        onChanged();
+        return this;
+      }
       @java.lang.Override
       public final Builder setUnknownFields(
           final com.google.protobuf.UnknownFieldSet unknownFields) {
@@ -3982,19 +4814,25 @@ public final class JudgeCore {
       descriptor;
   static {
     java.lang.String[] descriptorData = {
-      "\n\022JudgeService.proto\022\004grpc\".\n\004Case\022\r\n\005in" +
-      "put\030\001 \001(\t\022\027\n\017expected_output\030\002 \001(\t\"n\n\007Re" +
-      "quest\022\014\n\004code\030\001 \001(\t\022\020\n\010language\030\002 \001(\t\022\031\n" +
-      "\005cases\030\003 \003(\0132\n.grpc.Case\022\022\n\ntime_limit\030\004" +
-      " \001(\003\022\024\n\014memory_limit\030\005 \001(\003\"O\n\016ReturnCase" +
-      "Info\022\r\n\005input\030\001 \001(\t\022\027\n\017expected_output\030\002" +
-      " \001(\t\022\025\n\ractual_output\030\003 \001(\t\"\201\001\n\010Response" +
-      "\022\016\n\006status\030\001 \001(\t\022\017\n\007message\030\002 \001(\t\022\026\n\016exe" +
-      "cution_time\030\003 \001(\003\022\023\n\013memory_used\030\004 \001(\003\022\'" +
-      "\n\tcase_info\030\005 \001(\0132\024.grpc.ReturnCaseInfo2" +
-      "6\n\014JudgeService\022&\n\005Judge\022\r.grpc.Request\032" +
-      "\016.grpc.ResponseB\034\n\rorg.laoli.apiB\tJudgeC" +
-      "oreP\000b\006proto3"
+      "\n\022JudgeService.proto\022\004grpc\"`\n\004Case\022\r\n\005in" +
+      "put\030\001 \001(\t\022\027\n\017expected_output\030\002 \001(\t\022\022\n\nin" +
+      "put_data\030\003 \001(\014\022\034\n\024expected_output_data\030\004" +
+      " \001(\014\"\264\001\n\007Request\022\014\n\004code\030\001 \001(\t\022\020\n\010langua" +
+      "ge\030\002 \001(\t\022\031\n\005cases\030\003 \003(\0132\n.grpc.Case\022\022\n\nt" +
+      "ime_limit\030\004 \001(\003\022\024\n\014memory_limit\030\005 \001(\003\022\027\n" +
+      "\017compile_profile\030\006 \001(\t\022\022\n\nproblem_id\030\007 \001" +
+      "(\t\022\027\n\017problem_version\030\010 \001(\003\"O\n\016ReturnCas" +
+      "eInfo\022\r\n\005input\030\001 \001(\t\022\027\n\017expected_output\030" +
+      "\002 \001(\t\022\025\n\ractual_output\030\003 \001(\t\"\254\001\n\010Respons" +
+      "e\022\016\n\006status\030\001 \001(\t\022\017\n\007message\030\002 \001(\t\022\026\n\016ex" +
+      "ecution_time\030\003 \001(\003\022\023\n\013memory_used\030\004 \001(\003\022" +
+      "\'\n\tcase_info\030\005 \001(\0132\024.grpc.ReturnCaseInfo" +
+      "\022\022\n\ncase_index\030\006 \001(\005\022\025\n\rfinal_verdict\030\007 " +
+      "\001(\0102\230\001\n\014JudgeService\022&\n\005Judge\022\r.grpc.Req" +
+      "uest\032\016.grpc.Response\022.\n\013JudgeUpload\022\r.gr" +
+      "pc.Request\032\016.grpc.Response(\001\0220\n\rJudgePro" +
+      "gress\022\r.grpc.Request\032\016.grpc.Response0\001B\034" +
+      "\n\rorg.laoli.apiB\tJudgeCoreP\000b\006proto3"
     };
     descriptor = com.google.protobuf.Descriptors.FileDescriptor
       .internalBuildGeneratedFileFrom(descriptorData,
@@ -4005,13 +4843,13 @@ public final class JudgeCore {
     internal_static_grpc_Case_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_grpc_Case_descriptor,
-        new java.lang.String[] { "Input", "ExpectedOutput", });
+        new java.lang.String[] { "Input", "ExpectedOutput", "InputData", "ExpectedOutputData", });
     internal_static_grpc_Request_descriptor =
       getDescriptor().getMessageTypes().get(1);
     internal_static_grpc_Request_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_grpc_Request_descriptor,
-        new java.lang.String[] { "Code", "Language", "Cases", "TimeLimit", "MemoryLimit", });
+        new java.lang.String[] { "Code", "Language", "Cases", "TimeLimit", "MemoryLimit", "CompileProfile", "ProblemId", "ProblemVersion", });
     internal_static_grpc_ReturnCaseInfo_descriptor =
       getDescriptor().getMessageTypes().get(2);
     internal_static_grpc_ReturnCaseInfo_fieldAccessorTable = new
@@ -4023,7 +4861,7 @@ public final class JudgeCore {
     internal_static_grpc_Response_fieldAccessorTable = new
       com.google.protobuf.GeneratedMessageV3.FieldAccessorTable(
         internal_static_grpc_Response_descriptor,
-        new java.lang.String[] { "Status", "Message", "ExecutionTime", "MemoryUsed", "CaseInfo", });
+        new java.lang.String[] { "Status", "Message", "ExecutionTime", "MemoryUsed", "CaseInfo", "CaseIndex", "FinalVerdict", });
   }
 
   // @@protoc_insertion_point(outer_class_scope)
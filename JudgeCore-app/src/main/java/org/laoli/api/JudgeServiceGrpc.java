@@ -46,6 +46,68 @@ public final class JudgeServiceGrpc {
     return getJudgeMethod;
   }
 
+  private static volatile io.grpc.MethodDescriptor<org.laoli.api.JudgeCore.Request,
+      org.laoli.api.JudgeCore.Response> getJudgeUploadMethod;
+
+  @io.grpc.stub.annotations.RpcMethod(
+      fullMethodName = SERVICE_NAME + '/' + "JudgeUpload",
+      requestType = org.laoli.api.JudgeCore.Request.class,
+      responseType = org.laoli.api.JudgeCore.Response.class,
+      methodType = io.grpc.MethodDescriptor.MethodType.CLIENT_STREAMING)
+  public static io.grpc.MethodDescriptor<org.laoli.api.JudgeCore.Request,
+      org.laoli.api.JudgeCore.Response> getJudgeUploadMethod() {
+    io.grpc.MethodDescriptor<org.laoli.api.JudgeCore.Request, org.laoli.api.JudgeCore.Response> getJudgeUploadMethod;
+    if ((getJudgeUploadMethod = JudgeServiceGrpc.getJudgeUploadMethod) == null) {
+      synchronized (JudgeServiceGrpc.class) {
+        if ((getJudgeUploadMethod = JudgeServiceGrpc.getJudgeUploadMethod) == null) {
+          JudgeServiceGrpc.getJudgeUploadMethod = getJudgeUploadMethod =
+              io.grpc.MethodDescriptor.<org.laoli.api.JudgeCore.Request, org.laoli.api.JudgeCore.Response>newBuilder()
+              .setType(io.grpc.MethodDescriptor.MethodType.CLIENT_STREAMING)
+              .setFullMethodName(generateFullMethodName(SERVICE_NAME, "JudgeUpload"))
+              .setSampledToLocalTracing(true)
+              .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  org.laoli.api.JudgeCore.Request.getDefaultInstance()))
+              .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  org.laoli.api.JudgeCore.Response.getDefaultInstance()))
+              .setSchemaDescriptor(new JudgeServiceMethodDescriptorSupplier("JudgeUpload"))
+              .build();
+        }
+      }
+    }
+    return getJudgeUploadMethod;
+  }
+
+  private static volatile io.grpc.MethodDescriptor<org.laoli.api.JudgeCore.Request,
+      org.laoli.api.JudgeCore.Response> getJudgeProgressMethod;
+
+  @io.grpc.stub.annotations.RpcMethod(
+      fullMethodName = SERVICE_NAME + '/' + "JudgeProgress",
+      requestType = org.laoli.api.JudgeCore.Request.class,
+      responseType = org.laoli.api.JudgeCore.Response.class,
+      methodType = io.grpc.MethodDescriptor.MethodType.SERVER_STREAMING)
+  public static io.grpc.MethodDescriptor<org.laoli.api.JudgeCore.Request,
+      org.laoli.api.JudgeCore.Response> getJudgeProgressMethod() {
+    io.grpc.MethodDescriptor<org.laoli.api.JudgeCore.Request, org.laoli.api.JudgeCore.Response> getJudgeProgressMethod;
+    if ((getJudgeProgressMethod = JudgeServiceGrpc.getJudgeProgressMethod) == null) {
+      synchronized (JudgeServiceGrpc.class) {
+        if ((getJudgeProgressMethod = JudgeServiceGrpc.getJudgeProgressMethod) == null) {
+          JudgeServiceGrpc.getJudgeProgressMethod = getJudgeProgressMethod =
+              io.grpc.MethodDescriptor.<org.laoli.api.JudgeCore.Request, org.laoli.api.JudgeCore.Response>newBuilder()
+              .setType(io.grpc.MethodDescriptor.MethodType.SERVER_STREAMING)
+              .setFullMethodName(generateFullMethodName(SERVICE_NAME, "JudgeProgress"))
+              .setSampledToLocalTracing(true)
+              .setRequestMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  org.laoli.api.JudgeCore.Request.getDefaultInstance()))
+              .setResponseMarshaller(io.grpc.protobuf.ProtoUtils.marshaller(
+                  org.laoli.api.JudgeCore.Response.getDefaultInstance()))
+              .setSchemaDescriptor(new JudgeServiceMethodDescriptorSupplier("JudgeProgress"))
+              .build();
+        }
+      }
+    }
+    return getJudgeProgressMethod;
+  }
+
   /**
    * Creates a new async stub that supports all call types for the service
    */
@@ -100,6 +162,26 @@ public final class JudgeServiceGrpc {
         io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response> responseObserver) {
       io.grpc.stub.ServerCalls.asyncUnimplementedUnaryCall(getJudgeMethod(), responseObserver);
     }
+
+    /**
+     * <pre>
+     * 分批上传用例，首条消息携带代码、语言与限制，后续消息只携带cases；首批用例到达后即开始判题
+     * </pre>
+     */
+    default io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Request> judgeUpload(
+        io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response> responseObserver) {
+      return io.grpc.stub.ServerCalls.asyncUnimplementedStreamingCall(getJudgeUploadMethod(), responseObserver);
+    }
+
+    /**
+     * <pre>
+     * 每个用例完成时返回一条进度消息，最后一条为最终结果
+     * </pre>
+     */
+    default void judgeProgress(org.laoli.api.JudgeCore.Request request,
+        io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response> responseObserver) {
+      io.grpc.stub.ServerCalls.asyncUnimplementedUnaryCall(getJudgeProgressMethod(), responseObserver);
+    }
   }
 
   /**
@@ -136,6 +218,28 @@ public final class JudgeServiceGrpc {
       io.grpc.stub.ClientCalls.asyncUnaryCall(
           getChannel().newCall(getJudgeMethod(), getCallOptions()), request, responseObserver);
     }
+
+    /**
+     * <pre>
+     * 分批上传用例，首条消息携带代码、语言与限制，后续消息只携带cases；首批用例到达后即开始判题
+     * </pre>
+     */
+    public io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Request> judgeUpload(
+        io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response> responseObserver) {
+      return io.grpc.stub.ClientCalls.asyncClientStreamingCall(
+          getChannel().newCall(getJudgeUploadMethod(), getCallOptions()), responseObserver);
+    }
+
+    /**
+     * <pre>
+     * 每个用例完成时返回一条进度消息，最后一条为最终结果
+     * </pre>
+     */
+    public void judgeProgress(org.laoli.api.JudgeCore.Request request,
+        io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response> responseObserver) {
+      io.grpc.stub.ClientCalls.asyncServerStreamingCall(
+          getChannel().newCall(getJudgeProgressMethod(), getCallOptions()), request, responseObserver);
+    }
   }
 
   /**
@@ -160,6 +264,17 @@ public final class JudgeServiceGrpc {
       return io.grpc.stub.ClientCalls.blockingUnaryCall(
           getChannel(), getJudgeMethod(), getCallOptions(), request);
     }
+
+    /**
+     * <pre>
+     * 每个用例完成时返回一条进度消息，最后一条为最终结果
+     * </pre>
+     */
+    public java.util.Iterator<org.laoli.api.JudgeCore.Response> judgeProgress(
+        org.laoli.api.JudgeCore.Request request) {
+      return io.grpc.stub.ClientCalls.blockingServerStreamingCall(
+          getChannel(), getJudgeProgressMethod(), getCallOptions(), request);
+    }
   }
 
   /**
@@ -188,6 +303,8 @@ public final class JudgeServiceGrpc {
   }
 
   private static final int METHODID_JUDGE = 0;
+  private static final int METHODID_JUDGE_PROGRESS = 1;
+  private static final int METHODID_JUDGE_UPLOAD = 2;
 
   private static final class MethodHandlers<Req, Resp> implements
       io.grpc.stub.ServerCalls.UnaryMethod<Req, Resp>,
@@ -210,6 +327,10 @@ public final class JudgeServiceGrpc {
           serviceImpl.judge((org.laoli.api.JudgeCore.Request) request,
               (io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response>) responseObserver);
           break;
+        case METHODID_JUDGE_PROGRESS:
+          serviceImpl.judgeProgress((org.laoli.api.JudgeCore.Request) request,
+              (io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response>) responseObserver);
+          break;
         default:
           throw new AssertionError();
       }
@@ -220,6 +341,9 @@ public final class JudgeServiceGrpc {
     public io.grpc.stub.StreamObserver<Req> invoke(
         io.grpc.stub.StreamObserver<Resp> responseObserver) {
       switch (methodId) {
+        case METHODID_JUDGE_UPLOAD:
+          return (io.grpc.stub.StreamObserver<Req>) serviceImpl.judgeUpload(
+              (io.grpc.stub.StreamObserver<org.laoli.api.JudgeCore.Response>) responseObserver);
         default:
           throw new AssertionError();
       }
@@ -235,6 +359,20 @@ public final class JudgeServiceGrpc {
               org.laoli.api.JudgeCore.Request,
               org.laoli.api.JudgeCore.Response>(
                 service, METHODID_JUDGE)))
+        .addMethod(
+          getJudgeUploadMethod(),
+          io.grpc.stub.ServerCalls.asyncClientStreamingCall(
+            new MethodHandlers<
+              org.laoli.api.JudgeCore.Request,
+              org.laoli.api.JudgeCore.Response>(
+                service, METHODID_JUDGE_UPLOAD)))
+        .addMethod(
+          getJudgeProgressMethod(),
+          io.grpc.stub.ServerCalls.asyncServerStreamingCall(
+            new MethodHandlers<
+              org.laoli.api.JudgeCore.Request,
+              org.laoli.api.JudgeCore.Response>(
+                service, METHODID_JUDGE_PROGRESS)))
         .build();
   }
 
@@ -284,6 +422,8 @@ public final class JudgeServiceGrpc {
           serviceDescriptor = result = io.grpc.ServiceDescriptor.newBuilder(SERVICE_NAME)
               .setSchemaDescriptor(new JudgeServiceFileDescriptorSupplier())
               .addMethod(getJudgeMethod())
+              .addMethod(getJudgeUploadMethod())
+              .addMethod(getJudgeProgressMethod())
               .build();
         }
       }
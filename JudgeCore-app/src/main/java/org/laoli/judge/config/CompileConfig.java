@@ -0,0 +1,160 @@
+package org.laoli.judge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description 编译配置属性
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "judge.compile")
+public class CompileConfig {
+
+    /**
+     * 编译产物缓存配置
+     */
+    private Cache cache = new Cache();
+
+    /**
+     * JAVA编译配置
+     */
+    private Javac javac = new Javac();
+
+    /**
+     * C/C++预编译头配置
+     */
+    private Pch pch = new Pch();
+
+    /**
+     * Go构建缓存配置
+     */
+    private Go go = new Go();
+
+    /**
+     * 编译进程的资源限制
+     */
+    private Limits limits = new Limits();
+
+    @Data
+    public static class Cache {
+        /**
+         * 是否缓存编译产物，相同语言、工具链与源代码的提交直接复用上次的编译结果
+         */
+        private boolean enabled = true;
+
+        /**
+         * 缓存目录
+         */
+        private String dir = System.getProperty("java.io.tmpdir") + "/judgecore-artifacts";
+
+        /**
+         * 缓存占用的磁盘上限 (MB)，超过后按最近最少使用淘汰
+         */
+        private long maxSizeMb = 1024;
+    }
+
+    @Data
+    public static class Javac {
+        /**
+         * 是否在服务进程内调用javax.tools编译JAVA代码，关闭或运行环境没有JDK编译器时启动javac进程
+         */
+        private boolean inProcess = true;
+
+        /**
+         * 同时进行的进程内编译数
+         */
+        private int concurrency = 2;
+
+        /**
+         * 单次编译的超时时间 (毫秒)，包括等待空闲编译线程的时间
+         */
+        private long timeoutMs = 10000;
+    }
+
+    @Data
+    public static class Pch {
+        /**
+         * 是否为常用的重型头文件构建预编译头，源代码第一个包含的头文件命中时自动使用
+         */
+        private boolean enabled = true;
+
+        /**
+         * 预编译头目录，按编译参数与工具链分子目录，重启后复用
+         */
+        private String dir = System.getProperty("java.io.tmpdir") + "/judgecore-pch";
+
+        /**
+         * 各语言需要预编译的头文件
+         */
+        private Map<String, List<String>> headers = new HashMap<>(Map.of("CPP", List.of("bits/stdc++.h")));
+
+        /**
+         * 构建单个预编译头的超时时间 (毫秒)
+         */
+        private long buildTimeoutMs = 120000;
+    }
+
+    @Data
+    public static class Go {
+        /**
+         * 判题服务管理的Go目录，build子目录作为所有Go编译共用的GOCACHE，path子目录作为GOPATH，重启后复用
+         */
+        private String dir = System.getProperty("java.io.tmpdir") + "/judgecore-go";
+
+        /**
+         * 是否在启动时后台预编译标准库，之后的提交只需编译自身的包
+         */
+        private boolean warmup = true;
+
+        /**
+         * 预编译标准库的超时时间 (毫秒)
+         */
+        private long warmupTimeoutMs = 600000;
+
+        /**
+         * 构建缓存占用的磁盘上限 (MB)，超过后按最近使用时间删除最旧的条目
+         */
+        private long maxSizeMb = 2048;
+
+        /**
+         * 检查构建缓存大小的间隔 (秒)
+         */
+        private long trimIntervalSeconds = 600;
+    }
+
+    @Data
+    public static class Limits {
+        /**
+         * 单次编译的墙钟时间上限 (毫秒)，超过后终止整个编译进程树
+         */
+        private long timeoutMs = 30000;
+
+        /**
+         * 编译进程树的内存上限 (MB)
+         */
+        private long memoryMb = 2048;
+
+        /**
+         * 编译器输出(编译错误信息)的上限 (KB)，超过后终止编译
+         */
+        private long outputKb = 256;
+
+        /**
+         * 编译进程树允许的最大进程(线程)数，0表示不限制；仅在cgroup可用时生效
+         */
+        private int pidsMax = 512;
+
+        /**
+         * 是否在与执行相同的沙箱中编译，需同时启用sandbox.enabled
+         */
+        private boolean sandboxed = false;
+    }
+}
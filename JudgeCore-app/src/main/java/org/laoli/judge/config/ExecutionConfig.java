@@ -0,0 +1,297 @@
+package org.laoli.judge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * @Description 用例执行配置属性
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "judge.execution")
+public class ExecutionConfig {
+
+    /**
+     * 用例并行执行配置
+     */
+    private Parallel parallel = new Parallel();
+
+    /**
+     * 时间限制配置
+     */
+    private Time time = new Time();
+
+    /**
+     * 进程树内存采样配置
+     */
+    private Sampler sampler = new Sampler();
+
+    /**
+     * 超时看门狗配置
+     */
+    private Watchdog watchdog = new Watchdog();
+
+    /**
+     * 进程输出泵配置
+     */
+    private Pump pump = new Pump();
+
+    /**
+     * 用例结束后计算结果与释放资源的线程池
+     */
+    private Completion completion = new Completion();
+
+    /**
+     * 用例输出捕获配置
+     */
+    private Output output = new Output();
+
+    /**
+     * 大用例的文件重定向配置
+     */
+    private FileIo fileIo = new FileIo();
+
+    /**
+     * 流式上传用例
+     */
+    private Upload upload = new Upload();
+
+    /**
+     * 堆外测试数据缓存配置
+     */
+    private DataCache dataCache = new DataCache();
+
+    /**
+     * JAVA常驻运行器配置
+     */
+    private WarmJvm warmJvm = new WarmJvm();
+
+    /**
+     * PYTHON常驻zygote配置
+     */
+    private WarmPython warmPython = new WarmPython();
+
+    @Data
+    public static class Parallel {
+        /**
+         * 是否并行执行同一提交的测试用例，关闭时按顺序逐个执行。
+         * 默认关闭，需要显式开启；随项目提供的dev与prod配置均已开启
+         */
+        private boolean enabled = false;
+
+        /**
+         * 单个提交同时运行的用例数上限，不大于0时取CPU核数
+         */
+        private int concurrency = 0;
+
+        /**
+         * @return 实际生效的并发数
+         */
+        public int effectiveConcurrency() {
+            return concurrency > 0 ? concurrency : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class Time {
+        /**
+         * 墙钟时间上限相对CPU时间限制的倍数，超时判定以CPU时间为准，墙钟上限只防止程序睡眠或阻塞不结束
+         */
+        private double wallFactor = 2.0;
+
+        /**
+         * 墙钟时间上限额外放宽的时间 (毫秒)，容纳节点繁忙时的调度延迟
+         */
+        private long wallExtraMs = 1000;
+
+        /**
+         * @param cpuLimitMs CPU时间限制 (毫秒)
+         * @return 墙钟时间上限 (毫秒)
+         */
+        public long wallLimitMs(long cpuLimitMs) {
+            return (long) (cpuLimitMs * wallFactor) + wallExtraMs;
+        }
+    }
+
+    @Data
+    public static class Sampler {
+        /**
+         * 采样间隔 (毫秒)
+         */
+        private long intervalMs = 5;
+
+        /**
+         * 共享采样线程数，运行中的用例按轮询分配到各线程
+         */
+        private int threads = 1;
+    }
+
+    @Data
+    public static class Watchdog {
+        /**
+         * 时间轮刻度 (毫秒)，超时最多晚一个刻度被处理
+         */
+        private long tickMs = 5;
+
+        /**
+         * 时间轮格数，向上取整为2的幂
+         */
+        private int wheelSize = 512;
+    }
+
+    @Data
+    public static class Pump {
+        /**
+         * 读取线程数上限，每个运行中的用例占用stdout与stderr两个线程，应不小于并发用例数的两倍；
+         * 超出时流排队等待，进程在管道写满后阻塞直到轮到读取
+         */
+        private int maxThreads = 64;
+    }
+
+    @Data
+    public static class Completion {
+        /**
+         * 进程退出后比对输出、归还沙箱与删除cgroup的线程数，不大于0时取CPU核数；
+         * 这些工作会阻塞在文件与cgroup操作上，不放在公共ForkJoinPool中执行，超出时排队
+         */
+        private int threads = 0;
+
+        /**
+         * @return 实际生效的线程数
+         */
+        public int effectiveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+
+    @Data
+    public static class Output {
+        /**
+         * 单个用例标准输出的上限 (KB)，超过后终止程序并判定为输出超限
+         */
+        private long limitKb = 64 * 1024;
+
+        /**
+         * 标准输出在堆内保存的上限 (KB)，超过后溢出到临时文件
+         */
+        private long memoryThresholdKb = 1024;
+
+        /**
+         * 溢出文件所在的目录，为空时与标准输入文件一起放在判题IO目录 (file-io.dir)；
+         * 溢出文件由评测进程写入，目录位于tmpfs时占用评测进程的内存，大输出多时可指向磁盘上的目录
+         */
+        private String spillDir = "";
+    }
+
+    @Data
+    public static class FileIo {
+        /**
+         * 题目数据存储中超过该大小 (KB) 的数据文件直接映射，不读入缓存；
+         * 超过管道容量的标准输入无论该值多少都从文件重定向
+         */
+        private long thresholdKb = 1024;
+
+        /**
+         * 标准输入重定向文件所在的目录，应位于tmpfs上；为空时使用/dev/shm，不存在时使用系统临时目录。
+         * tmpfs与页缓存的页面计入写入进程所在的内存cgroup：输入文件由评测进程写入，计入评测进程，
+         * 程序读取时不会计入运行分组。程序的标准输出因此不重定向到这里，而是经管道交给评测进程，
+         * 由评测进程溢出到文件，否则输出页面会计入运行分组，造成误判的内存超限并抬高报告的内存峰值
+         */
+        private String dir = "";
+
+        /**
+         * @return 实际使用的目录
+         */
+        public Path resolveDir() {
+            if (dir != null && !dir.isEmpty()) {
+                return Paths.get(dir);
+            }
+            Path shm = Paths.get("/dev/shm");
+            return Files.isDirectory(shm) && Files.isWritable(shm)
+                    ? shm.resolve("judgecore-io")
+                    : Paths.get(System.getProperty("java.io.tmpdir"), "judgecore-io");
+        }
+    }
+
+    @Data
+    public static class Upload {
+        /**
+         * 运行阶段等待客户端上传下一批用例的最长时间 (毫秒)，超时后判题以SYSTEM_ERROR结束并释放运行阶段的线程
+         */
+        private long idleTimeoutMs = 30000;
+    }
+
+    @Data
+    public static class DataCache {
+        /**
+         * 缓存的测试数据占用的堆外内存上限 (MB)，按最近最少使用淘汰；-XX:MaxDirectMemorySize需大于该值
+         */
+        private long budgetMb = 256;
+    }
+
+    @Data
+    public static class WarmJvm {
+        /**
+         * 是否启用常驻JVM执行JAVA用例，关闭时每个用例启动新的JVM
+         * 运行器依赖SecurityManager拦截System.exit并拒绝用例代码的全部权限，该API自JDK 17起标记为待移除，
+         * 运行器以-Djava.security.manager=allow启动；JDK不再支持时运行器无法启动，执行器退回逐用例启动JVM，
+         * 此时应关闭本开关
+         */
+        private boolean enabled = false;
+
+        /**
+         * 空闲运行器数量，每个运行器只执行一个用例，应不小于同时运行的JAVA用例数
+         */
+        private int poolSize = 2;
+
+        /**
+         * 运行器JVM的最大堆 (MB)，单个用例的内存限制不能超过该值
+         */
+        private int heapMb = 512;
+
+        /**
+         * 运行器启动超时 (毫秒)
+         */
+        private long startTimeoutMs = 10000;
+
+        /**
+         * 运行器目录的父目录
+         */
+        private String workDir = System.getProperty("java.io.tmpdir") + "/judgecore-warm";
+    }
+
+    @Data
+    public static class WarmPython {
+        /**
+         * 是否启用zygote执行PYTHON用例，关闭时每个用例启动新的解释器
+         */
+        private boolean enabled = false;
+
+        /**
+         * 空闲zygote数量
+         */
+        private int poolSize = 2;
+
+        /**
+         * 单个zygote最多执行的用例数，达到后销毁重建
+         */
+        private int maxCases = 1000;
+
+        /**
+         * zygote启动超时 (毫秒)
+         */
+        private long startTimeoutMs = 5000;
+
+        /**
+         * zygote目录的父目录
+         */
+        private String workDir = System.getProperty("java.io.tmpdir") + "/judgecore-warm";
+    }
+}
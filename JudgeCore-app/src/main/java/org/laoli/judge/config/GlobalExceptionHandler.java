@@ -8,6 +8,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * @Description 全局异常处理器
  * @Author laoli
@@ -39,6 +41,17 @@ public class GlobalExceptionHandler {
                 ));
     }
 
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<JudgeResponse> handleRejected(RejectedExecutionException e) {
+        log.warn("Submission rejected: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(JudgeResponse.error(
+                        "SERVICE_UNAVAILABLE",
+                        e.getMessage(),
+                        null
+                ));
+    }
+
     @ExceptionHandler(NullPointerException.class)
     public ResponseEntity<JudgeResponse> handleNullPointer(NullPointerException e) {
         log.error("Null pointer error: {}", e.getMessage(), e);
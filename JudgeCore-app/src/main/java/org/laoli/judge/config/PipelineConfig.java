@@ -0,0 +1,59 @@
+package org.laoli.judge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @Description 判题流水线配置属性
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "judge.pipeline")
+public class PipelineConfig {
+
+    /**
+     * 编译阶段：创建工作目录并编译，CPU与内存密集
+     */
+    private Stage compile = new Stage(0, 256);
+
+    /**
+     * 运行阶段：准备命令、执行用例并比对输出，每个线程协调一个提交的全部用例
+     */
+    private Stage run = new Stage(0, 256);
+
+    /**
+     * 清理阶段：删除工作目录，不占用前两个阶段的线程
+     */
+    private Stage cleanup = new Stage(1, 1024);
+
+    @Data
+    public static class Stage {
+        /**
+         * 工作线程数，不大于0时取CPU核数
+         */
+        private int threads;
+
+        /**
+         * 等待队列容量，队列满时提交方阻塞等待，把压力传回上一阶段
+         */
+        private int queueSize;
+
+        public Stage() {
+        }
+
+        public Stage(int threads, int queueSize) {
+            this.threads = threads;
+            this.queueSize = queueSize;
+        }
+
+        /**
+         * @return 实际生效的线程数
+         */
+        public int effectiveThreads() {
+            return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.laoli.judge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @Description 题目测试数据存储配置属性
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "judge.problem")
+public class ProblemConfig {
+
+    /**
+     * 测试数据根目录，按题目与版本分目录保存
+     */
+    private String dir = System.getProperty("java.io.tmpdir") + "/judgecore-problems";
+
+    /**
+     * 每个版本首次加载时是否按清单校验各用例的校验和，发现磁盘上的数据被改动或损坏
+     */
+    private boolean verifyChecksums = true;
+}
@@ -2,8 +2,12 @@ package org.laoli.judge.config;
 
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.laoli.judge.model.enums.Language;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * @Description 沙箱配置属性
  * @Author laoli
@@ -32,6 +36,16 @@ public class SandboxConfig {
      */
     private CommonOptions commonOptions = new CommonOptions();
 
+    /**
+     * cgroup v2 资源统计与限制配置
+     */
+    private Cgroup cgroup = new Cgroup();
+
+    /**
+     * 预热沙箱池配置
+     */
+    private Pool pool = new Pool();
+
     @Data
     public static class CommonOptions {
         private boolean quiet = true;
@@ -41,4 +55,68 @@ public class SandboxConfig {
         private boolean noNewPrivs = true;
         private String capsDrop = "all";
     }
+
+    @Data
+    public static class Cgroup {
+        /**
+         * 是否为每次运行创建独立的cgroup v2分组
+         * 宿主机未委派cgroup子树时自动回退到/proc采样
+         */
+        private boolean enabled = true;
+
+        /**
+         * 委派给判题机的cgroup子树根目录
+         */
+        private String root = "/sys/fs/cgroup/judgecore";
+
+        /**
+         * 实例标识，写入每次运行的分组名 (run-<实例标识>-<序号>)，启动时只清理带有本实例标识的遗留分组。
+         * 为空时取主机名加进程号；多个实例共用同一子树时应为每个实例配置稳定且唯一的值，
+         * 重启后才能清理上次崩溃遗留的分组
+         */
+        private String instanceId = "";
+
+        /**
+         * 单次运行允许的最大进程(线程)数，0表示不限制
+         */
+        private int pidsMax = 256;
+    }
+
+    @Data
+    public static class Pool {
+        /**
+         * 是否启用预热沙箱池，启用后用例通过firejail --join在空闲沙箱中执行
+         */
+        private boolean enabled = false;
+
+        /**
+         * 每组沙箱选项(即每种语言)保持的空闲沙箱数
+         */
+        private int size = 2;
+
+        /**
+         * 空闲超时 (毫秒)，超时未被使用的沙箱会被关闭
+         */
+        private long idleTimeoutMs = 60000;
+
+        /**
+         * 单个沙箱最多复用次数，达到后关闭并重新创建
+         */
+        private int maxReuse = 100;
+
+        /**
+         * 等待新沙箱就绪的超时时间 (毫秒)
+         */
+        private long startTimeoutMs = 5000;
+
+        /**
+         * 沙箱私有目录的根目录
+         */
+        private String workDir = System.getProperty("java.io.tmpdir") + "/judgecore-pool";
+
+        /**
+         * 启动时预热的语言
+         */
+        private List<Language> prewarm = new ArrayList<>();
+    }
 }
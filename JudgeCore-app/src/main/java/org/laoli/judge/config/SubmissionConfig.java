@@ -0,0 +1,36 @@
+package org.laoli.judge.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * @Description 异步提交存储配置属性
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "judge.submission")
+public class SubmissionConfig {
+
+    /**
+     * 内存中保存的提交数上限 (含判题中的提交)，满时淘汰最早结束的提交，全部仍在判题时拒绝新的提交
+     */
+    private int maxSubmissions = 10000;
+
+    /**
+     * 提交判题结束后保留的时间 (秒)，过期后不能再查询
+     */
+    private long ttlSeconds = 600;
+
+    /**
+     * 向订阅者推送进度 (写出SSE) 的线程数
+     */
+    private int eventThreads = 2;
+
+    /**
+     * 进度订阅 (SSE) 连接的超时时间 (秒)
+     */
+    private long eventTimeoutSeconds = 300;
+}
@@ -1,20 +1,33 @@
 package org.laoli.judge.controller;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
 import org.laoli.judge.model.aggregate.JudgeResult;
 import org.laoli.judge.model.dto.CodeTestRequest;
 import org.laoli.judge.model.dto.CodeTestResponse;
 import org.laoli.judge.model.dto.JudgeRequest;
 import org.laoli.judge.model.dto.JudgeResponse;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.CaseListener;
 import org.laoli.judge.service.IJudgeService;
 import org.laoli.judge.service.test.ICodeTestService;
+import org.laoli.judge.service.testdata.NdjsonTestCaseSource;
+import org.laoli.judge.service.testdata.TestCaseSource;
+import org.laoli.judge.service.validation.InputValidator;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 @RestController
 @RequestMapping("/api/judge")
@@ -23,10 +36,15 @@ public class JudgeController {
 
     private final IJudgeService judgeService;
     private final ICodeTestService codeTestService;
+    private final ObjectMapper objectMapper;
+    private final ExecutionConfig executionConfig;
 
-    public JudgeController(IJudgeService judgeService, ICodeTestService codeTestService) {
+    public JudgeController(IJudgeService judgeService, ICodeTestService codeTestService, ObjectMapper objectMapper,
+                           ExecutionConfig executionConfig) {
         this.judgeService = judgeService;
         this.codeTestService = codeTestService;
+        this.objectMapper = objectMapper;
+        this.executionConfig = executionConfig;
     }
 
     @PostMapping
@@ -35,34 +53,48 @@ public class JudgeController {
                 request.getLanguage(), request.getTimeLimit(), request.getMemoryLimit());
 
         try {
-            List<TestCase> testCases = request.getCases().stream()
+            Language language = parseLanguage(request.getLanguage());
+            if (language == null) {
+                return unsupportedLanguage(request.getLanguage());
+            }
+
+            CompileProfile profile = parseProfile(request.getCompileProfile());
+            if (profile == null) {
+                return unsupportedProfile(request.getCompileProfile());
+            }
+
+            if (request.getProblemId() != null && !request.getProblemId().isEmpty()) {
+                return buildResponse(judgeService.judgeProblem(
+                        request.getProblemId(),
+                        request.getProblemVersion(),
+                        request.getCode(),
+                        language,
+                        request.getTimeLimit(),
+                        request.getMemoryLimit(),
+                        profile));
+            }
+
+            List<TestCase> testCases = request.getCases() == null ? List.of() : request.getCases().stream()
                     .map(tc -> TestCase.builder()
                             .input(tc.getInput())
                             .expectedOutput(tc.getExpectedOutput())
                             .build())
                     .toList();
 
-            Language language;
-            try {
-                language = Language.valueOf(request.getLanguage().toUpperCase());
-            } catch (IllegalArgumentException e) {
-                log.warn("Unsupported language: {}", request.getLanguage());
-                return ResponseEntity.badRequest()
-                        .body(JudgeResponse.error(
-                                SimpleResult.SYSTEM_ERROR.name(),
-                                "Unsupported language: " + request.getLanguage(),
-                                "Supported languages: JAVA, PYTHON, CPP, C, RUST, GO, PHP"));
-            }
-
             JudgeResult judgeResult = judgeService.judge(
                     testCases,
                     request.getCode(),
                     language,
                     request.getTimeLimit(),
-                    request.getMemoryLimit());
+                    request.getMemoryLimit(),
+                    profile);
 
             return buildResponse(judgeResult);
 
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid judge request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(JudgeResponse.error(SimpleResult.SYSTEM_ERROR.name(), e.getMessage(), null));
         } catch (Exception e) {
             log.error("Error processing judge request: {}", e.getMessage(), e);
             return ResponseEntity.internalServerError()
@@ -73,6 +105,75 @@ public class JudgeController {
         }
     }
 
+    /**
+     * 流式判题，请求体为NDJSON：第一行是提交头 (code、language、timeLimit、memoryLimit、compileProfile)，
+     * 之后每行一个用例 {"input": "...", "expectedOutput": "..."}。用例在运行阶段逐行解析、校验并写入判题IO目录，
+     * 编译完成后边上传边执行；小数据量仍可使用POST /api/judge。
+     * 请求线程只解析提交头，判题期间不占用请求线程，判题结束后再写出应答
+     */
+    @PostMapping(path = "/stream", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public CompletableFuture<ResponseEntity<JudgeResponse>> judgeStream(InputStream body) {
+        try {
+            JsonParser parser = NdjsonTestCaseSource.parser(body, InputValidator.MAX_TEST_CASE_SIZE);
+            JudgeRequest request;
+            try {
+                request = objectMapper.readValue(parser, JudgeRequest.class);
+            } catch (JsonProcessingException e) {
+                log.warn("Invalid stream judge header: {}", e.getOriginalMessage());
+                return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                        .body(JudgeResponse.error(SimpleResult.SYSTEM_ERROR.name(),
+                                "Invalid request header: " + e.getOriginalMessage(), null)));
+            }
+            log.info("Received stream judge request - Language: {}, TimeLimit: {}ms, MemoryLimit: {}KB",
+                    request.getLanguage(), request.getTimeLimit(), request.getMemoryLimit());
+
+            if (request.getCases() != null || (request.getProblemId() != null && !request.getProblemId().isEmpty())) {
+                throw new IllegalArgumentException("Test cases must follow the header as separate lines");
+            }
+            if (request.getLanguage() == null || request.getTimeLimit() == null || request.getMemoryLimit() == null) {
+                throw new IllegalArgumentException("Language, time limit and memory limit are required");
+            }
+            Language language = parseLanguage(request.getLanguage());
+            if (language == null) {
+                return CompletableFuture.completedFuture(unsupportedLanguage(request.getLanguage()));
+            }
+            CompileProfile profile = parseProfile(request.getCompileProfile());
+            if (profile == null) {
+                return CompletableFuture.completedFuture(unsupportedProfile(request.getCompileProfile()));
+            }
+
+            TestCaseSource testCases = new NdjsonTestCaseSource(parser, executionConfig.getFileIo().resolveDir(),
+                    InputValidator.MAX_TEST_CASE_SIZE);
+            return judgeService.judgeStreamAsync(
+                    testCases,
+                    request.getCode(),
+                    language,
+                    request.getTimeLimit(),
+                    request.getMemoryLimit(),
+                    profile,
+                    CaseListener.NONE)
+                    .thenApply(this::buildResponse)
+                    .exceptionally(e -> streamError(e instanceof CompletionException && e.getCause() != null
+                            ? e.getCause() : e));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid stream judge request: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest()
+                    .body(JudgeResponse.error(SimpleResult.SYSTEM_ERROR.name(), e.getMessage(), null)));
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(streamError(e));
+        }
+    }
+
+    private ResponseEntity<JudgeResponse> streamError(Throwable e) {
+        log.error("Error processing stream judge request: {}", e.getMessage(), e);
+        return ResponseEntity.internalServerError()
+                .body(JudgeResponse.error(
+                        SimpleResult.SYSTEM_ERROR.name(),
+                        "Internal server error",
+                        e.getMessage()));
+    }
+
     @GetMapping("/health")
     public ResponseEntity<String> health() {
         return ResponseEntity.ok("OK");
@@ -122,24 +223,41 @@ public class JudgeController {
         }
     }
 
-    private ResponseEntity<JudgeResponse> buildResponse(JudgeResult judgeResult) {
-        String status = judgeResult.status().name();
-        String message = judgeResult.message();
-        Long executionTime = judgeResult.executionTime();
-        Long memoryUsed = judgeResult.memoryUsed();
-
-        if (judgeResult.caseResults() != null) {
-            JudgeResponse.CaseInfo caseInfo = JudgeResponse.CaseInfo.builder()
-                    .input(judgeResult.caseResults().input())
-                    .expectedOutput(judgeResult.caseResults().expectedOutput())
-                    .actualOutput(judgeResult.caseResults().actualOutput())
-                    .build();
-
-            return ResponseEntity.ok(JudgeResponse.success(
-                    status, message, executionTime, memoryUsed, caseInfo));
-        } else {
-            return ResponseEntity.ok(JudgeResponse.success(
-                    status, message, executionTime, memoryUsed, null));
+    private Language parseLanguage(String language) {
+        try {
+            return Language.valueOf(language.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            log.warn("Unsupported language: {}", language);
+            return null;
         }
     }
+
+    private CompileProfile parseProfile(String compileProfile) {
+        try {
+            return CompileProfile.of(compileProfile, CompileProfile.STANDARD);
+        } catch (IllegalArgumentException e) {
+            log.warn("Unsupported compile profile: {}", compileProfile);
+            return null;
+        }
+    }
+
+    private ResponseEntity<JudgeResponse> unsupportedLanguage(String language) {
+        return ResponseEntity.badRequest()
+                .body(JudgeResponse.error(
+                        SimpleResult.SYSTEM_ERROR.name(),
+                        "Unsupported language: " + language,
+                        "Supported languages: JAVA, PYTHON, CPP, C, RUST, GO, PHP"));
+    }
+
+    private ResponseEntity<JudgeResponse> unsupportedProfile(String compileProfile) {
+        return ResponseEntity.badRequest()
+                .body(JudgeResponse.error(
+                        SimpleResult.SYSTEM_ERROR.name(),
+                        "Unsupported compile profile: " + compileProfile,
+                        "Supported compile profiles: FAST, STANDARD, OPTIMIZED"));
+    }
+
+    private ResponseEntity<JudgeResponse> buildResponse(JudgeResult judgeResult) {
+        return ResponseEntity.ok(JudgeResponse.from(judgeResult));
+    }
 }
@@ -0,0 +1,36 @@
+package org.laoli.judge.controller;
+
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description 判题机运行指标接口
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@RestController
+@RequestMapping("/api/judge/metrics")
+public class MetricsController {
+
+    private final List<MetricsSource> metricsSources;
+
+    public MetricsController(List<MetricsSource> metricsSources) {
+        this.metricsSources = metricsSources;
+    }
+
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> metrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        for (MetricsSource source : metricsSources) {
+            metrics.put(source.metricsName(), source.metricsSnapshot());
+        }
+        return ResponseEntity.ok(metrics);
+    }
+}
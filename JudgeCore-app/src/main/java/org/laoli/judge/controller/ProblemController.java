@@ -0,0 +1,64 @@
+package org.laoli.judge.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.model.dto.ProblemUploadRequest;
+import org.laoli.judge.model.entity.ProblemVersion;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.service.problem.ProblemStore;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * @Description 题目测试数据上传与版本管理接口
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@RestController
+@RequestMapping("/api/judge/problems")
+@Slf4j
+public class ProblemController {
+
+    private final ProblemStore problemStore;
+
+    public ProblemController(ProblemStore problemStore) {
+        this.problemStore = problemStore;
+    }
+
+    @PostMapping("/{problemId}/versions")
+    public ResponseEntity<ProblemVersion> upload(@PathVariable String problemId,
+            @RequestBody ProblemUploadRequest request) throws IOException {
+        List<TestCase> testCases = request.getCases() == null ? List.of() : request.getCases().stream()
+                .map(tc -> TestCase.builder()
+                        .input(tc.getInput())
+                        .expectedOutput(tc.getExpectedOutput())
+                        .build())
+                .toList();
+        log.info("Received test data for problem {} - TestCases: {}", problemId, testCases.size());
+        return ResponseEntity.status(HttpStatus.CREATED).body(problemStore.ingest(problemId, testCases));
+    }
+
+    @GetMapping("/{problemId}")
+    public ResponseEntity<List<ProblemVersion>> versions(@PathVariable String problemId) throws IOException {
+        List<ProblemVersion> versions = problemStore.versions(problemId);
+        return versions.isEmpty() ? ResponseEntity.notFound().build() : ResponseEntity.ok(versions);
+    }
+
+    @GetMapping("/{problemId}/versions/{version}")
+    public ResponseEntity<ProblemVersion> version(@PathVariable String problemId, @PathVariable long version)
+            throws IOException {
+        ProblemVersion info = problemStore.describe(problemId, version);
+        return info == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(info);
+    }
+
+    @DeleteMapping("/{problemId}/versions/{version}")
+    public ResponseEntity<Void> delete(@PathVariable String problemId, @PathVariable long version)
+            throws IOException {
+        return problemStore.delete(problemId, version)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
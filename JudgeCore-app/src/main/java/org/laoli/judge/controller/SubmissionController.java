@@ -0,0 +1,160 @@
+package org.laoli.judge.controller;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.SubmissionConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.dto.JudgeRequest;
+import org.laoli.judge.model.dto.JudgeResponse;
+import org.laoli.judge.model.dto.SubmissionResponse;
+import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.IJudgeService;
+import org.laoli.judge.service.submission.Submission;
+import org.laoli.judge.service.submission.SubmissionService;
+import org.laoli.judge.service.testdata.TestCaseSource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description 异步判题提交接口
+ * 提交后立即返回提交标识，判题在流水线上进行；通过查询接口轮询结果，或通过SSE订阅每个用例的进度
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@RestController
+@RequestMapping("/api/judge/submissions")
+@Slf4j
+public class SubmissionController {
+
+    private final IJudgeService judgeService;
+    private final SubmissionService submissionService;
+    private final SubmissionConfig submissionConfig;
+
+    public SubmissionController(IJudgeService judgeService, SubmissionService submissionService,
+                                SubmissionConfig submissionConfig) {
+        this.judgeService = judgeService;
+        this.submissionService = submissionService;
+        this.submissionConfig = submissionConfig;
+    }
+
+    @PostMapping
+    public ResponseEntity<SubmissionResponse> submit(@RequestBody JudgeRequest request) {
+        Language language;
+        CompileProfile profile;
+        try {
+            language = Language.valueOf(request.getLanguage().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported language: " + request.getLanguage());
+        }
+        try {
+            profile = CompileProfile.of(request.getCompileProfile(), CompileProfile.STANDARD);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unsupported compile profile: " + request.getCompileProfile());
+        }
+        long timeLimit = request.getTimeLimit();
+        long memoryLimit = request.getMemoryLimit();
+
+        Submission submission;
+        if (request.getProblemId() != null && !request.getProblemId().isEmpty()) {
+            submission = submissionService.submit(listener -> judgeService.judgeProblemAsync(
+                    request.getProblemId(), request.getProblemVersion(), request.getCode(), language, timeLimit,
+                    memoryLimit, profile, listener));
+        } else {
+            List<TestCase> testCases = request.getCases() == null ? List.of() : request.getCases().stream()
+                    .map(tc -> TestCase.builder()
+                            .input(tc.getInput())
+                            .expectedOutput(tc.getExpectedOutput())
+                            .build())
+                    .toList();
+            submission = submissionService.submit(listener -> judgeService.judgeStreamAsync(
+                    TestCaseSource.of(testCases), request.getCode(), language, timeLimit, memoryLimit, profile,
+                    listener));
+        }
+        log.info("Accepted submission {} - Language: {}, TimeLimit: {}ms, MemoryLimit: {}KB",
+                submission.id(), language, timeLimit, memoryLimit);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/judge/submissions/" + submission.id()))
+                .body(toResponse(submission));
+    }
+
+    @GetMapping("/{submissionId}")
+    public ResponseEntity<SubmissionResponse> get(@PathVariable String submissionId) {
+        Submission submission = submissionService.get(submissionId);
+        return submission == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(toResponse(submission));
+    }
+
+    /**
+     * 以SSE推送进度：先推送已完成用例的case事件，之后每个用例完成时推送一条，最后推送result事件并结束
+     */
+    @GetMapping(path = "/{submissionId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String submissionId) {
+        Submission submission = submissionService.get(submissionId);
+        if (submission == null) {
+            return ResponseEntity.notFound().build();
+        }
+        SseEmitter emitter = new SseEmitter(TimeUnit.SECONDS.toMillis(submissionConfig.getEventTimeoutSeconds()));
+        Submission.Subscriber subscriber = submissionService.subscribe(submission, new Submission.Subscriber() {
+            @Override
+            public void onCase(int index, CaseResult result) {
+                send(emitter, SseEmitter.event().name("case").data(toProgress(index, result)));
+            }
+
+            @Override
+            public void onFinish(JudgeResult result) {
+                if (send(emitter, SseEmitter.event().name("result").data(JudgeResponse.from(result)))) {
+                    emitter.complete();
+                }
+            }
+        });
+        // 客户端断开或超时后不再推送，判题不受影响
+        emitter.onCompletion(() -> submission.unsubscribe(subscriber));
+        emitter.onTimeout(() -> submission.unsubscribe(subscriber));
+        emitter.onError(e -> submission.unsubscribe(subscriber));
+        return ResponseEntity.ok(emitter);
+    }
+
+    private static boolean send(SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Submission event not delivered: {}", e.getMessage());
+            emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private static SubmissionResponse toResponse(Submission submission) {
+        // 先读结果再读进度，已结束时进度是完整的
+        JudgeResult result = submission.result();
+        List<SubmissionResponse.CaseProgress> cases = submission.progress().stream()
+                .map(progress -> toProgress(progress.index(), progress.result()))
+                .toList();
+        return SubmissionResponse.builder()
+                .submissionId(submission.id())
+                .state((result == null ? Submission.State.JUDGING : Submission.State.FINISHED).name())
+                .createdAt(submission.createdAt())
+                .cases(cases)
+                .result(result == null ? null : JudgeResponse.from(result))
+                .build();
+    }
+
+    private static SubmissionResponse.CaseProgress toProgress(int index, CaseResult result) {
+        return SubmissionResponse.CaseProgress.builder()
+                .index(index)
+                .status(result.status().name())
+                .message(result.message())
+                .executionTime(result.executionTime())
+                .memoryUsed(result.memoryUsed())
+                .build();
+    }
+}
@@ -72,6 +72,12 @@ public class CodeTestRequest {
     @Builder.Default
     private Boolean showDetail = false;
 
+    /**
+     * 编译档位 (可选，FAST, STANDARD, OPTIMIZED)
+     * 默认为FAST，编译最快，适合快速得到反馈
+     */
+    private String compileProfile;
+
     /**
      * 测试用例定义
      */
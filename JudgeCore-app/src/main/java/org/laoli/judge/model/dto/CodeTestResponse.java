@@ -100,10 +100,15 @@ public class CodeTestResponse {
         private TestStatus status;
 
         /**
-         * 执行时间 (毫秒)
+         * 执行时间，用户代码的CPU时间 (毫秒)
          */
         private Long executionTime;
 
+        /**
+         * 墙钟时间，从用户代码启动时开始计 (毫秒)
+         */
+        private Long wallTime;
+
         /**
          * 内存使用 (KB)
          */
@@ -149,6 +154,11 @@ public class CodeTestResponse {
          */
         MEMORY_LIMIT_EXCEEDED,
 
+        /**
+         * 输出超限
+         */
+        OUTPUT_LIMIT_EXCEEDED,
+
         /**
          * 运行时错误
          */
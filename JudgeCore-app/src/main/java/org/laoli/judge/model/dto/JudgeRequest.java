@@ -1,7 +1,6 @@
 package org.laoli.judge.model.dto;
 
 import jakarta.validation.constraints.NotBlank;
-import jakarta.validation.constraints.NotEmpty;
 import lombok.Data;
 import java.util.List;
 import jakarta.validation.constraints.NotNull;
@@ -28,11 +27,20 @@ public class JudgeRequest {
     private String language;
 
     /**
-     * 测试用例列表
+     * 测试用例列表，与problemId二选一
      */
-    @NotEmpty(message = "测试用例不能为空")
     private List<TestCaseDto> cases;
 
+    /**
+     * 题目标识 (可选)，指定时使用题目数据存储中的测试数据，忽略cases
+     */
+    private String problemId;
+
+    /**
+     * 题目版本 (可选)，默认使用最新版本
+     */
+    private Long problemVersion;
+
     /**
      * 时间限制 (毫秒)
      */
@@ -45,6 +53,11 @@ public class JudgeRequest {
     @NotNull(message = "内存限制不能为空")
     private Long memoryLimit;
 
+    /**
+     * 编译档位 (可选，FAST, STANDARD, OPTIMIZED)，默认STANDARD
+     */
+    private String compileProfile;
+
     @Data
     public static class TestCaseDto {
         private String input;
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.laoli.judge.model.aggregate.JudgeResult;
 
 /**
  * @Description HTTP判题响应DTO
@@ -18,7 +19,8 @@ public class JudgeResponse {
 
     /**
      * 判题状态 (ACCEPTED, WRONG_ANSWER, TIME_LIMIT_EXCEEDED, MEMORY_LIMIT_EXCEEDED,
-     * RUNTIME_ERROR, COMPILATION_ERROR, SYSTEM_ERROR)
+     * RUNTIME_ERROR, COMPILATION_ERROR, COMPILE_TIME_LIMIT_EXCEEDED, COMPILE_MEMORY_LIMIT_EXCEEDED,
+     * COMPILE_OUTPUT_LIMIT_EXCEEDED, SYSTEM_ERROR)
      */
     private String status;
 
@@ -71,6 +73,22 @@ public class JudgeResponse {
                 .build();
     }
 
+    /**
+     * 由判题结果构建，带上首个关键用例的信息
+     */
+    public static JudgeResponse from(JudgeResult judgeResult) {
+        CaseInfo caseInfo = null;
+        if (judgeResult.caseResults() != null) {
+            caseInfo = CaseInfo.builder()
+                    .input(judgeResult.caseResults().input())
+                    .expectedOutput(judgeResult.caseResults().expectedOutput())
+                    .actualOutput(judgeResult.caseResults().actualOutput())
+                    .build();
+        }
+        return success(judgeResult.status().name(), judgeResult.message(), judgeResult.executionTime(),
+                judgeResult.memoryUsed(), caseInfo);
+    }
+
     /**
      * 错误响应构建器
      */
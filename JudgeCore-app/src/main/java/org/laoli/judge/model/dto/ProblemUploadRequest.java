@@ -0,0 +1,19 @@
+package org.laoli.judge.model.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * @Description 题目测试数据上传请求DTO
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+public class ProblemUploadRequest {
+
+    /**
+     * 测试用例列表，期望输出在保存时规范化
+     */
+    private List<JudgeRequest.TestCaseDto> cases;
+}
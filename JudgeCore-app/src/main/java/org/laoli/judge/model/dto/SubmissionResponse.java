@@ -0,0 +1,60 @@
+package org.laoli.judge.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * @Description 异步判题提交的状态响应DTO
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionResponse {
+
+    /**
+     * 提交标识
+     */
+    private String submissionId;
+
+    /**
+     * 提交状态 (JUDGING, FINISHED)
+     */
+    private String state;
+
+    /**
+     * 提交时间 (毫秒时间戳)
+     */
+    private Long createdAt;
+
+    /**
+     * 已完成用例的进度，按完成顺序
+     */
+    private List<CaseProgress> cases;
+
+    /**
+     * 最终结果，判题中为null
+     */
+    private JudgeResponse result;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CaseProgress {
+        /**
+         * 用例下标，从0开始
+         */
+        private Integer index;
+        private String status;
+        private String message;
+        private Long executionTime;
+        private Long memoryUsed;
+    }
+}
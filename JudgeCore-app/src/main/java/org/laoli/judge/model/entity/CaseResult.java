@@ -5,10 +5,10 @@ import org.laoli.judge.model.enums.SimpleResult;
 
 /**
  * @author laoli
- * @description 单个测试用例的执行结果
+ * @description 单个测试用例的执行结果，executionTime为用户代码的CPU时间，wallTime为其墙钟时间 (毫秒)
  * @create 2025/4/19 13:37
  */
 @Builder
 public record CaseResult(SimpleResult status, String message, long executionTime, Long memoryUsed, String actualOutput,
-        String expectedOutput, String input) {
+        String expectedOutput, String input, long wallTime) {
 }
\ No newline at end of file
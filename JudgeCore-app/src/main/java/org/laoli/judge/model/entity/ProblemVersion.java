@@ -0,0 +1,13 @@
+package org.laoli.judge.model.entity;
+
+import lombok.Builder;
+
+/**
+ * @author laoli
+ * @description 题目测试数据的一个版本，checksum为各用例输入与规范化期望输出校验和的汇总 (SHA-256)
+ * @create 2026/10/16
+ */
+@Builder
+public record ProblemVersion(String problemId, long version, int caseCount, long totalBytes, long createdAt,
+        String checksum) {
+}
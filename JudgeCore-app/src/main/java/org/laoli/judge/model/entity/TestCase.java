@@ -1,11 +1,72 @@
 package org.laoli.judge.model.entity;
 
 import lombok.Builder;
+import org.laoli.judge.util.ProcessUtils;
+
+import java.nio.ByteBuffer;
 
 /**
  * @author laoli
  * @description 测试用例数据类
+ * 来自题目数据存储或以字节上传的用例只持有inputData与expectedData (期望输出已规范化)，
+ * input()与expectedOutput()在需要时才解码，执行器与比对优先直接读取原始字节
  * @create 2025/4/20 11:57
  */
 @Builder
-public record TestCase(String input, String expectedOutput) {}
\ No newline at end of file
+public record TestCase(String input, String expectedOutput, TestData inputData, TestData expectedData) {
+
+    public TestCase(String input, String expectedOutput) {
+        this(input, expectedOutput, null, null);
+    }
+
+    /**
+     * 由堆外数据构造用例
+     *
+     * @param inputData    输入
+     * @param expectedData 规范化后的期望输出
+     */
+    public static TestCase of(TestData inputData, TestData expectedData) {
+        return new TestCase(null, null, inputData, expectedData);
+    }
+
+    /**
+     * 由原始字节构造用例，不做UTF-8校验与解码，可以是任意二进制数据
+     *
+     * @param input          输入，调用方不再修改
+     * @param expectedOutput 期望输出，按字节规范化后保存
+     */
+    public static TestCase ofBytes(ByteBuffer input, ByteBuffer expectedOutput) {
+        return of(TestData.of(input), TestData.of(ProcessUtils.normalizeOutput(expectedOutput)));
+    }
+
+    @Override
+    public String input() {
+        return input == null && inputData != null ? inputData.text() : input;
+    }
+
+    @Override
+    public String expectedOutput() {
+        return expectedOutput == null && expectedData != null ? expectedData.text() : expectedOutput;
+    }
+
+    /**
+     * @return 输入的长度，字节数据为字节数，否则为字符数；不解码
+     */
+    public long inputLength() {
+        return inputData != null ? inputData.length() : input != null ? input.length() : 0;
+    }
+
+    /**
+     * @return 期望输出的长度，字节数据为字节数，否则为字符数；不解码
+     */
+    public long expectedLength() {
+        return expectedData != null ? expectedData.length() : expectedOutput != null ? expectedOutput.length() : 0;
+    }
+
+    /**
+     * @return 是否由原始字节数据构造 (题目数据存储或以字节上传)
+     */
+    public boolean offHeap() {
+        return inputData != null && expectedData != null;
+    }
+}
@@ -0,0 +1,172 @@
+package org.laoli.judge.model.entity;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * @author laoli
+ * @description 一段不可变的测试数据 (原始字节，通常为UTF-8)，按内容的SHA-256寻址；
+ * 写入进程标准输入与比对输出时直接读取缓冲区，只有需要在结果中展示时才解码为String。
+ * 题目数据保存在堆外，大文件以只读映射的方式持有，此时source为被映射的文件，可以直接作为进程的标准输入；
+ * 随请求上传的字节数据直接引用消息中的数组，校验和在需要时才计算；
+ * 流式上传的输入只以文件持有 (buffer为null)，作为标准输入时直接重定向，其余用途按需读取文件，不占用映射
+ * @create 2026/10/16
+ */
+public final class TestData {
+
+    private volatile String hash;
+    private final ByteBuffer buffer;
+    private final Path source;
+    private final int length;
+
+    /**
+     * @param hash   内容的SHA-256 (十六进制)
+     * @param buffer 内容，调用方不再修改
+     */
+    public TestData(String hash, ByteBuffer buffer) {
+        this(hash, buffer, null);
+    }
+
+    /**
+     * @param hash   内容的SHA-256 (十六进制)
+     * @param buffer 内容，调用方不再修改
+     * @param source buffer映射自的文件，文件内容不再改变
+     */
+    public TestData(String hash, ByteBuffer buffer, Path source) {
+        this.hash = hash;
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.source = source;
+        this.length = buffer.remaining();
+    }
+
+    private TestData(Path source, int length) {
+        this.buffer = null;
+        this.source = source;
+        this.length = length;
+    }
+
+    /**
+     * 由原始字节构造，不复制也不解码，校验和在第一次需要时计算
+     *
+     * @param buffer 内容，调用方不再修改
+     */
+    public static TestData of(ByteBuffer buffer) {
+        return new TestData(null, buffer, null);
+    }
+
+    /**
+     * 由文件构造，不映射也不读入内存，文件内容不再改变且在数据使用期间保留
+     *
+     * @param file 数据文件，大小不超过Integer.MAX_VALUE
+     */
+    public static TestData ofFile(Path file) throws IOException {
+        return new TestData(file, Math.toIntExact(Files.size(file)));
+    }
+
+    public String hash() {
+        String value = hash;
+        if (value == null) {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                digest.update(buffer());
+                value = HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            hash = value;
+        }
+        return value;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @return 映射的源文件或只以文件持有时的数据文件，数据在堆外内存中时为null
+     */
+    public Path source() {
+        return source;
+    }
+
+    /**
+     * @return 独立读取位置的只读视图，只以文件持有时每次调用都会把文件读入堆内存
+     */
+    public ByteBuffer buffer() {
+        if (buffer != null) {
+            return buffer.duplicate();
+        }
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(source)).asReadOnlyBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return 解码后的内容，每次调用都会在堆上创建新的String
+     */
+    public String text() {
+        return StandardCharsets.UTF_8.decode(buffer()).toString();
+    }
+
+    /**
+     * 写入输出流，用于进程的标准输入管道
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (buffer == null) {
+            Files.copy(source, out);
+            return;
+        }
+        ByteBuffer view = buffer();
+        WritableByteChannel channel = Channels.newChannel(out);
+        while (view.hasRemaining()) {
+            channel.write(view);
+        }
+    }
+
+    /**
+     * 写入文件，已存在时覆盖
+     */
+    public void writeTo(Path file) throws IOException {
+        if (buffer == null) {
+            Files.copy(source, file, StandardCopyOption.REPLACE_EXISTING);
+            return;
+        }
+        ByteBuffer view = buffer();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (view.hasRemaining()) {
+                channel.write(view);
+            }
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof TestData other && hash().equals(other.hash());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "TestData[" + hash() + ", " + length() + " bytes]";
+    }
+}
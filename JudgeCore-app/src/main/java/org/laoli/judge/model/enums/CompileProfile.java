@@ -0,0 +1,36 @@
+package org.laoli.judge.model.enums;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * @Description 编译档位枚举
+ * 在编译耗时与运行速度之间取舍：自测追求尽快得到反馈，正式判题使用常规优化，
+ * 需要榨取运行性能时再用最高优化；各语言编译器按档位选择自己的编译参数
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Getter
+@AllArgsConstructor
+public enum CompileProfile {
+    FAST("Fast"),
+    STANDARD("Standard"),
+    OPTIMIZED("Optimized");
+
+    private final String description;
+
+    /**
+     * 解析请求中的编译档位
+     *
+     * @param name           档位名称，不区分大小写
+     * @param defaultProfile 未指定档位时使用的默认档位
+     * @return 编译档位
+     * @throws IllegalArgumentException 档位名称无效
+     */
+    public static CompileProfile of(String name, CompileProfile defaultProfile) {
+        if (name == null || name.isBlank()) {
+            return defaultProfile;
+        }
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -15,8 +15,12 @@ public enum SimpleResult {
     WRONG_ANSWER("Wrong Answer"),
     TIME_LIMIT_EXCEEDED("Time Limit Exceeded"),
     MEMORY_LIMIT_EXCEEDED("Memory Limit Exceeded"),
+    OUTPUT_LIMIT_EXCEEDED("Output Limit Exceeded"),
     RUNTIME_ERROR("Runtime Error"),
     COMPILATION_ERROR("Compilation Error"),
+    COMPILE_TIME_LIMIT_EXCEEDED("Compile Time Limit Exceeded"),
+    COMPILE_MEMORY_LIMIT_EXCEEDED("Compile Memory Limit Exceeded"),
+    COMPILE_OUTPUT_LIMIT_EXCEEDED("Compile Output Limit Exceeded"),
     SYSTEM_ERROR("System Error");
 
     private final String description;
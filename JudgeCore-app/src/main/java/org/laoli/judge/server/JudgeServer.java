@@ -1,17 +1,38 @@
 package org.laoli.judge.server;
 
+import com.google.protobuf.ByteString;
+import io.grpc.Context;
+import io.grpc.Deadline;
+import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
 import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 import org.laoli.api.JudgeCore;
 import org.laoli.api.JudgeServiceGrpc;
+import org.laoli.judge.config.ExecutionConfig;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.CaseListener;
 import org.laoli.judge.service.IJudgeService;
+import org.laoli.judge.service.JudgeScope;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.service.submission.Submission;
+import org.laoli.judge.service.submission.SubmissionService;
+import org.laoli.judge.service.testdata.StreamingTestCaseSource;
+import org.laoli.judge.service.testdata.TestCaseSource;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @Description rpc判题服务实现
@@ -19,23 +40,249 @@ import java.util.Objects;
  * @Date 2025/4/21 17:47
  */
 
+@Slf4j
 @GrpcService
 public class JudgeServer extends JudgeServiceGrpc.JudgeServiceImplBase {
     @Resource
     private IJudgeService judgeService;
+    @Resource
+    private SubmissionService submissionService;
+    @Resource
+    private ExecutionConfig executionConfig;
+
+    /**
+     * 一元判题。处理线程只做校验并把提交交给判题流水线，结果由流水线线程异步写回；
+     * 客户端的deadline限制每个用例的时间，调用取消或超时后正在运行的用例立即终止
+     */
     @Override
     public void judge(JudgeCore.Request request, StreamObserver<JudgeCore.Response> responseObserver) {
+        ServerCallStreamObserver<JudgeCore.Response> call =
+                (ServerCallStreamObserver<JudgeCore.Response>) responseObserver;
         //判空
-        requsetNotNull(request, responseObserver);
-        //获取测试用例
-        JudgeResult judgeResult = judgeService.judge(request.getCasesList().stream().map(testCase -> TestCase.builder()
-                        .input(testCase.getInput())
-                        .expectedOutput(testCase.getExpectedOutput())
-                        .build()).toList(),
-                request.getCode(),
-                Language.valueOf(request.getLanguage().toUpperCase()),
-                request.getTimeLimit(), request.getMemoryLimit());
+        if (!requsetNotNull(request, responseObserver)) {
+            return;
+        }
+        Language language;
+        try {
+            language = Language.valueOf(request.getLanguage().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            respond(call, errorResponse("Language not supported"));
+            return;
+        }
+        //编译档位，未指定时按正式判题使用STANDARD
+        CompileProfile profile;
+        try {
+            profile = CompileProfile.of(request.getCompileProfile(), CompileProfile.STANDARD);
+        } catch (IllegalArgumentException e) {
+            respond(call, errorResponse("Compile profile not supported"));
+            return;
+        }
+        JudgeScope scope = bindScope();
+        CompletableFuture<JudgeResult> judgeResult;
+        try {
+            if (!request.getProblemId().isEmpty()) {
+                //使用判题机存储的题目测试数据，版本为0时取最新版本
+                judgeResult = judgeService.judgeProblemAsync(request.getProblemId(),
+                        request.getProblemVersion() == 0 ? null : request.getProblemVersion(),
+                        request.getCode(), language,
+                        request.getTimeLimit(), request.getMemoryLimit(), profile, CaseListener.NONE, scope);
+            } else {
+                //获取测试用例
+                judgeResult = judgeService.judgeAsync(toTestCases(request), request.getCode(), language,
+                        request.getTimeLimit(), request.getMemoryLimit(), profile, scope);
+            }
+        } catch (IllegalArgumentException e) {
+            respond(call, errorResponse(e.getMessage()));
+            return;
+        }
+
+        // 判题失败时同样要结束调用，否则客户端一直等到deadline
+        judgeResult.whenComplete((result, e) -> respond(call, e == null ? toResponse(result) : failureResponse(e)));
+    }
+
+    /**
+     * 客户端流式上传用例。首条消息携带代码、语言与限制 (可以同时携带第一批用例)，后续消息只携带cases；
+     * 关闭自动请求，只在缓冲的用例运行完时才读取下一条消息，未运行的用例不会在内存中堆积
+     */
+    @Override
+    public StreamObserver<JudgeCore.Request> judgeUpload(StreamObserver<JudgeCore.Response> responseObserver) {
+        ServerCallStreamObserver<JudgeCore.Response> call =
+                (ServerCallStreamObserver<JudgeCore.Response>) responseObserver;
+        call.disableAutoRequest();
+        call.request(1);
+        JudgeScope scope = bindScope();
+        return new StreamObserver<>() {
+            private StreamingTestCaseSource source;
+            private boolean finished;
+
+            @Override
+            public void onNext(JudgeCore.Request request) {
+                if (finished) {
+                    return;
+                }
+                if (source != null) {
+                    source.offer(toTestCases(request));
+                    return;
+                }
+                String error = checkStreamRequest(request);
+                if (error == null && !request.getProblemId().isEmpty()) {
+                    error = "Problem test data cannot be combined with uploaded test cases";
+                }
+                if (error != null) {
+                    finished = true;
+                    respond(call, errorResponse(error));
+                    return;
+                }
+                source = new StreamingTestCaseSource(() -> call.request(1),
+                        executionConfig.getUpload().getIdleTimeoutMs());
+                source.offer(toTestCases(request));
+                judgeService.judgeStreamAsync(source, request.getCode(),
+                                Language.valueOf(request.getLanguage().toUpperCase()),
+                                request.getTimeLimit(), request.getMemoryLimit(),
+                                CompileProfile.of(request.getCompileProfile(), CompileProfile.STANDARD),
+                                CaseListener.NONE, scope)
+                        .whenComplete((result, e) -> respond(call,
+                                e == null ? toResponse(result) : failureResponse(e)));
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // 客户端取消或连接中断，正在读取用例的判题以SYSTEM_ERROR结束
+                finished = true;
+                if (source != null) {
+                    source.fail(t);
+                }
+            }
+
+            @Override
+            public void onCompleted() {
+                if (source != null) {
+                    source.complete();
+                } else if (!finished) {
+                    finished = true;
+                    respond(call, errorResponse("Submission header is missing"));
+                }
+            }
+        };
+    }
+
+    /**
+     * 服务端流式返回判题进度，每个用例得到结果时发送一条只含状态与耗时的消息，最后一条为最终结果。
+     * 只在传输可写 (onReady) 时发送，客户端读取慢时进度消息在服务端排队，不阻塞判题线程
+     */
+    @Override
+    public void judgeProgress(JudgeCore.Request request, StreamObserver<JudgeCore.Response> responseObserver) {
+        ServerCallStreamObserver<JudgeCore.Response> call =
+                (ServerCallStreamObserver<JudgeCore.Response>) responseObserver;
+        String error = checkStreamRequest(request);
+        if (error == null && request.getProblemId().isEmpty() && request.getCasesCount() == 0) {
+            error = "Test cases is empty";
+        }
+        if (error != null) {
+            call.onNext(errorResponse(error).setFinalVerdict(true).build());
+            call.onCompleted();
+            return;
+        }
+        ProgressSender sender = new ProgressSender(call);
+        call.setOnReadyHandler(sender::drain);
+        call.setOnCancelHandler(sender::cancel);
+
+        JudgeScope scope = bindScope();
+        Language language = Language.valueOf(request.getLanguage().toUpperCase());
+        CompileProfile profile = CompileProfile.of(request.getCompileProfile(), CompileProfile.STANDARD);
+        // 与REST异步提交使用同一提交模型，进度由提交转发给发送队列
+        Submission submission = submissionService.start(listener -> request.getProblemId().isEmpty()
+                ? judgeService.judgeStreamAsync(TestCaseSource.of(toTestCases(request)), request.getCode(),
+                        language, request.getTimeLimit(), request.getMemoryLimit(), profile, listener, scope)
+                : judgeService.judgeProblemAsync(request.getProblemId(),
+                        request.getProblemVersion() == 0 ? null : request.getProblemVersion(), request.getCode(),
+                        language, request.getTimeLimit(), request.getMemoryLimit(), profile, listener, scope));
+        submission.subscribe(sender);
+    }
+
+    /**
+     * 由当前调用的Context创建判题作用域：截止时间取客户端设置的deadline，
+     * 客户端取消、连接断开或到达deadline时Context被取消，作用域随之取消并终止正在运行的用例
+     */
+    private static JudgeScope bindScope() {
+        Context context = Context.current();
+        Deadline deadline = context.getDeadline();
+        JudgeScope scope = deadline == null
+                ? JudgeScope.unbounded()
+                : JudgeScope.withTimeout(deadline.timeRemaining(TimeUnit.MILLISECONDS));
+        // 调用正常结束时Context同样被取消，此时判题已经完成，取消不产生影响
+        context.addListener(cancelled -> scope.cancel(), Runnable::run);
+        return scope;
+    }
+
+    /**
+     * 校验流式请求的首条消息，返回错误信息，通过时为null
+     */
+    private static String checkStreamRequest(JudgeCore.Request request) {
+        try {
+            Language.valueOf(request.getLanguage().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "Language not supported";
+        }
+        if (request.getCode().isBlank()) {
+            return "Code is empty";
+        }
+        try {
+            CompileProfile.of(request.getCompileProfile(), CompileProfile.STANDARD);
+        } catch (IllegalArgumentException e) {
+            return "Compile profile not supported";
+        }
+        return null;
+    }
+
+    private static List<TestCase> toTestCases(JudgeCore.Request request) {
+        return request.getCasesList().stream().map(JudgeServer::toTestCase).toList();
+    }
 
+    /**
+     * 携带字节字段的用例直接引用消息中的字节，不解码为String，执行与比对都按字节进行
+     */
+    private static TestCase toTestCase(JudgeCore.Case testCase) {
+        if (testCase.getInputData().isEmpty() && testCase.getExpectedOutputData().isEmpty()) {
+            return TestCase.builder()
+                    .input(testCase.getInput())
+                    .expectedOutput(testCase.getExpectedOutput())
+                    .build();
+        }
+        return TestCase.ofBytes(bytesOf(testCase.getInputData(), testCase.getInput()),
+                bytesOf(testCase.getExpectedOutputData(), testCase.getExpectedOutput()));
+    }
+
+    private static ByteBuffer bytesOf(ByteString data, String text) {
+        return data.isEmpty() ? ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)) : data.asReadOnlyByteBuffer();
+    }
+
+    private static void respond(ServerCallStreamObserver<JudgeCore.Response> call,
+            JudgeCore.Response.Builder response) {
+        synchronized (call) {
+            if (!call.isCancelled()) {
+                call.onNext(response.build());
+                call.onCompleted();
+            }
+        }
+    }
+
+    private static JudgeCore.Response.Builder errorResponse(String message) {
+        return JudgeCore.Response.newBuilder()
+                .setMessage(message)
+                .setStatus(SimpleResult.SYSTEM_ERROR.toString());
+    }
+
+    /**
+     * 判题future异常完成时的响应
+     */
+    private static JudgeCore.Response.Builder failureResponse(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        log.error("Judge failed: {}", cause.getMessage());
+        return errorResponse(cause.getMessage() == null ? "Judge failed" : cause.getMessage());
+    }
+
+    private static JudgeCore.Response.Builder toResponse(JudgeResult judgeResult) {
         String actualOutput = "";
         String expectedOutput = "";
         String input = "";
@@ -46,7 +293,7 @@ public class JudgeServer extends JudgeServiceGrpc.JudgeServiceImplBase {
             expectedOutput = judgeResult.caseResults().expectedOutput()==null?"":judgeResult.caseResults().expectedOutput();
         }
 
-        responseObserver.onNext(JudgeCore.Response.newBuilder()
+        return JudgeCore.Response.newBuilder()
                 .setCaseInfo(JudgeCore.ReturnCaseInfo.newBuilder()
                         .setActualOutput(actualOutput)
                         .setInput(input)
@@ -55,35 +302,83 @@ public class JudgeServer extends JudgeServiceGrpc.JudgeServiceImplBase {
                 .setExecutionTime(judgeResult.executionTime())
                 .setMessage(judgeResult.message()==null?"":judgeResult.message())
                 .setStatus(judgeResult.status().toString())
-                .setMemoryUsed(judgeResult.memoryUsed())
-                .build());
-
-        responseObserver.onCompleted();
+                .setMemoryUsed(judgeResult.memoryUsed());
     }
 
-    private static void requsetNotNull(JudgeCore.Request request, StreamObserver<JudgeCore.Response> responseObserver) {
-        //判断参数是否合法
-        try{
-            Language.valueOf(request.getLanguage().toUpperCase());
-        }catch (Exception e){
-            responseObserver.onNext(JudgeCore.Response.newBuilder()
-                    .setMessage("Language not supported")
-                    .setStatus(SimpleResult.SYSTEM_ERROR.toString())
-                    .build());
+    /**
+     * 按gRPC流控发送进度消息，判题线程只入队，可写时由onReady回调或入队线程发出
+     */
+    private static final class ProgressSender implements Submission.Subscriber {
+        private final ServerCallStreamObserver<JudgeCore.Response> call;
+        private final ArrayDeque<JudgeCore.Response> queue = new ArrayDeque<>();
+        private boolean finished;
+        private boolean closed;
+
+        private ProgressSender(ServerCallStreamObserver<JudgeCore.Response> call) {
+            this.call = call;
         }
+
+        @Override
+        public void onCase(int index, CaseResult result) {
+            enqueue(JudgeCore.Response.newBuilder()
+                    .setCaseIndex(index)
+                    .setStatus(result.status().toString())
+                    .setMessage(result.message() == null ? "" : result.message())
+                    .setExecutionTime(result.executionTime())
+                    .setMemoryUsed(result.memoryUsed() == null ? 0 : result.memoryUsed())
+                    .build(), false);
+        }
+
+        @Override
+        public void onFinish(JudgeResult result) {
+            enqueue(toResponse(result).setFinalVerdict(true).build(), true);
+        }
+
+        private synchronized void enqueue(JudgeCore.Response response, boolean last) {
+            if (closed) {
+                return;
+            }
+            queue.add(response);
+            finished |= last;
+            drain();
+        }
+
+        private synchronized void drain() {
+            while (!closed && !queue.isEmpty() && call.isReady()) {
+                call.onNext(queue.poll());
+            }
+            if (!closed && finished && queue.isEmpty()) {
+                closed = true;
+                call.onCompleted();
+            }
+        }
+
+        private synchronized void cancel() {
+            closed = true;
+            queue.clear();
+        }
+    }
+
+    /**
+     * 校验必填参数，不通过时返回错误并结束调用
+     *
+     * @return 是否通过校验
+     */
+    private static boolean requsetNotNull(JudgeCore.Request request, StreamObserver<JudgeCore.Response> responseObserver) {
+        String error = null;
         //判断代码是否为空
         if(Objects.isNull(request.getCode())|| request.getCode().isEmpty()|| request.getCode().isBlank()){
-            responseObserver.onNext(JudgeCore.Response.newBuilder()
-                   .setMessage("Code is empty")
-                   .setStatus(SimpleResult.SYSTEM_ERROR.toString())
-                   .build());
-        }
-        //判断测试用例是否为空
-        if(Objects.isNull(request.getCasesList())|| request.getCasesList().isEmpty()){
-            responseObserver.onNext(JudgeCore.Response.newBuilder()
-                  .setMessage("Test cases is empty")
-                  .setStatus(SimpleResult.SYSTEM_ERROR.toString())
-                  .build());
+            error = "Code is empty";
         }
+        //判断测试用例是否为空，引用题目测试数据时不需要测试用例
+        else if(request.getProblemId().isEmpty() && (Objects.isNull(request.getCasesList())|| request.getCasesList().isEmpty())){
+            error = "Test cases is empty";
+        }
+        if (error == null) {
+            return true;
+        }
+        responseObserver.onNext(errorResponse(error).build());
+        responseObserver.onCompleted();
+        return false;
     }
 }
\ No newline at end of file
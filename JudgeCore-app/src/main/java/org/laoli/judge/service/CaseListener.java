@@ -0,0 +1,22 @@
+package org.laoli.judge.service;
+
+import org.laoli.judge.model.entity.CaseResult;
+
+/**
+ * @Description 单个测试用例得到结果时的回调，用于向客户端推送判题进度
+ * 并行执行时在不同线程上按完成顺序调用；因前面的用例失败而取消的用例不回调
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@FunctionalInterface
+public interface CaseListener {
+
+    CaseListener NONE = (index, result) -> {
+    };
+
+    /**
+     * @param index  用例下标，从0开始
+     * @param result 用例结果
+     */
+    void onCase(int index, CaseResult result);
+}
@@ -2,9 +2,12 @@ package org.laoli.judge.service;
 
 import org.laoli.judge.model.aggregate.JudgeResult;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.testdata.TestCaseSource;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @Description 判题服务接口
@@ -13,5 +16,91 @@ import java.util.List;
  */
 
 public interface IJudgeService {
-    JudgeResult judge(List<TestCase> testCases, String sourceCode, Language language, long timeLimit, long memoryLimit);
+    JudgeResult judge(List<TestCase> testCases, String sourceCode, Language language, long timeLimit, long memoryLimit,
+                      CompileProfile profile);
+
+    /**
+     * 异步判题，提交依次经过流水线的编译与运行阶段，运行阶段完成时给出结果
+     *
+     * @return 判题结果，不会异常完成，错误以SYSTEM_ERROR等状态给出
+     */
+    default CompletableFuture<JudgeResult> judgeAsync(List<TestCase> testCases, String sourceCode, Language language,
+                                                      long timeLimit, long memoryLimit, CompileProfile profile) {
+        return judgeAsync(testCases, sourceCode, language, timeLimit, memoryLimit, profile, JudgeScope.unbounded());
+    }
+
+    /**
+     * 在给定的作用域内异步判题，作用域取消或到达截止时间时终止正在运行的用例
+     *
+     * @param scope 截止时间与取消状态，取消返回的future同样会取消作用域
+     * @return 判题结果，被取消时为SYSTEM_ERROR
+     */
+    CompletableFuture<JudgeResult> judgeAsync(List<TestCase> testCases, String sourceCode, Language language,
+                                              long timeLimit, long memoryLimit, CompileProfile profile,
+                                              JudgeScope scope);
+
+    /**
+     * 使用题目数据存储中的测试数据异步判题，测试数据在运行阶段读取
+     *
+     * @param problemId 题目标识
+     * @param version   题目版本，为null时使用最新版本
+     * @return 判题结果，题目或版本不存在时为SYSTEM_ERROR
+     */
+    default CompletableFuture<JudgeResult> judgeProblemAsync(String problemId, Long version, String sourceCode,
+                                                             Language language, long timeLimit, long memoryLimit,
+                                                             CompileProfile profile) {
+        return judgeProblemAsync(problemId, version, sourceCode, language, timeLimit, memoryLimit, profile,
+                CaseListener.NONE);
+    }
+
+    /**
+     * 使用题目数据存储中的测试数据异步判题，每个用例得到结果时回调listener
+     */
+    default CompletableFuture<JudgeResult> judgeProblemAsync(String problemId, Long version, String sourceCode,
+                                                             Language language, long timeLimit, long memoryLimit,
+                                                             CompileProfile profile, CaseListener listener) {
+        return judgeProblemAsync(problemId, version, sourceCode, language, timeLimit, memoryLimit, profile, listener,
+                JudgeScope.unbounded());
+    }
+
+    /**
+     * 在给定的作用域内使用题目数据存储中的测试数据异步判题
+     */
+    CompletableFuture<JudgeResult> judgeProblemAsync(String problemId, Long version, String sourceCode,
+                                                     Language language, long timeLimit, long memoryLimit,
+                                                     CompileProfile profile, CaseListener listener, JudgeScope scope);
+
+    /**
+     * 流式判题，用例在运行阶段逐个读取并校验，第一个用例到达即开始运行
+     *
+     * @param testCases 用例来源，判题结束时关闭
+     * @param listener  每个用例得到结果时的回调
+     * @return 判题结果，不会异常完成，用例校验失败或上传中断时为SYSTEM_ERROR
+     */
+    default CompletableFuture<JudgeResult> judgeStreamAsync(TestCaseSource testCases, String sourceCode,
+                                                            Language language, long timeLimit, long memoryLimit,
+                                                            CompileProfile profile, CaseListener listener) {
+        return judgeStreamAsync(testCases, sourceCode, language, timeLimit, memoryLimit, profile, listener,
+                JudgeScope.unbounded());
+    }
+
+    /**
+     * 在给定的作用域内流式判题
+     */
+    CompletableFuture<JudgeResult> judgeStreamAsync(TestCaseSource testCases, String sourceCode, Language language,
+                                                    long timeLimit, long memoryLimit, CompileProfile profile,
+                                                    CaseListener listener, JudgeScope scope);
+
+    default JudgeResult judgeProblem(String problemId, Long version, String sourceCode, Language language,
+                                     long timeLimit, long memoryLimit, CompileProfile profile) {
+        return judgeProblemAsync(problemId, version, sourceCode, language, timeLimit, memoryLimit, profile).join();
+    }
+
+    /**
+     * 按正式判题的默认档位STANDARD编译并判题
+     */
+    default JudgeResult judge(List<TestCase> testCases, String sourceCode, Language language, long timeLimit,
+                              long memoryLimit) {
+        return judge(testCases, sourceCode, language, timeLimit, memoryLimit, CompileProfile.STANDARD);
+    }
 }
@@ -0,0 +1,134 @@
+package org.laoli.judge.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description 一次判题的截止时间与取消状态
+ * 调用方 (如gRPC调用的Context) 给出截止时间，每个用例的时间限制不超过剩余时间；
+ * 取消后排队中的阶段不再执行，运行中的用例连同进程一起取消
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public final class JudgeScope {
+
+    private static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /** 截止时间 (System.nanoTime)，没有截止时间时为NO_DEADLINE */
+    private final long deadlineNanos;
+
+    /** 正在运行的用例，取消时一并取消 */
+    private final Set<CompletableFuture<?>> running = ConcurrentHashMap.newKeySet();
+
+    /** 同步等待用例的线程，取消时中断 */
+    private final Set<Thread> waiting = new HashSet<>();
+
+    private volatile boolean cancelled;
+
+    private JudgeScope(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * @return 没有截止时间的作用域，只能被显式取消
+     */
+    public static JudgeScope unbounded() {
+        return new JudgeScope(NO_DEADLINE);
+    }
+
+    /**
+     * @param timeoutMs 距离截止时间的毫秒数
+     */
+    public static JudgeScope withTimeout(long timeoutMs) {
+        return new JudgeScope(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(Math.max(0, timeoutMs)));
+    }
+
+    /**
+     * 取消判题，可以在任意线程上重复调用
+     */
+    public void cancel() {
+        cancelled = true;
+        running.forEach(future -> future.cancel(true));
+        synchronized (waiting) {
+            waiting.forEach(Thread::interrupt);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return deadlineNanos != NO_DEADLINE && System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    /**
+     * @return 距离截止时间的毫秒数，没有截止时间时为Long.MAX_VALUE
+     */
+    public long remainingMs() {
+        return deadlineNanos == NO_DEADLINE
+                ? Long.MAX_VALUE
+                : Math.max(0, TimeUnit.NANOSECONDS.toMillis(deadlineNanos - System.nanoTime()));
+    }
+
+    /**
+     * @param timeLimit 题目的时间限制 (毫秒)
+     * @return 本次用例可用的时间限制，不超过剩余时间
+     */
+    public long timeBudget(long timeLimit) {
+        return Math.min(timeLimit, remainingMs());
+    }
+
+    /**
+     * 已取消或已过截止时间时结束判题
+     *
+     * @throws CancellationException 已取消或已过截止时间
+     */
+    public void check() {
+        if (cancelled) {
+            throw new CancellationException("Judge cancelled");
+        }
+        if (isExpired()) {
+            throw new CancellationException("Deadline exceeded");
+        }
+    }
+
+    /**
+     * 登记运行中的用例，已取消时立即取消；用例完成后自动移除
+     */
+    public <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+        running.add(future);
+        future.whenComplete((ignored, e) -> running.remove(future));
+        if (cancelled) {
+            future.cancel(true);
+        }
+        return future;
+    }
+
+    /**
+     * 在当前线程上同步执行用例，期间取消判题会中断当前线程，由执行器终止进程
+     */
+    public <T> T interruptibly(Callable<T> task) throws Exception {
+        Thread thread = Thread.currentThread();
+        synchronized (waiting) {
+            waiting.add(thread);
+        }
+        try {
+            check();
+            return task.call();
+        } finally {
+            synchronized (waiting) {
+                waiting.remove(thread);
+            }
+            // 用例结束与取消交错时清除遗留的中断标记，判题随后由check()结束
+            if (cancelled) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
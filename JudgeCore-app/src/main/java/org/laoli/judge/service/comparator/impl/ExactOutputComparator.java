@@ -16,6 +16,7 @@ public class ExactOutputComparator implements OutputComparator {
             return CaseResult.builder()
                     .status(SimpleResult.ACCEPTED)
                     .executionTime(result.executionTime())
+                    .wallTime(result.wallTime())
                     .memoryUsed(result.memoryUsed())
                     .actualOutput(actual)
                     .expectedOutput(expected)
@@ -26,6 +27,7 @@ public class ExactOutputComparator implements OutputComparator {
         return CaseResult.builder()
                 .status(SimpleResult.WRONG_ANSWER)
                 .executionTime(result.executionTime())
+                .wallTime(result.wallTime())
                 .memoryUsed(result.memoryUsed())
                 .actualOutput(actual)
                 .expectedOutput(expected)
@@ -1,12 +1,10 @@
 package org.laoli.judge.service.compile;
 
-import org.laoli.judge.model.aggregate.JudgeResult;
-import org.laoli.judge.model.enums.SimpleResult;
-
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @Description 创建编译文件
@@ -14,29 +12,47 @@ import java.nio.file.Path;
  * @Date 2025/4/20 12:19
  */
 public class BuildFile {
-    public static JudgeResult preCompile(Path workDir, ProcessBuilder pb) throws IOException, InterruptedException {
-        pb.directory(workDir.toFile());
-        pb.redirectErrorStream(true);
-        Process process = pb.start();
 
-        // 获取编译输出
-        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()));
-        StringBuilder output = new StringBuilder();
-        String line;
+    /** 查询工具链版本的超时时间 (秒) */
+    private static final long VERSION_TIMEOUT_SECONDS = 30;
+
+    /** 工具链版本输出，每个版本命令只执行一次 */
+    private static final Map<String, String> VERSIONS = new ConcurrentHashMap<>();
 
-        while ((line = reader.readLine()) != null) {
-            output.append(line).append("\n");
+    /**
+     * 组合编译命令与工具链版本作为编译产物的标识
+     *
+     * @param command        编译命令与参数，不含随工作目录变化的部分
+     * @param versionCommand 输出工具链版本的命令
+     * @return 工具链标识，无法获取版本时为null
+     */
+    public static String toolchain(String[] command, String... versionCommand) {
+        String key = String.join(" ", versionCommand);
+        String version = VERSIONS.get(key);
+        if (version == null) {
+            version = queryVersion(versionCommand);
+            if (version == null) {
+                return null;
+            }
+            VERSIONS.putIfAbsent(key, version);
         }
+        return String.join(" ", command) + "\n" + version;
+    }
 
-        int exitCode = process.waitFor();
-        if (exitCode != 0) {
-            return JudgeResult.builder()
-                    .status(SimpleResult.COMPILATION_ERROR)
-                    .message(output.toString())
-                    .build();
+    private static String queryVersion(String... versionCommand) {
+        try {
+            Process process = new ProcessBuilder(versionCommand).redirectErrorStream(true).start();
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            if (!process.waitFor(VERSION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                return null;
+            }
+            return process.exitValue() == 0 ? output.trim() : null;
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
         }
-        return JudgeResult.builder()
-                    .status(SimpleResult.ACCEPTED)
-                    .build();
     }
 }
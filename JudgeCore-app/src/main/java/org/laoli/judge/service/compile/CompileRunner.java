@@ -0,0 +1,228 @@
+package org.laoli.judge.service.compile;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.cgroup.CgroupManager;
+import org.laoli.judge.service.execute.cgroup.RunCgroup;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.laoli.judge.service.monitor.ProcessTreeSampler;
+import org.laoli.judge.service.monitor.SampledRun;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description 受限的编译进程运行器
+ * 编译命令在墙钟时间、内存与输出量的上限内运行：墙钟由共享时间轮看门狗负责，内存优先由独立cgroup限制，
+ * 子树不可用时由进程树采样器统计并在超限时终止，编译器输出超过上限时立即终止；
+ * 三种超限分别给出独立的判题结果，并按语言记录编译的资源占用
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class CompileRunner implements MetricsSource {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final CompileConfig compileConfig;
+    private final CgroupManager cgroupManager;
+    private final ProcessTreeSampler processTreeSampler;
+    private final TimeoutWheel timeoutWheel;
+    private final LanguageCommandFactory languageCommandFactory;
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public CompileRunner(CompileConfig compileConfig, CgroupManager cgroupManager,
+            ProcessTreeSampler processTreeSampler, TimeoutWheel timeoutWheel,
+            LanguageCommandFactory languageCommandFactory) {
+        this.compileConfig = compileConfig;
+        this.cgroupManager = cgroupManager;
+        this.processTreeSampler = processTreeSampler;
+        this.timeoutWheel = timeoutWheel;
+        this.languageCommandFactory = languageCommandFactory;
+    }
+
+    /**
+     * 在资源限制内运行编译命令
+     *
+     * @param language 语言，用于按语言统计资源占用
+     * @param workDir  工作目录
+     * @param pb       编译命令，可预先设置环境变量
+     * @return 编译结果
+     */
+    public JudgeResult run(String language, Path workDir, ProcessBuilder pb) throws IOException, InterruptedException {
+        CompileConfig.Limits limits = compileConfig.getLimits();
+        long memoryLimitKb = limits.getMemoryMb() * 1024;
+        List<String> command = new ArrayList<>();
+        if (limits.isSandboxed() && languageCommandFactory.isSandboxEnabled()) {
+            command.addAll(languageCommandFactory.getSandboxPrefix(workDir));
+        }
+        command.addAll(pb.command());
+
+        RunCgroup cgroup = cgroupManager.create(memoryLimitKb, limits.getPidsMax());
+        pb.command(cgroup != null ? List.of(cgroup.wrap(command.toArray(new String[0]))) : command);
+        pb.directory(workDir.toFile());
+        pb.redirectErrorStream(true);
+
+        long start = System.nanoTime();
+        Process process;
+        try {
+            process = pb.start();
+        } catch (IOException e) {
+            if (cgroup != null) {
+                cgroup.close();
+            }
+            throw e;
+        }
+        Runnable kill = () -> {
+            if (cgroup != null) {
+                cgroup.kill();
+            }
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        };
+        SampledRun sampledRun = processTreeSampler.register(process.toHandle(),
+                cgroup == null ? memoryLimitKb : 0, 0, 0, kill);
+        TimeoutWheel.Timeout timeout = timeoutWheel.schedule(limits.getTimeoutMs(), kill);
+
+        Output output;
+        long peakMemoryKb;
+        boolean memoryExceeded;
+        try {
+            output = readOutput(process.getInputStream(), limits.getOutputKb() * 1024, kill);
+            process.waitFor();
+        } finally {
+            timeout.cancel();
+            if (process.isAlive()) {
+                kill.run();
+            }
+            peakMemoryKb = sampledRun.close();
+            memoryExceeded = sampledRun.limitExceeded();
+            if (cgroup != null) {
+                peakMemoryKb = Math.max(peakMemoryKb, cgroup.peakMemoryKb());
+                memoryExceeded |= cgroup.oomKilled();
+                cgroup.close();
+            }
+        }
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        SimpleResult status;
+        String message = output.text();
+        if (memoryExceeded) {
+            status = SimpleResult.COMPILE_MEMORY_LIMIT_EXCEEDED;
+            message = "Compilation exceeded the memory limit of " + limits.getMemoryMb() + "MB";
+        } else if (timeout.isExpired()) {
+            status = SimpleResult.COMPILE_TIME_LIMIT_EXCEEDED;
+            message = "Compilation exceeded the time limit of " + limits.getTimeoutMs() + "ms";
+        } else if (output.limitExceeded()) {
+            status = SimpleResult.COMPILE_OUTPUT_LIMIT_EXCEEDED;
+            message = "Compiler output exceeded the limit of " + limits.getOutputKb() + "KB\n" + message;
+        } else if (process.exitValue() != 0) {
+            status = SimpleResult.COMPILATION_ERROR;
+        } else {
+            status = SimpleResult.ACCEPTED;
+            message = null;
+        }
+        record(language, status, wallMs, peakMemoryKb);
+        if (status != SimpleResult.ACCEPTED && status != SimpleResult.COMPILATION_ERROR) {
+            log.info("{} compile stopped: {} after {}ms, peak {}KB", language, status, wallMs, peakMemoryKb);
+        }
+        return JudgeResult.builder()
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    @Override
+    public String metricsName() {
+        return "compileResources";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        Map<String, ResourceStats> snapshot = new TreeMap<>();
+        counters.forEach((language, counter) -> {
+            long compiles = counter.compiles.get();
+            snapshot.put(language, new ResourceStats(compiles, counter.timeouts.get(), counter.memoryExceeded.get(),
+                    counter.outputExceeded.get(), compiles == 0 ? 0 : (double) counter.wallMs.get() / compiles,
+                    compiles == 0 ? 0 : (double) counter.memoryKb.get() / compiles, counter.maxMemoryKb.get()));
+        });
+        return snapshot;
+    }
+
+    /**
+     * 读取编译器输出，超过上限时终止编译并丢弃多出的部分
+     */
+    private Output readOutput(InputStream stream, long limitBytes, Runnable onLimitExceeded) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (stream) {
+            int read;
+            while ((read = stream.read(buffer)) >= 0) {
+                int accepted = (int) Math.min(read, limitBytes - output.size());
+                output.write(buffer, 0, accepted);
+                if (accepted < read) {
+                    onLimitExceeded.run();
+                    return new Output(output.toString(StandardCharsets.UTF_8), true);
+                }
+            }
+        }
+        return new Output(output.toString(StandardCharsets.UTF_8), false);
+    }
+
+    private void record(String language, SimpleResult status, long wallMs, long peakMemoryKb) {
+        Counters counter = counters.computeIfAbsent(language, key -> new Counters());
+        counter.compiles.incrementAndGet();
+        counter.wallMs.addAndGet(wallMs);
+        counter.memoryKb.addAndGet(peakMemoryKb);
+        counter.maxMemoryKb.accumulateAndGet(peakMemoryKb, Math::max);
+        switch (status) {
+            case COMPILE_TIME_LIMIT_EXCEEDED -> counter.timeouts.incrementAndGet();
+            case COMPILE_MEMORY_LIMIT_EXCEEDED -> counter.memoryExceeded.incrementAndGet();
+            case COMPILE_OUTPUT_LIMIT_EXCEEDED -> counter.outputExceeded.incrementAndGet();
+            default -> {
+            }
+        }
+    }
+
+    private record Output(String text, boolean limitExceeded) {
+    }
+
+    private static final class Counters {
+        private final AtomicLong compiles = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong memoryExceeded = new AtomicLong();
+        private final AtomicLong outputExceeded = new AtomicLong();
+        private final AtomicLong wallMs = new AtomicLong();
+        private final AtomicLong memoryKb = new AtomicLong();
+        private final AtomicLong maxMemoryKb = new AtomicLong();
+    }
+
+    /**
+     * @param compiles       编译进程数
+     * @param timeouts       超过墙钟时间上限被终止的次数
+     * @param memoryExceeded 超过内存上限被终止的次数
+     * @param outputExceeded 输出超过上限被终止的次数
+     * @param avgWallMs      平均墙钟耗时 (毫秒)
+     * @param avgMemoryKb    平均进程树内存峰值 (KB)
+     * @param maxMemoryKb    最大进程树内存峰值 (KB)
+     */
+    public record ResourceStats(long compiles, long timeouts, long memoryExceeded, long outputExceeded,
+            double avgWallMs, double avgMemoryKb, long maxMemoryKb) {
+    }
+}
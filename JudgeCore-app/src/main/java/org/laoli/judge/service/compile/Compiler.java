@@ -1,6 +1,7 @@
 package org.laoli.judge.service.compile;
 
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
 
 import java.io.IOException;
 import java.nio.file.Path;
@@ -12,4 +13,36 @@ import java.nio.file.Path;
  */
 public interface Compiler {
     JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException;
+
+    /**
+     * 按编译档位编译，没有区分档位的语言忽略档位
+     *
+     * @param sourceCode 源代码
+     * @param workDir    工作目录
+     * @param profile    编译档位
+     * @return 编译结果
+     */
+    default JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+            throws IOException, InterruptedException {
+        return compile(sourceCode, workDir);
+    }
+
+    /**
+     * 编译命令与工具链版本的标识，作为编译产物缓存键的一部分，命令参数或工具链升级后旧的产物自然失效
+     *
+     * @return 工具链标识，为null时不缓存该语言的编译产物
+     */
+    default String toolchain() {
+        return null;
+    }
+
+    /**
+     * 指定编译档位下的工具链标识，各档位编译参数不同，产物分开缓存
+     *
+     * @param profile 编译档位
+     * @return 工具链标识，为null时不缓存
+     */
+    default String toolchain(CompileProfile profile) {
+        return toolchain();
+    }
 }
@@ -1,8 +1,13 @@
 package org.laoli.judge.service.compile;
 
 import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.compile.cache.ArtifactCache;
+import org.laoli.judge.service.compile.cache.CachingCompiler;
+import org.laoli.judge.service.compile.profile.CompileProfileMetrics;
+import org.laoli.judge.service.compile.profile.MeteredCompiler;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -14,8 +19,15 @@ import java.util.Map;
 @Service
 public class CompilerFactory {
     Map<String,Compiler> CompilerMap;
-    CompilerFactory(Map<String,Compiler> CompilerMap){
-        this.CompilerMap=CompilerMap;
+    CompilerFactory(Map<String,Compiler> CompilerMap, ArtifactCache artifactCache,
+                    CompileProfileMetrics compileProfileMetrics){
+        this.CompilerMap = new HashMap<>();
+        CompilerMap.forEach((language, compiler) -> {
+            // 启用编译产物缓存时，各语言的编译器都经过缓存；计时在最外层，缓存命中也计入各档位的编译耗时
+            Compiler decorated = artifactCache.isEnabled()
+                    ? new CachingCompiler(language, compiler, artifactCache) : compiler;
+            this.CompilerMap.put(language, new MeteredCompiler(language, decorated, compileProfileMetrics));
+        });
     }
     public Compiler getCompiler(Language language) {
         return CompilerMap.get(language.getLanguage());
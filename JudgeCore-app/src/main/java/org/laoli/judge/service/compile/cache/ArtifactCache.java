@@ -0,0 +1,346 @@
+package org.laoli.judge.service.compile.cache;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.laoli.judge.util.FileUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * @Description 按内容寻址的编译产物缓存
+ * 键为语言、工具链标识与源代码的SHA-256，值为编译后的工作目录与编译结果，编译错误同样缓存；
+ * 缓存位于磁盘，按最近最少使用在字节预算内淘汰，重启后从目录重建索引。
+ * 同一键同时只有一个编译在进行，其余请求等待其完成后直接从缓存恢复
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class ArtifactCache implements MetricsSource {
+
+    /** 缓存条目中保存编译结果的文件 */
+    private static final String RESULT_FILE = "result";
+
+    /** 缓存条目中保存工作目录内容的子目录 */
+    private static final String FILES_DIR = "files";
+
+    /** 写入中的条目目录前缀，重启时清理 */
+    private static final String STAGING_PREFIX = ".staging-";
+
+    /** 编译信息中工作目录路径的占位符，恢复时替换为新的工作目录 */
+    private static final String WORK_DIR_PLACEHOLDER = "${workDir}";
+
+    private final CompileConfig compileConfig;
+
+    /** 按访问顺序排列的条目，值为条目占用的字节数 */
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /** 正在编译的键，同一键的后续请求等待该编译完成 */
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong shared = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private Path root;
+    private long totalBytes;
+
+    public ArtifactCache(CompileConfig compileConfig) {
+        this.compileConfig = compileConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!compileConfig.getCache().isEnabled()) {
+            return;
+        }
+        root = Paths.get(compileConfig.getCache().getDir());
+        try {
+            Files.createDirectories(root);
+            loadEntries();
+        } catch (IOException e) {
+            log.warn("Compile cache disabled, failed to open {}: {}", root, e.getMessage());
+            root = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return root != null;
+    }
+
+    /**
+     * 计算缓存键
+     *
+     * @param language   语言
+     * @param toolchain  工具链标识
+     * @param sourceCode 源代码
+     * @return 十六进制的SHA-256
+     */
+    public String key(String language, String toolchain, String sourceCode) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{language, toolchain, sourceCode}) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 命中时把缓存的产物复制到工作目录，否则执行编译并写入缓存
+     *
+     * @param key     缓存键
+     * @param workDir 空的工作目录
+     * @param build   实际的编译过程，在workDir中产出编译结果
+     * @return 编译结果
+     */
+    public JudgeResult compile(String key, Path workDir, Build build) throws IOException, InterruptedException {
+        JudgeResult cached = restore(key, workDir);
+        if (cached != null) {
+            hits.incrementAndGet();
+            return cached;
+        }
+
+        CompletableFuture<Void> building = new CompletableFuture<>();
+        CompletableFuture<Void> leader = inFlight.putIfAbsent(key, building);
+        if (leader != null) {
+            // 相同的源代码正在编译，等待后从缓存恢复；对方未写入缓存时自行编译
+            leader.join();
+            cached = restore(key, workDir);
+            if (cached != null) {
+                shared.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            return build.compile();
+        }
+
+        try {
+            // 检查与登记之间可能已有编译完成
+            cached = restore(key, workDir);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+            misses.incrementAndGet();
+            JudgeResult result = build.compile();
+            store(key, workDir, result);
+            return result;
+        } finally {
+            inFlight.remove(key, building);
+            building.complete(null);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "compileCache";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        long hitCount = hits.get() + shared.get();
+        long total = hitCount + misses.get();
+        synchronized (entries) {
+            return new CacheStats(hits.get(), shared.get(), misses.get(), total == 0 ? 0 : (double) hitCount / total,
+                    evicted.get(), entries.size(), totalBytes);
+        }
+    }
+
+    private JudgeResult restore(String key, Path workDir) {
+        if (root == null) {
+            return null;
+        }
+        synchronized (entries) {
+            if (entries.get(key) == null) {
+                return null;
+            }
+        }
+        Path entry = root.resolve(key);
+        try {
+            Path resultFile = entry.resolve(RESULT_FILE);
+            List<String> lines = Files.readAllLines(resultFile, StandardCharsets.UTF_8);
+            SimpleResult status = SimpleResult.valueOf(lines.get(0));
+            String message = lines.size() > 1
+                    ? String.join("\n", lines.subList(1, lines.size()))
+                            .replace(WORK_DIR_PLACEHOLDER, workDir.toString())
+                    : null;
+            Path files = entry.resolve(FILES_DIR);
+            if (Files.isDirectory(files)) {
+                FileUtils.copyTree(files, workDir);
+            }
+            Files.setLastModifiedTime(resultFile, FileTime.fromMillis(System.currentTimeMillis()));
+            return JudgeResult.builder().status(status).message(message).build();
+        } catch (IOException | RuntimeException e) {
+            // 条目在复制过程中被淘汰或已损坏，按未命中处理
+            log.debug("Failed to restore compile cache entry {}: {}", key, e.getMessage());
+            try {
+                FileUtils.clearDirectory(workDir);
+            } catch (IOException cleanupError) {
+                log.debug("Failed to clear {}: {}", workDir, cleanupError.getMessage());
+            }
+            return null;
+        }
+    }
+
+    private void store(String key, Path workDir, JudgeResult result) {
+        if (root == null || result == null
+                || (result.status() != SimpleResult.ACCEPTED && result.status() != SimpleResult.COMPILATION_ERROR)) {
+            return;
+        }
+        Path staging = root.resolve(STAGING_PREFIX + UUID.randomUUID());
+        try {
+            Files.createDirectories(staging);
+            if (result.status() == SimpleResult.ACCEPTED) {
+                FileUtils.copyTree(workDir, staging.resolve(FILES_DIR));
+            }
+            String message = result.message() == null ? ""
+                    : "\n" + result.message().replace(workDir.toString(), WORK_DIR_PLACEHOLDER);
+            Files.writeString(staging.resolve(RESULT_FILE), result.status().name() + message);
+            long size = sizeOf(staging);
+            if (size > maxBytes()) {
+                deleteTree(staging);
+                return;
+            }
+            try {
+                Files.move(staging, root.resolve(key), StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                deleteTree(staging);
+                return;
+            }
+            synchronized (entries) {
+                entries.put(key, size);
+                totalBytes += size;
+            }
+            evict();
+        } catch (IOException e) {
+            log.warn("Failed to store compile cache entry {}: {}", key, e.getMessage());
+            deleteTree(staging);
+        }
+    }
+
+    /**
+     * 超出字节预算时淘汰最久未使用的条目
+     */
+    private void evict() {
+        List<String> removed = new ArrayList<>();
+        synchronized (entries) {
+            Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+            while (totalBytes > maxBytes() && iterator.hasNext()) {
+                Map.Entry<String, Long> eldest = iterator.next();
+                totalBytes -= eldest.getValue();
+                removed.add(eldest.getKey());
+                iterator.remove();
+            }
+        }
+        for (String key : removed) {
+            evicted.incrementAndGet();
+            deleteTree(root.resolve(key));
+        }
+    }
+
+    /**
+     * 从缓存目录重建索引，按结果文件的修改时间恢复使用顺序
+     */
+    private void loadEntries() throws IOException {
+        record Loaded(String key, long size, long lastUsed) {
+        }
+        List<Loaded> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root)) {
+            for (Path dir : dirs) {
+                String name = dir.getFileName().toString();
+                Path resultFile = dir.resolve(RESULT_FILE);
+                if (name.startsWith(STAGING_PREFIX) || !Files.isRegularFile(resultFile)) {
+                    deleteTree(dir);
+                    continue;
+                }
+                loaded.add(new Loaded(name, sizeOf(dir), Files.getLastModifiedTime(resultFile).toMillis()));
+            }
+        }
+        loaded.sort(Comparator.comparingLong(Loaded::lastUsed));
+        synchronized (entries) {
+            for (Loaded entry : loaded) {
+                entries.put(entry.key(), entry.size());
+                totalBytes += entry.size();
+            }
+        }
+        evict();
+        log.info("Compile cache at {} loaded {} entries, {} bytes", root, entries.size(), totalBytes);
+    }
+
+    private long maxBytes() {
+        return compileConfig.getCache().getMaxSizeMb() * 1024 * 1024;
+    }
+
+    private static long sizeOf(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            long size = 0;
+            for (Path path : paths.toList()) {
+                if (Files.isRegularFile(path)) {
+                    size += Files.size(path);
+                }
+            }
+            return size;
+        }
+    }
+
+    private static void deleteTree(Path dir) {
+        try {
+            FileUtils.clearDirectory(dir);
+            Files.deleteIfExists(dir);
+        } catch (IOException e) {
+            log.debug("Failed to delete {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * 实际的编译过程
+     */
+    @FunctionalInterface
+    public interface Build {
+        JudgeResult compile() throws IOException, InterruptedException;
+    }
+
+    /**
+     * @param hits    直接命中数
+     * @param shared  等待相同源代码的编译完成后命中的次数
+     * @param misses  实际编译次数
+     * @param hitRate 命中率，含shared
+     * @param evicted 淘汰的条目数
+     * @param entries 当前条目数
+     * @param bytes   当前占用的字节数
+     */
+    public record CacheStats(long hits, long shared, long misses, double hitRate, long evicted, int entries,
+            long bytes) {
+    }
+}
@@ -0,0 +1,56 @@
+package org.laoli.judge.service.compile.cache;
+
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.service.compile.Compiler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * @Description 带编译产物缓存的编译器装饰
+ * 工具链标识不可用的编译器直接编译，其余按语言、工具链与源代码查找缓存；
+ * 工具链标识包含档位对应的编译参数，同一份源代码在不同档位下的产物互不混用
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public class CachingCompiler implements Compiler {
+
+    private final String language;
+
+    private final Compiler delegate;
+
+    private final ArtifactCache artifactCache;
+
+    public CachingCompiler(String language, Compiler delegate, ArtifactCache artifactCache) {
+        this.language = language;
+        this.delegate = delegate;
+        this.artifactCache = artifactCache;
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
+        return compile(sourceCode, workDir, CompileProfile.STANDARD);
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+            throws IOException, InterruptedException {
+        String toolchain = delegate.toolchain(profile);
+        if (toolchain == null) {
+            return delegate.compile(sourceCode, workDir, profile);
+        }
+        String key = artifactCache.key(language, toolchain, sourceCode);
+        return artifactCache.compile(key, workDir, () -> delegate.compile(sourceCode, workDir, profile));
+    }
+
+    @Override
+    public String toolchain() {
+        return delegate.toolchain();
+    }
+
+    @Override
+    public String toolchain(CompileProfile profile) {
+        return delegate.toolchain(profile);
+    }
+}
@@ -0,0 +1,241 @@
+package org.laoli.judge.service.compile.golang;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * @Description 判题服务管理的Go构建缓存
+ * 所有Go编译共用一个GOCACHE(go命令自身保证多进程并发读写安全)，启动时在后台预编译标准库，
+ * 之后每个提交只需编译自身的包再链接；编译环境固定为非模块模式、关闭cgo、不联网下载工具链，
+ * 不受服务所在机器的用户级Go配置影响。缓存超过磁盘上限时按最近使用时间删除最旧的条目
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class GoBuildCache implements MetricsSource {
+
+    /** 与目录无关的固定编译环境，同时作为工具链标识的一部分 */
+    public static final Map<String, String> ENVIRONMENT = fixedEnvironment();
+
+    /** 删除到上限的该比例为止，避免每次检查都只删掉刚超出的一点 */
+    private static final double TRIM_TARGET = 0.9;
+
+    private final CompileConfig compileConfig;
+    private final AtomicLong trims = new AtomicLong();
+    private final AtomicLong trimmedBytes = new AtomicLong();
+    private ScheduledExecutorService scheduler;
+    private Path cacheDir;
+    private Path goPath;
+    private volatile boolean warmed;
+    private volatile long warmupMs;
+    private volatile long sizeBytes;
+
+    public GoBuildCache(CompileConfig compileConfig) {
+        this.compileConfig = compileConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        CompileConfig.Go config = compileConfig.getGo();
+        Path root = Paths.get(config.getDir());
+        cacheDir = root.resolve("build");
+        goPath = root.resolve("path");
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "go-build-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (config.isWarmup()) {
+            scheduler.execute(this::warmup);
+        }
+        long interval = Math.max(1, config.getTrimIntervalSeconds());
+        scheduler.scheduleWithFixedDelay(this::trim, interval, interval, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 为go命令设置固定的编译环境与共用的构建缓存
+     *
+     * @param pb go命令的进程构建器
+     * @return 同一个进程构建器
+     */
+    public ProcessBuilder configure(ProcessBuilder pb) {
+        Map<String, String> environment = pb.environment();
+        // GOROOT指向手工安装的工具链时必须保留，其余Go相关设置一律换成固定值
+        environment.keySet().removeIf(name -> (name.startsWith("GO") && !name.equals("GOROOT"))
+                || name.startsWith("CGO_"));
+        environment.putAll(ENVIRONMENT);
+        environment.put("GOCACHE", cacheDir.toString());
+        environment.put("GOPATH", goPath.toString());
+        return pb;
+    }
+
+    @Override
+    public String metricsName() {
+        return "goCache";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        return new GoCacheStats(warmed, warmupMs, sizeBytes, trims.get(), trimmedBytes.get());
+    }
+
+    /**
+     * 预编译标准库，结果留在构建缓存中；go命令不可用时跳过
+     */
+    private void warmup() {
+        if (BuildFile.toolchain(new String[]{"go"}, "go", "version") == null) {
+            log.info("Go toolchain not available, skipping build cache warmup");
+            return;
+        }
+        Path output = null;
+        try {
+            Files.createDirectories(cacheDir);
+            Files.createDirectories(goPath);
+            output = Files.createTempFile("go_warmup_", ".log");
+            long start = System.nanoTime();
+            Process process = configure(new ProcessBuilder("go", "build", "std"))
+                    .directory(goPath.toFile())
+                    .redirectErrorStream(true)
+                    .redirectOutput(output.toFile())
+                    .start();
+            if (!process.waitFor(compileConfig.getGo().getWarmupTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                log.warn("Go standard library warmup timed out");
+                return;
+            }
+            if (process.exitValue() != 0) {
+                log.warn("Go standard library warmup failed: {}", Files.readString(output, StandardCharsets.UTF_8));
+                return;
+            }
+            warmupMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            warmed = true;
+            log.info("Go standard library cached in {} ({}ms)", cacheDir, warmupMs);
+            trim();
+        } catch (IOException e) {
+            log.warn("Go standard library warmup failed: {}", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (output != null) {
+                try {
+                    Files.deleteIfExists(output);
+                } catch (IOException e) {
+                    log.debug("Failed to delete {}: {}", output, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * 超过磁盘上限时删除最近最少使用的缓存文件。go命令使用条目时会刷新其修改时间(至多每小时一次)，
+     * 正在进行的编译读不到被删除的条目只会重新编译，不会出错
+     */
+    void trim() {
+        if (!Files.isDirectory(cacheDir)) {
+            return;
+        }
+        List<Entry> entries = new ArrayList<>();
+        // 缓存条目都在两位十六进制命名的子目录中，根目录下的README与trim.txt由go命令维护
+        try (Stream<Path> files = Files.walk(cacheDir, 2)) {
+            for (Path file : files.filter(path -> path.getParent() != null
+                    && !path.getParent().equals(cacheDir)).collect(Collectors.toList())) {
+                BasicFileAttributes attributes;
+                try {
+                    attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                } catch (NoSuchFileException e) {
+                    // go命令替换条目时先写临时文件再改名，扫描期间消失的文件直接跳过
+                    continue;
+                }
+                if (attributes.isRegularFile()) {
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime().toMillis()));
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Failed to scan Go build cache {}: {}", cacheDir, e.getMessage());
+            return;
+        }
+
+        long total = entries.stream().mapToLong(Entry::size).sum();
+        long limit = compileConfig.getGo().getMaxSizeMb() * 1024 * 1024;
+        if (total > limit) {
+            long target = (long) (limit * TRIM_TARGET);
+            long removed = 0;
+            entries.sort(Comparator.comparingLong(Entry::lastModified));
+            for (Entry entry : entries) {
+                if (total - removed <= target) {
+                    break;
+                }
+                try {
+                    Files.deleteIfExists(entry.path);
+                    removed += entry.size;
+                } catch (IOException e) {
+                    log.debug("Failed to delete {}: {}", entry.path, e.getMessage());
+                }
+            }
+            trims.incrementAndGet();
+            trimmedBytes.addAndGet(removed);
+            total -= removed;
+            log.info("Trimmed {} bytes from Go build cache {}", removed, cacheDir);
+        }
+        sizeBytes = total;
+    }
+
+    private static Map<String, String> fixedEnvironment() {
+        Map<String, String> environment = new LinkedHashMap<>();
+        // 非模块模式：单文件提交不需要go.mod，也不会解析或下载依赖
+        environment.put("GO111MODULE", "off");
+        environment.put("GOFLAGS", "");
+        environment.put("CGO_ENABLED", "0");
+        environment.put("GOTOOLCHAIN", "local");
+        environment.put("GOPROXY", "off");
+        environment.put("GOTELEMETRY", "off");
+        environment.put("GOENV", "off");
+        return Collections.unmodifiableMap(environment);
+    }
+
+    private record Entry(Path path, long size, long lastModified) {
+    }
+
+    /**
+     * @param warmed       标准库是否已预编译
+     * @param warmupMs     预编译标准库耗时 (毫秒)
+     * @param sizeBytes    最近一次检查时构建缓存占用的字节数
+     * @param trims        因超过上限而删除条目的次数
+     * @param trimmedBytes 累计删除的字节数
+     */
+    public record GoCacheStats(boolean warmed, long warmupMs, long sizeBytes, long trims, long trimmedBytes) {
+    }
+}
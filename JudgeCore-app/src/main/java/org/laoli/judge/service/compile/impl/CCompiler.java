@@ -1,14 +1,21 @@
 package org.laoli.judge.service.compile.impl;
 
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.service.compile.BuildFile;
 import org.laoli.judge.service.compile.Compiler;
+import org.laoli.judge.service.compile.pch.PchManager;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @Description C语言编译器实现
@@ -16,16 +23,50 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 12:27
  */
 @Component("C")
+@RequiredArgsConstructor
 public class CCompiler implements Compiler {
+
+    /** 各档位的C编译命令，最高优化档的-march=native使产物只适用于本机CPU */
+    private static final Map<CompileProfile, String[]> COMMANDS = new EnumMap<>(Map.of(
+            CompileProfile.FAST, new String[]{"gcc", "-std=c11", "-O1", "-Wall"},
+            CompileProfile.STANDARD, new String[]{"gcc", "-std=c11", "-O2", "-Wall"},
+            CompileProfile.OPTIMIZED, new String[]{"gcc", "-std=c11", "-O3", "-march=native", "-flto", "-Wall"}));
+
+    private final PchManager pchManager;
+
+    /**
+     * 在后台为每个档位的编译参数构建预编译头
+     */
+    @PostConstruct
+    public void preparePch() {
+        COMMANDS.forEach((profile, command) -> pchManager.prepare("C", command, toolchain(profile)));
+    }
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
+        return compile(sourceCode, workDir, CompileProfile.STANDARD);
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+            throws IOException, InterruptedException {
         // 创建源代码文件
         Path sourceFile = workDir.resolve("solution.c");
         Files.write(sourceFile, sourceCode.getBytes());
 
         // 编译C代码
-        ProcessBuilder pb = new ProcessBuilder(
-                "gcc", "-std=c11", "-O3", "-march=native", "-flto", "-Wall" , "-o", "c_solution", sourceFile.toString());
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMANDS.get(profile)));
+        command.addAll(List.of("-o", "c_solution", sourceFile.toString()));
+        return pchManager.compile("C", toolchain(profile), sourceCode, workDir, command);
+    }
+
+    @Override
+    public String toolchain() {
+        return toolchain(CompileProfile.STANDARD);
+    }
+
+    @Override
+    public String toolchain(CompileProfile profile) {
+        return BuildFile.toolchain(COMMANDS.get(profile), "gcc", "--version");
     }
 }
@@ -1,12 +1,20 @@
 package org.laoli.judge.service.compile.impl;
 
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.service.compile.BuildFile;
 import org.laoli.judge.service.compile.Compiler;
+import org.laoli.judge.service.compile.pch.PchManager;
 import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @Description C++语言编译器实现
@@ -14,18 +22,50 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 12:16
  */
 @Component("CPP")
+@RequiredArgsConstructor
 public class CppCompiler implements Compiler {
+
+    /** 各档位的C++编译命令，最高优化档的-march=native使产物只适用于本机CPU */
+    private static final Map<CompileProfile, String[]> COMMANDS = new EnumMap<>(Map.of(
+            CompileProfile.FAST, new String[]{"g++", "-std=c++17", "-O1", "-Wall"},
+            CompileProfile.STANDARD, new String[]{"g++", "-std=c++17", "-O2", "-Wall"},
+            CompileProfile.OPTIMIZED, new String[]{"g++", "-std=c++17", "-O3", "-march=native", "-flto", "-Wall"}));
+
+    private final PchManager pchManager;
+
+    /**
+     * 在后台为每个档位的编译参数构建预编译头
+     */
+    @PostConstruct
+    public void preparePch() {
+        COMMANDS.forEach((profile, command) -> pchManager.prepare("CPP", command, toolchain(profile)));
+    }
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
+        return compile(sourceCode, workDir, CompileProfile.STANDARD);
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+            throws IOException, InterruptedException {
         // 创建源代码文件
         Path sourceFile = workDir.resolve("solution.cpp");
         Files.write(sourceFile, sourceCode.getBytes());
 
         // 编译C++代码
-        ProcessBuilder pb = new ProcessBuilder(
-                "g++","-std=c++17", "-O3", "-march=native","-flto", "-Wall" , "-o", "cpp_solution",
-                sourceFile.toString());
+        List<String> command = new ArrayList<>(List.of(COMMANDS.get(profile)));
+        command.addAll(List.of("-o", "cpp_solution", sourceFile.toString()));
+        return pchManager.compile("CPP", toolchain(profile), sourceCode, workDir, command);
+    }
+
+    @Override
+    public String toolchain() {
+        return toolchain(CompileProfile.STANDARD);
+    }
 
-        return preCompile(workDir, pb);
+    @Override
+    public String toolchain(CompileProfile profile) {
+        return BuildFile.toolchain(COMMANDS.get(profile), "g++", "--version");
     }
 }
@@ -1,12 +1,18 @@
 package org.laoli.judge.service.compile.impl;
 
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
 import org.laoli.judge.service.compile.Compiler;
+import org.laoli.judge.service.compile.golang.GoBuildCache;
 import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * @Description go语言编译器实现
@@ -14,15 +20,36 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 14:48
  */
 @Component("GO")
+@RequiredArgsConstructor
 public class GoCompiler implements Compiler {
 
+    /** Go构建命令，在共用构建缓存与固定环境下运行 */
+    private static final String[] COMMAND = {"go", "build"};
+
+    private final GoBuildCache goBuildCache;
+    private final CompileRunner compileRunner;
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
         // 创建源代码文件
         Path sourceFile = workDir.resolve("solution.go");
         Files.write(sourceFile, sourceCode.getBytes());
         // 编译Go代码
-        ProcessBuilder pb = new ProcessBuilder("go","build", "-o", "go_solution", sourceFile.toString());
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMAND));
+        command.addAll(List.of("-o", "go_solution", sourceFile.toString()));
+        ProcessBuilder pb = goBuildCache.configure(new ProcessBuilder(command));
+        return compileRunner.run("GO", workDir, pb);
+    }
+
+    @Override
+    public String toolchain() {
+        String toolchain = BuildFile.toolchain(COMMAND, "go", "version");
+        if (toolchain == null) {
+            return null;
+        }
+        // 编译环境决定产物(如是否启用cgo)，一并作为产物标识
+        return toolchain + "\n" + GoBuildCache.ENVIRONMENT.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(" "));
     }
 }
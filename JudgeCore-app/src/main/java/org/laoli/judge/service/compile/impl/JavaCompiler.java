@@ -2,16 +2,19 @@ package org.laoli.judge.service.compile.impl;
 
 
 
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
 import org.laoli.judge.service.compile.Compiler;
+import org.laoli.judge.service.compile.javac.InProcessJavac;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  *@description Java语言编译器实现
@@ -19,16 +22,37 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  *@create 2025/4/20 12:09
  */
 @Component("JAVA")
+@RequiredArgsConstructor
 public class JavaCompiler implements Compiler {
 
+    /** Java编译命令 */
+    private static final String[] COMMAND = {"javac"};
+
+    private final InProcessJavac inProcessJavac;
+    private final CompileRunner compileRunner;
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
         // 创建源代码文件
         Path sourceFile = workDir.resolve("Main.java");
         Files.write(sourceFile, sourceCode.getBytes());
 
+        // 优先在服务进程内编译，不可用时启动javac进程
+        if (inProcessJavac.isAvailable()) {
+            return inProcessJavac.compile(sourceFile, sourceCode);
+        }
         // 编译Java代码
-        ProcessBuilder pb = new ProcessBuilder("javac", sourceFile.toString());
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMAND));
+        command.add(sourceFile.toString());
+        ProcessBuilder pb = new ProcessBuilder(command);
+        return compileRunner.run("JAVA", workDir, pb);
+    }
+
+    @Override
+    public String toolchain() {
+        if (inProcessJavac.isAvailable()) {
+            return inProcessJavac.toolchain();
+        }
+        return BuildFile.toolchain(COMMAND, "javac", "-version");
     }
 }
@@ -1,15 +1,17 @@
 package org.laoli.judge.service.compile.impl;
 
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
 import org.laoli.judge.service.compile.Compiler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @Description Kotlin编译器实现
@@ -17,8 +19,14 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 14:53
  */
 @Component("KOTLIN")
+@RequiredArgsConstructor
 public class KotlinCompiler implements Compiler {
 
+    /** Kotlin编译命令，产物为包含运行时的jar */
+    private static final String[] COMMAND = {"kotlinc", "-include-runtime"};
+
+    private final CompileRunner compileRunner;
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
         // 创建源代码文件
@@ -26,7 +34,14 @@ public class KotlinCompiler implements Compiler {
         Files.write(sourceFile, sourceCode.getBytes());
 
         // 编译 Kotlin 代码
-        ProcessBuilder pb = new ProcessBuilder("kotlinc", sourceFile.toString(), "-include-runtime", "-d", "Main.jar");
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMAND));
+        command.addAll(List.of(sourceFile.toString(), "-d", "Main.jar"));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        return compileRunner.run("KOTLIN", workDir, pb);
+    }
+
+    @Override
+    public String toolchain() {
+        return BuildFile.toolchain(COMMAND, "kotlinc", "-version");
     }
 }
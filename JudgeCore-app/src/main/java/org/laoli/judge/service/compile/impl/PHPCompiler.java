@@ -1,13 +1,16 @@
 package org.laoli.judge.service.compile.impl;
 
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
 import org.laoli.judge.service.compile.Compiler;
 import org.springframework.stereotype.Component;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @Description PHP语言编译器实现
@@ -15,14 +18,28 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 14:50
  */
 @Component("PHP")
+@RequiredArgsConstructor
 public class PHPCompiler implements Compiler {
+
+    /** PHP语法检查命令 */
+    private static final String[] COMMAND = {"php", "-l"};
+
+    private final CompileRunner compileRunner;
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
         // 创建源代码文件
         Path sourceFile = workDir.resolve("solution.php");
         Files.write(sourceFile, sourceCode.getBytes());
         // 编译PHP代码
-        ProcessBuilder pb = new ProcessBuilder("php", "-l", sourceFile.toString());
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMAND));
+        command.add(sourceFile.toString());
+        ProcessBuilder pb = new ProcessBuilder(command);
+        return compileRunner.run("PHP", workDir, pb);
+    }
+
+    @Override
+    public String toolchain() {
+        return BuildFile.toolchain(COMMAND, "php", "--version");
     }
 }
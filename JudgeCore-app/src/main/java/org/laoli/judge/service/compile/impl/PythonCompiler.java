@@ -1,15 +1,17 @@
 package org.laoli.judge.service.compile.impl;
 
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
 import org.laoli.judge.service.compile.Compiler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * @Description Python语言编译器实现
@@ -17,8 +19,14 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 12:15
  */
 @Component("PYTHON")
+@RequiredArgsConstructor
 public class PythonCompiler implements Compiler {
 
+    /** Python语法检查命令，同时生成字节码缓存 */
+    private static final String[] COMMAND = {"python3", "-m", "py_compile"};
+
+    private final CompileRunner compileRunner;
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
         // 创建源代码文件
@@ -26,7 +34,14 @@ public class PythonCompiler implements Compiler {
         Files.write(sourceFile, sourceCode.getBytes());
 
         // 检查Python语法
-        ProcessBuilder pb = new ProcessBuilder("python3", "-m", "py_compile", sourceFile.toString());
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMAND));
+        command.add(sourceFile.toString());
+        ProcessBuilder pb = new ProcessBuilder(command);
+        return compileRunner.run("PYTHON", workDir, pb);
+    }
+
+    @Override
+    public String toolchain() {
+        return BuildFile.toolchain(COMMAND, "python3", "--version");
     }
 }
@@ -1,14 +1,20 @@
 package org.laoli.judge.service.compile.impl;
 
+import lombok.RequiredArgsConstructor;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
 import org.laoli.judge.service.compile.Compiler;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-
-import static org.laoli.judge.service.compile.BuildFile.preCompile;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * @Description Rust语言编译器实现
@@ -16,15 +22,43 @@ import static org.laoli.judge.service.compile.BuildFile.preCompile;
  * @Date 2025/4/20 14:52
  */
 @Component("RUST")
+@RequiredArgsConstructor
 public class RustCompiler implements Compiler {
+
+    /** 各档位的Rust编译命令，opt-level=0的产物带溢出检查且运行很慢，最快档也保留基本优化 */
+    private static final Map<CompileProfile, String[]> COMMANDS = new EnumMap<>(Map.of(
+            CompileProfile.FAST, new String[]{"rustc", "-C", "opt-level=1"},
+            CompileProfile.STANDARD, new String[]{"rustc", "-C", "opt-level=2"},
+            CompileProfile.OPTIMIZED, new String[]{"rustc", "-C", "opt-level=3", "-C", "target-cpu=native"}));
+
+    private final CompileRunner compileRunner;
+
     @Override
     public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
+        return compile(sourceCode, workDir, CompileProfile.STANDARD);
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+            throws IOException, InterruptedException {
         // 创建源代码文件
         Path sourceFile = workDir.resolve("solution.rs");
         Files.write(sourceFile, sourceCode.getBytes());
 
         // 编译C代码
-        ProcessBuilder pb = new ProcessBuilder("rustc", "-C" ,"opt-level=3" , "-o", "rust_solution", sourceFile.toString());
-        return preCompile(workDir, pb);
+        List<String> command = new ArrayList<>(List.of(COMMANDS.get(profile)));
+        command.addAll(List.of("-o", "rust_solution", sourceFile.toString()));
+        ProcessBuilder pb = new ProcessBuilder(command);
+        return compileRunner.run("RUST", workDir, pb);
+    }
+
+    @Override
+    public String toolchain() {
+        return toolchain(CompileProfile.STANDARD);
+    }
+
+    @Override
+    public String toolchain(CompileProfile profile) {
+        return BuildFile.toolchain(COMMANDS.get(profile), "rustc", "--version");
     }
 }
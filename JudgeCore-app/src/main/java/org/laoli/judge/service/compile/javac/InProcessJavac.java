@@ -0,0 +1,258 @@
+package org.laoli.judge.service.compile.javac;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.springframework.stereotype.Component;
+
+import com.sun.source.util.JavacTask;
+import com.sun.source.util.TaskEvent;
+import com.sun.source.util.TaskListener;
+
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description 进程内JAVA编译
+ * 通过javax.tools调用服务所在JDK的编译器，省去每次启动javac进程的JVM启动与JIT预热；
+ * 每个编译线程复用一个标准文件管理器(其中缓存了平台类的索引)，类文件先写入内存再落到工作目录。
+ * 编译在固定数量的线程上进行，超时后在下一个编译事件处中止
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class InProcessJavac {
+
+    /** 编译选项，不做注解处理，避免扫描类路径 */
+    private static final List<String> OPTIONS = List.of("-proc:none");
+
+    private final CompileConfig compileConfig;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+
+    /** 每个编译线程复用的标准文件管理器 */
+    private final ThreadLocal<StandardJavaFileManager> fileManagers = new ThreadLocal<>();
+
+    private ExecutorService workers;
+
+    public InProcessJavac(CompileConfig compileConfig) {
+        this.compileConfig = compileConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!compileConfig.getJavac().isInProcess()) {
+            return;
+        }
+        if (compiler == null) {
+            log.warn("No system Java compiler in this runtime, JAVA submissions will be compiled by javac processes");
+            return;
+        }
+        AtomicInteger index = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, compileConfig.getJavac().getConcurrency()), runnable -> {
+            Thread thread = new Thread(runnable, "javac-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workers != null) {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * @return 是否可用，不可用时由调用方启动javac进程
+     */
+    public boolean isAvailable() {
+        return workers != null;
+    }
+
+    /**
+     * @return 编译器标识，作为编译产物缓存键的一部分
+     */
+    public String toolchain() {
+        return "javax.tools " + String.join(" ", OPTIONS) + "\n" + Runtime.version();
+    }
+
+    /**
+     * 编译单个源文件，类文件写入源文件所在目录，与javac不带-d时一致
+     *
+     * @param sourceFile 已写入工作目录的源文件
+     * @param sourceCode 源代码
+     * @return 编译结果，失败时消息为javac格式的诊断信息
+     */
+    public JudgeResult compile(Path sourceFile, String sourceCode) throws InterruptedException {
+        long timeoutMs = compileConfig.getJavac().getTimeoutMs();
+        AtomicBoolean aborted = new AtomicBoolean();
+        CompletableFuture<JudgeResult> future = CompletableFuture.supplyAsync(
+                () -> compileOnWorker(sourceFile, sourceCode, aborted), workers);
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 未开始的编译直接取消，进行中的编译在下一个编译事件处中止
+            aborted.set(true);
+            future.cancel(false);
+            return JudgeResult.builder()
+                    .status(SimpleResult.COMPILE_TIME_LIMIT_EXCEEDED)
+                    .message("Compilation timed out after " + timeoutMs + "ms")
+                    .build();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            log.error("In-process compilation failed: {}", cause.getMessage(), cause);
+            return JudgeResult.builder()
+                    .status(SimpleResult.SYSTEM_ERROR)
+                    .message("Compilation failed: " + cause.getMessage())
+                    .build();
+        } catch (InterruptedException e) {
+            aborted.set(true);
+            future.cancel(false);
+            throw e;
+        }
+    }
+
+    private JudgeResult compileOnWorker(Path sourceFile, String sourceCode, AtomicBoolean aborted) {
+        StringWriter diagnostics = new StringWriter();
+        MemoryFileManager fileManager = new MemoryFileManager(fileManager());
+        JavaFileObject source = new SimpleJavaFileObject(sourceFile.toUri(), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return sourceCode;
+            }
+        };
+        JavacTask task = (JavacTask) compiler.getTask(diagnostics, fileManager, null, OPTIONS, null,
+                List.of(source));
+        task.addTaskListener(new TaskListener() {
+            @Override
+            public void started(TaskEvent event) {
+                if (aborted.get()) {
+                    throw new CancellationException("compilation aborted");
+                }
+            }
+        });
+
+        boolean success;
+        try {
+            success = task.call();
+        } catch (CancellationException e) {
+            return JudgeResult.builder().status(SimpleResult.COMPILATION_ERROR).message(e.getMessage()).build();
+        } catch (RuntimeException e) {
+            // 编译器内部异常后文件管理器的状态不可信，下次重建
+            discardFileManager();
+            throw e;
+        }
+        if (!success) {
+            return JudgeResult.builder()
+                    .status(SimpleResult.COMPILATION_ERROR)
+                    .message(diagnostics.toString())
+                    .build();
+        }
+
+        try {
+            Path outputDir = sourceFile.getParent();
+            for (Map.Entry<String, ByteArrayOutputStream> entry : fileManager.classes.entrySet()) {
+                String binaryName = entry.getKey();
+                String fileName = binaryName.substring(binaryName.lastIndexOf('.') + 1) + ".class";
+                Files.write(outputDir.resolve(fileName), entry.getValue().toByteArray());
+            }
+        } catch (IOException e) {
+            return JudgeResult.builder()
+                    .status(SimpleResult.SYSTEM_ERROR)
+                    .message("Failed to write class files: " + e.getMessage())
+                    .build();
+        }
+        return JudgeResult.builder().status(SimpleResult.ACCEPTED).build();
+    }
+
+    private StandardJavaFileManager fileManager() {
+        StandardJavaFileManager fileManager = fileManagers.get();
+        if (fileManager == null) {
+            fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8);
+            try {
+                // 与单独运行javac一致，不把服务自身的类路径暴露给用户代码
+                fileManager.setLocation(StandardLocation.CLASS_PATH, List.of());
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            fileManagers.set(fileManager);
+        }
+        return fileManager;
+    }
+
+    private void discardFileManager() {
+        StandardJavaFileManager fileManager = fileManagers.get();
+        fileManagers.remove();
+        if (fileManager != null) {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                log.debug("Failed to close file manager: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 把编译输出的类文件保存在内存中，其余请求交给复用的标准文件管理器
+     */
+    private static final class MemoryFileManager extends ForwardingJavaFileManager<StandardJavaFileManager> {
+
+        private final Map<String, ByteArrayOutputStream> classes = new LinkedHashMap<>();
+
+        private MemoryFileManager(StandardJavaFileManager fileManager) {
+            super(fileManager);
+        }
+
+        @Override
+        public JavaFileObject getJavaFileForOutput(JavaFileManager.Location location, String className,
+                JavaFileObject.Kind kind, FileObject sibling) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            classes.put(className, bytes);
+            return new SimpleJavaFileObject(URI.create("mem:///" + className.replace('.', '/') + kind.extension),
+                    kind) {
+                @Override
+                public OutputStream openOutputStream() {
+                    return bytes;
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+            // 标准文件管理器由编译线程复用，不随单次编译关闭
+        }
+    }
+}
@@ -0,0 +1,339 @@
+package org.laoli.judge.service.compile.pch;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.compile.CompileRunner;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.laoli.judge.util.FileUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * @Description C/C++预编译头管理
+ * 启动时在后台为每组编译参数(编译命令与工具链版本)构建常用头文件的预编译头，放在独立的包含目录中；
+ * 源代码第一个包含的头文件有预编译头时，编译命令加上该包含目录，GCC查找头文件时优先使用同目录的.gch。
+ * 构建后用探测编译确认预编译头确实可用并测量节省的时间；编译因预编译头本身出错时去掉它重新编译
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class PchManager implements MetricsSource {
+
+    /** 构建完成的标记文件，记录各头文件每次命中节省的时间 */
+    private static final String READY_FILE = "ready.properties";
+
+    /** 源代码开头的第一个#include */
+    private static final Pattern FIRST_INCLUDE = Pattern.compile("\\A#\\s*include\\s*[<\"]([^>\"]+)[>\"]");
+
+    private final CompileConfig compileConfig;
+    private final CompileRunner compileRunner;
+
+    /** 按工具链标识登记的编译参数组 */
+    private final Map<String, Profile> profiles = new ConcurrentHashMap<>();
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "pch-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong fallbacks = new AtomicLong();
+    private final AtomicLong savedMs = new AtomicLong();
+
+    public PchManager(CompileConfig compileConfig, CompileRunner compileRunner) {
+        this.compileConfig = compileConfig;
+        this.compileRunner = compileRunner;
+    }
+
+    @PreDestroy
+    public void stop() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * 登记一组编译参数并在后台构建预编译头，构建完成前的编译不使用预编译头
+     *
+     * @param language  语言，决定需要预编译的头文件与头文件类型
+     * @param command   编译命令与参数
+     * @param toolchain 工具链标识，为null时不构建
+     */
+    public void prepare(String language, String[] command, String toolchain) {
+        CompileConfig.Pch config = compileConfig.getPch();
+        List<String> headers = config.getHeaders().getOrDefault(language, List.of());
+        if (!config.isEnabled() || toolchain == null || headers.isEmpty()) {
+            return;
+        }
+        Path dir = Paths.get(config.getDir()).resolve(hash(toolchain + "\n" + headers));
+        Profile profile = new Profile(language, List.of(command), headers, dir);
+        if (profiles.putIfAbsent(toolchain, profile) == null) {
+            builder.execute(() -> build(profile));
+        }
+    }
+
+    /**
+     * 编译源代码，命中预编译头时在编译命令中加入其包含目录
+     *
+     * @param language   语言，用于按语言统计编译的资源占用
+     * @param toolchain  工具链标识
+     * @param sourceCode 源代码
+     * @param workDir    工作目录
+     * @param command    完整的编译命令
+     * @return 编译结果
+     */
+    public JudgeResult compile(String language, String toolchain, String sourceCode, Path workDir,
+            List<String> command) throws IOException, InterruptedException {
+        Profile profile = toolchain == null ? null : profiles.get(toolchain);
+        if (profile == null) {
+            return compileRunner.run(language, workDir, new ProcessBuilder(command));
+        }
+        String header = firstInclude(sourceCode);
+        Long saving = header == null ? null : profile.savings.get(header);
+        if (!profile.ready || saving == null) {
+            misses.incrementAndGet();
+            return compileRunner.run(language, workDir, new ProcessBuilder(command));
+        }
+
+        List<String> withPch = new ArrayList<>(command);
+        withPch.addAll(1, List.of("-I", profile.dir.toString()));
+        JudgeResult result = compileRunner.run(language, workDir, new ProcessBuilder(withPch));
+        if (result.status() == SimpleResult.COMPILATION_ERROR && result.message() != null
+                && (result.message().contains("precompiled header") || result.message().contains(".gch"))) {
+            // 预编译头文件损坏或与编译器不匹配，按普通方式重新编译，并在后台重建
+            log.warn("Precompiled header in {} unusable, falling back: {}", profile.dir, result.message());
+            fallbacks.incrementAndGet();
+            rebuild(profile);
+            return compileRunner.run(language, workDir, new ProcessBuilder(command));
+        }
+        hits.incrementAndGet();
+        savedMs.addAndGet(saving);
+        return result;
+    }
+
+    @Override
+    public String metricsName() {
+        return "pch";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        int ready = (int) profiles.values().stream().filter(profile -> profile.ready).count();
+        return new PchStats(ready, hitCount, misses.get(), total == 0 ? 0 : (double) hitCount / total,
+                fallbacks.get(), savedMs.get());
+    }
+
+    /**
+     * @return 源代码第一个包含的头文件，开头不是#include时为null
+     */
+    static String firstInclude(String sourceCode) {
+        int position = 0;
+        int length = sourceCode.length();
+        while (position < length) {
+            char c = sourceCode.charAt(position);
+            if (Character.isWhitespace(c)) {
+                position++;
+            } else if (sourceCode.startsWith("//", position)) {
+                int end = sourceCode.indexOf('\n', position);
+                position = end < 0 ? length : end + 1;
+            } else if (sourceCode.startsWith("/*", position)) {
+                int end = sourceCode.indexOf("*/", position + 2);
+                position = end < 0 ? length : end + 2;
+            } else {
+                break;
+            }
+        }
+        Matcher matcher = FIRST_INCLUDE.matcher(sourceCode).region(position, length);
+        matcher.useAnchoringBounds(true);
+        return matcher.lookingAt() ? matcher.group(1).trim() : null;
+    }
+
+    private void rebuild(Profile profile) {
+        synchronized (profile) {
+            if (!profile.ready) {
+                return;
+            }
+            profile.ready = false;
+        }
+        try {
+            Files.deleteIfExists(profile.dir.resolve(READY_FILE));
+        } catch (IOException e) {
+            log.debug("Failed to delete {}: {}", profile.dir.resolve(READY_FILE), e.getMessage());
+        }
+        builder.execute(() -> build(profile));
+    }
+
+    private void build(Profile profile) {
+        try {
+            Path readyFile = profile.dir.resolve(READY_FILE);
+            if (Files.isRegularFile(readyFile)) {
+                Properties properties = new Properties();
+                try (var reader = Files.newBufferedReader(readyFile)) {
+                    properties.load(reader);
+                }
+                if (loadSavings(profile, properties)) {
+                    profile.ready = true;
+                    log.info("Reusing precompiled headers in {}", profile.dir);
+                    return;
+                }
+            }
+
+            FileUtils.clearDirectory(profile.dir);
+            Files.createDirectories(profile.dir);
+            Path work = Files.createTempDirectory("pch_");
+            try {
+                Properties properties = new Properties();
+                for (String header : profile.headers) {
+                    Long saving = buildHeader(profile, header, work);
+                    if (saving != null) {
+                        properties.setProperty(header, Long.toString(saving));
+                    }
+                }
+                try (var writer = Files.newBufferedWriter(readyFile)) {
+                    properties.store(writer, null);
+                }
+                loadSavings(profile, properties);
+                profile.ready = true;
+            } finally {
+                FileUtils.clearDirectory(work);
+                Files.deleteIfExists(work);
+            }
+        } catch (IOException e) {
+            log.warn("Failed to build precompiled headers in {}: {}", profile.dir, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 构建单个头文件的预编译头并用探测编译确认可用
+     *
+     * @return 每次命中节省的时间 (毫秒)，不可用时为null
+     */
+    private Long buildHeader(Profile profile, String header, Path work) throws IOException, InterruptedException {
+        // 预编译只包含该头文件的包装头，输出放在包含目录中与头文件同名的位置
+        Path wrapper = work.resolve("wrapper.h");
+        Files.writeString(wrapper, "#include <" + header + ">\n");
+        Path gch = profile.dir.resolve(header + ".gch");
+        Files.createDirectories(gch.getParent());
+        String kind = "C".equals(profile.language) ? "c-header" : "c++-header";
+        List<String> build = new ArrayList<>(profile.command);
+        build.addAll(List.of("-x", kind, wrapper.toString(), "-o", gch.toString()));
+        Run built = run(build, work);
+        if (built == null || built.exitCode != 0) {
+            log.warn("Failed to precompile {}: {}", header, built == null ? "timed out" : built.output);
+            Files.deleteIfExists(gch);
+            return null;
+        }
+
+        // 探测编译：-H会把实际使用的预编译头标记为"!"，同时比较有无预编译头的编译耗时
+        Path probe = work.resolve("C".equals(profile.language) ? "probe.c" : "probe.cpp");
+        Files.writeString(probe, "#include <" + header + ">\nint main(void) { return 0; }\n");
+        List<String> plain = new ArrayList<>(profile.command);
+        plain.addAll(List.of("-o", work.resolve("probe").toString(), probe.toString()));
+        List<String> withPch = new ArrayList<>(plain);
+        withPch.addAll(1, List.of("-H", "-I", profile.dir.toString()));
+        Run without = run(plain, work);
+        Run with = run(withPch, work);
+        if (without == null || with == null || with.exitCode != 0 || !with.output.contains("! " + gch)) {
+            log.warn("Precompiled {} is not usable with {}", header, profile.command);
+            Files.deleteIfExists(gch);
+            return null;
+        }
+        long saving = Math.max(0, without.elapsedMs - with.elapsedMs);
+        log.info("Precompiled {} for {}, saves about {}ms per compile", header, profile.command, saving);
+        return saving;
+    }
+
+    private boolean loadSavings(Profile profile, Properties properties) {
+        Map<String, Long> savings = new LinkedHashMap<>();
+        for (String header : properties.stringPropertyNames()) {
+            if (!Files.isRegularFile(profile.dir.resolve(header + ".gch"))) {
+                return false;
+            }
+            savings.put(header, Long.parseLong(properties.getProperty(header)));
+        }
+        profile.savings = savings;
+        return true;
+    }
+
+    private Run run(List<String> command, Path dir) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command).directory(dir.toFile()).redirectErrorStream(true).start();
+        // 输出可能超过管道容量，先读完再等待退出
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        if (!process.waitFor(compileConfig.getPch().getBuildTimeoutMs(), TimeUnit.MILLISECONDS)) {
+            process.destroyForcibly();
+            return null;
+        }
+        return new Run(process.exitValue(), output, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    private static String hash(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record Run(int exitCode, String output, long elapsedMs) {
+    }
+
+    /**
+     * 一组编译参数的预编译头
+     */
+    private static final class Profile {
+        private final String language;
+        private final List<String> command;
+        private final List<String> headers;
+        private final Path dir;
+        private volatile Map<String, Long> savings = Map.of();
+        private volatile boolean ready;
+
+        private Profile(String language, List<String> command, List<String> headers, Path dir) {
+            this.language = language;
+            this.command = command;
+            this.headers = headers;
+            this.dir = dir;
+        }
+    }
+
+    /**
+     * @param ready     预编译头可用的编译参数组数
+     * @param hits      使用预编译头的编译数
+     * @param misses    有预编译头可用但源代码未命中的编译数
+     * @param hitRate   命中率
+     * @param fallbacks 因预编译头不可用而重新编译的次数
+     * @param savedMs   按构建时测得的单次节省估算的累计节省时间 (毫秒)
+     */
+    public record PchStats(int ready, long hits, long misses, double hitRate, long fallbacks, long savedMs) {
+    }
+}
@@ -0,0 +1,93 @@
+package org.laoli.judge.service.compile.profile;
+
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description 按语言与编译档位统计编译耗时和运行耗时
+ * 同一语言不同档位的平均编译耗时与平均运行CPU耗时放在一起，用来衡量各档位对吞吐的实际影响
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Component
+public class CompileProfileMetrics implements MetricsSource {
+
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    /**
+     * 记录一次编译，编译产物缓存命中也计入，反映提交方实际等待的时间
+     *
+     * @param language     语言
+     * @param profile      编译档位
+     * @param elapsedNanos 编译耗时 (纳秒)
+     * @param accepted     是否编译通过
+     */
+    public void recordCompile(String language, CompileProfile profile, long elapsedNanos, boolean accepted) {
+        Counters counter = counters(language, profile);
+        counter.compiles.incrementAndGet();
+        counter.compileNanos.addAndGet(elapsedNanos);
+        if (!accepted) {
+            counter.compileErrors.incrementAndGet();
+        }
+    }
+
+    /**
+     * 记录一次提交的运行耗时
+     *
+     * @param language      语言
+     * @param profile       编译档位
+     * @param executionTime 各用例CPU耗时之和 (毫秒)
+     */
+    public void recordRun(String language, CompileProfile profile, long executionTime) {
+        Counters counter = counters(language, profile);
+        counter.runs.incrementAndGet();
+        counter.runMs.addAndGet(executionTime);
+    }
+
+    @Override
+    public String metricsName() {
+        return "compileProfiles";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        Map<String, ProfileStats> snapshot = new TreeMap<>();
+        counters.forEach((key, counter) -> {
+            long compiles = counter.compiles.get();
+            long runs = counter.runs.get();
+            snapshot.put(key, new ProfileStats(compiles, counter.compileErrors.get(),
+                    compiles == 0 ? 0 : (double) TimeUnit.NANOSECONDS.toMillis(counter.compileNanos.get()) / compiles,
+                    runs, runs == 0 ? 0 : (double) counter.runMs.get() / runs));
+        });
+        return snapshot;
+    }
+
+    private Counters counters(String language, CompileProfile profile) {
+        return counters.computeIfAbsent(language + "/" + profile, key -> new Counters());
+    }
+
+    private static final class Counters {
+        private final AtomicLong compiles = new AtomicLong();
+        private final AtomicLong compileErrors = new AtomicLong();
+        private final AtomicLong compileNanos = new AtomicLong();
+        private final AtomicLong runs = new AtomicLong();
+        private final AtomicLong runMs = new AtomicLong();
+    }
+
+    /**
+     * @param compiles      编译次数
+     * @param compileErrors 其中编译失败的次数
+     * @param avgCompileMs  平均编译耗时 (毫秒)
+     * @param runs          记录运行耗时的提交数
+     * @param avgRunMs      每次提交的平均运行CPU耗时 (毫秒)
+     */
+    public record ProfileStats(long compiles, long compileErrors, double avgCompileMs, long runs, double avgRunMs) {
+    }
+}
@@ -0,0 +1,54 @@
+package org.laoli.judge.service.compile.profile;
+
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.compile.Compiler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * @Description 按编译档位记录编译耗时的编译器装饰
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public class MeteredCompiler implements Compiler {
+
+    private final String language;
+
+    private final Compiler delegate;
+
+    private final CompileProfileMetrics metrics;
+
+    public MeteredCompiler(String language, Compiler delegate, CompileProfileMetrics metrics) {
+        this.language = language;
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir) throws IOException, InterruptedException {
+        return compile(sourceCode, workDir, CompileProfile.STANDARD);
+    }
+
+    @Override
+    public JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+            throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        JudgeResult result = delegate.compile(sourceCode, workDir, profile);
+        metrics.recordCompile(language, profile, System.nanoTime() - start,
+                result == null || result.status() == SimpleResult.ACCEPTED);
+        return result;
+    }
+
+    @Override
+    public String toolchain() {
+        return delegate.toolchain();
+    }
+
+    @Override
+    public String toolchain(CompileProfile profile) {
+        return delegate.toolchain(profile);
+    }
+}
@@ -5,6 +5,7 @@ import org.laoli.judge.model.entity.TestCase;
 
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * @Description 代码执行器接口
@@ -14,4 +15,20 @@ import java.nio.file.Path;
 public interface CodeExecutor {
     CaseResult execute(TestCase testCase, Path workDir, String[] command, long timeLimit, long memoryLimit)
             throws IOException, InterruptedException;
+
+    /**
+     * 异步执行用例，默认在调用线程上同步执行；支持的实现在进程运行期间不占用任何线程，
+     * 并在返回的future被取消时终止进程
+     */
+    default CompletableFuture<CaseResult> executeAsync(TestCase testCase, Path workDir, String[] command,
+            long timeLimit, long memoryLimit) {
+        try {
+            return CompletableFuture.completedFuture(execute(testCase, workDir, command, timeLimit, memoryLimit));
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+    }
 }
@@ -0,0 +1,31 @@
+package org.laoli.judge.service.execute;
+
+import org.laoli.judge.model.enums.Language;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description 执行器工厂类，按语言选择执行器
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Service
+public class CodeExecutorFactory {
+
+    private final CodeExecutor defaultExecutor;
+    private final Map<Language, CodeExecutor> executorMap = new EnumMap<>(Language.class);
+
+    CodeExecutorFactory(CodeExecutor defaultExecutor, List<LanguageExecutor> languageExecutors) {
+        this.defaultExecutor = defaultExecutor;
+        for (LanguageExecutor executor : languageExecutors) {
+            executorMap.put(executor.language(), executor);
+        }
+    }
+
+    public CodeExecutor getExecutor(Language language) {
+        return executorMap.getOrDefault(language, defaultExecutor);
+    }
+}
@@ -4,6 +4,7 @@ import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.laoli.judge.config.SandboxConfig;
 import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.execute.sandbox.SandboxedCommand;
 import org.springframework.stereotype.Component;
 
 import java.nio.file.Path;
@@ -23,6 +24,8 @@ public class LanguageCommandFactory {
 
     private static final List<String> SANDBOX_COMMON_OPTIONS_DISABLED = Collections.emptyList();
 
+    private static final String PRIVATE_OPTION = "--private=";
+
     private final Map<Language, CommandTemplate> languageMap;
 
     public LanguageCommandFactory() {
@@ -61,6 +64,59 @@ public class LanguageCommandFactory {
         return sandboxConfig.isEnabled();
     }
 
+    /**
+     * 拆分由本工厂生成的沙箱命令，得到沙箱选项、私有目录与沙箱内执行的命令
+     *
+     * @param command 完整的执行命令
+     * @return 拆分结果，非沙箱命令返回null
+     */
+    public SandboxedCommand parseSandboxCommand(String[] command) {
+        if (!sandboxConfig.isEnabled() || command.length == 0 || !command[0].equals(sandboxConfig.getCommand())) {
+            return null;
+        }
+        List<String> options = new ArrayList<>();
+        String privateDir = null;
+        int i = 1;
+        for (; i < command.length && command[i].startsWith("--"); i++) {
+            if (command[i].startsWith(PRIVATE_OPTION)) {
+                privateDir = command[i].substring(PRIVATE_OPTION.length());
+            } else {
+                options.add(command[i]);
+            }
+        }
+        return new SandboxedCommand(options, privateDir, Arrays.asList(command).subList(i, command.length));
+    }
+
+    /**
+     * 命令经沙箱启动时，返回进程树中属于沙箱启动器的层数，用于区分沙箱自身与用户代码。
+     * 新建沙箱时为firejail父进程与命名空间内的init两层，--join已有沙箱时只有firejail进程一层；
+     * 只按层级识别，不看用户代码可以随意修改的进程名
+     *
+     * @param command 完整的执行命令
+     * @param joined  是否通过--join在预热沙箱中执行
+     * @return 启动器层数，非沙箱命令返回0
+     */
+    public int getSandboxLauncherDepth(String[] command, boolean joined) {
+        if (!sandboxConfig.isEnabled() || command.length == 0 || !command[0].equals(sandboxConfig.getCommand())) {
+            return 0;
+        }
+        return joined ? 1 : 2;
+    }
+
+    /**
+     * 获取以指定目录为私有目录的沙箱命令前缀，供常驻运行器在沙箱中启动
+     *
+     * @param privateDir 沙箱私有目录
+     * @return 沙箱命令前缀，未启用沙箱时返回空列表
+     */
+    public List<String> getSandboxPrefix(Path privateDir) {
+        List<String> prefix = new ArrayList<>(getSandboxCommandPrefix());
+        if (sandboxConfig.isEnabled()) {
+            prefix.add(PRIVATE_OPTION + privateDir.toString());
+        }
+        return prefix;
+    }
+
     @FunctionalInterface
     private interface CommandTemplate {
         String[] build(Path workDir);
@@ -86,7 +142,7 @@ public class LanguageCommandFactory {
      *
      * @return 沙箱选项列表
      */
-    private List<String> getSandboxOptions() {
+    public List<String> getSandboxOptions() {
         if (!sandboxConfig.isEnabled()) {
             return SANDBOX_COMMON_OPTIONS_DISABLED;
         }
@@ -115,7 +171,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
             command.addAll(Arrays.asList(
                     "--env=JAVA_TOOL_OPTIONS='-Djava.security.manager -Djava.security.policy==<<ALL PERMISSIONS DENIED>>'",
                     "java", "-XX:+PerfDisableSharedMem", "-XX:+UseG1GC", "-XX:MaxRAMPercentage=75.0", "-cp",
@@ -131,7 +187,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
             command.addAll(Arrays.asList("--read-only=/usr/lib", "--env=PYTHONSAFE=1", "python3", "-OO", "-u",
                     workDir.resolve("solution.py").toString()));
         } else {
@@ -144,7 +200,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
         }
         command.add(workDir.resolve("c_solution").toString());
         return command.toArray(new String[0]);
@@ -154,7 +210,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
         }
         command.add(workDir.resolve("cpp_solution").toString());
         return command.toArray(new String[0]);
@@ -164,7 +220,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
         }
         command.add(workDir.resolve("rust_solution").toString());
         return command.toArray(new String[0]);
@@ -174,7 +230,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
         }
         command.add(workDir.resolve("go_solution").toString());
         return command.toArray(new String[0]);
@@ -184,7 +240,7 @@ public class LanguageCommandFactory {
         List<String> command = new ArrayList<>();
         command.addAll(getSandboxCommandPrefix());
         if (sandboxConfig.isEnabled()) {
-            command.add("--private=" + workDir.toString());
+            command.add(PRIVATE_OPTION + workDir.toString());
         }
         command.addAll(Arrays.asList("php", workDir.resolve("solution.php").toString()));
         return command.toArray(new String[0]);
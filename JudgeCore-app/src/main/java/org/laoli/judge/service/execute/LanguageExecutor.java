@@ -0,0 +1,16 @@
+package org.laoli.judge.service.execute;
+
+import org.laoli.judge.model.enums.Language;
+
+/**
+ * @Description 语言专属的代码执行器，由CodeExecutorFactory按语言路由，未注册的语言使用默认执行器
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public interface LanguageExecutor extends CodeExecutor {
+
+    /**
+     * @return 执行器负责的语言
+     */
+    Language language();
+}
@@ -0,0 +1,221 @@
+package org.laoli.judge.service.execute.cgroup;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.SandboxConfig;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * @Description cgroup v2分组管理器
+ * 在委派给判题机的子树下为每次运行创建临时分组，内存峰值取memory.peak，CPU取cpu.stat，
+ * 限制写入memory.max由内核在越界瞬间终止进程；子树不可用时create返回null，由调用方回退。
+ * 分组名带有实例标识，多个判题实例共用同一子树时，启动清理只删除本实例遗留的分组
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class CgroupManager {
+
+    private static final Path CGROUP_MOUNT = Paths.get("/sys/fs/cgroup");
+    private static final String RUN_PREFIX = "run-";
+    private static final Pattern UNSAFE_NAME_CHARS = Pattern.compile("[^A-Za-z0-9_.-]");
+    private static final String[] CONTROLLERS = { "memory", "cpu", "pids" };
+
+    private final SandboxConfig sandboxConfig;
+    private final Path mount;
+    private final String instanceId;
+    /** 本实例分组名的前缀，后接序号 */
+    private final String groupPrefix;
+    private final AtomicLong sequence = new AtomicLong();
+    /** rmdir时仍有进程未退出的分组，下次创建时重试删除 */
+    private final Set<Path> pendingRemoval = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean available;
+    private Path root;
+
+    @Autowired
+    public CgroupManager(SandboxConfig sandboxConfig) {
+        this(sandboxConfig, CGROUP_MOUNT);
+    }
+
+    /**
+     * @param mount cgroup v2统一层级的挂载点，测试时指向临时目录
+     */
+    CgroupManager(SandboxConfig sandboxConfig, Path mount) {
+        this.sandboxConfig = sandboxConfig;
+        this.mount = mount;
+        SandboxConfig.Cgroup config = sandboxConfig.getCgroup();
+        this.instanceId = instanceId(config == null ? null : config.getInstanceId());
+        this.groupPrefix = RUN_PREFIX + instanceId + "-";
+    }
+
+    @PostConstruct
+    public void init() {
+        SandboxConfig.Cgroup config = sandboxConfig.getCgroup();
+        if (config == null || !config.isEnabled()) {
+            log.info("cgroup v2 accounting disabled by configuration");
+            return;
+        }
+        if (!Files.exists(mount.resolve("cgroup.controllers"))) {
+            log.warn("cgroup v2 unified hierarchy not mounted, falling back to /proc memory estimation");
+            return;
+        }
+        try {
+            root = Paths.get(config.getRoot());
+            Files.createDirectories(root);
+            removeStaleGroups();
+            enableControllers();
+            probe();
+            available = true;
+            log.info("cgroup v2 accounting enabled under {} with group prefix {}", root, groupPrefix);
+        } catch (IOException | RuntimeException e) {
+            log.warn("cgroup v2 subtree {} is not delegated ({}), falling back to /proc memory estimation",
+                    config.getRoot(), e.getMessage());
+        }
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    /**
+     * 为一次运行创建分组并写入内存限制
+     *
+     * @param memoryLimitKb 内存限制 (KB)
+     * @return 分组句柄，子树不可用或创建失败时返回null
+     */
+    public RunCgroup create(long memoryLimitKb) {
+        return create(memoryLimitKb, sandboxConfig.getCgroup().getPidsMax());
+    }
+
+    /**
+     * 为一次运行创建分组并写入内存与进程数限制
+     *
+     * @param memoryLimitKb 内存限制 (KB)
+     * @param pidsMax       最大进程(线程)数，0表示不限制
+     * @return 分组句柄，子树不可用或创建失败时返回null
+     */
+    public RunCgroup create(long memoryLimitKb, int pidsMax) {
+        if (!available) {
+            return null;
+        }
+        retryPendingRemovals();
+
+        Path dir = root.resolve(groupPrefix + sequence.incrementAndGet());
+        try {
+            Files.createDirectory(dir);
+            RunCgroup group = new RunCgroup(dir, this);
+            group.limitMemory(memoryLimitKb);
+            group.limitPids(pidsMax);
+            return group;
+        } catch (IOException e) {
+            log.warn("Failed to create cgroup {}: {}", dir, e.getMessage());
+            remove(dir);
+            return null;
+        }
+    }
+
+    void remove(Path dir) {
+        try {
+            Files.deleteIfExists(dir);
+            pendingRemoval.remove(dir);
+        } catch (IOException e) {
+            // 进程刚被杀死时rmdir可能返回EBUSY，稍后重试
+            pendingRemoval.add(dir);
+        }
+    }
+
+    private void retryPendingRemovals() {
+        for (Path dir : pendingRemoval) {
+            remove(dir);
+        }
+    }
+
+    private void enableControllers() throws IOException {
+        String controllers = Files.readString(root.resolve("cgroup.controllers"));
+        if (!controllers.contains("memory")) {
+            throw new IOException("memory controller is not delegated to " + root);
+        }
+        Path subtreeControl = root.resolve("cgroup.subtree_control");
+        for (String controller : CONTROLLERS) {
+            if (!controllers.contains(controller)) {
+                continue;
+            }
+            try {
+                Files.writeString(subtreeControl, "+" + controller);
+            } catch (IOException e) {
+                if ("memory".equals(controller)) {
+                    throw e;
+                }
+                log.debug("Failed to enable {} controller: {}", controller, e.getMessage());
+            }
+        }
+    }
+
+    private void probe() throws IOException {
+        Path probe = root.resolve("probe-" + instanceId);
+        Files.createDirectories(probe);
+        try {
+            if (!Files.exists(probe.resolve("memory.max"))) {
+                throw new IOException("memory.max is not available in child groups");
+            }
+        } finally {
+            Files.deleteIfExists(probe);
+        }
+    }
+
+    /**
+     * 删除本实例上次运行遗留的分组 (进程崩溃时未能清理)，其他实例的分组不受影响
+     */
+    void removeStaleGroups() throws IOException {
+        try (DirectoryStream<Path> groups = Files.newDirectoryStream(root, this::isOwnGroup)) {
+            for (Path group : groups) {
+                new RunCgroup(group, this).close();
+            }
+        }
+    }
+
+    /**
+     * @return 分组是否由本实例创建，即名称为本实例前缀后接序号
+     */
+    boolean isOwnGroup(Path group) {
+        String name = group.getFileName().toString();
+        if (!name.startsWith(groupPrefix) || name.length() == groupPrefix.length()) {
+            return false;
+        }
+        for (int i = groupPrefix.length(); i < name.length(); i++) {
+            if (!Character.isDigit(name.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String groupPrefix() {
+        return groupPrefix;
+    }
+
+    /**
+     * 实例标识：配置了instance-id时使用配置值，否则为主机名加进程号
+     */
+    static String instanceId(String configured) {
+        String id = configured;
+        if (id == null || id.isBlank()) {
+            String host = System.getenv("HOSTNAME");
+            id = (host == null || host.isBlank() ? "local" : host) + "-" + ProcessHandle.current().pid();
+        }
+        return UNSAFE_NAME_CHARS.matcher(id.trim()).replaceAll("_");
+    }
+}
@@ -0,0 +1,146 @@
+package org.laoli.judge.service.execute.cgroup;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * @Description 单次运行对应的临时cgroup v2分组
+ * 运行命令经过包装后先把自身写入cgroup.procs再exec，保证沙箱及其全部子进程都被统计和限制
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+public class RunCgroup implements AutoCloseable {
+
+    private static final String ATTACH_SCRIPT = "echo $$ > \"$0\" && exec \"$@\"";
+
+    private final Path dir;
+    private final CgroupManager manager;
+
+    RunCgroup(Path dir, CgroupManager manager) {
+        this.dir = dir;
+        this.manager = manager;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * 包装运行命令，使进程在exec前加入本分组
+     */
+    public String[] wrap(String[] command) {
+        String[] wrapped = new String[command.length + 4];
+        wrapped[0] = "/bin/sh";
+        wrapped[1] = "-c";
+        wrapped[2] = ATTACH_SCRIPT;
+        wrapped[3] = dir.resolve("cgroup.procs").toString();
+        System.arraycopy(command, 0, wrapped, 4, command.length);
+        return wrapped;
+    }
+
+    void limitMemory(long memoryLimitKb) throws IOException {
+        write("memory.max", String.valueOf(memoryLimitKb * 1024));
+        // 禁止使用swap绕过内存限制，超限时整组一起被杀
+        writeIfPresent("memory.swap.max", "0");
+        writeIfPresent("memory.oom.group", "1");
+    }
+
+    void limitPids(int pidsMax) throws IOException {
+        if (pidsMax > 0) {
+            writeIfPresent("pids.max", String.valueOf(pidsMax));
+        }
+    }
+
+    /**
+     * memory.peak需要5.19及以上内核
+     */
+    public boolean hasPeakMemory() {
+        return Files.exists(dir.resolve("memory.peak"));
+    }
+
+    /**
+     * @return 整组内存峰值 (KB)，内核不支持memory.peak时返回-1
+     */
+    public long peakMemoryKb() {
+        Path peak = dir.resolve("memory.peak");
+        if (!Files.exists(peak)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(Files.readString(peak).trim()) / 1024;
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Failed to read {}: {}", peak, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * @return 整组累计CPU时间 (微秒)，包含已退出的子进程
+     */
+    public long cpuTimeMicros() {
+        return readKeyedValue("cpu.stat", "usage_usec");
+    }
+
+    /**
+     * @return 是否因超过memory.max被OOM Killer终止
+     */
+    public boolean oomKilled() {
+        return readKeyedValue("memory.events", "oom_kill") > 0;
+    }
+
+    /**
+     * 杀死分组内的全部进程
+     */
+    public void kill() {
+        Path killFile = dir.resolve("cgroup.kill");
+        try {
+            if (Files.exists(killFile)) {
+                Files.writeString(killFile, "1");
+                return;
+            }
+            // 5.14之前的内核没有cgroup.kill，逐个杀死
+            for (String line : Files.readAllLines(dir.resolve("cgroup.procs"))) {
+                if (!line.isBlank()) {
+                    ProcessHandle.of(Long.parseLong(line.trim())).ifPresent(ProcessHandle::destroyForcibly);
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Failed to kill cgroup {}: {}", dir, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        kill();
+        manager.remove(dir);
+    }
+
+    private long readKeyedValue(String file, String key) {
+        try {
+            List<String> lines = Files.readAllLines(dir.resolve(file));
+            for (String line : lines) {
+                if (line.startsWith(key + " ")) {
+                    return Long.parseLong(line.substring(key.length() + 1).trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            log.debug("Failed to read {} from {}/{}: {}", key, dir, file, e.getMessage());
+        }
+        return 0;
+    }
+
+    private void write(String file, String value) throws IOException {
+        Files.writeString(dir.resolve(file), value);
+    }
+
+    private void writeIfPresent(String file, String value) throws IOException {
+        if (Files.exists(dir.resolve(file))) {
+            write(file, value);
+        }
+    }
+}
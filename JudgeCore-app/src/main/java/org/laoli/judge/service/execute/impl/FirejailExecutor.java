@@ -1,133 +1,355 @@
 package org.laoli.judge.service.execute.impl;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
 import org.laoli.judge.model.entity.CaseResult;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.entity.TestData;
 import org.laoli.judge.model.enums.SimpleResult;
 import org.laoli.judge.service.comparator.ComparatorFactory;
 import org.laoli.judge.service.comparator.OutputComparator;
 import org.laoli.judge.service.execute.CodeExecutor;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.cgroup.CgroupManager;
+import org.laoli.judge.service.execute.cgroup.RunCgroup;
+import org.laoli.judge.service.execute.io.OutputCapture;
+import org.laoli.judge.service.execute.io.PumpedProcess;
+import org.laoli.judge.service.execute.io.StreamPump;
+import org.laoli.judge.service.execute.sandbox.PooledSandbox;
+import org.laoli.judge.service.execute.sandbox.SandboxPool;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.laoli.judge.service.monitor.ProcessTreeSampler;
+import org.laoli.judge.service.monitor.SampledRun;
 import org.laoli.judge.util.ProcessUtils;
+import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
+@Primary
 @Component
+@RequiredArgsConstructor
 public class FirejailExecutor implements CodeExecutor {
 
+    /** Linux管道容量，不超过该大小的输入一次写入不会阻塞 */
+    private static final int PIPE_CAPACITY = 64 * 1024;
+
+    /** 进程退出后等待剩余输出搬运完毕的时间 (毫秒) */
+    private static final long DRAIN_TIMEOUT_MS = 1000;
+
+    /** 运行时错误信息的最大长度 */
+    private static final int MAX_ERROR_LENGTH = 4096;
+
     private final OutputComparator comparator = ComparatorFactory.getComparator("exact");
 
-    @Override
-    public CaseResult execute(TestCase testCase, Path workDir, String[] command, long timeLimit, long memoryLimit) {
-        ProcessBuilder pb = new ProcessBuilder(command);
-        pb.directory(workDir.toFile());
-        Process process = null;
+    private final CgroupManager cgroupManager;
 
-        try {
-            process = pb.start();
-            writeInput(process, testCase.input());
+    private final ProcessTreeSampler processTreeSampler;
 
-            long memoryUsed = ProcessUtils.estimateMemoryUsage(process.pid());
+    private final SandboxPool sandboxPool;
 
-            Thread errorReader = startErrorReader(process);
-            errorReader.start();
+    private final StreamPump streamPump;
 
-            long startTime = System.currentTimeMillis();
-            boolean completed = process.waitFor(timeLimit, TimeUnit.MILLISECONDS);
-            long executionTime = System.currentTimeMillis() - startTime;
+    private final LanguageCommandFactory languageCommandFactory;
 
-            if (!completed) {
-                process.destroyForcibly();
-                return buildResult(SimpleResult.TIME_LIMIT_EXCEEDED, null, memoryUsed, executionTime, testCase);
-            }
+    private final ExecutionConfig executionConfig;
 
-            int exitCode = process.exitValue();
-            if (exitCode != 0) {
-                String errorOutput = getErrorOutput(errorReader);
-                return buildResult(SimpleResult.RUNTIME_ERROR, errorOutput, memoryUsed, executionTime, testCase);
-            }
+    private final TimeoutWheel timeoutWheel;
+
+    /** 进程退出后计算结果并释放资源的线程池，比对输出与删除cgroup都可能阻塞 */
+    private ThreadPoolExecutor completer;
+
+    @PostConstruct
+    public void startCompleter() {
+        int threads = Math.max(1, executionConfig.getCompletion().effectiveThreads());
+        AtomicInteger threadIndex = new AtomicInteger();
+        completer = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "run-complete-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
 
-            String actualOutput = ProcessUtils.readInputStream(process.getInputStream());
-            return evaluateResult(testCase, memoryUsed, executionTime, actualOutput, timeLimit, memoryLimit);
+    @PreDestroy
+    public void stopCompleter() {
+        completer.shutdownNow();
+    }
+
+    /**
+     * 同步执行用例，调用线程被中断 (判题被取消) 时立即终止进程树
+     */
+    @Override
+    public CaseResult execute(TestCase testCase, Path workDir, String[] command, long timeLimit, long memoryLimit)
+            throws InterruptedException {
+        CompletableFuture<CaseResult> result = executeAsync(testCase, workDir, command, timeLimit, memoryLimit);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            throw e;
+        } catch (ExecutionException e) {
+            // 执行过程中的错误已转换为RUNTIME_ERROR结果，这里只会是未预料的异常
+            throw new CompletionException(e.getCause());
+        }
+    }
 
+    /**
+     * 启动进程后立即返回，进程运行期间不占用线程：
+     * 墙钟超时由时间轮看门狗统一处理，进程退出由Process.onExit()触发，剩余输出搬运完毕后
+     * 在有界的completer线程池中计算结果并释放资源；
+     * 取消返回的future会终止正在运行的进程树
+     */
+    @Override
+    public CompletableFuture<CaseResult> executeAsync(TestCase testCase, Path workDir, String[] command,
+            long timeLimit, long memoryLimit) {
+        Run run = new Run(testCase, timeLimit, memoryLimit);
+        try {
+            start(run, workDir, command);
         } catch (Exception e) {
             log.error("执行失败: {}", e.getMessage());
-            return buildResult(SimpleResult.RUNTIME_ERROR, e.getMessage(), 0, 0, testCase);
-        } finally {
-            if (process != null) {
-                process.destroy();
+            run.close();
+            return CompletableFuture.completedFuture(
+                    buildResult(SimpleResult.RUNTIME_ERROR, e.getMessage(), 0, 0, 0, testCase));
+        }
+
+        CompletableFuture<CaseResult> result = run.process.onExit()
+                .thenCompose(exited -> drain(run))
+                .thenApplyAsync(ignored -> complete(run), completer)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    log.error("执行失败: {}", cause.getMessage());
+                    return buildResult(SimpleResult.RUNTIME_ERROR, cause.getMessage(), 0, 0, 0, testCase);
+                })
+                .whenCompleteAsync((ignored, e) -> run.close(), completer);
+        // 调用方取消时立即终止进程树，资源仍随进程退出由上面的流水线释放
+        result.whenComplete((ignored, e) -> {
+            if (result.isCancelled()) {
+                run.kill();
             }
+        });
+        return result;
+    }
+
+    private void start(Run run, Path workDir, String[] command) throws IOException {
+        // 优先借用预热沙箱，跳过firejail的命名空间、seccomp与私有挂载初始化
+        run.sandbox = sandboxPool.acquire(command, workDir);
+        String[] runCommand = run.sandbox != null ? run.sandbox.command() : command;
+        run.launcherDepth = languageCommandFactory.getSandboxLauncherDepth(runCommand, run.sandbox != null);
+
+        // 每次运行放入独立的cgroup，沙箱与解答进程整体计量，越过memory.max时由内核直接终止
+        run.cgroup = cgroupManager.create(run.memoryLimit);
+        ProcessBuilder pb = new ProcessBuilder(run.cgroup != null ? run.cgroup.wrap(runCommand) : runCommand);
+        pb.directory(workDir.toFile());
+
+        // 超过管道容量的输入直接从文件重定向，由内核按进程读取的速度供给；堆外的输入直接从缓冲区写出，
+        // 已映射的题目数据文件本身就是标准输入，不再复制
+        TestData inputData = run.testCase.inputData();
+        byte[] input = inputData == null ? run.testCase.input().getBytes(StandardCharsets.UTF_8) : null;
+        long inputSize = inputData != null ? inputData.length() : input.length;
+        boolean redirectInput = inputSize > PIPE_CAPACITY;
+        if (inputData != null && inputData.source() != null) {
+            pb.redirectInput(inputData.source().toFile());
+            redirectInput = true;
+        } else if (redirectInput) {
+            // 输入文件由评测进程写入，tmpfs页面计入评测进程而不是运行分组
+            Path ioDir = Files.createDirectories(executionConfig.getFileIo().resolveDir());
+            run.inputFile = Files.createTempFile(ioDir, "stdin_", ".in");
+            if (inputData != null) {
+                inputData.writeTo(run.inputFile);
+            } else {
+                Files.write(run.inputFile, input);
+            }
+            pb.redirectInput(run.inputFile.toFile());
+        }
+        run.startTime = System.currentTimeMillis();
+        run.process = pb.start();
+        // 标准输出始终经管道交给泵线程，大输出由评测进程溢出到文件；若让程序直接写tmpfs上的文件，
+        // 页面会计入运行分组，造成误判的内存超限并抬高报告的内存峰值
+        // 输出超限时由泵线程立即终止整个进程树，不等到时间限制
+        run.pumped = streamPump.attach(run.process, run::kill);
+
+        // 共享采样线程跟踪用户代码的CPU时间并在超限时立即终止，有运行分组时CPU时间取分组的cpu.stat；
+        // 无可用cgroup子树或内核不支持memory.peak时，同时负责整棵进程树的内存峰值与限制
+        RunCgroup cgroup = run.cgroup;
+        run.sampledRun = processTreeSampler.register(run.process.toHandle(),
+                cgroup == null ? run.memoryLimit : 0, run.timeLimit, run.launcherDepth,
+                cgroup == null ? null : cgroup::cpuTimeMicros, run::kill);
+
+        // 墙钟上限只防止程序睡眠或阻塞不结束，超时以CPU时间判定
+        run.timeout = timeoutWheel.schedule(executionConfig.getTime().wallLimitMs(run.timeLimit), run::kill);
+
+        if (!redirectInput) {
+            writeInput(run.process, input, inputData);
         }
     }
 
-    private void writeInput(Process process, String input) throws IOException {
-        try (OutputStream stdin = process.getOutputStream()) {
-            stdin.write(input.getBytes(StandardCharsets.UTF_8));
-            stdin.flush();
+    /**
+     * 等待剩余输出搬运完毕，最多等待DRAIN_TIMEOUT_MS
+     */
+    private CompletableFuture<Void> drain(Run run) {
+        run.endTime = System.currentTimeMillis();
+        run.timeout.cancel();
+        CompletableFuture<Void> drained = run.pumped.finishAsync();
+        TimeoutWheel.Timeout drainTimeout = timeoutWheel.schedule(DRAIN_TIMEOUT_MS, () -> drained.complete(null));
+        return drained.whenComplete((ignored, e) -> drainTimeout.cancel());
+    }
+
+    private CaseResult complete(Run run) {
+        TestCase testCase = run.testCase;
+        boolean completed = !run.timeout.isExpired();
+        SampledRun sampledRun = run.sampledRun;
+        RunCgroup cgroup = run.cgroup;
+        // 墙钟时间从用户代码启动时开始计，不含沙箱初始化
+        long wallTime = Math.max(0, run.endTime - run.startTime - sampledRun.userStartDelayMs());
+
+        long memoryUsed = sampledRun.close();
+        boolean memoryExceeded = sampledRun.limitExceeded();
+        // 有运行分组时为cpu.stat减去启动器的CPU时间，包含已退出的子进程，不会少计
+        long cpuMicros = sampledRun.cpuTimeMicros();
+        if (cgroup != null) {
+            memoryUsed = Math.max(cgroup.peakMemoryKb(), memoryUsed);
+            memoryExceeded |= cgroup.oomKilled();
+        }
+        long executionTime = cpuMicros / 1000;
+        if (memoryExceeded) {
+            return buildResult(SimpleResult.MEMORY_LIMIT_EXCEEDED, null, memoryUsed, executionTime, wallTime,
+                    testCase);
+        }
+        if (run.pumped.output().limitExceeded()) {
+            return buildResult(SimpleResult.OUTPUT_LIMIT_EXCEEDED, null, memoryUsed, executionTime, wallTime,
+                    testCase);
+        }
+        if (!completed || sampledRun.cpuLimitExceeded() || executionTime > run.timeLimit) {
+            return buildResult(SimpleResult.TIME_LIMIT_EXCEEDED, null, memoryUsed, executionTime, wallTime,
+                    testCase);
+        }
+        run.cleanExit = true;
+
+        int exitCode = run.process.exitValue();
+        if (exitCode != 0) {
+            return buildResult(SimpleResult.RUNTIME_ERROR, truncateError(run.pumped.stderr()), memoryUsed,
+                    executionTime, wallTime, testCase);
+        }
+
+        try {
+            return evaluateResult(testCase, memoryUsed, executionTime, wallTime, run.pumped.output(),
+                    run.memoryLimit);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
-    private Thread startErrorReader(Process process) {
-        StringBuilder errorOutput = new StringBuilder();
-        return new Thread(() -> {
-            try (InputStream stderr = process.getErrorStream()) {
-                byte[] buffer = new byte[1024];
-                int bytesRead;
-                while ((bytesRead = stderr.read(buffer)) != -1) {
-                    errorOutput.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
-                }
-            } catch (IOException ignored) {
+    private void killTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private void writeInput(Process process, byte[] input, TestData inputData) throws IOException {
+        try (OutputStream stdin = process.getOutputStream()) {
+            if (inputData != null) {
+                inputData.writeTo(stdin);
+            } else {
+                stdin.write(input);
             }
-        });
+            stdin.flush();
+        } catch (IOException e) {
+            // 程序不读取输入就退出时管道已关闭，由退出状态决定结果
+            log.debug("Failed to write stdin: {}", e.getMessage());
+        }
     }
 
-    private String getErrorOutput(Thread errorReader) throws InterruptedException {
-        errorReader.join(100);
-        return "";
+    private String truncateError(String error) {
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
     }
 
-    private CaseResult buildResult(SimpleResult status, String message, long memory, long time, TestCase testCase) {
+    private CaseResult buildResult(SimpleResult status, String message, long memory, long time, long wallTime,
+            TestCase testCase) {
         return CaseResult.builder()
                 .status(status)
                 .message(message)
                 .memoryUsed(memory)
                 .executionTime(time)
+                .wallTime(wallTime)
                 .input(testCase.input())
                 .expectedOutput(testCase.expectedOutput())
                 .build();
     }
 
-    private CaseResult evaluateResult(TestCase testCase, long memoryUsed, long executionTime, String actualOutput,
-            long timeLimit, long memoryLimit) {
+    private CaseResult evaluateResult(TestCase testCase, long memoryUsed, long executionTime, long wallTime,
+            OutputCapture output, long memoryLimit) throws IOException {
+        if (output.failed()) {
+            return buildResult(SimpleResult.SYSTEM_ERROR, "Failed to capture output", memoryUsed, executionTime,
+                    wallTime, testCase);
+        }
         if (memoryUsed > memoryLimit) {
             return CaseResult.builder()
                     .status(SimpleResult.MEMORY_LIMIT_EXCEEDED)
                     .executionTime(executionTime)
+                    .wallTime(wallTime)
                     .memoryUsed(memoryUsed)
                     .expectedOutput(testCase.expectedOutput())
-                    .actualOutput(ProcessUtils.normalizeOutput(actualOutput))
+                    .actualOutput(ProcessUtils.normalizeOutput(output.text()))
                     .input(testCase.input())
                     .build();
         }
 
-        if (executionTime > timeLimit) {
+        if (testCase.expectedData() != null) {
+            // 堆外的期望输出已规范化，直接逐字节比对；通过的用例不解码输入与输出
+            if (output.matches(testCase.expectedData().buffer())) {
+                return CaseResult.builder()
+                        .status(SimpleResult.ACCEPTED)
+                        .executionTime(executionTime)
+                        .wallTime(wallTime)
+                        .memoryUsed(memoryUsed)
+                        .build();
+            }
             return CaseResult.builder()
-                    .status(SimpleResult.TIME_LIMIT_EXCEEDED)
+                    .status(SimpleResult.WRONG_ANSWER)
                     .executionTime(executionTime)
-                    .actualOutput(ProcessUtils.normalizeOutput(actualOutput))
+                    .wallTime(wallTime)
+                    .memoryUsed(memoryUsed)
+                    .actualOutput(output.spilled() ? output.text() : ProcessUtils.normalizeOutput(output.text()))
                     .expectedOutput(testCase.expectedOutput())
                     .input(testCase.input())
                     .build();
         }
 
+        String actualOutput = output.text();
+
+        if (output.spilled()) {
+            // 溢出到磁盘的输出直接逐字节比对，结果中只保留开头的预览
+            return CaseResult.builder()
+                    .status(output.matches(testCase.expectedOutput())
+                            ? SimpleResult.ACCEPTED : SimpleResult.WRONG_ANSWER)
+                    .executionTime(executionTime)
+                    .wallTime(wallTime)
+                    .memoryUsed(memoryUsed)
+                    .actualOutput(actualOutput)
+                    .expectedOutput(ProcessUtils.normalizeOutput(testCase.expectedOutput()))
+                    .input(testCase.input())
+                    .build();
+        }
+
         CaseResult result = CaseResult.builder()
                 .executionTime(executionTime)
+                .wallTime(wallTime)
                 .memoryUsed(memoryUsed)
                 .actualOutput(actualOutput)
                 .expectedOutput(testCase.expectedOutput())
@@ -136,4 +358,70 @@ public class FirejailExecutor implements CodeExecutor {
 
         return comparator.compare(result);
     }
+
+    /**
+     * 一次运行的全部资源，结束时统一释放
+     */
+    private final class Run {
+        private final TestCase testCase;
+        private final long timeLimit;
+        private final long memoryLimit;
+        private PooledSandbox sandbox;
+        private int launcherDepth;
+        private RunCgroup cgroup;
+        private Path inputFile;
+        private Process process;
+        private PumpedProcess pumped;
+        private SampledRun sampledRun;
+        private TimeoutWheel.Timeout timeout;
+        private long startTime;
+        private long endTime;
+        private boolean cleanExit;
+
+        private Run(TestCase testCase, long timeLimit, long memoryLimit) {
+            this.testCase = testCase;
+            this.timeLimit = timeLimit;
+            this.memoryLimit = memoryLimit;
+        }
+
+        /**
+         * 终止整个进程树，由看门狗、采样线程或泵线程在超限时调用
+         */
+        private void kill() {
+            if (cgroup != null) {
+                cgroup.kill();
+            }
+            if (process != null) {
+                killTree(process);
+            }
+        }
+
+        private void close() {
+            if (timeout != null) {
+                timeout.cancel();
+            }
+            if (pumped != null) {
+                pumped.abandon();
+            }
+            if (sampledRun != null) {
+                sampledRun.close();
+            }
+            if (process != null) {
+                process.destroy();
+            }
+            if (cgroup != null) {
+                cgroup.close();
+            }
+            if (sandbox != null) {
+                sandboxPool.release(sandbox, cleanExit);
+            }
+            if (inputFile != null) {
+                try {
+                    Files.deleteIfExists(inputFile);
+                } catch (IOException e) {
+                    log.debug("Failed to delete input file {}: {}", inputFile, e.getMessage());
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,210 @@
+package org.laoli.judge.service.execute.io;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * @Description 有上限的输出捕获
+ * 不超过内存阈值的输出保存在堆内，超过后整体溢出到临时文件，只在堆内保留开头的预览；
+ * 总量超过上限时丢弃多出的部分并回调onLimitExceeded，单次运行占用的堆内存因此有确定的上界
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+public class OutputCapture implements Closeable {
+
+    /** 溢出到磁盘后在堆内保留、随结果返回的输出开头长度 */
+    public static final int PREVIEW_BYTES = 64 * 1024;
+
+    private final long limitBytes;
+    private final int memoryThreshold;
+    private final Path spillDir;
+    private final Runnable onLimitExceeded;
+    private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+    private byte[] preview;
+    private Path spillFile;
+    private FileChannel spill;
+    private long size;
+    private boolean limitExceeded;
+    private boolean failed;
+    private boolean closed;
+
+    /**
+     * @param limitBytes      输出总量上限
+     * @param memoryThreshold 堆内保存的上限，超过后溢出到临时文件
+     * @param spillDir        溢出文件所在的目录，不存在时在溢出时创建
+     * @param onLimitExceeded 首次超过上限时的回调，为null时只截断
+     */
+    public OutputCapture(long limitBytes, int memoryThreshold, Path spillDir, Runnable onLimitExceeded) {
+        this.limitBytes = limitBytes;
+        this.memoryThreshold = memoryThreshold;
+        this.spillDir = spillDir;
+        this.onLimitExceeded = onLimitExceeded;
+    }
+
+    /**
+     * 追加一段输出，由读取线程调用
+     *
+     * @param data   数据
+     * @param offset 起始位置
+     * @param length 长度
+     * @param direct 读取线程复用的直接缓冲区，写临时文件时使用
+     */
+    void write(byte[] data, int offset, int length, ByteBuffer direct) {
+        Runnable callback = null;
+        synchronized (this) {
+            if (closed || failed || limitExceeded) {
+                return;
+            }
+            int accepted = (int) Math.min(length, limitBytes - size);
+            if (accepted < length) {
+                limitExceeded = true;
+                callback = onLimitExceeded;
+            }
+            try {
+                if (spill == null && size + accepted > memoryThreshold) {
+                    spillToFile(direct);
+                }
+                if (spill != null) {
+                    writeFully(data, offset, accepted, direct);
+                } else {
+                    memory.write(data, offset, accepted);
+                }
+                size += accepted;
+            } catch (IOException e) {
+                log.warn("Failed to spill output to {}: {}", spillFile, e.getMessage());
+                failed = true;
+            }
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    public synchronized long size() {
+        return size;
+    }
+
+    public synchronized boolean limitExceeded() {
+        return limitExceeded;
+    }
+
+    /**
+     * @return 写临时文件失败，输出不完整
+     */
+    public synchronized boolean failed() {
+        return failed;
+    }
+
+    /**
+     * @return 输出是否已溢出到临时文件，此时text()只返回开头的预览
+     */
+    public synchronized boolean spilled() {
+        return spill != null;
+    }
+
+    /**
+     * @return 完整输出，已溢出时为开头的预览
+     */
+    public synchronized String text() {
+        if (spill != null) {
+            return new String(preview, StandardCharsets.UTF_8);
+        }
+        return memory.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 与期望输出逐字节比对，不把溢出的输出读回堆内存
+     */
+    public synchronized boolean matches(String expectedOutput) throws IOException {
+        if (spill == null) {
+            return matchesMemory(new OutputMatcher(expectedOutput));
+        }
+        spill.force(false);
+        return OutputMatcher.matches(spillFile, expectedOutput);
+    }
+
+    /**
+     * 与已规范化的期望输出 (可以在堆外) 逐字节比对
+     */
+    public synchronized boolean matches(ByteBuffer normalizedExpected) throws IOException {
+        if (spill == null) {
+            return matchesMemory(new OutputMatcher(normalizedExpected));
+        }
+        spill.force(false);
+        return OutputMatcher.matches(spillFile, normalizedExpected);
+    }
+
+    private boolean matchesMemory(OutputMatcher matcher) {
+        byte[] bytes = memory.toByteArray();
+        matcher.feed(bytes, 0, bytes.length);
+        return matcher.matches();
+    }
+
+    /**
+     * 读取输出文件的开头作为预览
+     *
+     * @param file 输出文件
+     * @return 不超过PREVIEW_BYTES的开头部分
+     */
+    public static String preview(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(PREVIEW_BYTES, channel.size()));
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满预览长度或到达文件末尾
+            }
+            return new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        memory = new ByteArrayOutputStream();
+        if (spill != null) {
+            try {
+                spill.close();
+                Files.deleteIfExists(spillFile);
+            } catch (IOException e) {
+                log.debug("Failed to delete spill file {}: {}", spillFile, e.getMessage());
+            }
+        }
+    }
+
+    private void spillToFile(ByteBuffer direct) throws IOException {
+        spillFile = Files.createTempFile(Files.createDirectories(spillDir), "stdout_", ".out");
+        spill = FileChannel.open(spillFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        byte[] buffered = memory.toByteArray();
+        preview = Arrays.copyOf(buffered, Math.min(buffered.length, PREVIEW_BYTES));
+        memory = null;
+        writeFully(buffered, 0, buffered.length, direct);
+    }
+
+    /**
+     * 经由直接缓冲区写入，避免FileChannel为堆缓冲区临时分配直接内存
+     */
+    private void writeFully(byte[] data, int offset, int length, ByteBuffer direct) throws IOException {
+        int position = offset;
+        int end = offset + length;
+        while (position < end) {
+            direct.clear();
+            int chunk = Math.min(direct.remaining(), end - position);
+            direct.put(data, position, chunk);
+            direct.flip();
+            while (direct.hasRemaining()) {
+                spill.write(direct);
+            }
+            position += chunk;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.laoli.judge.service.execute.io;
+
+import org.laoli.judge.util.ProcessUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * @Description 流式输出比对
+ * 与ExactOutputComparator口径一致(去掉首尾空白，\r\n与\r视为\n)，但逐字节比对，
+ * 比对溢出到磁盘或重定向到文件的大输出时按段映射文件，不需要把输出读入堆内存或复制到缓冲区
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public final class OutputMatcher {
+
+    /** 单次映射的最大长度 */
+    private static final long MAP_CHUNK = 256L * 1024 * 1024;
+
+    /** 规范化后的期望输出，按绝对位置读取 */
+    private final ByteBuffer expected;
+
+    /** 已确认与期望输出一致的字节数 */
+    private int matched;
+
+    /** 尚未确认的空白字节数，后面再出现非空白字符时才需要与期望输出一致 */
+    private int pending;
+
+    private boolean pendingMatches = true;
+    private boolean started;
+    private boolean afterCarriageReturn;
+    private boolean mismatch;
+
+    public OutputMatcher(String expectedOutput) {
+        this.expected = ByteBuffer.wrap(ProcessUtils.normalizeOutput(expectedOutput).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param normalizedExpected 已规范化的期望输出 (如题目数据存储中的.out)，可以是堆外缓冲区，不会被修改
+     */
+    public OutputMatcher(ByteBuffer normalizedExpected) {
+        this.expected = normalizedExpected.slice();
+    }
+
+    /**
+     * 比对文件内容与期望输出
+     *
+     * @param file           实际输出文件
+     * @param expectedOutput 期望输出
+     * @return 是否一致
+     */
+    public static boolean matches(Path file, String expectedOutput) throws IOException {
+        return new OutputMatcher(expectedOutput).matchesFile(file);
+    }
+
+    /**
+     * 比对文件内容与已规范化的期望输出
+     *
+     * @param file               实际输出文件
+     * @param normalizedExpected 已规范化的期望输出
+     * @return 是否一致
+     */
+    public static boolean matches(Path file, ByteBuffer normalizedExpected) throws IOException {
+        return new OutputMatcher(normalizedExpected).matchesFile(file);
+    }
+
+    private boolean matchesFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size && !mismatch; position += MAP_CHUNK) {
+                feed(channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_CHUNK, size - position)));
+            }
+        }
+        return matches();
+    }
+
+    public void feed(ByteBuffer data) {
+        while (data.hasRemaining() && !mismatch) {
+            accept(data.get());
+        }
+    }
+
+    public void feed(byte[] data, int offset, int length) {
+        for (int i = offset; i < offset + length && !mismatch; i++) {
+            accept(data[i]);
+        }
+    }
+
+    /**
+     * @return 已输入的全部内容是否与期望输出一致，末尾的空白不计
+     */
+    public boolean matches() {
+        return !mismatch && matched == expected.limit();
+    }
+
+    private void accept(byte b) {
+        if (afterCarriageReturn && b == '\n') {
+            afterCarriageReturn = false;
+            return;
+        }
+        afterCarriageReturn = b == '\r';
+        // 与String.trim()一致，不大于空格的字符都是空白，UTF-8多字节字符的各字节都不会落在这个范围
+        if ((b & 0xff) <= ' ') {
+            if (!started) {
+                return;
+            }
+            byte normalized = b == '\r' ? (byte) '\n' : b;
+            int position = matched + pending;
+            if (position >= expected.limit() || expected.get(position) != normalized) {
+                pendingMatches = false;
+            }
+            pending++;
+            return;
+        }
+        started = true;
+        if (!pendingMatches) {
+            mismatch = true;
+            return;
+        }
+        matched += pending;
+        pending = 0;
+        if (matched >= expected.limit() || expected.get(matched) != b) {
+            mismatch = true;
+            return;
+        }
+        matched++;
+    }
+}
@@ -0,0 +1,181 @@
+package org.laoli.judge.service.execute.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description 一次运行的stdout/stderr搬运状态
+ * 每个流由共享线程池中的一个读取线程阻塞读取直到结尾，进程不会因管道写满而阻塞；
+ * 所有流都读到结尾时搬运完毕。超过输出上限后继续读空管道但丢弃数据，直到进程被终止。
+ * 放弃搬运时，孙进程仍持有写端的管道上阻塞的读取线程经/proc被唤醒，不会一直占住共享线程池
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public class PumpedProcess {
+
+    private final InputStream stdout;
+    private final InputStream stderr;
+    private final OutputCapture out;
+    private final OutputCapture err;
+    private final CompletableFuture<Void> drained = new CompletableFuture<>();
+    /** 尚未读到结尾的流数 */
+    private final AtomicInteger pending = new AtomicInteger(2);
+    /** 启动时记录的stdout与stderr管道标识 (/proc中的pipe:[inode])，无法读取时为null */
+    private final String stdoutPipe;
+    private final String stderrPipe;
+    private volatile boolean stdoutReading = true;
+    private volatile boolean stderrReading = true;
+
+    PumpedProcess(Process process, OutputCapture out, OutputCapture err) {
+        this.out = out;
+        this.err = err;
+        this.stdout = process.getInputStream();
+        this.stderr = process.getErrorStream();
+        this.stdoutPipe = pipeOf(process, 1);
+        this.stderrPipe = pipeOf(process, 2);
+    }
+
+    /**
+     * 由读取线程调用，阻塞读取一个流直到结尾
+     *
+     * @param fromStdout 读取stdout还是stderr
+     * @param buffer     读取线程复用的缓冲区
+     * @param direct     读取线程复用的直接缓冲区，输出溢出到临时文件时使用
+     */
+    void read(boolean fromStdout, byte[] buffer, ByteBuffer direct) {
+        InputStream in = fromStdout ? stdout : stderr;
+        OutputCapture sink = fromStdout ? out : err;
+        try {
+            int read;
+            while ((read = in.read(buffer)) >= 0) {
+                sink.write(buffer, 0, read, direct);
+            }
+        } catch (IOException ignored) {
+            // 进程退出后流被关闭，已读到的部分保留
+        } finally {
+            if (fromStdout) {
+                stdoutReading = false;
+            } else {
+                stderrReading = false;
+            }
+            if (pending.decrementAndGet() == 0) {
+                drained.complete(null);
+            }
+        }
+    }
+
+    /**
+     * 等待进程退出后的剩余输出搬运完毕
+     *
+     * @param timeoutMs 最长等待时间，超时后只保留已搬运的部分
+     */
+    public void finish(long timeoutMs) throws InterruptedException {
+        try {
+            finishAsync().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            // 仍有进程持有管道，保留已搬运的部分
+        }
+    }
+
+    /**
+     * 进程退出后调用，不阻塞调用线程
+     *
+     * @return 剩余输出搬运完毕时完成，超时由调用方负责，超时后调用abandon
+     */
+    public CompletableFuture<Void> finishAsync() {
+        return drained;
+    }
+
+    /**
+     * 不再搬运并释放已捕获的输出，用于运行结束后的清理。
+     * 关闭本端的管道，孙进程仍持有管道写端时阻塞在读取上的线程同样返回，之后读到的数据被丢弃
+     */
+    public void abandon() {
+        drained.complete(null);
+        release(stdout, stdoutReading ? stdoutPipe : null);
+        release(stderr, stderrReading ? stderrPipe : null);
+        out.close();
+        err.close();
+    }
+
+    /**
+     * @return 标准输出的捕获，大输出已溢出到临时文件
+     */
+    public OutputCapture output() {
+        return out;
+    }
+
+    /**
+     * @return 标准输出，已溢出到临时文件时为开头的预览
+     */
+    public String stdout() {
+        return out.text();
+    }
+
+    public String stderr() {
+        return err.text();
+    }
+
+    /**
+     * 关闭流并唤醒阻塞在其上的读取线程。在Linux上关闭读端不会让另一个线程中阻塞的read返回，
+     * 因此先经/proc/self/fd重新打开同一管道的写端，关闭后写入一个字节，读取线程醒来后因流已关闭而结束
+     *
+     * @param in   进程的输出流
+     * @param pipe 仍在读取时为管道标识，否则为null，只关闭流
+     */
+    private static void release(InputStream in, String pipe) {
+        Path readEnd = pipe != null ? findOwnDescriptor(pipe) : null;
+        try (OutputStream wake = readEnd != null ? Files.newOutputStream(readEnd, StandardOpenOption.WRITE) : null) {
+            in.close();
+            if (wake != null) {
+                wake.write(0);
+            }
+        } catch (IOException ignored) {
+            // 读取线程已经结束，管道没有读端
+        }
+    }
+
+    /**
+     * @return 子进程的标准输出或标准错误所连接的管道标识，进程已退出或不在Linux上时为null
+     */
+    private static String pipeOf(Process process, int fd) {
+        try {
+            String target = Files.readSymbolicLink(
+                    Path.of("/proc", Long.toString(process.pid()), "fd", Integer.toString(fd))).toString();
+            return target.startsWith("pipe:") ? target : null;
+        } catch (IOException | UnsupportedOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return 本进程中连接该管道的文件描述符路径，已关闭时为null
+     */
+    private static Path findOwnDescriptor(String pipe) {
+        try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(Path.of("/proc/self/fd"))) {
+            for (Path descriptor : descriptors) {
+                try {
+                    if (pipe.equals(Files.readSymbolicLink(descriptor).toString())) {
+                        return descriptor;
+                    }
+                } catch (IOException ignored) {
+                    // 遍历期间关闭的描述符
+                }
+            }
+        } catch (IOException ignored) {
+            // 没有/proc
+        }
+        return null;
+    }
+}
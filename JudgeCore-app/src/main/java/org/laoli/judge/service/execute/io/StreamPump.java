@@ -0,0 +1,105 @@
+package org.laoli.judge.service.execute.io;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @Description 共享的进程输出泵
+ * 有上限的读取线程池对每个流做阻塞读取直到结尾，线程只在有数据或流结束时被内核唤醒，
+ * 没有轮询与定时休眠；空闲线程超时后退出
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class StreamPump {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** 标准错误只用于运行时错误信息，超过该长度的部分直接丢弃 */
+    private static final int MAX_ERROR_BYTES = 64 * 1024;
+
+    /** 空闲读取线程保留的时间 (秒) */
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    /** 读取线程复用的缓冲区，直接缓冲区在输出溢出到临时文件时使用 */
+    private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+    private static final ThreadLocal<ByteBuffer> DIRECT =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    private final ExecutionConfig executionConfig;
+    private ThreadPoolExecutor readers;
+
+    public StreamPump(ExecutionConfig executionConfig) {
+        this.executionConfig = executionConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        int threads = Math.max(2, executionConfig.getPump().getMaxThreads());
+        AtomicInteger threadIndex = new AtomicInteger();
+        readers = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "stream-pump-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        readers.allowCoreThreadTimeOut(true);
+        log.info("Stream pump started with up to {} reader thread(s)", threads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        readers.shutdownNow();
+    }
+
+    /**
+     * 登记一个已启动的进程，开始搬运其stdout与stderr，输出超限时强制终止该进程
+     *
+     * @param process 已启动的进程
+     * @return 搬运句柄，进程结束后调用finish取得完整输出
+     */
+    public PumpedProcess attach(Process process) {
+        return attach(process, process::destroyForcibly);
+    }
+
+    /**
+     * 登记一个已启动的进程，开始搬运其stdout与stderr
+     *
+     * @param process       已启动的进程
+     * @param onOutputLimit 标准输出超过上限时的回调，由读取线程调用，通常用于终止整个进程树
+     * @return 搬运句柄，进程结束后调用finish取得完整输出
+     */
+    public PumpedProcess attach(Process process, Runnable onOutputLimit) {
+        ExecutionConfig.Output config = executionConfig.getOutput();
+        Path spillDir = config.getSpillDir().isEmpty()
+                ? executionConfig.getFileIo().resolveDir()
+                : Paths.get(config.getSpillDir());
+        OutputCapture out = new OutputCapture(config.getLimitKb() * 1024,
+                (int) Math.min(config.getMemoryThresholdKb() * 1024, Integer.MAX_VALUE), spillDir, onOutputLimit);
+        OutputCapture err = new OutputCapture(MAX_ERROR_BYTES, MAX_ERROR_BYTES, spillDir, null);
+        PumpedProcess pumped = new PumpedProcess(process, out, err);
+        readers.execute(() -> read(pumped, true));
+        readers.execute(() -> read(pumped, false));
+        return pumped;
+    }
+
+    private static void read(PumpedProcess pumped, boolean stdout) {
+        try {
+            pumped.read(stdout, BUFFER.get(), DIRECT.get());
+        } catch (RuntimeException e) {
+            log.debug("Failed to pump process output: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+package org.laoli.judge.service.execute.sandbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.util.FileUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @Description 预先初始化好的常驻firejail沙箱
+ * 沙箱以固定的私有目录常驻运行，每次执行时把用例工作目录中的文件硬链接进私有目录，
+ * 再通过firejail --join在已有的命名空间、seccomp与私有挂载中执行命令。
+ * 归还时杀掉沙箱初始进程之外的所有残留进程，并清空私有目录与沙箱私有的/tmp、/dev/shm，
+ * 保证上一次提交留下的后台进程与临时文件不会被下一次提交看到；做不到时由沙箱池销毁沙箱
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+public class PooledSandbox {
+
+    private static final String CHDIR_SCRIPT = "cd \"$0\" && exec \"$@\"";
+    /** 沙箱内的/tmp与/dev/shm使用私有挂载，归还时可以整体清空而不影响宿主 */
+    private static final List<String> PRIVATE_MOUNT_OPTIONS = List.of("--private-tmp", "--private-dev");
+    /** 清理残留进程的轮数，每轮杀掉新出现的进程后等待其退出 */
+    private static final int KILL_ROUNDS = 5;
+    private static final long KILL_WAIT_MS = 10;
+
+    private final String name;
+    private final String sandboxCommand;
+    private final List<String> options;
+    private final Path privateDir;
+    private Process process;
+    /** 沙箱就绪时已存在的进程 (firejail与沙箱内的初始进程)，归还时不清理 */
+    private Set<Long> initPids = Set.of();
+    /** 沙箱内的初始进程，通过/proc/<pid>/root访问沙箱的挂载命名空间 */
+    private long rootPid = -1;
+    private String[] boundCommand;
+    private int uses;
+    private long idleSince = System.currentTimeMillis();
+
+    PooledSandbox(String name, String sandboxCommand, List<String> options, Path privateDir) {
+        this.name = name;
+        this.sandboxCommand = sandboxCommand;
+        this.options = options;
+        this.privateDir = privateDir;
+    }
+
+    /**
+     * 启动沙箱并等待其可以被join
+     */
+    void start(long timeoutMs) throws IOException, InterruptedException {
+        Files.createDirectories(privateDir);
+        List<String> command = new ArrayList<>();
+        command.add(sandboxCommand);
+        command.add("--name=" + name);
+        command.addAll(options);
+        for (String option : PRIVATE_MOUNT_OPTIONS) {
+            if (!options.contains(option)) {
+                command.add(option);
+            }
+        }
+        command.add("--private=" + privateDir);
+        command.addAll(List.of("sleep", "infinity"));
+        process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("sandbox " + name + " exited with code " + process.exitValue());
+            }
+            Process probe = new ProcessBuilder(sandboxCommand, "--quiet", "--join=" + name, "true")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (probe.waitFor(timeoutMs, TimeUnit.MILLISECONDS) && probe.exitValue() == 0) {
+                recordInitProcesses();
+                return;
+            }
+            probe.destroyForcibly();
+            TimeUnit.MILLISECONDS.sleep(20);
+        }
+        shutdown();
+        throw new IOException("sandbox " + name + " not ready within " + timeoutMs + "ms");
+    }
+
+    /**
+     * 把用例工作目录中的文件放入沙箱私有目录，并生成在沙箱内执行的命令
+     *
+     * @param workDir 用例工作目录
+     * @param inner   沙箱内执行的命令 (路径基于工作目录)
+     */
+    void bind(Path workDir, List<String> inner) throws IOException {
+        uses++;
+        FileUtils.linkTree(workDir, privateDir);
+
+        String from = workDir.toString();
+        String to = privateDir.toString();
+        List<String> command = new ArrayList<>();
+        command.add(sandboxCommand);
+        command.add("--quiet");
+        command.add("--join=" + name);
+        command.addAll(List.of("/bin/sh", "-c", CHDIR_SCRIPT, to));
+        for (String arg : inner) {
+            command.add(arg.replace(from, to));
+        }
+        boundCommand = command.toArray(new String[0]);
+    }
+
+    /**
+     * @return 通过firejail --join在本沙箱内执行的完整命令
+     */
+    public String[] command() {
+        return boundCommand;
+    }
+
+    /**
+     * 清理上一次执行的痕迹以便下一次复用：杀掉初始进程之外的所有进程，
+     * 清空私有目录以及沙箱私有的/tmp与/dev/shm
+     *
+     * @return 是否清理成功，失败时沙箱不能再复用
+     */
+    boolean reset() {
+        idleSince = System.currentTimeMillis();
+        if (process == null || !process.isAlive() || rootPid < 0) {
+            return false;
+        }
+        try {
+            if (!killStrayProcesses()) {
+                log.debug("Sandbox {} still has stray processes after reset", name);
+                return false;
+            }
+            FileUtils.clearDirectory(privateDir);
+            Path root = Path.of("/proc", Long.toString(rootPid), "root");
+            clearPrivateMount(root.resolve("tmp"), Path.of("/tmp"));
+            clearPrivateMount(root.resolve("dev/shm"), Path.of("/dev/shm"));
+            return process.isAlive() && isInitAlive();
+        } catch (IOException e) {
+            log.debug("Failed to reset sandbox {}: {}", name, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 记录就绪时沙箱内的进程，并选出没有子进程的初始进程用于访问沙箱的挂载命名空间
+     */
+    private void recordInitProcesses() throws IOException {
+        List<ProcessHandle> processes = process.descendants().toList();
+        initPids = processes.stream().map(ProcessHandle::pid).collect(Collectors.toUnmodifiableSet());
+        rootPid = processes.stream()
+                .filter(handle -> handle.children().findAny().isEmpty())
+                .mapToLong(ProcessHandle::pid)
+                .findFirst()
+                .orElseThrow(() -> new IOException("sandbox " + name + " has no init process"));
+    }
+
+    /**
+     * 杀掉沙箱中不属于初始进程的所有进程。脱离父进程的后台进程会被沙箱的init进程收养，
+     * 因此都在firejail进程的子孙中
+     *
+     * @return 是否已没有残留进程
+     */
+    private boolean killStrayProcesses() throws InterruptedException {
+        for (int round = 0; round < KILL_ROUNDS; round++) {
+            List<ProcessHandle> strays = process.descendants()
+                    .filter(handle -> !initPids.contains(handle.pid()))
+                    .toList();
+            if (strays.isEmpty()) {
+                return true;
+            }
+            strays.forEach(ProcessHandle::destroyForcibly);
+            TimeUnit.MILLISECONDS.sleep(KILL_WAIT_MS);
+        }
+        return process.descendants().allMatch(handle -> initPids.contains(handle.pid()));
+    }
+
+    /**
+     * 清空沙箱私有的挂载点，挂载点与宿主目录相同 (私有挂载未生效) 时拒绝清理
+     */
+    private void clearPrivateMount(Path mount, Path host) throws IOException {
+        if (Files.isSameFile(mount, host)) {
+            throw new IOException(mount + " is not a private mount");
+        }
+        FileUtils.clearDirectory(mount);
+    }
+
+    private boolean isInitAlive() {
+        return initPids.stream().allMatch(pid -> ProcessHandle.of(pid).map(ProcessHandle::isAlive).orElse(false));
+    }
+
+    void shutdown() {
+        try {
+            new ProcessBuilder(sandboxCommand, "--quiet", "--shutdown=" + name)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start()
+                    .waitFor(1, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            log.debug("Failed to shutdown sandbox {}: {}", name, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (process != null) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+        try {
+            FileUtils.clearDirectory(privateDir);
+            Files.deleteIfExists(privateDir);
+        } catch (IOException e) {
+            log.debug("Failed to remove sandbox dir {}: {}", privateDir, e.getMessage());
+        }
+    }
+
+    int uses() {
+        return uses;
+    }
+
+    long idleSince() {
+        return idleSince;
+    }
+}
@@ -0,0 +1,241 @@
+package org.laoli.judge.service.execute.sandbox;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.SandboxConfig;
+import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description 预热沙箱池
+ * 按沙箱选项(即每种语言的getSandboxOptions()加语言专属选项)分组维护空闲的常驻沙箱，
+ * 用例执行时借出一个沙箱，执行结束后清空私有目录归还；池中无空闲沙箱时直接走原有的新建沙箱路径，
+ * 由后台线程异步补充，保证借出操作不会阻塞在沙箱启动上
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class SandboxPool implements MetricsSource {
+
+    private static final String NAME_PREFIX = "judgecore-";
+
+    private final SandboxConfig sandboxConfig;
+    private final LanguageCommandFactory languageCommandFactory;
+    private final Map<List<String>, LanguagePool> pools = new ConcurrentHashMap<>();
+    private final Map<PooledSandbox, LanguagePool> leased = new ConcurrentHashMap<>();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong retired = new AtomicLong();
+
+    private ScheduledExecutorService maintainer;
+    private Path poolRoot;
+
+    public SandboxPool(SandboxConfig sandboxConfig, LanguageCommandFactory languageCommandFactory) {
+        this.sandboxConfig = sandboxConfig;
+        this.languageCommandFactory = languageCommandFactory;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!isEnabled()) {
+            return;
+        }
+        poolRoot = Files.createDirectories(Paths.get(sandboxConfig.getPool().getWorkDir()));
+        AtomicInteger threadIndex = new AtomicInteger();
+        maintainer = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "sandbox-pool-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        maintainer.scheduleWithFixedDelay(this::maintain, 1, 1, TimeUnit.SECONDS);
+
+        for (Language language : sandboxConfig.getPool().getPrewarm()) {
+            SandboxedCommand parsed = languageCommandFactory.parseSandboxCommand(
+                    languageCommandFactory.getCommand(language, poolRoot));
+            if (parsed != null) {
+                LanguagePool pool = pools.computeIfAbsent(parsed.options(), LanguagePool::new);
+                pool.pinned = true;
+                maintainer.execute(() -> replenish(pool));
+            }
+        }
+        log.info("Sandbox pool enabled, size {}, idle timeout {}ms, max reuse {}",
+                sandboxConfig.getPool().getSize(), sandboxConfig.getPool().getIdleTimeoutMs(),
+                sandboxConfig.getPool().getMaxReuse());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (maintainer != null) {
+            maintainer.shutdownNow();
+        }
+        for (LanguagePool pool : pools.values()) {
+            PooledSandbox sandbox;
+            while ((sandbox = pool.idle.pollFirst()) != null) {
+                sandbox.shutdown();
+            }
+        }
+    }
+
+    /**
+     * 为一次运行借出预热沙箱
+     *
+     * @param command 由LanguageCommandFactory生成的完整命令
+     * @param workDir 用例工作目录
+     * @return 已绑定工作目录的沙箱，未启用、非沙箱命令或池中无空闲沙箱时返回null
+     */
+    public PooledSandbox acquire(String[] command, Path workDir) {
+        if (!isEnabled()) {
+            return null;
+        }
+        SandboxedCommand parsed = languageCommandFactory.parseSandboxCommand(command);
+        if (parsed == null || !workDir.toString().equals(parsed.privateDir())) {
+            return null;
+        }
+
+        LanguagePool pool = pools.computeIfAbsent(parsed.options(), LanguagePool::new);
+        pool.lastUsed = System.currentTimeMillis();
+        PooledSandbox sandbox = pool.idle.pollFirst();
+        maintainer.execute(() -> replenish(pool));
+        if (sandbox == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+
+        try {
+            sandbox.bind(workDir, parsed.command());
+        } catch (IOException e) {
+            log.warn("Failed to stage work dir into pooled sandbox: {}", e.getMessage());
+            retire(sandbox);
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        leased.put(sandbox, pool);
+        return sandbox;
+    }
+
+    /**
+     * 归还沙箱
+     *
+     * @param sandbox 借出的沙箱
+     * @param clean   运行是否正常结束，被强制终止的沙箱可能残留进程，直接销毁
+     */
+    public void release(PooledSandbox sandbox, boolean clean) {
+        LanguagePool pool = leased.remove(sandbox);
+        if (pool == null) {
+            return;
+        }
+        SandboxConfig.Pool config = sandboxConfig.getPool();
+        if (clean && sandbox.uses() < config.getMaxReuse() && sandbox.reset()
+                && pool.idle.size() < config.getSize()) {
+            pool.idle.offerFirst(sandbox);
+        } else {
+            retire(sandbox);
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "sandboxPool";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        int idle = pools.values().stream().mapToInt(pool -> pool.idle.size()).sum();
+        return new PoolStats(hitCount, misses.get(), total == 0 ? 0 : (double) hitCount / total,
+                created.get(), retired.get(), idle, leased.size());
+    }
+
+    private boolean isEnabled() {
+        return sandboxConfig.isEnabled() && sandboxConfig.getPool().isEnabled();
+    }
+
+    private void replenish(LanguagePool pool) {
+        SandboxConfig.Pool config = sandboxConfig.getPool();
+        while (true) {
+            synchronized (pool) {
+                if (pool.idle.size() + pool.starting.get() >= config.getSize()) {
+                    return;
+                }
+                pool.starting.incrementAndGet();
+            }
+            String name = NAME_PREFIX + ProcessHandle.current().pid() + "-" + sequence.incrementAndGet();
+            PooledSandbox sandbox = new PooledSandbox(name, sandboxConfig.getCommand(), pool.options,
+                    poolRoot.resolve(name));
+            try {
+                sandbox.start(config.getStartTimeoutMs());
+                created.incrementAndGet();
+                pool.idle.offerLast(sandbox);
+            } catch (IOException e) {
+                log.warn("Failed to start pooled sandbox {}: {}", name, e.getMessage());
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                pool.starting.decrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 关闭空闲超时的沙箱，并为仍在使用的语言补足空闲沙箱
+     */
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        long idleTimeout = sandboxConfig.getPool().getIdleTimeoutMs();
+        for (LanguagePool pool : pools.values()) {
+            for (PooledSandbox sandbox : pool.idle) {
+                if (now - sandbox.idleSince() > idleTimeout && pool.idle.remove(sandbox)) {
+                    retire(sandbox);
+                }
+            }
+            if (pool.pinned || now - pool.lastUsed <= idleTimeout) {
+                replenish(pool);
+            }
+        }
+    }
+
+    private void retire(PooledSandbox sandbox) {
+        retired.incrementAndGet();
+        sandbox.shutdown();
+    }
+
+    private static class LanguagePool {
+        private final List<String> options;
+        private final ConcurrentLinkedDeque<PooledSandbox> idle = new ConcurrentLinkedDeque<>();
+        private final AtomicInteger starting = new AtomicInteger();
+        private volatile long lastUsed = System.currentTimeMillis();
+        private volatile boolean pinned;
+
+        private LanguagePool(List<String> options) {
+            this.options = options;
+        }
+    }
+
+    public record PoolStats(long hits, long misses, double hitRate, long created, long retired, int idle,
+            int leased) {
+    }
+}
@@ -0,0 +1,15 @@
+package org.laoli.judge.service.execute.sandbox;
+
+import java.util.List;
+
+/**
+ * @Description 拆分后的沙箱命令
+ * @Author laoli
+ * @Date 2026/10/16
+ *
+ * @param options    沙箱选项 (不含--private)
+ * @param privateDir --private指定的私有目录，未指定时为null
+ * @param command    沙箱内实际执行的命令
+ */
+public record SandboxedCommand(List<String> options, String privateDir, List<String> command) {
+}
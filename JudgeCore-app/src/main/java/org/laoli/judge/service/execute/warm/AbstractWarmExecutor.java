@@ -0,0 +1,214 @@
+package org.laoli.judge.service.execute.warm;
+
+import jakarta.annotation.PreDestroy;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.comparator.ComparatorFactory;
+import org.laoli.judge.service.comparator.OutputComparator;
+import org.laoli.judge.service.execute.LanguageExecutor;
+import org.laoli.judge.service.execute.impl.FirejailExecutor;
+import org.laoli.judge.service.execute.io.OutputCapture;
+import org.laoli.judge.service.execute.io.OutputMatcher;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.laoli.judge.util.ProcessUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @Description 常驻运行器执行器的公共流程
+ * 借出运行器、放入用例、按协议执行并把应答映射为CaseResult；运行器不可用时退回逐用例启动进程的FirejailExecutor
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public abstract class AbstractWarmExecutor implements LanguageExecutor, MetricsSource {
+
+    /** 运行器超时未应答时额外等待的时间 (毫秒) */
+    private static final long REPLY_GRACE_MS = 1000;
+
+    /** 运行时错误信息的最大长度 */
+    private static final int MAX_ERROR_LENGTH = 4096;
+
+    private final OutputComparator comparator = ComparatorFactory.getComparator("exact");
+
+    private final FirejailExecutor fallback;
+
+    private final ExecutionConfig.Output outputConfig;
+
+    private final ExecutionConfig.Time timeConfig;
+
+    private final TimeoutWheel timeoutWheel;
+
+    private WarmRunnerPool pool;
+
+    protected AbstractWarmExecutor(FirejailExecutor fallback, ExecutionConfig executionConfig,
+            TimeoutWheel timeoutWheel) {
+        this.fallback = fallback;
+        this.timeoutWheel = timeoutWheel;
+        this.outputConfig = executionConfig.getOutput();
+        this.timeConfig = executionConfig.getTime();
+    }
+
+    /**
+     * 由子类在初始化完成后调用，开始预热运行器
+     */
+    protected void startPool(WarmRunnerPool pool) {
+        this.pool = pool;
+        pool.start();
+    }
+
+    /**
+     * @return 供运行器池等待应答时使用的超时看门狗
+     */
+    protected TimeoutWheel timeoutWheel() {
+        return timeoutWheel;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Override
+    public CaseResult execute(TestCase testCase, Path workDir, String[] command, long timeLimit, long memoryLimit)
+            throws IOException, InterruptedException {
+        WarmRunner runner = pool.acquire();
+        if (runner == null) {
+            return fallback.execute(testCase, workDir, command, timeLimit, memoryLimit);
+        }
+
+        boolean reusable = false;
+        long wallLimit = timeConfig.wallLimitMs(timeLimit);
+        try {
+            runner.stage(workDir);
+            if (testCase.inputData() != null) {
+                testCase.inputData().writeTo(runner.stdinFile());
+            } else {
+                Files.writeString(runner.stdinFile(), testCase.input(), StandardCharsets.UTF_8);
+            }
+            // 运行器按CPU时间判定超时，墙钟上限只防止用例阻塞不结束
+            RunReply reply = runner.run(timeLimit, wallLimit, memoryLimit, outputConfig.getLimitKb(),
+                    wallLimit + REPLY_GRACE_MS);
+            if (reply == null) {
+                return runner.timedOut()
+                        ? buildResult(SimpleResult.TIME_LIMIT_EXCEEDED, null, 0, timeLimit, wallLimit, testCase)
+                        : buildResult(SimpleResult.RUNTIME_ERROR, "Runner exited unexpectedly", 0, 0, 0, testCase);
+            }
+            reusable = !reply.recycle();
+
+            long executionTime = reply.cpuMicros() / 1000;
+            long wallTime = reply.wallMicros() / 1000;
+            return switch (reply.status()) {
+                case "TLE" -> buildResult(SimpleResult.TIME_LIMIT_EXCEEDED, null, reply.peakKb(), executionTime,
+                        wallTime, testCase);
+                case "MLE" -> buildResult(SimpleResult.MEMORY_LIMIT_EXCEEDED, null, reply.peakKb(), executionTime,
+                        wallTime, testCase);
+                case "OLE" -> buildResult(SimpleResult.OUTPUT_LIMIT_EXCEEDED, null, reply.peakKb(), executionTime,
+                        wallTime, testCase);
+                case "RE" -> buildResult(SimpleResult.RUNTIME_ERROR, readError(runner.stderrFile()),
+                        reply.peakKb(), executionTime, wallTime, testCase);
+                case "OK" -> evaluateOutput(runner.stdoutFile(), reply.peakKb(), executionTime, wallTime, testCase);
+                default -> buildResult(SimpleResult.SYSTEM_ERROR, "Runner failed to start the case", 0, 0, 0,
+                        testCase);
+            };
+        } finally {
+            pool.release(runner, reusable);
+        }
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        return pool.stats();
+    }
+
+    /**
+     * 把类路径上的资源写出到运行器可以访问的目录
+     */
+    protected static void extractResource(String resource, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try (InputStream in = AbstractWarmExecutor.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Runner resource not found: " + resource);
+            }
+            Files.write(target, in.readAllBytes());
+        }
+    }
+
+    /**
+     * 输出文件不超过内存阈值时按原方式读入比对，超过时逐字节比对文件，只把开头的预览放入结果；
+     * 期望输出在堆外时总是逐字节比对文件，通过的用例不解码输入与输出
+     */
+    private CaseResult evaluateOutput(Path stdout, long memoryUsed, long executionTime, long wallTime,
+            TestCase testCase) throws IOException {
+        long size = Files.size(stdout);
+        if (size > outputConfig.getLimitKb() * 1024) {
+            return buildResult(SimpleResult.OUTPUT_LIMIT_EXCEEDED, null, memoryUsed, executionTime, wallTime,
+                    testCase);
+        }
+        if (testCase.expectedData() != null) {
+            if (OutputMatcher.matches(stdout, testCase.expectedData().buffer())) {
+                return CaseResult.builder()
+                        .status(SimpleResult.ACCEPTED)
+                        .executionTime(executionTime)
+                        .wallTime(wallTime)
+                        .memoryUsed(memoryUsed)
+                        .build();
+            }
+            return CaseResult.builder()
+                    .status(SimpleResult.WRONG_ANSWER)
+                    .executionTime(executionTime)
+                    .wallTime(wallTime)
+                    .memoryUsed(memoryUsed)
+                    .actualOutput(OutputCapture.preview(stdout))
+                    .expectedOutput(testCase.expectedOutput())
+                    .input(testCase.input())
+                    .build();
+        }
+        if (size <= outputConfig.getMemoryThresholdKb() * 1024) {
+            return comparator.compare(CaseResult.builder()
+                    .executionTime(executionTime)
+                    .wallTime(wallTime)
+                    .memoryUsed(memoryUsed)
+                    .actualOutput(Files.readString(stdout, StandardCharsets.UTF_8))
+                    .expectedOutput(testCase.expectedOutput())
+                    .input(testCase.input())
+                    .build());
+        }
+        return CaseResult.builder()
+                .status(OutputMatcher.matches(stdout, testCase.expectedOutput())
+                        ? SimpleResult.ACCEPTED : SimpleResult.WRONG_ANSWER)
+                .executionTime(executionTime)
+                .wallTime(wallTime)
+                .memoryUsed(memoryUsed)
+                .actualOutput(OutputCapture.preview(stdout))
+                .expectedOutput(ProcessUtils.normalizeOutput(testCase.expectedOutput()))
+                .input(testCase.input())
+                .build();
+    }
+
+    private String readError(Path stderr) throws IOException {
+        String error = Files.exists(stderr) ? Files.readString(stderr, StandardCharsets.UTF_8) : "";
+        return error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+    }
+
+    private CaseResult buildResult(SimpleResult status, String message, long memory, long time, long wallTime,
+            TestCase testCase) {
+        return CaseResult.builder()
+                .status(status)
+                .message(message)
+                .memoryUsed(memory)
+                .executionTime(time)
+                .wallTime(wallTime)
+                .input(testCase.input())
+                .expectedOutput(testCase.expectedOutput())
+                .build();
+    }
+}
@@ -0,0 +1,349 @@
+package org.laoli.judge.service.execute.warm;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.FileDescriptor;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.Permission;
+import java.security.Policy;
+import java.security.ProtectionDomain;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Scanner;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * @Description 常驻JVM运行器入口，运行在独立的沙箱JVM中，只依赖JDK
+ * 运行器预先启动并完成预热，只执行一个用例，应答后立即退出，不同提交的代码不会先后运行在同一个JVM中。
+ * 用例在新的类加载器中加载Main，System.in/out/err重定向到用例文件，
+ * 由本进程主线程监控CPU时间、墙钟时间、常驻内存与输出量；用例代码的权限与逐用例启动时的"全部拒绝"策略一致。
+ * 拦截System.exit与拒绝权限依赖SecurityManager (JDK 17起标记为待移除)，需以-Djava.security.manager=allow启动，
+ * 不支持时运行器无法就绪，由执行器退回逐用例启动JVM。
+ * 协议为按行的文本，请求与应答格式见WarmRunner
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@SuppressWarnings("removal")
+public final class JvmRunnerMain {
+
+    private static final long POLL_MS = 2;
+
+    private static final MemoryMXBean MEMORY = ManagementFactory.getMemoryMXBean();
+
+    private static final Path PROC_STATUS = Paths.get("/proc/self/status");
+
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private JvmRunnerMain() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        PrintStream control = new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8);
+        BufferedReader requests = new BufferedReader(
+                new InputStreamReader(new FileInputStream(FileDescriptor.in), StandardCharsets.UTF_8));
+        // 遗留线程的输出不能混入协议通道
+        PrintStream discard = new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8);
+        System.setOut(discard);
+        System.setErr(discard);
+
+        Policy.setPolicy(new CasePolicy());
+        ExitTrap trap = new ExitTrap();
+        System.setSecurityManager(trap);
+        warmUp();
+        control.println("READY");
+
+        String line;
+        while ((line = requests.readLine()) != null) {
+            String[] fields = line.trim().split(" ");
+            if (fields.length != 9 || !"RUN".equals(fields[0])) {
+                control.println("ERROR bad request");
+                continue;
+            }
+            String reply = runCase(trap, Paths.get(fields[1]), Paths.get(fields[2]), Paths.get(fields[3]),
+                    Paths.get(fields[4]), Long.parseLong(fields[5]), Long.parseLong(fields[6]),
+                    Long.parseLong(fields[7]) * 1024, Long.parseLong(fields[8]) * 1024);
+            control.println(reply);
+            // 用例留下的静态状态、线程、终结器与JIT结果都随进程退出丢弃
+            Runtime.getRuntime().halt(0);
+        }
+    }
+
+    private static String runCase(ExitTrap trap, Path classDir, Path stdin, Path stdout, Path stderr,
+            long cpuLimitMs, long wallLimitMs, long memoryLimitBytes, long outputLimitBytes)
+            throws InterruptedException {
+        ThreadGroup group = new ThreadGroup("case");
+        CaseOutcome outcome = new CaseOutcome();
+        try (CaseClassLoader loader = new CaseClassLoader(classDir.toUri().toURL());
+                InputStream in = new BufferedInputStream(new FileInputStream(stdin.toFile()));
+                PrintStream out = new PrintStream(new BufferedOutputStream(new LimitedOutputStream(
+                        new FileOutputStream(stdout.toFile()), outputLimitBytes, outcome), 1 << 16),
+                        false, StandardCharsets.UTF_8);
+                PrintStream err = new PrintStream(new BufferedOutputStream(new FileOutputStream(stderr.toFile())),
+                        false, StandardCharsets.UTF_8)) {
+            System.setIn(in);
+            System.setOut(out);
+            System.setErr(err);
+
+            Map<Long, Long> threadCpu = new ConcurrentHashMap<>();
+            trap.arm(group);
+            Thread main = new Thread(group, () -> {
+                try {
+                    invokeMain(loader, outcome, err);
+                } finally {
+                    // 主线程可能在第一次轮询前就已结束，由其自身记录最终的CPU时间
+                    threadCpu.merge(Thread.currentThread().getId(), THREADS.getCurrentThreadCpuTime(), Math::max);
+                }
+            }, "main");
+            main.setContextClassLoader(loader);
+
+            long startWall = System.nanoTime();
+            main.start();
+
+            String status = null;
+            long peakBytes = 0;
+            long cpu = 0;
+            long wall = 0;
+            while (hasLiveUserThreads(group)) {
+                main.join(POLL_MS);
+                cpu = caseCpuTime(group, threadCpu);
+                wall = System.nanoTime() - startWall;
+                long resident = residentBytes("VmRSS:");
+                peakBytes = Math.max(peakBytes, resident);
+                if (cpu > cpuLimitMs * 1_000_000 || wall > wallLimitMs * 1_000_000) {
+                    status = "TLE";
+                    break;
+                }
+                if (memoryLimitBytes > 0 && resident > memoryLimitBytes) {
+                    status = "MLE";
+                    break;
+                }
+                if (outcome.outputExceeded) {
+                    status = "OLE";
+                    break;
+                }
+            }
+            trap.disarm();
+            cpu = caseCpuTime(group, threadCpu);
+            // 轮询之间的峰值由内核记录
+            peakBytes = Math.max(peakBytes, residentBytes("VmHWM:"));
+            out.flush();
+            err.flush();
+
+            int exitCode = trap.exitStatus() != null ? trap.exitStatus() : outcome.exitCode;
+            if (status == null) {
+                status = outcome.outputExceeded ? "OLE" : outcome.outOfMemory ? "MLE" : exitCode != 0 ? "RE" : "OK";
+            }
+            // 运行器只执行一个用例，应答后总是销毁
+            return "DONE " + status + " " + exitCode + " " + cpu / 1000 + " " + wall / 1000 + " "
+                    + peakBytes / 1024 + " 1";
+        } catch (IOException e) {
+            trap.disarm();
+            return "DONE SE -1 0 0 0 1";
+        }
+    }
+
+    private static void invokeMain(ClassLoader loader, CaseOutcome outcome, PrintStream err) {
+        try {
+            Class<?> mainClass = Class.forName("Main", true, loader);
+            Method method = mainClass.getMethod("main", String[].class);
+            method.invoke(null, (Object) new String[0]);
+        } catch (InvocationTargetException e) {
+            fail(e.getCause(), outcome, err);
+        } catch (Throwable e) {
+            fail(e, outcome, err);
+        }
+    }
+
+    private static void fail(Throwable error, CaseOutcome outcome, PrintStream err) {
+        if (error instanceof ExitTrap.ExitRequested) {
+            return;
+        }
+        if (error instanceof OutOfMemoryError) {
+            outcome.outOfMemory = true;
+        }
+        outcome.exitCode = 1;
+        // 去掉运行器反射调用main的栈帧，与直接运行时的异常栈保持一致
+        StackTraceElement[] trace = error.getStackTrace();
+        int depth = 0;
+        while (depth < trace.length && !trace[depth].getClassName().startsWith("jdk.internal.reflect.")) {
+            depth++;
+        }
+        error.setStackTrace(Arrays.copyOf(trace, depth));
+        err.print("Exception in thread \"main\" ");
+        error.printStackTrace(err);
+    }
+
+    /**
+     * 累计用例线程组内各线程的CPU时间，已结束线程保留最后一次读到的值，GC与运行器自身线程不计入
+     */
+    private static long caseCpuTime(ThreadGroup group, Map<Long, Long> threadCpu) {
+        Thread[] threads = new Thread[group.activeCount() + 8];
+        int count = group.enumerate(threads, true);
+        for (int i = 0; i < count; i++) {
+            long time = THREADS.getThreadCpuTime(threads[i].getId());
+            if (time > 0) {
+                threadCpu.merge(threads[i].getId(), time, Math::max);
+            }
+        }
+        return threadCpu.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * 读取运行器进程的常驻内存，与逐用例启动的JVM一样统计整个进程；/proc不可用时退回已用堆
+     *
+     * @param key /proc/self/status中的字段，VmRSS为当前值，VmHWM为峰值
+     */
+    private static long residentBytes(String key) {
+        try {
+            for (String line : Files.readAllLines(PROC_STATUS, StandardCharsets.US_ASCII)) {
+                if (line.startsWith(key)) {
+                    return Long.parseLong(line.substring(key.length()).replace("kB", "").trim()) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 退回已用堆
+        }
+        return MEMORY.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * 预先加载输入输出常用的JDK类，首个用例不再承担这部分类加载与初始化
+     */
+    private static void warmUp() {
+        Scanner scanner = new Scanner("1 2.5 word\n");
+        scanner.nextInt();
+        scanner.nextDouble();
+        scanner.next();
+        new BufferedReader(new InputStreamReader(InputStream.nullInputStream(), StandardCharsets.UTF_8));
+        PrintStream sink = new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8);
+        sink.printf("%d %.2f %s%n", 1, 2.5, "word");
+        sink.println(String.join(",", Arrays.asList("a", "b")));
+    }
+
+    /**
+     * 与java启动器一致，只要还有非守护线程存活就视为程序未结束
+     */
+    private static boolean hasLiveUserThreads(ThreadGroup group) {
+        Thread[] threads = new Thread[group.activeCount() + 8];
+        int count = group.enumerate(threads, true);
+        for (int i = 0; i < count; i++) {
+            if (threads[i].isAlive() && !threads[i].isDaemon()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static final class CaseOutcome {
+        private volatile int exitCode;
+        private volatile boolean outOfMemory;
+        private volatile boolean outputExceeded;
+    }
+
+    /**
+     * 标准输出计数，超过上限后不再写入文件；PrintStream吞掉写入异常，由监控循环根据标记终止用例
+     */
+    private static final class LimitedOutputStream extends FilterOutputStream {
+        private final long limit;
+        private final CaseOutcome outcome;
+        private long written;
+
+        private LimitedOutputStream(OutputStream out, long limit, CaseOutcome outcome) {
+            super(out);
+            this.limit = limit;
+            this.outcome = outcome;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long accepted = Math.min(len, limit - written);
+            if (accepted > 0) {
+                out.write(b, off, (int) accepted);
+                written += accepted;
+            }
+            if (accepted < len) {
+                outcome.outputExceeded = true;
+                throw new IOException("Output limit exceeded");
+            }
+        }
+    }
+
+    /**
+     * 用例类加载器，父加载器为平台类加载器，用例代码看不到运行器自身的类
+     */
+    private static final class CaseClassLoader extends URLClassLoader {
+        private CaseClassLoader(URL classDir) {
+            super(new URL[]{classDir}, ClassLoader.getPlatformClassLoader());
+        }
+    }
+
+    /**
+     * 用例类加载器中的代码不授予任何权限，运行器与JDK代码不受限制
+     */
+    private static final class CasePolicy extends Policy {
+        @Override
+        public boolean implies(ProtectionDomain domain, Permission permission) {
+            return !(domain.getClassLoader() instanceof CaseClassLoader);
+        }
+    }
+
+    /**
+     * 拦截用例线程的System.exit，记录退出码后以异常结束调用线程
+     */
+    private static final class ExitTrap extends SecurityManager {
+        private volatile ThreadGroup armed;
+        private volatile Integer exitStatus;
+
+        private void arm(ThreadGroup group) {
+            exitStatus = null;
+            armed = group;
+        }
+
+        private void disarm() {
+            armed = null;
+        }
+
+        private Integer exitStatus() {
+            return exitStatus;
+        }
+
+        @Override
+        public void checkExit(int status) {
+            ThreadGroup group = armed;
+            if (group != null && group.parentOf(Thread.currentThread().getThreadGroup())) {
+                if (exitStatus == null) {
+                    exitStatus = status;
+                }
+                throw new ExitRequested();
+            }
+        }
+
+        private static final class ExitRequested extends SecurityException {
+            private static final long serialVersionUID = 1L;
+        }
+    }
+}
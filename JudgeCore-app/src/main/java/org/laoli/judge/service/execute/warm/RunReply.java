@@ -0,0 +1,21 @@
+package org.laoli.judge.service.execute.warm;
+
+/**
+ * @Description 常驻运行器对一次用例的应答
+ * @param status     OK、RE、TLE、MLE、OLE或SE
+ * @param exitCode   用例程序的退出码
+ * @param cpuMicros  用例消耗的CPU时间 (微秒)
+ * @param wallMicros 用例的墙钟时间 (微秒)
+ * @param peakKb     用例的内存峰值 (KB)
+ * @param recycle    运行器是否需要销毁，不能再复用
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public record RunReply(String status, int exitCode, long cpuMicros, long wallMicros, long peakKb, boolean recycle) {
+
+    static RunReply parse(String line) {
+        String[] fields = line.split(" ");
+        return new RunReply(fields[1], Integer.parseInt(fields[2]), Long.parseLong(fields[3]),
+                Long.parseLong(fields[4]), Long.parseLong(fields[5]), "1".equals(fields[6]));
+    }
+}
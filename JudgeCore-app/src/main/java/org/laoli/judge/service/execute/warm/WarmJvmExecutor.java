@@ -0,0 +1,90 @@
+package org.laoli.judge.service.execute.warm;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.impl.FirejailExecutor;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Description JAVA常驻JVM执行器
+ * 维护一组在沙箱中预先启动并完成预热的运行器JVM，每个用例借出一个运行器，以新的类加载器加载Main执行，
+ * 执行后运行器即退出，由后台补足，JVM启动开销不在用例的关键路径上。
+ * 内存按运行器进程的常驻内存统计与限制，与逐用例启动JVM一致。
+ * 运行器依赖SecurityManager拦截System.exit并拒绝用例代码的权限，见ExecutionConfig.WarmJvm
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "judge.execution.warm-jvm", name = "enabled", havingValue = "true")
+public class WarmJvmExecutor extends AbstractWarmExecutor {
+
+    private final ExecutionConfig executionConfig;
+
+    private final LanguageCommandFactory languageCommandFactory;
+
+    private Path runtimeDir;
+
+    public WarmJvmExecutor(ExecutionConfig executionConfig, LanguageCommandFactory languageCommandFactory,
+            FirejailExecutor fallback, TimeoutWheel timeoutWheel) {
+        super(fallback, executionConfig, timeoutWheel);
+        this.executionConfig = executionConfig;
+        this.languageCommandFactory = languageCommandFactory;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        ExecutionConfig.WarmJvm config = executionConfig.getWarmJvm();
+        Path root = Files.createDirectories(Paths.get(config.getWorkDir()));
+        runtimeDir = root.resolve("jvm-runtime");
+        List<Class<?>> classes = new ArrayList<>();
+        collectClasses(JvmRunnerMain.class, classes);
+        for (Class<?> cls : classes) {
+            String resource = cls.getName().replace('.', '/') + ".class";
+            extractResource(resource, runtimeDir.resolve(resource));
+        }
+        startPool(new WarmRunnerPool("jvm-runner", root, config.getPoolSize(), 1,
+                config.getStartTimeoutMs(), timeoutWheel(), this::launchCommand));
+        log.info("Warm JVM runner enabled, pool size {}, heap {}MB", config.getPoolSize(), config.getHeapMb());
+    }
+
+    @Override
+    public Language language() {
+        return Language.JAVA;
+    }
+
+    @Override
+    public String metricsName() {
+        return "warmJvm";
+    }
+
+    private List<String> launchCommand(Path home) {
+        List<String> command = new ArrayList<>(languageCommandFactory.getSandboxPrefix(home));
+        command.addAll(List.of("java", "-Xmx" + executionConfig.getWarmJvm().getHeapMb() + "m",
+                "-XX:+UseSerialGC", "-XX:+PerfDisableSharedMem", "-Djava.security.manager=allow",
+                "-cp", runtimeDir.toString(), JvmRunnerMain.class.getName()));
+        return command;
+    }
+
+    /**
+     * 运行器JVM只加载从应用类路径写出的运行器类，包括全部嵌套类
+     */
+    private void collectClasses(Class<?> cls, List<Class<?>> classes) {
+        classes.add(cls);
+        for (Class<?> nested : cls.getDeclaredClasses()) {
+            collectClasses(nested, classes);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.laoli.judge.service.execute.warm;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.impl.FirejailExecutor;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Description PYTHON常驻zygote执行器
+ * zygote在沙箱中预先导入常用标准库，每个用例fork子进程执行solution.py，
+ * 解答从已初始化的解释器开始运行；时间与内存取自子进程的wait4统计，不包含zygote本身
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "judge.execution.warm-python", name = "enabled", havingValue = "true")
+public class WarmPythonExecutor extends AbstractWarmExecutor {
+
+    private static final String ZYGOTE_RESOURCE = "runner/python_zygote.py";
+
+    private final ExecutionConfig executionConfig;
+
+    private final LanguageCommandFactory languageCommandFactory;
+
+    private Path zygoteScript;
+
+    public WarmPythonExecutor(ExecutionConfig executionConfig, LanguageCommandFactory languageCommandFactory,
+            FirejailExecutor fallback, TimeoutWheel timeoutWheel) {
+        super(fallback, executionConfig, timeoutWheel);
+        this.executionConfig = executionConfig;
+        this.languageCommandFactory = languageCommandFactory;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        ExecutionConfig.WarmPython config = executionConfig.getWarmPython();
+        Path root = Files.createDirectories(Paths.get(config.getWorkDir()));
+        zygoteScript = root.resolve("py-runtime").resolve("python_zygote.py");
+        extractResource(ZYGOTE_RESOURCE, zygoteScript);
+        startPool(new WarmRunnerPool("py-zygote", root, config.getPoolSize(), config.getMaxCases(),
+                config.getStartTimeoutMs(), timeoutWheel(), this::launchCommand));
+        log.info("Python zygote enabled, pool size {}", config.getPoolSize());
+    }
+
+    @Override
+    public Language language() {
+        return Language.PYTHON;
+    }
+
+    @Override
+    public String metricsName() {
+        return "warmPython";
+    }
+
+    private List<String> launchCommand(Path home) {
+        List<String> command = new ArrayList<>(languageCommandFactory.getSandboxPrefix(home));
+        if (languageCommandFactory.isSandboxEnabled()) {
+            command.addAll(List.of("--read-only=/usr/lib", "--env=PYTHONSAFE=1"));
+        }
+        command.addAll(List.of("python3", "-OO", zygoteScript.toString()));
+        return command;
+    }
+}
@@ -0,0 +1,219 @@
+package org.laoli.judge.service.execute.warm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.laoli.judge.util.FileUtils;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * @Description 常驻运行器进程
+ * 运行器在自己的目录(沙箱私有目录)中常驻，每个用例的文件硬链接到case目录，输入输出放在io目录。
+ * 与运行器之间按行通信:
+ * 启动完成后运行器输出 READY；
+ * 请求 RUN &lt;case目录&gt; &lt;stdin&gt; &lt;stdout&gt; &lt;stderr&gt; &lt;CPU限制ms&gt; &lt;墙钟限制ms&gt; &lt;内存限制KB&gt;
+ * &lt;输出限制KB&gt;；
+ * 应答 DONE &lt;状态&gt; &lt;退出码&gt; &lt;CPU微秒&gt; &lt;墙钟微秒&gt; &lt;峰值KB&gt; &lt;是否销毁&gt;
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+public class WarmRunner {
+
+    private static final String READY = "READY";
+    private static final String DONE = "DONE ";
+    private static final int KILL_ROUNDS = 5;
+    private static final long KILL_WAIT_MS = 10;
+
+    private final String name;
+    private final List<String> command;
+    private final Path home;
+    private final Path caseDir;
+    private final Path ioDir;
+    private final TimeoutWheel timeoutWheel;
+    private Process process;
+    private BufferedReader replies;
+    private BufferedWriter requests;
+    /** 就绪时的进程树 (启动器与运行器本身)，此外的进程都是用例留下的 */
+    private Set<Long> initPids = Set.of();
+    private int cases;
+    private volatile boolean timedOut;
+
+    WarmRunner(String name, List<String> command, Path home, TimeoutWheel timeoutWheel) {
+        this.name = name;
+        this.timeoutWheel = timeoutWheel;
+        this.command = command;
+        this.home = home;
+        this.caseDir = home.resolve("case");
+        this.ioDir = home.resolve("io");
+    }
+
+    /**
+     * 启动运行器并等待其就绪
+     */
+    void start(long timeoutMs) throws IOException {
+        Files.createDirectories(caseDir);
+        Files.createDirectories(ioDir);
+        process = new ProcessBuilder(command)
+                .directory(home.toFile())
+                .redirectError(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        replies = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        if (!READY.equals(readLine(timeoutMs))) {
+            shutdown();
+            throw new IOException("runner " + name + " not ready within " + timeoutMs + "ms");
+        }
+        initPids = process.descendants().map(ProcessHandle::pid).collect(Collectors.toUnmodifiableSet());
+    }
+
+    /**
+     * 把用例工作目录放入运行器目录
+     *
+     * @param workDir 用例工作目录
+     */
+    void stage(Path workDir) throws IOException {
+        FileUtils.linkTree(workDir, caseDir);
+    }
+
+    Path stdinFile() {
+        return ioDir.resolve("stdin");
+    }
+
+    Path stdoutFile() {
+        return ioDir.resolve("stdout");
+    }
+
+    Path stderrFile() {
+        return ioDir.resolve("stderr");
+    }
+
+    /**
+     * 执行已放入运行器目录的用例
+     *
+     * @param cpuLimitMs    CPU时间限制 (毫秒)
+     * @param wallLimitMs   墙钟时间限制 (毫秒)
+     * @param memoryLimitKb 内存限制 (KB)
+     * @param outputLimitKb 标准输出限制 (KB)
+     * @param timeoutMs     等待应答的超时，超时后运行器被强制终止
+     * @return 应答，运行器异常退出或超时返回null
+     */
+    RunReply run(long cpuLimitMs, long wallLimitMs, long memoryLimitKb, long outputLimitKb, long timeoutMs)
+            throws IOException {
+        cases++;
+        requests.write(String.join(" ", "RUN", caseDir.toString(), stdinFile().toString(),
+                stdoutFile().toString(), stderrFile().toString(), String.valueOf(cpuLimitMs),
+                String.valueOf(wallLimitMs), String.valueOf(memoryLimitKb), String.valueOf(outputLimitKb)));
+        requests.newLine();
+        requests.flush();
+
+        String line;
+        while ((line = readLine(timeoutMs)) != null && !line.startsWith(DONE)) {
+            log.debug("Unexpected output from runner {}: {}", name, line);
+        }
+        return line != null ? RunReply.parse(line) : null;
+    }
+
+    /**
+     * @return 最近一次等待应答是否因超时而终止了运行器
+     */
+    boolean timedOut() {
+        return timedOut;
+    }
+
+    /**
+     * 杀掉用例留下的进程，清空用例目录与输入输出以便下一次复用
+     *
+     * @return 运行器是否仍可复用，仍有残留进程时不能复用
+     */
+    boolean reset() {
+        if (process == null || !process.isAlive()) {
+            return false;
+        }
+        try {
+            if (!killStrayProcesses()) {
+                log.debug("Runner {} still has stray processes after reset", name);
+                return false;
+            }
+            FileUtils.clearDirectory(caseDir);
+            FileUtils.clearDirectory(ioDir);
+            return process.isAlive();
+        } catch (IOException e) {
+            log.debug("Failed to reset runner {}: {}", name, e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * 杀掉不属于就绪时进程树的所有进程。setsid或两次fork脱离进程组的进程会被运行器
+     * (子进程收养者) 或沙箱的init进程收养，因此都在运行器进程的子孙中
+     *
+     * @return 是否已没有残留进程，被杀死但尚未被回收的进程也视为残留
+     */
+    private boolean killStrayProcesses() throws InterruptedException {
+        for (int round = 0; round < KILL_ROUNDS; round++) {
+            List<ProcessHandle> strays = process.descendants()
+                    .filter(handle -> !initPids.contains(handle.pid()))
+                    .toList();
+            if (strays.isEmpty()) {
+                return true;
+            }
+            strays.forEach(ProcessHandle::destroyForcibly);
+            TimeUnit.MILLISECONDS.sleep(KILL_WAIT_MS);
+        }
+        return process.descendants().allMatch(handle -> initPids.contains(handle.pid()));
+    }
+
+    void shutdown() {
+        if (process != null) {
+            process.descendants().forEach(ProcessHandle::destroyForcibly);
+            process.destroyForcibly();
+        }
+        try {
+            FileUtils.clearDirectory(home);
+            Files.deleteIfExists(home);
+        } catch (IOException e) {
+            log.debug("Failed to remove runner dir {}: {}", home, e.getMessage());
+        }
+    }
+
+    int cases() {
+        return cases;
+    }
+
+    String name() {
+        return name;
+    }
+
+    private String readLine(long timeoutMs) throws IOException {
+        timedOut = false;
+        TimeoutWheel.Timeout killer = timeoutWheel.schedule(timeoutMs, () -> {
+            timedOut = true;
+            process.destroyForcibly();
+        });
+        try {
+            return replies.readLine();
+        } catch (IOException e) {
+            if (timedOut) {
+                return null;
+            }
+            throw e;
+        } finally {
+            killer.cancel();
+        }
+    }
+}
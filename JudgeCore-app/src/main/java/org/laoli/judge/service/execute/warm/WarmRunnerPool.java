@@ -0,0 +1,158 @@
+package org.laoli.judge.service.execute.warm;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * @Description 常驻运行器池
+ * 启动时预热固定数量的运行器，用例借出空闲运行器执行；池中无空闲运行器时就地启动一个，
+ * 归还时运行器已崩溃、超限或达到复用上限的直接销毁，由后台线程补足
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+public class WarmRunnerPool {
+
+    private final String name;
+    private final Path root;
+    private final int size;
+    private final int maxCases;
+    private final long startTimeoutMs;
+    private final TimeoutWheel timeoutWheel;
+    private final Function<Path, List<String>> launcher;
+    private final ConcurrentLinkedDeque<WarmRunner> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger starting = new AtomicInteger();
+    private final AtomicInteger sequence = new AtomicInteger();
+    private final AtomicInteger leased = new AtomicInteger();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong recycled = new AtomicLong();
+    private final ExecutorService maintainer;
+
+    /**
+     * @param name           运行器名称前缀
+     * @param root           运行器目录的父目录
+     * @param size           空闲运行器数量
+     * @param maxCases       单个运行器最多执行的用例数
+     * @param startTimeoutMs 运行器启动超时
+     * @param timeoutWheel   等待运行器应答的超时看门狗
+     * @param launcher       根据运行器目录生成启动命令
+     */
+    public WarmRunnerPool(String name, Path root, int size, int maxCases, long startTimeoutMs,
+            TimeoutWheel timeoutWheel, Function<Path, List<String>> launcher) {
+        this.name = name;
+        this.root = root;
+        this.size = size;
+        this.maxCases = maxCases;
+        this.startTimeoutMs = startTimeoutMs;
+        this.timeoutWheel = timeoutWheel;
+        this.launcher = launcher;
+        this.maintainer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, name + "-pool");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        maintainer.execute(this::replenish);
+    }
+
+    public void shutdown() {
+        maintainer.shutdownNow();
+        WarmRunner runner;
+        while ((runner = idle.pollFirst()) != null) {
+            runner.shutdown();
+        }
+    }
+
+    /**
+     * 借出运行器，无空闲运行器时在调用线程上启动一个
+     *
+     * @return 运行器，启动失败返回null
+     */
+    public WarmRunner acquire() {
+        WarmRunner runner = idle.pollFirst();
+        maintainer.execute(this::replenish);
+        if (runner != null) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            runner = launch();
+        }
+        if (runner != null) {
+            leased.incrementAndGet();
+        }
+        return runner;
+    }
+
+    /**
+     * 归还运行器
+     *
+     * @param runner   借出的运行器
+     * @param reusable 本次运行后运行器是否可以复用
+     */
+    public void release(WarmRunner runner, boolean reusable) {
+        leased.decrementAndGet();
+        if (reusable && runner.cases() < maxCases && runner.reset() && idle.size() < size) {
+            idle.offerFirst(runner);
+            return;
+        }
+        recycled.incrementAndGet();
+        runner.shutdown();
+        maintainer.execute(this::replenish);
+    }
+
+    public PoolStats stats() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return new PoolStats(hitCount, misses.get(), total == 0 ? 0 : (double) hitCount / total, recycled.get(),
+                idle.size(), leased.get());
+    }
+
+    private void replenish() {
+        while (true) {
+            synchronized (this) {
+                if (idle.size() + starting.get() >= size) {
+                    return;
+                }
+                starting.incrementAndGet();
+            }
+            try {
+                WarmRunner runner = launch();
+                if (runner == null) {
+                    return;
+                }
+                idle.offerLast(runner);
+            } finally {
+                starting.decrementAndGet();
+            }
+        }
+    }
+
+    private WarmRunner launch() {
+        Path home = root.resolve(name + "-" + ProcessHandle.current().pid() + "-" + sequence.incrementAndGet());
+        WarmRunner runner = new WarmRunner(home.getFileName().toString(), launcher.apply(home), home,
+                timeoutWheel);
+        try {
+            runner.start(startTimeoutMs);
+            return runner;
+        } catch (IOException e) {
+            log.warn("Failed to start runner {}: {}", runner.name(), e.getMessage());
+            return null;
+        }
+    }
+
+    public record PoolStats(long hits, long misses, double hitRate, long recycled, int idle, int leased) {
+    }
+}
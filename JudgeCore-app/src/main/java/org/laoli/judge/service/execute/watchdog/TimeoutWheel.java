@@ -0,0 +1,226 @@
+package org.laoli.judge.service.execute.watchdog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * @Description 哈希时间轮超时看门狗
+ * 所有运行中用例的截止时间由一个线程统一跟踪，到期时执行登记的回调(通常是杀死进程树)，
+ * 不再为每个用例占用一个阻塞在waitFor上的线程；登记与取消只入队或打标记，时间轮线程按刻度批量处理
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class TimeoutWheel implements MetricsSource {
+
+    private final ExecutionConfig executionConfig;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicLong scheduled = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private List<List<Timeout>> buckets;
+    private long tickNanos;
+    private long startNanos;
+    private long tick;
+    private Thread worker;
+    private volatile boolean running = true;
+    private volatile boolean idle;
+
+    public TimeoutWheel(ExecutionConfig executionConfig) {
+        this.executionConfig = executionConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        ExecutionConfig.Watchdog config = executionConfig.getWatchdog();
+        tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, config.getTickMs()));
+        int size = Integer.highestOneBit(Math.max(16, config.getWheelSize() - 1)) << 1;
+        buckets = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            buckets.add(new ArrayList<>());
+        }
+        startNanos = System.nanoTime();
+        worker = new Thread(this::run, "timeout-wheel");
+        worker.setDaemon(true);
+        worker.start();
+        log.info("Timeout wheel started with {} buckets, tick {}ms", size, config.getTickMs());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (worker != null) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * 登记一个超时回调
+     *
+     * @param delayMs 延迟 (毫秒)，实际触发最多晚一个刻度
+     * @param task    到期时在时间轮线程上执行的回调，应当快速返回
+     * @return 超时句柄，任务提前结束时调用cancel
+     */
+    public Timeout schedule(long delayMs, Runnable task) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delayMs));
+        scheduled.incrementAndGet();
+        active.incrementAndGet();
+        pending.add(timeout);
+        if (idle) {
+            LockSupport.unpark(worker);
+        }
+        return timeout;
+    }
+
+    @Override
+    public String metricsName() {
+        return "timeoutWheel";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        return new WheelStats(scheduled.get(), expired.get(), cancelled.get(), active.get());
+    }
+
+    private void run() {
+        int mask = buckets.size() - 1;
+        while (running) {
+            if (active.get() == 0) {
+                parkWhileIdle();
+                continue;
+            }
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long now;
+            while ((now = System.nanoTime()) < deadline && running) {
+                LockSupport.parkNanos(this, deadline - now);
+            }
+            transferPending(mask);
+            expireBucket(buckets.get((int) (tick & mask)));
+            tick++;
+        }
+    }
+
+    /**
+     * 没有等待中的超时时挂起，不再按刻度空转；恢复时从当前时刻对应的刻度继续
+     */
+    private void parkWhileIdle() {
+        idle = true;
+        while (running && active.get() == 0 && pending.isEmpty()) {
+            LockSupport.park(this);
+        }
+        idle = false;
+        tick = Math.max(tick, (System.nanoTime() - startNanos) / tickNanos);
+    }
+
+    /**
+     * 把新登记的超时放入对应的格子，超过一圈的记录剩余圈数
+     */
+    private void transferPending(int mask) {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long ticks = Math.max(tick, (timeout.deadline - startNanos + tickNanos - 1) / tickNanos);
+            timeout.rounds = (ticks - tick) / buckets.size();
+            buckets.get((int) (ticks & mask)).add(timeout);
+        }
+    }
+
+    private void expireBucket(List<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.isCancelled()) {
+                iterator.remove();
+            } else if (timeout.rounds <= 0) {
+                iterator.remove();
+                timeout.expire();
+            } else {
+                timeout.rounds--;
+            }
+        }
+    }
+
+    /**
+     * 超时句柄
+     */
+    public final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long rounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 取消超时
+         *
+         * @return 是否在到期前取消成功
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(WAITING, CANCELLED)) {
+                cancelled.incrementAndGet();
+                active.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return 回调是否已因到期而执行
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            expired.incrementAndGet();
+            active.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.warn("Timeout task failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @param scheduled 累计登记数
+     * @param expired   累计到期数
+     * @param cancelled 累计取消数
+     * @param active    当前等待中的超时数
+     */
+    public record WheelStats(long scheduled, long expired, long cancelled, int active) {
+    }
+}
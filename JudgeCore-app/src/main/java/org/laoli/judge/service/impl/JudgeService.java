@@ -2,18 +2,28 @@ package org.laoli.judge.service.impl;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
 import org.laoli.judge.model.aggregate.JudgeResult;
 import org.laoli.judge.model.entity.CaseResult;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.CaseListener;
 import org.laoli.judge.service.IJudgeService;
+import org.laoli.judge.service.JudgeScope;
 import org.laoli.judge.service.compile.Compiler;
 import org.laoli.judge.service.compile.CompilerFactory;
+import org.laoli.judge.service.compile.profile.CompileProfileMetrics;
 import org.laoli.judge.service.execute.CodeExecutor;
+import org.laoli.judge.service.execute.CodeExecutorFactory;
 import org.laoli.judge.service.execute.LanguageCommandFactory;
 import org.laoli.judge.service.monitor.PerformanceMonitor;
+import org.laoli.judge.service.pipeline.JudgePipeline;
+import org.laoli.judge.service.problem.ProblemStore;
+import org.laoli.judge.service.testdata.TestCaseSource;
 import org.laoli.judge.service.validation.InputValidator;
+import org.laoli.judge.util.FileUtils;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
@@ -22,7 +32,18 @@ import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 /**
  * 判题服务实现类
@@ -30,9 +51,10 @@ import java.util.concurrent.ThreadPoolExecutor;
  *
  * LeetCode判题逻辑特点:
  * 1. 所有测试用例必须通过才返回Accepted
- * 2. 遇到错误立即返回，不继续执行后续用例
- * 3. 返回第一个失败的测试用例信息
+ * 2. 遇到错误立即返回，不继续执行后续用例 (并行模式下取消下标更大的用例)
+ * 3. 返回第一个失败的测试用例信息 (并行模式下为下标最小的失败用例)
  * 4. 累计所有测试用例的执行时间和内存使用
+ * 5. 编译、运行与清理分别在流水线的独立阶段执行
  *
  * @author laoli
  * @date 2025/02/26
@@ -42,11 +64,11 @@ import java.util.concurrent.ThreadPoolExecutor;
 @RequiredArgsConstructor
 public class JudgeService implements IJudgeService {
 
-    /** 线程池执行器，用于并发执行测试用例 */
+    /** 线程池执行器，并行模式下用于启动测试用例 */
     private final ThreadPoolExecutor executorService;
 
-    /** 代码执行器 */
-    private final CodeExecutor executor;
+    /** 执行器工厂 */
+    private final CodeExecutorFactory codeExecutorFactory;
 
     /** 语言命令工厂 */
     private final LanguageCommandFactory languageCommandFactory;
@@ -60,32 +82,61 @@ public class JudgeService implements IJudgeService {
     /** 性能监控器 */
     private final PerformanceMonitor performanceMonitor;
 
+    /** 用例执行配置 */
+    private final ExecutionConfig executionConfig;
+
+    /** 编译档位指标 */
+    private final CompileProfileMetrics compileProfileMetrics;
+
+    /** 判题流水线 */
+    private final JudgePipeline judgePipeline;
+
+    /** 题目测试数据存储 */
+    private final ProblemStore problemStore;
+
     /** 临时目录前缀 */
     private static final String JUDGE_TEMP_PREFIX = "judge_";
 
-    /** 最大并发测试用例数量，超过此值改为顺序执行 */
-    private static final int MAX_CONCURRENT_CASES = 100;
+    /**
+     * 主判题方法，等待流水线给出结果
+     *
+     * @param testCases   测试用例列表
+     * @param sourceCode  用户源代码
+     * @param language    编程语言
+     * @param timeLimit   时间限制 (毫秒)
+     * @param memoryLimit 内存限制 (KB)
+     * @param profile     编译档位
+     * @return 判题结果
+     */
+    @Override
+    public JudgeResult judge(List<TestCase> testCases, String sourceCode, Language language, long timeLimit,
+            long memoryLimit, CompileProfile profile) {
+        return judgeAsync(testCases, sourceCode, language, timeLimit, memoryLimit, profile).join();
+    }
 
     /**
-     * 主判题方法
+     * 异步判题
      *
      * LeetCode风格处理流程:
-     * 1. 输入验证和预处理
-     * 2. 代码编译
-     * 3. 顺序执行所有测试用例 (LeetCode按顺序执行)
-     * 4. 遇到失败立即返回第一个失败的用例信息
+     * 1. 输入验证和预处理 (调用线程)
+     * 2. 代码编译 (编译阶段)
+     * 3. 顺序或并行执行所有测试用例 (运行阶段)
+     * 4. 遇到失败立即返回第一个失败的用例信息 (并行时为下标最小的失败用例)
      * 5. 所有通过则返回Accepted
+     * 6. 结果给出后在清理阶段删除工作目录
      *
      * @param testCases   测试用例列表
      * @param sourceCode  用户源代码
      * @param language    编程语言
      * @param timeLimit   时间限制 (毫秒)
      * @param memoryLimit 内存限制 (KB)
+     * @param profile     编译档位
+     * @param scope       截止时间与取消状态
      * @return 判题结果
      */
     @Override
-    public JudgeResult judge(List<TestCase> testCases, String sourceCode, Language language, long timeLimit,
-            long memoryLimit) {
+    public CompletableFuture<JudgeResult> judgeAsync(List<TestCase> testCases, String sourceCode, Language language,
+            long timeLimit, long memoryLimit, CompileProfile profile, JudgeScope scope) {
 
         // Step 1: 应用默认限制值
         applyDefaultLimits(timeLimit, memoryLimit);
@@ -94,17 +145,88 @@ public class JudgeService implements IJudgeService {
         JudgeResult validationError = inputValidator.validate(sourceCode, language, testCases, timeLimit, memoryLimit);
         if (validationError != null) {
             log.warn("Input validation failed: {}", validationError.message());
-            return validationError;
+            return CompletableFuture.completedFuture(validationError);
         }
 
-        // Step 3: 选择执行策略
-        // LeetCode风格: 始终按顺序执行，确保测试用例的确定性
-        if (testCases.size() > MAX_CONCURRENT_CASES) {
-            return processSequentially(testCases, sourceCode, language, timeLimit, memoryLimit);
+        // Step 3: 编译并执行，并行与顺序两种模式的判定结果一致
+        return process(() -> TestCaseSource.of(testCases), sourceCode, language, timeLimit, memoryLimit, profile,
+                CaseListener.NONE, scope);
+    }
+
+    /**
+     * 流式判题，用例在运行阶段逐个读取并校验，第一个用例到达即开始运行，不必等待全部用例上传完毕
+     *
+     * @param testCases   用例来源，判题结束时关闭
+     * @param sourceCode  用户源代码
+     * @param language    编程语言
+     * @param timeLimit   时间限制 (毫秒)
+     * @param memoryLimit 内存限制 (KB)
+     * @param profile     编译档位
+     * @param listener    每个用例得到结果时的回调
+     * @param scope       截止时间与取消状态
+     * @return 判题结果
+     */
+    @Override
+    public CompletableFuture<JudgeResult> judgeStreamAsync(TestCaseSource testCases, String sourceCode,
+            Language language, long timeLimit, long memoryLimit, CompileProfile profile, CaseListener listener,
+            JudgeScope scope) {
+
+        applyDefaultLimits(timeLimit, memoryLimit);
+
+        JudgeResult validationError = inputValidator.validateSubmission(sourceCode, language, timeLimit, memoryLimit);
+        if (validationError != null) {
+            log.warn("Input validation failed: {}", validationError.message());
+            testCases.close();
+            return CompletableFuture.completedFuture(validationError);
         }
 
-        // 小数据集也使用顺序执行，保证与LeetCode一致
-        return processSequentially(testCases, sourceCode, language, timeLimit, memoryLimit);
+        CompletableFuture<JudgeResult> result = process(() -> inputValidator.validating(testCases), sourceCode,
+                language, timeLimit, memoryLimit, profile, listener, scope);
+        // 提前结束 (编译失败或用例失败) 时不再接收剩余的用例
+        result.whenComplete((ignored, e) -> testCases.close());
+        return result;
+    }
+
+    /**
+     * 使用题目数据存储中的测试数据异步判题
+     * 测试数据已在上传时校验，这里只校验代码与限制；用例在编译完成后于运行阶段读取
+     *
+     * @param problemId   题目标识
+     * @param version     题目版本，为null时使用最新版本
+     * @param sourceCode  用户源代码
+     * @param language    编程语言
+     * @param timeLimit   时间限制 (毫秒)
+     * @param memoryLimit 内存限制 (KB)
+     * @param profile     编译档位
+     * @param listener    每个用例得到结果时的回调
+     * @param scope       截止时间与取消状态
+     * @return 判题结果
+     */
+    @Override
+    public CompletableFuture<JudgeResult> judgeProblemAsync(String problemId, Long version, String sourceCode,
+            Language language, long timeLimit, long memoryLimit, CompileProfile profile, CaseListener listener,
+            JudgeScope scope) {
+
+        applyDefaultLimits(timeLimit, memoryLimit);
+
+        JudgeResult validationError = inputValidator.validateSubmission(sourceCode, language, timeLimit, memoryLimit);
+        if (validationError != null) {
+            log.warn("Input validation failed: {}", validationError.message());
+            return CompletableFuture.completedFuture(validationError);
+        }
+
+        Long resolved;
+        try {
+            resolved = problemStore.resolveVersion(problemId, version);
+        } catch (IOException e) {
+            return CompletableFuture.completedFuture(buildUnexpectedResult(e));
+        }
+        if (resolved == null) {
+            return CompletableFuture.completedFuture(buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Problem not found: " + problemId + (version == null ? "" : " version " + version)));
+        }
+        return process(() -> TestCaseSource.of(problemStore.load(problemId, resolved)), sourceCode, language,
+                timeLimit, memoryLimit, profile, listener, scope);
     }
 
     /**
@@ -118,58 +240,131 @@ public class JudgeService implements IJudgeService {
     }
 
     /**
-     * 顺序执行测试用例 (LeetCode标准模式)
+     * 编译代码并执行测试用例
      *
      * 特点:
-     * - 按测试用例顺序依次执行
+     * - 编译与运行在流水线的不同阶段执行，编译完成后立即交给运行阶段
+     * - 启用并行且用例多于一个时并发执行，否则按测试用例顺序依次执行
      * - 遇到失败立即返回
      * - 返回第一个失败的测试用例信息
      * - 统计总执行时间和最大内存使用
+     * - 作用域取消或到达截止时间后，尚未开始的阶段不再执行，运行中的用例连同进程一起终止
      *
-     * @param testCases   测试用例列表
+     * @param testData    测试用例来源，在运行阶段打开并逐个读取
      * @param sourceCode  源代码
      * @param language    编程语言
      * @param timeLimit   时间限制
      * @param memoryLimit 内存限制
+     * @param profile     编译档位
+     * @param listener    每个用例得到结果时的回调
+     * @param scope       截止时间与取消状态，取消返回的future同样会取消作用域
      * @return 判题结果
      */
-    private JudgeResult processSequentially(List<TestCase> testCases, String sourceCode, Language language,
-            long timeLimit, long memoryLimit) {
+    private CompletableFuture<JudgeResult> process(Callable<TestCaseSource> testData, String sourceCode,
+            Language language, long timeLimit, long memoryLimit, CompileProfile profile, CaseListener listener,
+            JudgeScope scope) {
+
+        // Step 1: 获取编译器
+        Compiler compiler = compilerFactory.getCompiler(language);
+        if (compiler == null) {
+            return CompletableFuture.completedFuture(buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Compiler not available for language: " + language));
+        }
 
-        Path tempDir = null;
-        try {
-            // Step 1: 获取编译器
-            Compiler compiler = compilerFactory.getCompiler(language);
-            if (compiler == null) {
-                return buildErrorResult(SimpleResult.SYSTEM_ERROR,
-                        "Compiler not available for language: " + language);
-            }
+        AtomicReference<Path> workspace = new AtomicReference<>();
+        CompletableFuture<JudgeResult> judged = judgePipeline.compile().submit(() -> {
+            // 排队期间已被取消或超过截止时间的提交不再编译
+            scope.check();
 
             // Step 2: 创建临时工作目录
-            tempDir = Files.createTempDirectory(JUDGE_TEMP_PREFIX);
+            Path tempDir = Files.createTempDirectory(JUDGE_TEMP_PREFIX);
+            workspace.set(tempDir);
             log.debug("Created temp directory: {}", tempDir);
 
             // Step 3: 编译代码
-            JudgeResult compileResult = compileCode(compiler, sourceCode, tempDir);
-            if (compileResult != null) {
-                return compileResult;
+            return compileCode(compiler, sourceCode, tempDir, profile);
+        }).thenCompose(compileResult -> compileResult != null
+                ? CompletableFuture.completedFuture(compileResult)
+                // Step 4: 执行测试用例
+                : judgePipeline.run().submit(() -> {
+                    scope.check();
+                    try (TestCaseSource testCases = testData.call()) {
+                        return executeTestCases(testCases, workspace.get(), language, timeLimit, memoryLimit,
+                                profile, listener, scope);
+                    }
+                }))
+                .exceptionally(this::buildUnexpectedResult);
+
+        // Step 5: 结果给出后清理工作目录，被取消时等进程终止后再清理
+        judged.whenComplete((ignored, e) -> {
+            Path tempDir = workspace.get();
+            if (tempDir != null) {
+                judgePipeline.cleanup().submit(() -> {
+                    cleanupTempDir(tempDir);
+                    return null;
+                });
             }
+        });
+
+        CompletableFuture<JudgeResult> result = judged.thenApply(Function.identity());
+        result.whenComplete((ignored, e) -> {
+            if (result.isCancelled()) {
+                scope.cancel();
+            }
+        });
+        return result;
+    }
 
-            // Step 4: 准备执行命令
+    /**
+     * 在运行阶段执行全部测试用例
+     */
+    private JudgeResult executeTestCases(TestCaseSource testCases, Path tempDir, Language language, long timeLimit,
+            long memoryLimit, CompileProfile profile, CaseListener listener, JudgeScope scope)
+            throws IOException, InterruptedException {
+        CodeExecutor executor = codeExecutorFactory.getExecutor(language);
+        JudgeResult result;
+        // 数量未知的流式用例同样可以并行
+        if (executionConfig.getParallel().isEnabled() && testCases.size() != 1) {
+            result = executeTestCasesInParallel(executor, testCases, tempDir, language, timeLimit, memoryLimit,
+                    listener, scope);
+        } else {
             String[] command = languageCommandFactory.getCommand(language, tempDir);
+            result = executeTestCasesInOrder(executor, testCases, tempDir, command, timeLimit, memoryLimit,
+                    listener, scope);
+        }
 
-            // Step 5: 顺序执行每个测试用例 (LeetCode风格)
-            return executeTestCasesInOrder(testCases, tempDir, command, timeLimit, memoryLimit);
+        // 只统计全部用例都跑完的提交，各档位的运行耗时才可比
+        if (isAccepted(result.status())) {
+            compileProfileMetrics.recordRun(language.getLanguage(), profile, result.executionTime());
+        }
+        return result;
+    }
 
-        } catch (IOException e) {
-            log.error("IO error during judge: {}", e.getMessage(), e);
-            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "IO error: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error during judge: {}", e.getMessage(), e);
-            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Unexpected error: " + e.getMessage());
-        } finally {
-            cleanupTempDir(tempDir);
+    /**
+     * 将流水线中抛出的异常转换为判题结果
+     */
+    private JudgeResult buildUnexpectedResult(Throwable e) {
+        Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof IOException) {
+            log.error("IO error during judge: {}", cause.getMessage(), cause);
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "IO error: " + cause.getMessage());
+        }
+        if (cause instanceof InterruptedException) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Judge interrupted");
+        }
+        if (cause instanceof CancellationException) {
+            // 调用方取消或超过截止时间，进程已被终止
+            log.info("Judge cancelled: {}", cause.getMessage());
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    cause.getMessage() == null ? "Judge cancelled" : cause.getMessage());
+        }
+        if (cause instanceof IllegalArgumentException) {
+            // 流式用例在运行阶段逐个校验
+            log.warn("Input validation failed: {}", cause.getMessage());
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR, cause.getMessage());
         }
+        log.error("Unexpected error during judge: {}", cause.getMessage(), cause);
+        return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Unexpected error: " + cause.getMessage());
     }
 
     /**
@@ -180,28 +375,36 @@ public class JudgeService implements IJudgeService {
      * 2. 如果某个用例失败，立即返回该用例的信息
      * 3. 如果所有用例通过，返回Accepted
      * 4. 统计总执行时间和最大内存使用
+     * 5. 每个用例的时间限制不超过截止时间前的剩余时间，取消时中断当前用例
      *
-     * @param testCases   测试用例列表
+     * @param executor    代码执行器
+     * @param testCases   测试用例来源
      * @param tempDir     临时目录
      * @param command     执行命令
      * @param timeLimit   时间限制
      * @param memoryLimit 内存限制
+     * @param listener    每个用例得到结果时的回调
+     * @param scope       截止时间与取消状态
      * @return 判题结果
      */
-    private JudgeResult executeTestCasesInOrder(List<TestCase> testCases, Path tempDir,
-            String[] command, long timeLimit, long memoryLimit) {
+    private JudgeResult executeTestCasesInOrder(CodeExecutor executor, TestCaseSource testCases, Path tempDir,
+            String[] command, long timeLimit, long memoryLimit, CaseListener listener, JudgeScope scope)
+            throws IOException, InterruptedException {
 
         List<CaseResult> allResults = new ArrayList<>();
         long totalExecutionTime = 0L;
         long maxMemoryUsed = 0L;
 
-        // 顺序遍历所有测试用例 (LeetCode风格)
-        for (int i = 0; i < testCases.size(); i++) {
-            TestCase testCase = testCases.get(i);
-
+        // 顺序遍历所有测试用例 (LeetCode风格)，流式用例边到达边执行
+        TestCase testCase;
+        for (int i = 0; (testCase = nextCase(testCases, scope)) != null; i++) {
             try {
                 // 执行单个测试用例
-                CaseResult result = executor.execute(testCase, tempDir, command, timeLimit, memoryLimit);
+                TestCase current = testCase;
+                CaseResult result = scope.interruptibly(() -> executor.execute(current, tempDir, command,
+                        scope.timeBudget(timeLimit), memoryLimit));
+                // 超过截止时间后结果不再可信 (时间限制已被截短)，取消时进程已被终止
+                scope.check();
 
                 // 记录性能数据
                 performanceMonitor.recordExecution(
@@ -216,6 +419,7 @@ public class JudgeService implements IJudgeService {
                         result.memoryUsed() != null ? result.memoryUsed() : 0);
 
                 allResults.add(result);
+                listener.onCase(i, result);
 
                 // LeetCode风格: 遇到失败立即返回
                 if (!isAccepted(result.status())) {
@@ -223,30 +427,216 @@ public class JudgeService implements IJudgeService {
                     return buildFailureResult(result, totalExecutionTime, maxMemoryUsed);
                 }
 
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
+                // 取消时执行器因中断抛出的异常不是用例错误
+                scope.check();
                 log.error("Error executing test case {}: {}", i, e.getMessage());
                 CaseResult errorResult = buildErrorCaseResult(testCase, i, e);
                 allResults.add(errorResult);
+                listener.onCase(i, errorResult);
                 return buildFailureResult(errorResult, totalExecutionTime, maxMemoryUsed);
             }
         }
 
         // 所有测试用例通过
-        log.info("All {} test cases passed", testCases.size());
+        log.info("All {} test cases passed", allResults.size());
+        return buildSuccessResult(totalExecutionTime, maxMemoryUsed, allResults);
+    }
+
+    /**
+     * 取得下一个用例。流式用例尚未到达时在运行阶段的线程上等待，等待期间取消判题会中断等待
+     */
+    private static TestCase nextCase(TestCaseSource testCases, JudgeScope scope)
+            throws IOException, InterruptedException {
+        try {
+            return scope.interruptibly(testCases::next);
+        } catch (InterruptedException e) {
+            // 因取消而中断时以取消结束判题
+            scope.check();
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * 并行执行测试用例
+     *
+     * 与顺序执行的判定一致:
+     * 1. 每个用例在独立的工作目录中运行，目录从编译产物复制，程序改写文件不影响其他用例
+     * 2. 同一提交最多同时运行concurrency个用例，按下标顺序启动，流式用例到达后才启动
+     * 3. 某个用例失败后，下标更大的用例不再启动，运行中的被取消并终止进程；下标更小的继续运行
+     * 4. 返回下标最小的失败用例，执行时间与内存只统计该用例及之前的用例
+     * 5. 作用域取消时不再启动新的用例，运行中的用例全部取消
+     *
+     * @param executor    代码执行器
+     * @param testCases   测试用例来源
+     * @param tempDir     编译产物所在目录
+     * @param language    编程语言
+     * @param timeLimit   时间限制
+     * @param memoryLimit 内存限制
+     * @param listener    每个用例得到结果时的回调
+     * @param scope       截止时间与取消状态
+     * @return 判题结果
+     */
+    private JudgeResult executeTestCasesInParallel(CodeExecutor executor, TestCaseSource testCases, Path tempDir,
+            Language language, long timeLimit, long memoryLimit, CaseListener listener, JudgeScope scope)
+            throws IOException, InterruptedException {
+
+        int concurrency = executionConfig.getParallel().effectiveConcurrency();
+        if (testCases.size() > 0) {
+            concurrency = Math.min(testCases.size(), concurrency);
+        }
+        Map<Integer, CaseResult> results = new ConcurrentHashMap<>();
+        Map<Integer, CompletableFuture<CaseResult>> running = new ConcurrentHashMap<>();
+        List<CompletableFuture<Void>> finished = new ArrayList<>();
+        AtomicInteger firstFailure = new AtomicInteger(Integer.MAX_VALUE);
+        Semaphore slots = new Semaphore(concurrency);
+        int total = 0;
+
+        try {
+            while (true) {
+                slots.acquire();
+                scope.check();
+                if (total > firstFailure.get()) {
+                    slots.release();
+                    break;
+                }
+                TestCase testCase = nextCase(testCases, scope);
+                if (testCase == null) {
+                    slots.release();
+                    break;
+                }
+                int index = total++;
+                Path caseDir;
+                try {
+                    caseDir = Files.createTempDirectory(JUDGE_TEMP_PREFIX + "case" + index + "_");
+                    // 必须复制而不是硬链接：程序以文件属主运行，可以恢复写权限并改写共享的inode
+                    FileUtils.copyTree(tempDir, caseDir);
+                } catch (IOException e) {
+                    log.error("Failed to prepare work dir for test case {}: {}", index, e.getMessage());
+                    CaseResult errorResult = buildErrorCaseResult(testCase, index, e);
+                    results.put(index, errorResult);
+                    listener.onCase(index, errorResult);
+                    cancelAfter(index, firstFailure, running);
+                    slots.release();
+                    break;
+                }
+
+                String[] command = languageCommandFactory.getCommand(language, caseDir);
+                CompletableFuture<CaseResult> future = scope.track(startCase(executor, testCase, caseDir, command,
+                        scope.timeBudget(timeLimit), memoryLimit));
+                running.put(index, future);
+                finished.add(future.handle((result, e) -> {
+                    if (result == null && !(e instanceof CancellationException)) {
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null
+                                ? e.getCause() : e;
+                        log.error("Error executing test case {}: {}", index, cause.getMessage());
+                        result = buildErrorCaseResult(testCase, index, cause);
+                    }
+                    if (result != null) {
+                        results.put(index, result);
+                        listener.onCase(index, result);
+                        if (!isAccepted(result.status())) {
+                            cancelAfter(index, firstFailure, running);
+                        }
+                    }
+                    cleanupTempDir(caseDir);
+                    slots.release();
+                    return null;
+                }));
+                // 启动期间已有更靠前的用例失败
+                if (index > firstFailure.get()) {
+                    future.cancel(true);
+                }
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            // 读取后续用例失败 (上传中断或校验不通过) 或判题被取消，已启动的用例全部取消
+            running.values().forEach(future -> future.cancel(true));
+            CompletableFuture.allOf(finished.toArray(CompletableFuture[]::new)).join();
+            throw e;
+        }
+
+        CompletableFuture.allOf(finished.toArray(CompletableFuture[]::new)).join();
+        // 等待期间被取消的用例没有结果
+        scope.check();
+
+        int failedIndex = firstFailure.get();
+        int counted = failedIndex < total ? failedIndex + 1 : total;
+        List<CaseResult> allResults = new ArrayList<>(counted);
+        long totalExecutionTime = 0L;
+        long maxMemoryUsed = 0L;
+        for (int i = 0; i < counted; i++) {
+            CaseResult result = results.get(i);
+            long memoryUsed = result.memoryUsed() != null ? result.memoryUsed() : 0;
+            performanceMonitor.recordExecution("case_" + i, result.executionTime(), memoryUsed,
+                    result.status() == SimpleResult.ACCEPTED);
+            totalExecutionTime += result.executionTime();
+            maxMemoryUsed = Math.max(maxMemoryUsed, memoryUsed);
+            allResults.add(result);
+        }
+
+        if (failedIndex < total) {
+            log.info("Test case {} failed with status: {}, cancelled later cases", failedIndex,
+                    results.get(failedIndex).status());
+            return buildFailureResult(results.get(failedIndex), totalExecutionTime, maxMemoryUsed);
+        }
+        log.info("All {} test cases passed with concurrency {}", total, concurrency);
         return buildSuccessResult(totalExecutionTime, maxMemoryUsed, allResults);
     }
 
+    /**
+     * 在线程池上启动单个用例
+     * 同步执行的执行器在线程池线程上运行完整个用例；异步执行器启动进程后立即归还线程。
+     * 取消返回的future时，尚未启动的用例不再启动，已启动的用例连同进程一起取消
+     */
+    private CompletableFuture<CaseResult> startCase(CodeExecutor executor, TestCase testCase, Path caseDir,
+            String[] command, long timeLimit, long memoryLimit) {
+        AtomicBoolean cancelled = new AtomicBoolean();
+        CompletableFuture<CompletableFuture<CaseResult>> started = CompletableFuture.supplyAsync(
+                () -> cancelled.get()
+                        ? CompletableFuture.failedFuture(new CancellationException())
+                        : executor.executeAsync(testCase, caseDir, command, timeLimit, memoryLimit),
+                executorService);
+        CompletableFuture<CaseResult> result = started.thenCompose(Function.identity());
+        result.whenComplete((ignored, e) -> {
+            if (result.isCancelled()) {
+                cancelled.set(true);
+                started.thenAccept(execution -> execution.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 记录失败的用例并取消下标更大的用例
+     */
+    private void cancelAfter(int index, AtomicInteger firstFailure,
+            Map<Integer, CompletableFuture<CaseResult>> running) {
+        firstFailure.accumulateAndGet(index, Math::min);
+        running.forEach((i, future) -> {
+            if (i > index) {
+                future.cancel(true);
+            }
+        });
+    }
+
     /**
      * 编译用户代码
      *
      * @param compiler   编译器实例
      * @param sourceCode 源代码
      * @param tempDir    临时目录
+     * @param profile    编译档位
      * @return 编译结果，如果成功返回null
      */
-    private JudgeResult compileCode(Compiler compiler, String sourceCode, Path tempDir) {
+    private JudgeResult compileCode(Compiler compiler, String sourceCode, Path tempDir, CompileProfile profile) {
         try {
-            JudgeResult compileResult = compiler.compile(sourceCode, tempDir);
+            JudgeResult compileResult = compiler.compile(sourceCode, tempDir, profile);
 
             // 检查编译是否失败
             if (compileResult != null && compileResult.status() != SimpleResult.ACCEPTED) {
@@ -334,6 +724,7 @@ public class JudgeService implements IJudgeService {
             case WRONG_ANSWER -> "Wrong Answer";
             case TIME_LIMIT_EXCEEDED -> "Time Limit Exceeded";
             case MEMORY_LIMIT_EXCEEDED -> "Memory Limit Exceeded";
+            case OUTPUT_LIMIT_EXCEEDED -> "Output Limit Exceeded";
             case RUNTIME_ERROR -> "Runtime Error";
             default -> "Test case failed";
         };
@@ -342,7 +733,7 @@ public class JudgeService implements IJudgeService {
     /**
      * 构建错误测试结果
      */
-    private CaseResult buildErrorCaseResult(TestCase testCase, int index, Exception e) {
+    private CaseResult buildErrorCaseResult(TestCase testCase, int index, Throwable e) {
         return CaseResult.builder()
                 .status(SimpleResult.RUNTIME_ERROR)
                 .message("Error in test case " + index + ": " + e.getMessage())
@@ -0,0 +1,20 @@
+package org.laoli.judge.service.monitor;
+
+/**
+ * @Description 运行指标来源
+ * 各组件实现此接口后由指标接口统一汇总输出
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public interface MetricsSource {
+
+    /**
+     * @return 指标分组名称
+     */
+    String metricsName();
+
+    /**
+     * @return 当前指标快照
+     */
+    Object metricsSnapshot();
+}
@@ -0,0 +1,107 @@
+package org.laoli.judge.service.monitor;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ExecutionConfig;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * @Description 共享的进程树内存采样器
+ * 少量后台线程按固定间隔遍历所有运行中用例的ProcessHandle.descendants()，
+ * 累加整棵树的RSS并发布每次运行的峰值，多进程程序和firejail包装的程序都能得到准确峰值；
+ * 同一次遍历中读取各进程的CPU时间，超过CPU时间限制时与内存超限一样立即回调
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class ProcessTreeSampler {
+
+    private final ExecutionConfig executionConfig;
+    private final List<Set<SampledRun>> shards = new ArrayList<>();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private ScheduledExecutorService scheduler;
+
+    public ProcessTreeSampler(ExecutionConfig executionConfig) {
+        this.executionConfig = executionConfig;
+    }
+
+    @PostConstruct
+    public void start() {
+        ExecutionConfig.Sampler config = executionConfig.getSampler();
+        int threads = Math.max(1, config.getThreads());
+        long interval = Math.max(1, config.getIntervalMs());
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "proc-sampler-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            Set<SampledRun> shard = ConcurrentHashMap.newKeySet();
+            shards.add(shard);
+            scheduler.scheduleWithFixedDelay(() -> sampleShard(shard), interval, interval, TimeUnit.MILLISECONDS);
+        }
+        log.info("Process tree sampler started with {} thread(s), interval {}ms", threads, interval);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 登记一次运行，立即采样一次后交给共享线程持续采样
+     *
+     * @param root            运行的根进程
+     * @param memoryLimitKb   内存限制 (KB)，0表示只统计不限制
+     * @param cpuLimitMs      用户代码CPU时间限制 (毫秒)，0表示只统计不限制
+     * @param launcherDepth   进程树中属于沙箱启动器的层数 (根进程为第1层)，其CPU时间不计入用户代码，未经沙箱启动时为0
+     * @param onLimitExceeded 首次超过内存或CPU时间限制时的回调，通常用于杀死进程树
+     * @return 采样句柄，运行结束后调用close获取峰值
+     */
+    public SampledRun register(ProcessHandle root, long memoryLimitKb, long cpuLimitMs, int launcherDepth,
+            Runnable onLimitExceeded) {
+        return register(root, memoryLimitKb, cpuLimitMs, launcherDepth, null, onLimitExceeded);
+    }
+
+    /**
+     * 登记一次在运行分组中执行的运行，CPU时间取分组的累计值而不是按进程采样
+     *
+     * @param groupCpuMicros 运行分组的累计CPU时间 (微秒)，没有运行分组时为null
+     * @see #register(ProcessHandle, long, long, int, Runnable)
+     */
+    public SampledRun register(ProcessHandle root, long memoryLimitKb, long cpuLimitMs, int launcherDepth,
+            LongSupplier groupCpuMicros, Runnable onLimitExceeded) {
+        Set<SampledRun> shard = shards.get(Math.floorMod(nextShard.getAndIncrement(), shards.size()));
+        SampledRun run = new SampledRun(root, memoryLimitKb, cpuLimitMs, launcherDepth, groupCpuMicros, onLimitExceeded,
+                shard);
+        run.sample();
+        shard.add(run);
+        return run;
+    }
+
+    private void sampleShard(Set<SampledRun> shard) {
+        for (SampledRun run : shard) {
+            try {
+                run.sample();
+            } catch (RuntimeException e) {
+                log.debug("Failed to sample process tree: {}", e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package org.laoli.judge.service.monitor;
+
+import org.laoli.judge.util.ProcessUtils;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * @Description 一次运行的进程树采样状态
+ * 由共享采样线程周期性累加整棵进程树的RSS并维护峰值，同时跟踪用户代码的CPU时间用于超限时提前终止，
+ * 调用方只读取结果，不在请求线程上等待。
+ * 有运行分组时CPU时间取分组的cpu.stat，减去采样到的沙箱启动器CPU时间；
+ * 经沙箱启动时，根进程与沙箱启动器进程的CPU时间不计入，用户代码的计时从其第一个进程启动时开始。
+ * 启动器进程按在进程树中的层级识别，用户代码修改自己的进程名不能把CPU时间算到启动器上
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public class SampledRun {
+
+    private final ProcessHandle root;
+    private final long memoryLimitKb;
+    private final long cpuLimitMicros;
+    private final int launcherDepth;
+    private final LongSupplier groupCpuMicros;
+    private final Runnable onLimitExceeded;
+    private final AtomicLong peakMemoryKb = new AtomicLong();
+    private final AtomicBoolean limitExceeded = new AtomicBoolean();
+    private final AtomicBoolean cpuLimitExceeded = new AtomicBoolean();
+    /** 各进程最后一次读到的CPU时间，已退出的进程保留最后的值 */
+    private final Map<Long, Long> cpuByPid = new ConcurrentHashMap<>();
+    /** 沙箱启动器各进程 (进程树的前launcherDepth层) 最后一次读到的CPU时间 */
+    private final Map<Long, Long> launcherCpuByPid = new ConcurrentHashMap<>();
+    private final AtomicLong rootStartMicros = new AtomicLong(-1);
+    private final AtomicLong userStartMicros = new AtomicLong(-1);
+    private final Set<SampledRun> shard;
+
+    SampledRun(ProcessHandle root, long memoryLimitKb, long cpuLimitMs, int launcherDepth, LongSupplier groupCpuMicros,
+            Runnable onLimitExceeded, Set<SampledRun> shard) {
+        this.root = root;
+        this.memoryLimitKb = memoryLimitKb;
+        this.cpuLimitMicros = cpuLimitMs * 1000;
+        this.launcherDepth = launcherDepth;
+        this.groupCpuMicros = groupCpuMicros;
+        this.onLimitExceeded = onLimitExceeded;
+        this.shard = shard;
+    }
+
+    /**
+     * 采样一次整棵进程树，根进程已退出时仍会统计尚存的子进程
+     */
+    void sample() {
+        long total = sampleTree(root, 1);
+        long peak = peakMemoryKb.accumulateAndGet(total, Math::max);
+        long cpu = cpuTimeMicros();
+
+        if (memoryLimitKb > 0 && peak > memoryLimitKb && limitExceeded.compareAndSet(false, true)) {
+            notifyLimitExceeded();
+        }
+        if (cpuLimitMicros > 0 && cpu > cpuLimitMicros && cpuLimitExceeded.compareAndSet(false, true)) {
+            notifyLimitExceeded();
+        }
+    }
+
+    /**
+     * @return 目前为止的进程树内存峰值 (KB)
+     */
+    public long peakMemoryKb() {
+        return peakMemoryKb.get();
+    }
+
+    /**
+     * @return 采样期间是否超过内存限制
+     */
+    public boolean limitExceeded() {
+        return limitExceeded.get();
+    }
+
+    /**
+     * @return 采样期间用户代码的CPU时间是否超过限制
+     */
+    public boolean cpuLimitExceeded() {
+        return cpuLimitExceeded.get();
+    }
+
+    /**
+     * 用户代码的累计CPU时间。
+     * 有运行分组时取分组cpu.stat的累计值 (含已退出的进程，精确到微秒) 减去采样到的启动器CPU时间，
+     * 启动器在最后一次采样之后的开销只会多计给用户代码，不会少计；
+     * 没有运行分组时只能按采样累加，每个进程在其最后一次采样之后使用的CPU时间都会丢失
+     *
+     * @return CPU时间 (微秒)
+     */
+    public long cpuTimeMicros() {
+        if (groupCpuMicros != null) {
+            long launcherCpu = launcherCpuByPid.values().stream().mapToLong(Long::longValue).sum();
+            return Math.max(0, groupCpuMicros.getAsLong() - launcherCpu);
+        }
+        return cpuByPid.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * @return 用户代码第一个进程相对根进程的启动延迟 (毫秒)，即沙箱启动耗时，无法确定时为0
+     */
+    public long userStartDelayMs() {
+        long rootStart = rootStartMicros.get();
+        long userStart = userStartMicros.get();
+        return rootStart < 0 || userStart < 0 ? 0 : Math.max(0, userStart - rootStart) / 1000;
+    }
+
+    /**
+     * 停止采样
+     *
+     * @return 进程树内存峰值 (KB)
+     */
+    public long close() {
+        shard.remove(this);
+        return peakMemoryKb.get();
+    }
+
+    /**
+     * 采样以handle为根的子树
+     *
+     * @param depth handle在进程树中的层数，根进程为1
+     * @return 子树的常驻内存之和 (KB)
+     */
+    private long sampleTree(ProcessHandle handle, int depth) {
+        long total = sampleProcess(handle, depth <= launcherDepth);
+        for (ProcessHandle child : handle.children().toList()) {
+            total += sampleTree(child, depth + 1);
+        }
+        return total;
+    }
+
+    /**
+     * 记录单个进程的CPU时间
+     *
+     * @param launcher 是否为沙箱启动器进程
+     * @return 进程常驻内存 (KB)
+     */
+    private long sampleProcess(ProcessHandle handle, boolean launcher) {
+        long memory = ProcessUtils.readResidentMemoryKb(handle.pid());
+        ProcessUtils.ProcStat stat = ProcessUtils.readProcStat(handle.pid());
+        if (stat == null) {
+            return memory;
+        }
+        boolean isRoot = handle.pid() == root.pid();
+        if (isRoot) {
+            rootStartMicros.compareAndSet(-1, stat.startMicros());
+        }
+        // 经沙箱启动时前几层是沙箱自身，不属于用户代码
+        if (launcher) {
+            launcherCpuByPid.merge(handle.pid(), stat.cpuMicros(), Math::max);
+            return memory;
+        }
+        cpuByPid.merge(handle.pid(), stat.cpuMicros(), Math::max);
+        userStartMicros.accumulateAndGet(stat.startMicros(),
+                (current, start) -> current < 0 ? start : Math.min(current, start));
+        return memory;
+    }
+
+    private void notifyLimitExceeded() {
+        if (onLimitExceeded != null) {
+            onLimitExceeded.run();
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package org.laoli.judge.service.pipeline;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.PipelineConfig;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * @Description 分阶段的判题流水线
+ * 校验在请求线程上完成，之后依次经过编译、运行(准备命令、执行用例并比对输出)与清理三个阶段，
+ * 每个阶段有独立的线程池与有界队列：编译高峰不会占满运行线程，大量短用例也不会让编译排队；
+ * 一个阶段完成后立即把提交交给下一阶段
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class JudgePipeline implements MetricsSource {
+
+    private final PipelineStage compile;
+    private final PipelineStage run;
+    private final PipelineStage cleanup;
+
+    public JudgePipeline(PipelineConfig pipelineConfig) {
+        this.compile = create("compile", pipelineConfig.getCompile());
+        this.run = create("run", pipelineConfig.getRun());
+        this.cleanup = create("cleanup", pipelineConfig.getCleanup());
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (PipelineStage stage : stages()) {
+            stage.shutdown();
+        }
+    }
+
+    /**
+     * @return 编译阶段，创建工作目录并编译
+     */
+    public PipelineStage compile() {
+        return compile;
+    }
+
+    /**
+     * @return 运行阶段，执行用例并比对输出
+     */
+    public PipelineStage run() {
+        return run;
+    }
+
+    /**
+     * @return 清理阶段，删除工作目录
+     */
+    public PipelineStage cleanup() {
+        return cleanup;
+    }
+
+    @Override
+    public String metricsName() {
+        return "pipeline";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        Map<String, PipelineStage.StageStats> snapshot = new LinkedHashMap<>();
+        for (PipelineStage stage : stages()) {
+            snapshot.put(stage.getName(), stage.stats());
+        }
+        return snapshot;
+    }
+
+    private List<PipelineStage> stages() {
+        return List.of(compile, run, cleanup);
+    }
+
+    private static PipelineStage create(String name, PipelineConfig.Stage config) {
+        int threads = config.effectiveThreads();
+        log.info("Judge pipeline stage {} started with {} thread(s), queue {}", name, threads, config.getQueueSize());
+        return new PipelineStage(name, threads, config.getQueueSize());
+    }
+}
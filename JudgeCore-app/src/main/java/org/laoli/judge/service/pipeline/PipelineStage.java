@@ -0,0 +1,134 @@
+package org.laoli.judge.service.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description 判题流水线的一个阶段
+ * 固定数量的工作线程与有界等待队列；队列满时提交方阻塞直到有空位，下游阶段饱和时上游线程停下来而不是无限排队。
+ * 分别统计任务在队列中等待的时间与执行的时间
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+public class PipelineStage {
+
+    private final String name;
+    private final int queueSize;
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong blocked = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong runNanos = new AtomicLong();
+
+    public PipelineStage(String name, int threads, int queueSize) {
+        this.name = name;
+        this.queueSize = Math.max(1, queueSize);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(this.queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "judge-" + name + "-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, this::awaitCapacity);
+    }
+
+    /**
+     * 提交任务，队列已满时阻塞当前线程
+     *
+     * @param task 任务
+     * @return 任务结果，任务抛出的异常使其异常完成
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        long enqueued = System.nanoTime();
+        submitted.incrementAndGet();
+        try {
+            executor.execute(() -> {
+                long started = System.nanoTime();
+                long waited = started - enqueued;
+                waitNanos.addAndGet(waited);
+                maxWaitNanos.accumulateAndGet(waited, Math::max);
+                try {
+                    future.complete(task.call());
+                } catch (Throwable e) {
+                    failed.incrementAndGet();
+                    future.completeExceptionally(e);
+                } finally {
+                    runNanos.addAndGet(System.nanoTime() - started);
+                    completed.incrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            submitted.decrementAndGet();
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StageStats stats() {
+        long done = completed.get();
+        return new StageStats(executor.getCorePoolSize(), executor.getActiveCount(), executor.getQueue().size(),
+                queueSize, submitted.get(), done, failed.get(), blocked.get(),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(waitNanos.get() / done) / 1000.0,
+                TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get()),
+                done == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(runNanos.get() / done) / 1000.0);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 队列满时的拒绝策略：在提交线程上等待空位
+     */
+    private void awaitCapacity(Runnable runnable, ThreadPoolExecutor pool) {
+        if (pool.isShutdown()) {
+            throw new RejectedExecutionException("Pipeline stage " + name + " is shut down");
+        }
+        blocked.incrementAndGet();
+        try {
+            pool.getQueue().put(runnable);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for pipeline stage " + name, e);
+        }
+        // 等待期间关闭的阶段不会再执行队列中的任务
+        if (pool.isShutdown() && pool.getQueue().remove(runnable)) {
+            throw new RejectedExecutionException("Pipeline stage " + name + " is shut down");
+        }
+    }
+
+    /**
+     * @param threads       工作线程数
+     * @param active        正在执行的任务数
+     * @param queued        队列中等待的任务数
+     * @param queueCapacity 队列容量
+     * @param submitted     累计提交的任务数
+     * @param completed     累计完成的任务数 (含失败)
+     * @param failed        抛出异常的任务数
+     * @param blocked       因队列已满而阻塞提交方的次数
+     * @param avgWaitMs     平均排队时间 (毫秒)
+     * @param maxWaitMs     最长排队时间 (毫秒)
+     * @param avgRunMs      平均执行时间 (毫秒)
+     */
+    public record StageStats(int threads, int active, int queued, int queueCapacity, long submitted, long completed,
+            long failed, long blocked, double avgWaitMs, long maxWaitMs, double avgRunMs) {
+    }
+}
@@ -0,0 +1,346 @@
+package org.laoli.judge.service.problem;
+
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.ProblemConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.entity.ProblemVersion;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.entity.TestData;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.laoli.judge.service.testdata.TestDataCache;
+import org.laoli.judge.service.validation.InputValidator;
+import org.laoli.judge.util.FileUtils;
+import org.laoli.judge.util.ProcessUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * @Description 题目测试数据存储
+ * 测试数据按 题目/版本 保存在本地磁盘，每个用例一个.in与一个.out文件，期望输出在上传时规范化后保存；
+ * 清单记录用例数与各文件的校验和。上传时一次性校验数量与大小，判题请求只引用题目与版本，不再逐次传输与校验；
+ * 版本先写入临时目录再整体改名，写到一半的版本不会被读到。每个版本首次加载时按清单核对校验和；
+ * 加载的用例内容放在堆外的TestDataCache中，以清单中的校验和为键，判题期间不在堆上生成String
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class ProblemStore implements MetricsSource {
+
+    private static final String MANIFEST_FILE = "manifest.properties";
+    private static final String STAGING_PREFIX = ".staging-";
+    private static final Pattern PROBLEM_ID = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final Pattern VERSION_DIR = Pattern.compile("[1-9][0-9]{0,17}");
+
+    private final ProblemConfig problemConfig;
+    private final InputValidator inputValidator;
+    private final TestDataCache testDataCache;
+    private final Path root;
+
+    /** 同一题目的上传与删除串行执行，版本号连续分配 */
+    private final Map<String, Object> locks = new ConcurrentHashMap<>();
+    /** 本进程内已核对过校验和的版本 */
+    private final Set<Path> verified = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong ingests = new AtomicLong();
+    private final AtomicLong ingestedCases = new AtomicLong();
+    private final AtomicLong loads = new AtomicLong();
+    private final AtomicLong loadedBytes = new AtomicLong();
+    private final AtomicLong checksumFailures = new AtomicLong();
+
+    public ProblemStore(ProblemConfig problemConfig, InputValidator inputValidator, TestDataCache testDataCache) {
+        this.problemConfig = problemConfig;
+        this.inputValidator = inputValidator;
+        this.testDataCache = testDataCache;
+        this.root = Paths.get(problemConfig.getDir());
+    }
+
+    /**
+     * 校验并保存一组测试数据，作为题目的新版本
+     *
+     * @param problemId 题目标识，只能包含字母、数字、下划线与连字符
+     * @param testCases 测试用例
+     * @return 新版本的信息
+     * @throws IllegalArgumentException 题目标识或测试用例不合法
+     */
+    public ProblemVersion ingest(String problemId, List<TestCase> testCases) throws IOException {
+        checkProblemId(problemId);
+        JudgeResult error = inputValidator.validateTestCases(testCases);
+        if (error != null) {
+            throw new IllegalArgumentException(error.message());
+        }
+
+        Path problemDir = root.resolve(problemId);
+        Files.createDirectories(problemDir);
+        Path staging = Files.createTempDirectory(problemDir, STAGING_PREFIX);
+        try {
+            Properties manifest = new Properties();
+            MessageDigest versionDigest = sha256();
+            long totalBytes = 0;
+            for (int i = 0; i < testCases.size(); i++) {
+                TestCase testCase = testCases.get(i);
+                // 以字节上传的用例直接写出原始字节 (期望输出已规范化)，不经过String
+                TestData input = testCase.inputData() != null ? testCase.inputData() : TestData.of(ByteBuffer.wrap(
+                        (testCase.input() == null ? "" : testCase.input()).getBytes(StandardCharsets.UTF_8)));
+                TestData output = testCase.expectedData() != null ? testCase.expectedData() : TestData.of(
+                        ByteBuffer.wrap(ProcessUtils.normalizeOutput(testCase.expectedOutput())
+                                .getBytes(StandardCharsets.UTF_8)));
+                input.writeTo(staging.resolve(i + ".in"));
+                output.writeTo(staging.resolve(i + ".out"));
+                String inputHash = input.hash();
+                String outputHash = output.hash();
+                manifest.setProperty(i + ".in", inputHash);
+                manifest.setProperty(i + ".out", outputHash);
+                versionDigest.update((inputHash + outputHash).getBytes(StandardCharsets.US_ASCII));
+                totalBytes += input.length() + output.length();
+            }
+            String checksum = hex(versionDigest.digest());
+            long createdAt = System.currentTimeMillis();
+            manifest.setProperty("cases", Integer.toString(testCases.size()));
+            manifest.setProperty("bytes", Long.toString(totalBytes));
+            manifest.setProperty("createdAt", Long.toString(createdAt));
+            manifest.setProperty("checksum", checksum);
+            try (Writer writer = Files.newBufferedWriter(staging.resolve(MANIFEST_FILE))) {
+                manifest.store(writer, null);
+            }
+
+            long version;
+            synchronized (lockFor(problemId)) {
+                version = latestVersion(problemDir) + 1;
+                move(staging, problemDir.resolve(Long.toString(version)));
+            }
+            ingests.incrementAndGet();
+            ingestedCases.addAndGet(testCases.size());
+            log.info("Stored problem {} version {} with {} cases ({} bytes)", problemId, version, testCases.size(),
+                    totalBytes);
+            return new ProblemVersion(problemId, version, testCases.size(), totalBytes, createdAt, checksum);
+        } finally {
+            if (Files.exists(staging)) {
+                FileUtils.clearDirectory(staging);
+                Files.deleteIfExists(staging);
+            }
+        }
+    }
+
+    /**
+     * @param problemId 题目标识
+     * @return 题目的全部版本，按版本号升序，题目不存在时为空
+     */
+    public List<ProblemVersion> versions(String problemId) throws IOException {
+        checkProblemId(problemId);
+        List<ProblemVersion> versions = new ArrayList<>();
+        for (long version : listVersions(root.resolve(problemId))) {
+            ProblemVersion info = describe(problemId, version);
+            if (info != null) {
+                versions.add(info);
+            }
+        }
+        return versions;
+    }
+
+    /**
+     * @param problemId 题目标识
+     * @param version   版本号
+     * @return 版本信息，不存在时为null
+     */
+    public ProblemVersion describe(String problemId, long version) throws IOException {
+        checkProblemId(problemId);
+        Path versionDir = root.resolve(problemId).resolve(Long.toString(version));
+        Path manifestFile = versionDir.resolve(MANIFEST_FILE);
+        if (!Files.isRegularFile(manifestFile)) {
+            return null;
+        }
+        Properties manifest = readManifest(versionDir);
+        return new ProblemVersion(problemId, version, Integer.parseInt(manifest.getProperty("cases")),
+                Long.parseLong(manifest.getProperty("bytes")), Long.parseLong(manifest.getProperty("createdAt")),
+                manifest.getProperty("checksum"));
+    }
+
+    /**
+     * 确定判题使用的版本
+     *
+     * @param problemId 题目标识
+     * @param version   指定的版本号，为null时取最新版本
+     * @return 存在的版本号，题目或版本不存在时为null
+     */
+    public Long resolveVersion(String problemId, Long version) throws IOException {
+        checkProblemId(problemId);
+        Path problemDir = root.resolve(problemId);
+        if (version == null) {
+            long latest = latestVersion(problemDir);
+            return latest > 0 ? latest : null;
+        }
+        return Files.isRegularFile(problemDir.resolve(Long.toString(version)).resolve(MANIFEST_FILE))
+                ? version : null;
+    }
+
+    /**
+     * 读取一个版本的全部测试用例，用例由堆外数据构造，期望输出已规范化
+     *
+     * @throws IOException 版本不存在或校验和不一致
+     */
+    public List<TestCase> load(String problemId, long version) throws IOException {
+        checkProblemId(problemId);
+        Path versionDir = root.resolve(problemId).resolve(Long.toString(version));
+        Properties manifest = readManifest(versionDir);
+        int count = Integer.parseInt(manifest.getProperty("cases"));
+        boolean verify = problemConfig.isVerifyChecksums() && !verified.contains(versionDir);
+        List<TestCase> testCases = new ArrayList<>(count);
+        long bytes = 0;
+        for (int i = 0; i < count; i++) {
+            TestData input = read(versionDir, i + ".in", manifest, verify);
+            TestData output = read(versionDir, i + ".out", manifest, verify);
+            bytes += input.length() + output.length();
+            testCases.add(TestCase.of(input, output));
+        }
+        if (verify) {
+            verified.add(versionDir);
+        }
+        loads.incrementAndGet();
+        loadedBytes.addAndGet(bytes);
+        return testCases;
+    }
+
+    /**
+     * 删除一个版本，正在使用该版本判题的提交已读入全部数据，不受影响
+     *
+     * @return 版本是否存在
+     */
+    public boolean delete(String problemId, long version) throws IOException {
+        checkProblemId(problemId);
+        Path problemDir = root.resolve(problemId);
+        Path versionDir = problemDir.resolve(Long.toString(version));
+        synchronized (lockFor(problemId)) {
+            if (!Files.isDirectory(versionDir)) {
+                return false;
+            }
+            // 先改名再删除，删除过程中该版本已不可见
+            Path trash = problemDir.resolve(STAGING_PREFIX + "deleted-" + version);
+            move(versionDir, trash);
+            verified.remove(versionDir);
+            FileUtils.clearDirectory(trash);
+            Files.deleteIfExists(trash);
+        }
+        log.info("Deleted problem {} version {}", problemId, version);
+        return true;
+    }
+
+    @Override
+    public String metricsName() {
+        return "problemStore";
+    }
+
+    @Override
+    public Object metricsSnapshot() {
+        return new StoreStats(ingests.get(), ingestedCases.get(), loads.get(), loadedBytes.get(),
+                checksumFailures.get());
+    }
+
+    private TestData read(Path versionDir, String name, Properties manifest, boolean verify) throws IOException {
+        String hash = manifest.getProperty(name);
+        TestData data = testDataCache.load(hash, versionDir.resolve(name));
+        if (verify) {
+            MessageDigest digest = sha256();
+            digest.update(data.buffer());
+            if (!hex(digest.digest()).equals(hash)) {
+                testDataCache.invalidate(hash);
+                checksumFailures.incrementAndGet();
+                throw new IOException("Checksum mismatch for " + versionDir.resolve(name));
+            }
+        }
+        return data;
+    }
+
+    private Properties readManifest(Path versionDir) throws IOException {
+        Properties manifest = new Properties();
+        try (Reader reader = Files.newBufferedReader(versionDir.resolve(MANIFEST_FILE))) {
+            manifest.load(reader);
+        }
+        return manifest;
+    }
+
+    private long latestVersion(Path problemDir) throws IOException {
+        List<Long> versions = listVersions(problemDir);
+        return versions.isEmpty() ? 0 : versions.get(versions.size() - 1);
+    }
+
+    private List<Long> listVersions(Path problemDir) throws IOException {
+        List<Long> versions = new ArrayList<>();
+        if (!Files.isDirectory(problemDir)) {
+            return versions;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(problemDir)) {
+            for (Path entry : entries) {
+                String name = entry.getFileName().toString();
+                if (VERSION_DIR.matcher(name).matches() && Files.isDirectory(entry)) {
+                    versions.add(Long.parseLong(name));
+                }
+            }
+        }
+        versions.sort(Comparator.naturalOrder());
+        return versions;
+    }
+
+    private Object lockFor(String problemId) {
+        return locks.computeIfAbsent(problemId, key -> new Object());
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target);
+        }
+    }
+
+    private static void checkProblemId(String problemId) {
+        if (problemId == null || !PROBLEM_ID.matcher(problemId).matches()) {
+            throw new IllegalArgumentException("Invalid problem id: " + problemId);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String hex(byte[] digest) {
+        return HexFormat.of().formatHex(digest);
+    }
+
+    /**
+     * @param ingests          上传的版本数
+     * @param ingestedCases    上传的用例数
+     * @param loads            判题时加载版本的次数
+     * @param loadedBytes      判题时加载的字节数
+     * @param checksumFailures 校验和不一致的次数
+     */
+    public record StoreStats(long ingests, long ingestedCases, long loads, long loadedBytes, long checksumFailures) {
+    }
+}
@@ -0,0 +1,131 @@
+package org.laoli.judge.service.submission;
+
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.entity.CaseResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @Description 一次异步判题提交
+ * 记录已完成用例的进度与最终结果，订阅者先收到已有的进度再接收后续进度；
+ * 进度只保留状态、信息与耗时，不保留输入输出
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public final class Submission {
+
+    public enum State {
+        JUDGING, FINISHED
+    }
+
+    /**
+     * 一个用例的进度
+     *
+     * @param index  用例下标，从0开始
+     * @param result 用例结果，不含输入输出
+     */
+    public record Progress(int index, CaseResult result) {
+    }
+
+    /**
+     * 提交的订阅者，回调在判题线程上调用，不能阻塞
+     */
+    public interface Subscriber {
+
+        void onCase(int index, CaseResult result);
+
+        void onFinish(JudgeResult result);
+    }
+
+    private final String id;
+    private final long createdAt = System.currentTimeMillis();
+    private final List<Progress> progress = new ArrayList<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private JudgeResult result;
+    private long finishedAt;
+
+    Submission(String id) {
+        this.id = id;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public long createdAt() {
+        return createdAt;
+    }
+
+    public synchronized State state() {
+        return result == null ? State.JUDGING : State.FINISHED;
+    }
+
+    /**
+     * @return 最终结果，判题中为null
+     */
+    public synchronized JudgeResult result() {
+        return result;
+    }
+
+    /**
+     * @return 已完成用例的进度，按完成顺序
+     */
+    public synchronized List<Progress> progress() {
+        return List.copyOf(progress);
+    }
+
+    /**
+     * 订阅进度，先回放已有的进度；已结束时立即收到最终结果
+     */
+    public synchronized void subscribe(Subscriber subscriber) {
+        for (Progress item : progress) {
+            subscriber.onCase(item.index(), item.result());
+        }
+        if (result != null) {
+            subscriber.onFinish(result);
+        } else {
+            subscribers.add(subscriber);
+        }
+    }
+
+    public synchronized void unsubscribe(Subscriber subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    synchronized void onCase(int index, CaseResult caseResult) {
+        if (result != null) {
+            return;
+        }
+        CaseResult summary = CaseResult.builder()
+                .status(caseResult.status())
+                .message(caseResult.message())
+                .executionTime(caseResult.executionTime())
+                .memoryUsed(caseResult.memoryUsed())
+                .wallTime(caseResult.wallTime())
+                .build();
+        progress.add(new Progress(index, summary));
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.onCase(index, summary);
+        }
+    }
+
+    synchronized void finish(JudgeResult judgeResult) {
+        if (result != null) {
+            return;
+        }
+        result = judgeResult;
+        finishedAt = System.currentTimeMillis();
+        for (Subscriber subscriber : List.copyOf(subscribers)) {
+            subscriber.onFinish(judgeResult);
+        }
+        subscribers.clear();
+    }
+
+    /**
+     * @return 已结束且结束时间早于deadline
+     */
+    synchronized boolean finishedBefore(long deadline) {
+        return result != null && finishedAt < deadline;
+    }
+}
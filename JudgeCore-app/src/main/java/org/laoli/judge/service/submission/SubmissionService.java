@@ -0,0 +1,259 @@
+package org.laoli.judge.service.submission;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.laoli.judge.config.SubmissionConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.CaseListener;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * @Description 异步判题提交与有界的内存提交存储
+ * 提交交给判题流水线后立即返回，调用方按id查询结果或订阅进度，连接线程不再随判题时长被占用；
+ * 结束的提交保留ttl后过期，提交数达到上限时淘汰最早结束的提交，全部仍在判题时拒绝新的提交
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@Component
+public class SubmissionService implements MetricsSource {
+
+    /** 两次清理过期提交的最小间隔 */
+    private static final long PURGE_INTERVAL_MS = 1000;
+
+    private final int maxSubmissions;
+    private final long ttlMs;
+
+    /** 按提交顺序保存，淘汰时从最早的提交开始查找 */
+    private final Map<String, Submission> submissions = new LinkedHashMap<>();
+    private long lastPurge;
+
+    /** 订阅者的回调可能阻塞 (写出SSE)，在独立的事件线程上按顺序调用，不占用判题线程 */
+    private final ExecutorService eventExecutor;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    public SubmissionService(SubmissionConfig submissionConfig) {
+        this.maxSubmissions = Math.max(1, submissionConfig.getMaxSubmissions());
+        this.ttlMs = TimeUnit.SECONDS.toMillis(submissionConfig.getTtlSeconds());
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.eventExecutor = Executors.newFixedThreadPool(Math.max(1, submissionConfig.getEventThreads()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "submission-events-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        eventExecutor.shutdownNow();
+    }
+
+    /**
+     * 创建提交并开始判题，保存在存储中，可以按id查询与订阅。
+     * 流水线的编译队列已满时与同步判题一样等待空位
+     *
+     * @param judge 以进度回调开始判题，返回最终结果
+     * @return 提交
+     * @throws RejectedExecutionException 存储已满且全部提交仍在判题
+     */
+    public Submission submit(Function<CaseListener, CompletableFuture<JudgeResult>> judge) {
+        Submission submission = new Submission(UUID.randomUUID().toString());
+        synchronized (this) {
+            purge(System.currentTimeMillis());
+            if (submissions.size() >= maxSubmissions && !evictFinished()) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("Too many submissions in progress, maximum is "
+                        + maxSubmissions);
+            }
+            submissions.put(submission.id(), submission);
+        }
+        try {
+            run(submission, judge);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                submissions.remove(submission.id());
+            }
+            throw e;
+        }
+        submitted.incrementAndGet();
+        return submission;
+    }
+
+    /**
+     * 创建不保存的提交并开始判题，用于调用方自己持有连接并订阅进度的场景 (gRPC流式进度)
+     */
+    public Submission start(Function<CaseListener, CompletableFuture<JudgeResult>> judge) {
+        Submission submission = new Submission(UUID.randomUUID().toString());
+        run(submission, judge);
+        return submission;
+    }
+
+    /**
+     * @return 提交，不存在或已过期时为null
+     */
+    public synchronized Submission get(String id) {
+        long now = System.currentTimeMillis();
+        purge(now);
+        Submission submission = submissions.get(id);
+        if (submission != null && submission.finishedBefore(now - ttlMs)) {
+            submissions.remove(id);
+            expired.incrementAndGet();
+            return null;
+        }
+        return submission;
+    }
+
+    /**
+     * 订阅提交的进度，回调在事件线程上按顺序调用，可以阻塞
+     *
+     * @return 实际登记的订阅者，用于取消订阅
+     */
+    public Submission.Subscriber subscribe(Submission submission, Submission.Subscriber subscriber) {
+        Submission.Subscriber queued = new QueuedSubscriber(subscriber);
+        submission.subscribe(queued);
+        return queued;
+    }
+
+    private static void run(Submission submission, Function<CaseListener, CompletableFuture<JudgeResult>> judge) {
+        judge.apply(submission::onCase).whenComplete((result, e) -> submission.finish(result != null
+                ? result
+                : JudgeResult.builder()
+                        .status(SimpleResult.SYSTEM_ERROR)
+                        .message(e == null ? "Judge failed" : e.getMessage())
+                        .build()));
+    }
+
+    /**
+     * 删除过期的提交，未到清理间隔时跳过
+     */
+    private void purge(long now) {
+        if (now - lastPurge < PURGE_INTERVAL_MS) {
+            return;
+        }
+        lastPurge = now;
+        long deadline = now - ttlMs;
+        Iterator<Submission> iterator = submissions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().finishedBefore(deadline)) {
+                iterator.remove();
+                expired.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * 淘汰最早的已结束提交
+     *
+     * @return 是否淘汰了提交
+     */
+    private boolean evictFinished() {
+        Iterator<Submission> iterator = submissions.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().state() == Submission.State.FINISHED) {
+                iterator.remove();
+                evicted.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String metricsName() {
+        return "submissions";
+    }
+
+    @Override
+    public synchronized Object metricsSnapshot() {
+        int judging = 0;
+        for (Submission submission : submissions.values()) {
+            if (submission.state() == Submission.State.JUDGING) {
+                judging++;
+            }
+        }
+        return new SubmissionStats(submitted.get(), rejected.get(), expired.get(), evicted.get(),
+                submissions.size(), judging);
+    }
+
+    public record SubmissionStats(long submitted, long rejected, long expired, long evicted, int stored,
+            int judging) {
+    }
+
+    /**
+     * 把回调排入队列，由事件线程按顺序调用目标订阅者
+     */
+    private final class QueuedSubscriber implements Submission.Subscriber {
+        private final Submission.Subscriber target;
+        private final ArrayDeque<Runnable> queue = new ArrayDeque<>();
+        private boolean draining;
+
+        private QueuedSubscriber(Submission.Subscriber target) {
+            this.target = target;
+        }
+
+        @Override
+        public void onCase(int index, CaseResult result) {
+            enqueue(() -> target.onCase(index, result));
+        }
+
+        @Override
+        public void onFinish(JudgeResult result) {
+            enqueue(() -> target.onFinish(result));
+        }
+
+        private void enqueue(Runnable event) {
+            synchronized (this) {
+                queue.add(event);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                eventExecutor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                log.debug("Submission event dropped after shutdown");
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Runnable event;
+                synchronized (this) {
+                    event = queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    event.run();
+                } catch (RuntimeException e) {
+                    log.warn("Submission subscriber failed: {}", e.getMessage());
+                }
+            }
+        }
+    }
+}
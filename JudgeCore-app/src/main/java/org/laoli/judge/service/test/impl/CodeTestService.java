@@ -7,12 +7,16 @@ import org.laoli.judge.model.dto.CodeTestResponse;
 import org.laoli.judge.model.dto.CodeTestResponse.CaseTestResult;
 import org.laoli.judge.model.dto.CodeTestResponse.TestStatus;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
 import org.laoli.judge.service.compile.Compiler;
 import org.laoli.judge.service.compile.CompilerFactory;
+import org.laoli.judge.service.compile.profile.CompileProfileMetrics;
 import org.laoli.judge.service.execute.CodeExecutor;
+import org.laoli.judge.service.execute.CodeExecutorFactory;
 import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.pipeline.JudgePipeline;
 import org.laoli.judge.service.test.ICodeTestService;
 import org.laoli.judge.service.validation.InputValidator;
 import org.springframework.stereotype.Service;
@@ -24,7 +28,10 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * 代码测试服务实现类
@@ -54,9 +61,9 @@ public class CodeTestService implements ICodeTestService {
     @Resource
     private ThreadPoolExecutor executorService;
 
-    /** 代码执行器 */
+    /** 执行器工厂 */
     @Resource
-    private CodeExecutor executor;
+    private CodeExecutorFactory codeExecutorFactory;
 
     /** 语言命令工厂 */
     @Resource
@@ -70,6 +77,14 @@ public class CodeTestService implements ICodeTestService {
     @Resource
     private InputValidator inputValidator;
 
+    /** 编译档位指标 */
+    @Resource
+    private CompileProfileMetrics compileProfileMetrics;
+
+    /** 判题流水线 */
+    @Resource
+    private JudgePipeline judgePipeline;
+
     /** 临时文件目录前缀 */
     private static final String TEMP_DIR_PREFIX = "codetest_";
 
@@ -102,33 +117,15 @@ public class CodeTestService implements ICodeTestService {
             return executeCodeOnly(request);
         }
 
-        // Step 3: 编译代码
-        Path tempDir = null;
-        try {
-            tempDir = Files.createTempDirectory(TEMP_DIR_PREFIX);
-            log.debug("Created temp directory for code test: {}", tempDir);
-
-            // 编译用户代码
-            Compiler compiler = compilerFactory.getCompiler(parseLanguage(request.getLanguage()));
-            if (compiler == null) {
-                return CodeTestResponse.buildError(
-                        TestStatus.COMPILE_ERROR,
-                        "Unsupported language: " + request.getLanguage());
-            }
-
-            var compileResult = compiler.compile(request.getCode(), tempDir);
-            if (compileResult != null && compileResult.status() != SimpleResult.ACCEPTED) {
-                return CodeTestResponse.buildError(
-                        TestStatus.COMPILE_ERROR,
-                        compileResult.message() != null ? compileResult.message() : "Compilation failed");
-            }
-
+        // Step 3: 编译后执行所有测试用例
+        return executeStaged(request, tempDir -> {
             // Step 4: 执行所有测试用例
             String[] command = languageCommandFactory.getCommand(
                     parseLanguage(request.getLanguage()),
                     tempDir);
 
             List<CaseTestResult> caseResults = executeTestCases(
+                    codeExecutorFactory.getExecutor(parseLanguage(request.getLanguage())),
                     request.getTestCases(),
                     tempDir,
                     command,
@@ -137,17 +134,13 @@ public class CodeTestService implements ICodeTestService {
                     request.getShowDetail());
 
             // Step 5: 汇总结果
-            return summarizeResults(caseResults, request.getShowDetail());
-
-        } catch (IOException e) {
-            log.error("IO error during code test: {}", e.getMessage(), e);
-            return CodeTestResponse.buildError(TestStatus.SYSTEM_ERROR, "IO error: " + e.getMessage());
-        } catch (Exception e) {
-            log.error("Unexpected error during code test: {}", e.getMessage(), e);
-            return CodeTestResponse.buildError(TestStatus.SYSTEM_ERROR, "Error: " + e.getMessage());
-        } finally {
-            cleanupTempDir(tempDir);
-        }
+            CodeTestResponse response = summarizeResults(caseResults, request.getShowDetail());
+            if (response.getStatus() == TestStatus.ALL_PASSED) {
+                compileProfileMetrics.recordRun(parseLanguage(request.getLanguage()).getLanguage(),
+                        parseProfile(request), response.getTotalExecutionTime());
+            }
+            return response;
+        });
     }
 
     /**
@@ -220,6 +213,13 @@ public class CodeTestService implements ICodeTestService {
             return false;
         }
 
+        try {
+            parseProfile(request);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid compile profile: {}", request.getCompileProfile());
+            return false;
+        }
+
         return true;
     }
 
@@ -231,25 +231,7 @@ public class CodeTestService implements ICodeTestService {
      * @return 执行结果
      */
     private CodeTestResponse executeCodeOnly(CodeTestRequest request) {
-        Path tempDir = null;
-        try {
-            tempDir = Files.createTempDirectory(TEMP_DIR_PREFIX);
-
-            // 编译代码
-            Compiler compiler = compilerFactory.getCompiler(parseLanguage(request.getLanguage()));
-            if (compiler == null) {
-                return CodeTestResponse.buildError(
-                        TestStatus.COMPILE_ERROR,
-                        "Unsupported language: " + request.getLanguage());
-            }
-
-            var compileResult = compiler.compile(request.getCode(), tempDir);
-            if (compileResult != null && compileResult.status() != SimpleResult.ACCEPTED) {
-                return CodeTestResponse.buildError(
-                        TestStatus.COMPILE_ERROR,
-                        compileResult.message() != null ? compileResult.message() : "Compilation failed");
-            }
-
+        return executeStaged(request, tempDir -> {
             // 执行代码 (使用空输入)
             String[] command = languageCommandFactory.getCommand(
                     parseLanguage(request.getLanguage()),
@@ -260,7 +242,7 @@ public class CodeTestService implements ICodeTestService {
                     .expectedOutput("")
                     .build();
 
-            var caseResult = executor.execute(
+            var caseResult = codeExecutorFactory.getExecutor(parseLanguage(request.getLanguage())).execute(
                     emptyTestCase,
                     tempDir,
                     command,
@@ -276,6 +258,10 @@ public class CodeTestService implements ICodeTestService {
                 return CodeTestResponse.buildError(TestStatus.MEMORY_LIMIT_EXCEEDED, "Memory limit exceeded");
             }
 
+            if (caseResult.status() == SimpleResult.OUTPUT_LIMIT_EXCEEDED) {
+                return CodeTestResponse.buildError(TestStatus.OUTPUT_LIMIT_EXCEEDED, "Output limit exceeded");
+            }
+
             if (caseResult.status() == SimpleResult.RUNTIME_ERROR) {
                 return CodeTestResponse.buildError(
                         TestStatus.RUNTIME_ERROR,
@@ -286,18 +272,77 @@ public class CodeTestService implements ICodeTestService {
                     caseResult.executionTime(),
                     caseResult.memoryUsed() != null ? caseResult.memoryUsed() : 0L,
                     caseResult.actualOutput());
+        });
+    }
 
-        } catch (Exception e) {
-            log.error("Error during code-only execution: {}", e.getMessage(), e);
-            return CodeTestResponse.buildError(TestStatus.SYSTEM_ERROR, "Error: " + e.getMessage());
-        } finally {
-            cleanupTempDir(tempDir);
+    /**
+     * 经判题流水线编译并运行
+     * 编译阶段创建工作目录并编译，成功后交给运行阶段，结果给出后在清理阶段删除工作目录
+     *
+     * @param request 代码测试请求
+     * @param runner  在运行阶段执行的操作
+     * @return 测试响应
+     */
+    private CodeTestResponse executeStaged(CodeTestRequest request, StagedRun runner) {
+        Compiler compiler = compilerFactory.getCompiler(parseLanguage(request.getLanguage()));
+        if (compiler == null) {
+            return CodeTestResponse.buildError(
+                    TestStatus.COMPILE_ERROR,
+                    "Unsupported language: " + request.getLanguage());
         }
+
+        AtomicReference<Path> workspace = new AtomicReference<>();
+        CompletableFuture<CodeTestResponse> response = judgePipeline.compile().submit(() -> {
+            Path tempDir = Files.createTempDirectory(TEMP_DIR_PREFIX);
+            workspace.set(tempDir);
+            log.debug("Created temp directory for code test: {}", tempDir);
+
+            // 编译用户代码
+            var compileResult = compiler.compile(request.getCode(), tempDir, parseProfile(request));
+            if (compileResult != null && compileResult.status() != SimpleResult.ACCEPTED) {
+                return CodeTestResponse.buildError(
+                        TestStatus.COMPILE_ERROR,
+                        compileResult.message() != null ? compileResult.message() : "Compilation failed");
+            }
+            return null;
+        }).thenCompose(compileError -> compileError != null
+                ? CompletableFuture.completedFuture(compileError)
+                : judgePipeline.run().submit(() -> runner.run(workspace.get())))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof IOException) {
+                        log.error("IO error during code test: {}", cause.getMessage(), cause);
+                        return CodeTestResponse.buildError(TestStatus.SYSTEM_ERROR,
+                                "IO error: " + cause.getMessage());
+                    }
+                    log.error("Unexpected error during code test: {}", cause.getMessage(), cause);
+                    return CodeTestResponse.buildError(TestStatus.SYSTEM_ERROR, "Error: " + cause.getMessage());
+                });
+
+        response.whenComplete((ignored, e) -> {
+            Path tempDir = workspace.get();
+            if (tempDir != null) {
+                judgePipeline.cleanup().submit(() -> {
+                    cleanupTempDir(tempDir);
+                    return null;
+                });
+            }
+        });
+        return response.join();
+    }
+
+    /**
+     * 编译成功后在运行阶段执行的操作
+     */
+    @FunctionalInterface
+    private interface StagedRun {
+        CodeTestResponse run(Path tempDir) throws Exception;
     }
 
     /**
      * 执行所有测试用例
      *
+     * @param executor    代码执行器
      * @param testCases   测试用例列表
      * @param tempDir     临时工作目录
      * @param command     执行命令
@@ -307,6 +352,7 @@ public class CodeTestService implements ICodeTestService {
      * @return 每个测试用例的执行结果
      */
     private List<CaseTestResult> executeTestCases(
+            CodeExecutor executor,
             List<CodeTestRequest.CodeTestCase> testCases,
             Path tempDir,
             String[] command,
@@ -377,6 +423,7 @@ public class CodeTestService implements ICodeTestService {
                     .actualOutput(showDetail ? execResult.actualOutput() : null)
                     .status(status)
                     .executionTime(execResult.executionTime())
+                    .wallTime(execResult.wallTime())
                     .memoryUsed(execResult.memoryUsed() != null ? execResult.memoryUsed() : 0L)
                     .errorMessage(execResult.message())
                     .build();
@@ -394,6 +441,7 @@ public class CodeTestService implements ICodeTestService {
                 .actualOutput(showDetail ? execResult.actualOutput() : null)
                 .status(isCorrect ? TestStatus.ALL_PASSED : TestStatus.ALL_FAILED)
                 .executionTime(execResult.executionTime())
+                .wallTime(execResult.wallTime())
                 .memoryUsed(execResult.memoryUsed() != null ? execResult.memoryUsed() : 0L)
                 .errorMessage(isCorrect ? null : "Output mismatch")
                 .build();
@@ -491,12 +539,23 @@ public class CodeTestService implements ICodeTestService {
             case ACCEPTED -> TestStatus.ALL_PASSED;
             case TIME_LIMIT_EXCEEDED -> TestStatus.TIME_LIMIT_EXCEEDED;
             case MEMORY_LIMIT_EXCEEDED -> TestStatus.MEMORY_LIMIT_EXCEEDED;
+            case OUTPUT_LIMIT_EXCEEDED -> TestStatus.OUTPUT_LIMIT_EXCEEDED;
             case RUNTIME_ERROR -> TestStatus.RUNTIME_ERROR;
             case WRONG_ANSWER -> TestStatus.ALL_FAILED;
             default -> TestStatus.SYSTEM_ERROR;
         };
     }
 
+    /**
+     * 解析编译档位，自测追求尽快得到反馈，未指定时使用FAST
+     *
+     * @param request 代码测试请求
+     * @return 编译档位
+     */
+    private CompileProfile parseProfile(CodeTestRequest request) {
+        return CompileProfile.of(request.getCompileProfile(), CompileProfile.FAST);
+    }
+
     /**
      * 解析语言字符串为枚举
      *
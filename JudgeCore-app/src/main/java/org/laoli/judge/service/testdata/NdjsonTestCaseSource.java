@@ -0,0 +1,200 @@
+package org.laoli.judge.service.testdata;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.StreamReadConstraints;
+import com.fasterxml.jackson.core.exc.StreamConstraintsException;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.entity.TestData;
+import org.laoli.judge.util.FileUtils;
+import org.laoli.judge.util.ProcessUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @Description 从NDJSON请求体逐行读取的测试用例来源
+ * 每行一个用例 {"input": "...", "expectedOutput": "..."}，输入直接写入判题IO目录下的文件，
+ * 执行时该文件直接作为标准输入，不映射也不读入堆内存；期望输出读入堆内的缓冲区，用例判完后随之回收。
+ * 堆内存中只保留正在解析的一个字符串值与进行中用例的期望输出，请求体不会整体绑定为DTO。关闭时删除写出的文件
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public final class NdjsonTestCaseSource implements TestCaseSource {
+
+    private final JsonParser parser;
+    private final Path dir;
+    private final long maxDataBytes;
+
+    private int index;
+    private boolean reading;
+    private boolean closed;
+
+    /**
+     * @param parser       请求体的解析器，已读过提交头
+     * @param ioDir        用例文件所在的目录，应位于tmpfs上
+     * @param maxDataBytes 单个输入或期望输出的字节数上限，超过时立即停止写入
+     */
+    public NdjsonTestCaseSource(JsonParser parser, Path ioDir, long maxDataBytes) throws IOException {
+        this.parser = parser;
+        this.dir = Files.createTempDirectory(Files.createDirectories(ioDir), "upload_");
+        this.maxDataBytes = maxDataBytes;
+    }
+
+    /**
+     * 创建读取请求体的解析器，字符串值超过maxDataBytes个字符时解析失败，超大的值不会整体进入堆内存。
+     * UTF-8中每个字符至少占一个字节，超过该字符数的值字节数必然超限，按字节的上限在写出时精确检查
+     */
+    public static JsonParser parser(InputStream body, int maxDataBytes) throws IOException {
+        JsonFactory factory = JsonFactory.builder()
+                .streamReadConstraints(StreamReadConstraints.builder().maxStringLength(maxDataBytes).build())
+                .build();
+        return factory.createParser(body);
+    }
+
+    @Override
+    public TestCase next() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return null;
+            }
+            reading = true;
+        }
+        try {
+            return read();
+        } finally {
+            boolean release;
+            synchronized (this) {
+                reading = false;
+                release = closed;
+            }
+            // 读取期间被关闭时由读取线程清理，避免删除正在写入的文件
+            if (release) {
+                release();
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        boolean release;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            release = !reading;
+        }
+        if (release) {
+            release();
+        }
+    }
+
+    private TestCase read() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Test case at index " + index + " must be a JSON object");
+        }
+        Path input = dir.resolve(index + ".in");
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case "input" -> {
+                    try (OutputStream out = Files.newOutputStream(input)) {
+                        spool(value, out, "input");
+                    }
+                }
+                case "expectedOutput" -> spool(value, expected, "expected output");
+                default -> parser.skipChildren();
+            }
+        }
+        if (Files.notExists(input)) {
+            Files.createFile(input);
+        }
+        index++;
+        // 输入文件本身作为标准输入；期望输出不含\r时规范化只是切片，不复制
+        return TestCase.of(TestData.ofFile(input),
+                TestData.of(ProcessUtils.normalizeOutput(ByteBuffer.wrap(expected.toByteArray()))));
+    }
+
+    private void spool(JsonToken value, OutputStream target, String name) throws IOException {
+        if (value == JsonToken.VALUE_NULL) {
+            return;
+        }
+        if (value != JsonToken.VALUE_STRING) {
+            throw new IllegalArgumentException("Test case " + name + " at index " + index + " must be a string");
+        }
+        String message = "Test case " + name + " at index " + index + " exceeds maximum size of " + maxDataBytes;
+        Writer writer = new OutputStreamWriter(new LimitedOutputStream(target, maxDataBytes, message),
+                StandardCharsets.UTF_8);
+        try {
+            parser.getText(writer);
+        } catch (StreamConstraintsException e) {
+            // 字符数超过上限时字节数同样超限，与写出时的检查给出相同的错误
+            throw new IllegalArgumentException(message);
+        }
+        writer.flush();
+    }
+
+    private void release() {
+        try {
+            parser.close();
+        } catch (IOException ignored) {
+        }
+        try {
+            FileUtils.clearDirectory(dir);
+            Files.deleteIfExists(dir);
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * 写出的字节数超过上限时失败
+     */
+    private static final class LimitedOutputStream extends FilterOutputStream {
+
+        private final long limit;
+        private final String message;
+        private long written;
+
+        LimitedOutputStream(OutputStream out, long limit, String message) {
+            super(out);
+            this.limit = limit;
+            this.message = message;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            count(1);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            count(len);
+            out.write(b, off, len);
+        }
+
+        private void count(int len) {
+            written += len;
+            if (written > limit) {
+                throw new IllegalArgumentException(message);
+            }
+        }
+    }
+}
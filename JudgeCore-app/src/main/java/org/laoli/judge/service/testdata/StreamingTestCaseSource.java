@@ -0,0 +1,119 @@
+package org.laoli.judge.service.testdata;
+
+import org.laoli.judge.model.entity.TestCase;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @Description 分批到达的测试用例来源
+ * 传输层每收到一批用例调用一次offer，运行阶段逐个取出。缓冲的用例取空时才通过demand请求下一批，
+ * 下一批在最后一个缓冲用例运行期间到达；内存中最多保留一批尚未运行的用例，上传速度由判题速度决定。
+ * 等待下一批超过空闲时限时next失败，客户端停止上传不会一直占住运行阶段的线程
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public class StreamingTestCaseSource implements TestCaseSource {
+
+    private final Runnable demand;
+    private final long idleTimeoutMs;
+    private final ArrayDeque<TestCase> pending = new ArrayDeque<>();
+    private boolean requested;
+    private boolean completed;
+    private boolean closed;
+    private Throwable failure;
+
+    /**
+     * @param demand        向传输层请求下一批用例，不阻塞；在调用offer的线程或读取线程上调用
+     * @param idleTimeoutMs next等待下一批用例的最长时间 (毫秒)
+     */
+    public StreamingTestCaseSource(Runnable demand, long idleTimeoutMs) {
+        this.demand = demand;
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    /**
+     * 收到一批用例，由传输层调用。空的一批立即请求下一批，关闭后到达的用例被丢弃
+     */
+    public void offer(List<TestCase> testCases) {
+        boolean request = false;
+        synchronized (this) {
+            requested = false;
+            if (closed) {
+                return;
+            }
+            pending.addAll(testCases);
+            if (pending.isEmpty() && !completed) {
+                requested = true;
+                request = true;
+            }
+            notifyAll();
+        }
+        if (request) {
+            demand.run();
+        }
+    }
+
+    /**
+     * 上传结束，取完缓冲的用例后next返回null
+     */
+    public synchronized void complete() {
+        completed = true;
+        notifyAll();
+    }
+
+    /**
+     * 上传失败，之后的next抛出IOException
+     */
+    public synchronized void fail(Throwable cause) {
+        failure = cause;
+        notifyAll();
+    }
+
+    @Override
+    public TestCase next() throws IOException, InterruptedException {
+        while (true) {
+            TestCase next;
+            boolean request = false;
+            synchronized (this) {
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+                while (pending.isEmpty() && requested && !completed && !closed && failure == null) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new IOException("No test cases received within " + idleTimeoutMs + "ms");
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+                if (failure != null) {
+                    throw new IOException("Test case upload failed: " + failure.getMessage(), failure);
+                }
+                if (closed) {
+                    return null;
+                }
+                next = pending.poll();
+                if (pending.isEmpty() && !requested && !completed) {
+                    requested = true;
+                    request = true;
+                }
+                if (next == null && completed) {
+                    return null;
+                }
+            }
+            if (request) {
+                demand.run();
+            }
+            if (next != null) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        pending.clear();
+        notifyAll();
+    }
+}
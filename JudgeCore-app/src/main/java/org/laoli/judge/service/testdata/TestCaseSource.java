@@ -0,0 +1,56 @@
+package org.laoli.judge.service.testdata;
+
+import org.laoli.judge.model.entity.TestCase;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * @Description 运行阶段逐个读取的测试用例来源
+ * 用例可以在判题开始后才陆续到达，读到第一个用例即可开始运行；判题结束时关闭
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public interface TestCaseSource extends AutoCloseable {
+
+    /**
+     * 取得下一个用例，尚未到达时阻塞
+     *
+     * @return 下一个用例，没有更多用例时为null
+     * @throws IOException 用例传输失败
+     */
+    TestCase next() throws IOException, InterruptedException;
+
+    /**
+     * @return 用例总数，事先未知时为-1
+     */
+    default int size() {
+        return -1;
+    }
+
+    /**
+     * 不再读取，丢弃尚未读取的用例
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * 已全部在内存中的用例
+     */
+    static TestCaseSource of(List<TestCase> testCases) {
+        Iterator<TestCase> iterator = testCases.iterator();
+        return new TestCaseSource() {
+            @Override
+            public TestCase next() {
+                return iterator.hasNext() ? iterator.next() : null;
+            }
+
+            @Override
+            public int size() {
+                return testCases.size();
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package org.laoli.judge.service.testdata;
+
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.model.entity.TestData;
+import org.laoli.judge.service.monitor.MetricsSource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @Description 堆外的测试数据缓存
+ * 按内容的SHA-256寻址，数据保存在直接缓冲区中，不随提交数量与用例大小增加堆内存与GC压力；
+ * 相同内容的用例 (不同版本或不同题目之间) 共用一份。按最近最少使用在字节预算内淘汰，
+ * 被淘汰的数据在仍被使用的用例释放后由GC回收。超过文件重定向阈值的大文件只读映射，不占用缓存预算
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Component
+public class TestDataCache implements MetricsSource {
+
+    private final long budgetBytes;
+    private final long mapThresholdBytes;
+
+    /** 按访问顺序排列的条目 */
+    private final LinkedHashMap<String, TestData> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+    private final AtomicLong loadedBytes = new AtomicLong();
+    private final AtomicLong mapped = new AtomicLong();
+    private long totalBytes;
+
+    public TestDataCache(ExecutionConfig executionConfig) {
+        this.budgetBytes = executionConfig.getDataCache().getBudgetMb() * 1024 * 1024;
+        this.mapThresholdBytes = executionConfig.getFileIo().getThresholdKb() * 1024;
+    }
+
+    /**
+     * 取得内容为给定校验和的数据，未缓存时从文件读入堆外内存
+     *
+     * @param hash 文件内容的SHA-256，调用方负责核对
+     * @param file 数据文件
+     * @return 数据，大文件为文件的只读映射，超过预算的文件不缓存但同样读入堆外内存
+     */
+    public TestData load(String hash, Path file) throws IOException {
+        if (Files.size(file) > mapThresholdBytes) {
+            mapped.incrementAndGet();
+            return new TestData(hash, map(file), file);
+        }
+        synchronized (this) {
+            TestData cached = entries.get(hash);
+            if (cached != null) {
+                hits.incrementAndGet();
+                return cached;
+            }
+        }
+        misses.incrementAndGet();
+        TestData data = new TestData(hash, read(file));
+        loadedBytes.addAndGet(data.length());
+        if (data.length() > budgetBytes) {
+            return data;
+        }
+        synchronized (this) {
+            // 并发读入相同内容时保留先写入的一份
+            TestData raced = entries.putIfAbsent(hash, data);
+            if (raced != null) {
+                return raced;
+            }
+            totalBytes += data.length();
+            evictOverBudget();
+        }
+        return data;
+    }
+
+    /**
+     * 移除条目，用于发现缓存的内容与校验和不一致时
+     */
+    public synchronized void invalidate(String hash) {
+        TestData removed = entries.remove(hash);
+        if (removed != null) {
+            totalBytes -= removed.length();
+        }
+    }
+
+    @Override
+    public String metricsName() {
+        return "testDataCache";
+    }
+
+    @Override
+    public synchronized Object metricsSnapshot() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return new CacheStats(hitCount, misses.get(), total == 0 ? 0 : (double) hitCount / total, evicted.get(),
+                entries.size(), totalBytes, budgetBytes, loadedBytes.get(), mapped.get());
+    }
+
+    private void evictOverBudget() {
+        Iterator<Map.Entry<String, TestData>> iterator = entries.entrySet().iterator();
+        while (totalBytes > budgetBytes && iterator.hasNext()) {
+            TestData oldest = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= oldest.length();
+            evicted.incrementAndGet();
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Test data too large: " + file);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    private static ByteBuffer read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Test data too large: " + file);
+            }
+            ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                // 读满文件长度
+            }
+            buffer.flip();
+            return buffer;
+        }
+    }
+
+    /**
+     * @param hits        命中数
+     * @param misses      从磁盘读入的次数
+     * @param hitRate     命中率
+     * @param evicted     淘汰的条目数
+     * @param entries     当前条目数
+     * @param bytes       当前占用的堆外字节数
+     * @param budgetBytes 字节预算
+     * @param loadedBytes 累计从磁盘读入的字节数
+     * @param mapped      直接映射的大文件数
+     */
+    public record CacheStats(long hits, long misses, double hitRate, long evicted, int entries, long bytes,
+            long budgetBytes, long loadedBytes, long mapped) {
+    }
+}
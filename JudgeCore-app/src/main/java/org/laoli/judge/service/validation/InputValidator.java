@@ -4,8 +4,10 @@ import org.laoli.judge.model.entity.TestCase;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
 import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.service.testdata.TestCaseSource;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -18,7 +20,9 @@ public class InputValidator {
     private static final long MAX_MEMORY_LIMIT = 536870912;
     private static final int MAX_CODE_LENGTH = 65536;
     private static final int MAX_TEST_CASE_COUNT = 1000;
-    private static final int MAX_TEST_CASE_SIZE = 102400;
+    /** 大数据用例的标准输入输出直接重定向到文件，单个用例的上限不再受管道与堆内捕获限制 */
+    public static final int MAX_TEST_CASE_SIZE = 8 * 1024 * 1024;
+    public static final long MAX_TOTAL_TEST_DATA_SIZE = 64L * 1024 * 1024;
 
     private static final Pattern DANGEROUS_PATTERN = Pattern.compile(
             ".*(Runtime\\.getRuntime\\(\\)|ProcessBuilder|ProcessImpl|System\\.exit|exec\\(|loadLibrary|class\\.forName|"
@@ -29,19 +33,31 @@ public class InputValidator {
     public JudgeResult validate(String sourceCode, Language language, List<TestCase> testCases,
             Long timeLimit, Long memoryLimit) {
 
-        if (sourceCode == null || sourceCode.isEmpty()) {
-            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Source code cannot be empty");
+        JudgeResult error = validateCode(sourceCode, language);
+        if (error == null) {
+            error = validateTestCases(testCases);
         }
-
-        if (sourceCode.length() > MAX_CODE_LENGTH) {
-            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
-                    "Source code exceeds maximum length of " + MAX_CODE_LENGTH + " characters");
+        if (error == null) {
+            error = validateLimits(sourceCode, language, timeLimit, memoryLimit);
         }
+        return error;
+    }
 
-        if (!isValidLanguage(language)) {
-            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Unsupported language: " + language);
+    /**
+     * 校验不含测试用例的提交，测试用例来自题目数据存储，已在上传时校验过
+     */
+    public JudgeResult validateSubmission(String sourceCode, Language language, Long timeLimit, Long memoryLimit) {
+        JudgeResult error = validateCode(sourceCode, language);
+        if (error == null) {
+            error = validateLimits(sourceCode, language, timeLimit, memoryLimit);
         }
+        return error;
+    }
 
+    /**
+     * 校验测试用例的数量与大小
+     */
+    public JudgeResult validateTestCases(List<TestCase> testCases) {
         if (testCases == null || testCases.isEmpty()) {
             return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Test cases cannot be empty");
         }
@@ -51,24 +67,112 @@ public class InputValidator {
                     "Too many test cases, maximum is " + MAX_TEST_CASE_COUNT);
         }
 
+        long totalSize = 0;
         for (int i = 0; i < testCases.size(); i++) {
-            TestCase testCase = testCases.get(i);
-            if (testCase == null) {
-                return buildErrorResult(SimpleResult.SYSTEM_ERROR,
-                        "Test case at index " + i + " is null");
+            JudgeResult error = validateTestCase(testCases.get(i), i, totalSize);
+            if (error != null) {
+                return error;
+            }
+            totalSize += dataSize(testCases.get(i));
+        }
+        return null;
+    }
+
+    /**
+     * 校验单个测试用例，用于逐个到达的用例
+     *
+     * @param testCase     测试用例
+     * @param index        用例下标
+     * @param previousSize 之前的用例的数据总量
+     * @return 校验失败时的结果，通过时为null
+     */
+    public JudgeResult validateTestCase(TestCase testCase, int index, long previousSize) {
+        if (index >= MAX_TEST_CASE_COUNT) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Too many test cases, maximum is " + MAX_TEST_CASE_COUNT);
+        }
+
+        if (testCase == null) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Test case at index " + index + " is null");
+        }
+
+        // 只比较长度，字节数据不解码
+        if (testCase.inputLength() > MAX_TEST_CASE_SIZE) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Test case input at index " + index + " exceeds maximum size of " + MAX_TEST_CASE_SIZE);
+        }
+
+        if (testCase.expectedLength() > MAX_TEST_CASE_SIZE) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Test case expected output at index " + index + " exceeds maximum size of " + MAX_TEST_CASE_SIZE);
+        }
+
+        if (previousSize + dataSize(testCase) > MAX_TOTAL_TEST_DATA_SIZE) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Total test data exceeds maximum size of " + MAX_TOTAL_TEST_DATA_SIZE);
+        }
+        return null;
+    }
+
+    /**
+     * 包装逐个到达的用例来源，读取时逐个校验，校验失败时next抛出IllegalArgumentException
+     */
+    public TestCaseSource validating(TestCaseSource source) {
+        return new TestCaseSource() {
+            private int index;
+            private long totalSize;
+
+            @Override
+            public TestCase next() throws IOException, InterruptedException {
+                TestCase testCase = source.next();
+                if (testCase == null) {
+                    if (index == 0) {
+                        throw new IllegalArgumentException("Test cases cannot be empty");
+                    }
+                    return null;
+                }
+                JudgeResult error = validateTestCase(testCase, index++, totalSize);
+                if (error != null) {
+                    throw new IllegalArgumentException(error.message());
+                }
+                totalSize += dataSize(testCase);
+                return testCase;
             }
 
-            if (testCase.input() != null && testCase.input().length() > MAX_TEST_CASE_SIZE) {
-                return buildErrorResult(SimpleResult.SYSTEM_ERROR,
-                        "Test case input at index " + i + " exceeds maximum size of " + MAX_TEST_CASE_SIZE);
+            @Override
+            public int size() {
+                return source.size();
             }
 
-            if (testCase.expectedOutput() != null && testCase.expectedOutput().length() > MAX_TEST_CASE_SIZE) {
-                return buildErrorResult(SimpleResult.SYSTEM_ERROR,
-                        "Test case expected output at index " + i + " exceeds maximum size of " + MAX_TEST_CASE_SIZE);
+            @Override
+            public void close() {
+                source.close();
             }
+        };
+    }
+
+    private static long dataSize(TestCase testCase) {
+        return testCase.inputLength() + testCase.expectedLength();
+    }
+
+    private JudgeResult validateCode(String sourceCode, Language language) {
+        if (sourceCode == null || sourceCode.isEmpty()) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Source code cannot be empty");
+        }
+
+        if (sourceCode.length() > MAX_CODE_LENGTH) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR,
+                    "Source code exceeds maximum length of " + MAX_CODE_LENGTH + " characters");
         }
 
+        if (!isValidLanguage(language)) {
+            return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Unsupported language: " + language);
+        }
+        return null;
+    }
+
+    private JudgeResult validateLimits(String sourceCode, Language language, Long timeLimit, Long memoryLimit) {
         if (timeLimit == null || memoryLimit == null) {
             return buildErrorResult(SimpleResult.SYSTEM_ERROR, "Time limit and memory limit cannot be null");
         }
@@ -0,0 +1,79 @@
+package org.laoli.judge.util;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * @Description 工作目录相关的文件工具
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+public class FileUtils {
+
+    private FileUtils() {
+    }
+
+    /**
+     * 把源目录下的文件以硬链接的方式放入目标目录，跨文件系统时退化为复制
+     *
+     * @param source 源目录
+     * @param target 目标目录
+     */
+    public static void linkTree(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path linked = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(linked);
+                    continue;
+                }
+                try {
+                    Files.createLink(linked, path);
+                } catch (IOException | UnsupportedOperationException e) {
+                    Files.copy(path, linked);
+                }
+            }
+        }
+    }
+
+    /**
+     * 把源目录完整复制到目标目录，保留文件权限，复制出的文件与源文件互不影响
+     *
+     * @param source 源目录
+     * @param target 目标目录
+     */
+    public static void copyTree(Path source, Path target) throws IOException {
+        try (Stream<Path> paths = Files.walk(source)) {
+            for (Path path : paths.toList()) {
+                Path copied = target.resolve(source.relativize(path).toString());
+                if (Files.isDirectory(path)) {
+                    Files.createDirectories(copied);
+                } else {
+                    Files.copy(path, copied, StandardCopyOption.COPY_ATTRIBUTES);
+                }
+            }
+        }
+    }
+
+    /**
+     * 删除目录下的全部内容，保留目录本身
+     *
+     * @param dir 目录
+     */
+    public static void clearDirectory(Path dir) throws IOException {
+        if (!Files.exists(dir)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                if (!path.equals(dir)) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+}
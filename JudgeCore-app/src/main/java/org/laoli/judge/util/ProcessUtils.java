@@ -5,6 +5,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -24,8 +25,11 @@ public class ProcessUtils {
 
     // Linux /proc/[pid]/status RssAnon 单位是 kB
     private static final Pattern LINUX_RSS_PATTERN = Pattern.compile("RssAnon:\\s+(\\d+)\\s+kB");
-    // Linux /proc/[pid]/statm 第二列是 RSS (页), 假设页大小为 4KB
-    private static final Pattern LINUX_STATM_PATTERN = Pattern.compile("(\\d+)\\s+(\\d+)");
+    // Linux /proc/[pid]/statm 第二列是 RSS (页)、第三列是共享页, 假设页大小为 4KB
+    private static final Pattern LINUX_STATM_PATTERN = Pattern.compile("(\\d+)\\s+(\\d+)\\s+(\\d+)");
+    private static final long PAGE_SIZE_KB = 4;
+    // /proc/[pid]/stat 中的时间单位是时钟节拍, 绝大多数内核 CLK_TCK = 100
+    private static final long MICROS_PER_TICK = 10_000;
     private ProcessUtils() {
     }
 
@@ -82,56 +86,88 @@ public class ProcessUtils {
     }
 
     private static long readLinuxRssFromStatus(Path statusPath) throws IOException {
+        String content = Files.readString(statusPath);
+        Matcher matcher = LINUX_RSS_PATTERN.matcher(content);
         long maxRss = 0;
-        for (int i = 0; i < 5; i++) {
-            try {
-                String content = Files.readString(statusPath);
-                Matcher matcher = LINUX_RSS_PATTERN.matcher(content);
-                long currentRss = 0;
-                while (matcher.find()) {
-                    // 文件单位是 kB，直接解析
-                    currentRss = Math.max(currentRss, Long.parseLong(matcher.group(1)));
-                }
-                if (currentRss > 0) {
-                    maxRss = Math.max(maxRss, currentRss);
-                    break;
-                }
-                if (i < 4) {
-                    Thread.sleep(10);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
-            }
+        while (matcher.find()) {
+            // 文件单位是 kB，直接解析
+            maxRss = Math.max(maxRss, Long.parseLong(matcher.group(1)));
         }
         return maxRss; // 单位: KB
     }
 
     private static long readLinuxRssFromStatm(Path statmPath) throws IOException {
-        long maxRss = 0;
-        for (int i = 0; i < 5; i++) {
-            try {
-                String content = Files.readString(statmPath);
-                Matcher matcher = LINUX_STATM_PATTERN.matcher(content);
-                if (matcher.find()) {
-                    long residentPages = Long.parseLong(matcher.group(2));
-                    if (residentPages > 0) {
-                        // 【修改点 2】确认单位转换
-                        // statm 的单位是 Page。在绝大多数判题环境 (x86_64) 中，Page Size = 4KB。
-                        // 所以 residentPages * 4 得到的是 KB。
-                        maxRss = Math.max(maxRss, residentPages * 4);
-                        break;
-                    }
-                }
-                if (i < 4) {
-                    Thread.sleep(10);
-                }
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+        String content = Files.readString(statmPath);
+        Matcher matcher = LINUX_STATM_PATTERN.matcher(content);
+        if (matcher.find()) {
+            // statm 的单位是 Page。在绝大多数判题环境 (x86_64) 中，Page Size = 4KB。
+            return Long.parseLong(matcher.group(2)) * PAGE_SIZE_KB;
+        }
+        return 0; // 单位: KB
+    }
+
+    /**
+     * 单次读取进程常驻内存，不重试也不休眠，供共享采样线程高频调用
+     * Linux下取statm的 resident - shared，与 RssAnon 口径一致
+     *
+     * @param pid 进程ID
+     * @return 常驻内存 (KB)，进程已退出时返回0
+     */
+    public static long readResidentMemoryKb(long pid) {
+        if (pid <= 0) {
+            return 0;
+        }
+        if (!IS_LINUX) {
+            return estimateMemoryUsage(pid);
+        }
+        try {
+            String content = Files.readString(Paths.get("/proc", String.valueOf(pid), "statm"));
+            Matcher matcher = LINUX_STATM_PATTERN.matcher(content);
+            if (matcher.find()) {
+                long resident = Long.parseLong(matcher.group(2));
+                long shared = Long.parseLong(matcher.group(3));
+                return Math.max(resident - shared, 0) * PAGE_SIZE_KB;
             }
+        } catch (IOException | NumberFormatException e) {
+            // 进程在遍历与读取之间退出属于正常情况
+        }
+        return 0;
+    }
+
+    /**
+     * 读取 /proc/[pid]/stat 中的进程名、CPU时间与启动时刻，供共享采样线程高频调用
+     *
+     * @param pid 进程ID
+     * @return 进程状态，非Linux或进程已退出时返回null
+     */
+    public static ProcStat readProcStat(long pid) {
+        if (pid <= 0 || !IS_LINUX) {
+            return null;
+        }
+        try {
+            String content = Files.readString(Paths.get("/proc", String.valueOf(pid), "stat"));
+            // 进程名可能包含空格与括号，以最后一个右括号为界
+            int open = content.indexOf('(');
+            int close = content.lastIndexOf(')');
+            String[] fields = content.substring(close + 2).split(" ");
+            // 括号之后从第3个字段(state)开始: utime为第14个, stime为第15个, starttime为第22个
+            long utime = Long.parseLong(fields[11]);
+            long stime = Long.parseLong(fields[12]);
+            long startTicks = Long.parseLong(fields[19]);
+            return new ProcStat(content.substring(open + 1, close), (utime + stime) * MICROS_PER_TICK,
+                    startTicks * MICROS_PER_TICK);
+        } catch (IOException | RuntimeException e) {
+            // 进程在遍历与读取之间退出属于正常情况
+            return null;
         }
-        return maxRss; // 单位: KB
+    }
+
+    /**
+     * @param command     进程名 (最长15个字符)
+     * @param cpuMicros   进程自身的用户态与内核态CPU时间 (微秒)，不含已回收的子进程
+     * @param startMicros 进程启动时刻，自系统启动起计 (微秒)
+     */
+    public record ProcStat(String command, long cpuMicros, long startMicros) {
     }
 
     private static long estimateMacMemory(long pid) {
@@ -215,13 +251,41 @@ public class ProcessUtils {
         return result;
     }
 
-    public static String readInputStream(java.io.InputStream inputStream) throws java.io.IOException {
-        StringBuilder builder = new StringBuilder();
-        byte[] buffer = new byte[1024];
-        int bytesRead;
-        while ((bytesRead = inputStream.read(buffer)) != -1) {
-            builder.append(new String(buffer, 0, bytesRead, StandardCharsets.UTF_8));
+    /**
+     * 按字节规范化输出，与normalizeOutput(String)口径一致：去掉首尾不大于空格的字节，\r\n与\r转换为\n；
+     * 不经过UTF-8解码，可以处理任意二进制数据。不含\r时返回原缓冲区的切片，不复制
+     *
+     * @param output 输出，不会被修改
+     * @return 规范化后的内容
+     */
+    public static ByteBuffer normalizeOutput(ByteBuffer output) {
+        int start = output.position();
+        int end = output.limit();
+        while (start < end && (output.get(start) & 0xff) <= ' ') {
+            start++;
+        }
+        while (end > start && (output.get(end - 1) & 0xff) <= ' ') {
+            end--;
+        }
+        int carriageReturn = start;
+        while (carriageReturn < end && output.get(carriageReturn) != '\r') {
+            carriageReturn++;
+        }
+        if (carriageReturn == end) {
+            return output.slice(start, end - start);
+        }
+        ByteBuffer normalized = ByteBuffer.allocate(end - start);
+        for (int i = start; i < end; i++) {
+            byte b = output.get(i);
+            if (b == '\r') {
+                normalized.put((byte) '\n');
+                if (i + 1 < end && output.get(i + 1) == '\n') {
+                    i++;
+                }
+            } else {
+                normalized.put(b);
+            }
         }
-        return builder.toString();
+        return normalized.flip();
     }
 }
\ No newline at end of file
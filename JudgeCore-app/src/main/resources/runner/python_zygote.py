@@ -0,0 +1,260 @@
+# -*- coding: utf-8 -*-
+"""
+Python常驻运行器 (zygote)
+
+启动时预先导入常用标准库，之后每个用例fork一个子进程执行solution.py，
+子进程的标准输入输出接到用例文件，时间与内存只统计子进程本身。
+zygote是子进程收养者，setsid或两次fork脱离进程组的后台进程仍挂在zygote下，
+每个用例结束后全部杀死并回收，清理不干净时在应答中要求销毁运行器。
+协议与JVM运行器相同，见WarmRunner:
+  RUN <case目录> <stdin> <stdout> <stderr> <CPU限制ms> <墙钟限制ms> <内存限制KB> <输出限制KB>
+  DONE <状态> <退出码> <CPU微秒> <墙钟微秒> <峰值KB> <是否销毁>
+"""
+import os
+import resource
+import select
+import signal
+import sys
+import time
+
+# 预热: 提交代码常用的标准库，fork后子进程直接共享已导入的模块
+import array  # noqa: F401
+import bisect  # noqa: F401
+import collections  # noqa: F401
+import copy  # noqa: F401
+import decimal  # noqa: F401
+import fractions  # noqa: F401
+import functools  # noqa: F401
+import heapq  # noqa: F401
+import io
+import itertools  # noqa: F401
+import math  # noqa: F401
+import operator  # noqa: F401
+import random  # noqa: F401
+import re  # noqa: F401
+import runpy
+import statistics  # noqa: F401
+import string  # noqa: F401
+import traceback
+import typing  # noqa: F401
+
+SOLUTION = "solution.py"
+
+# 等待子进程期间检查其CPU时间的间隔 (秒)
+CPU_POLL_SECONDS = 0.01
+TICKS_PER_SECOND = os.sysconf("SC_CLK_TCK")
+
+PR_SET_CHILD_SUBREAPER = 36
+# 清理残留进程的轮数与每轮等待的时间 (秒)
+KILL_ROUNDS = 5
+KILL_WAIT_SECONDS = 0.01
+
+
+def run_child(case_dir, stdin, stdout, stderr, cpu_limit_ms, memory_limit_kb, output_limit_kb):
+    """在fork出的子进程中执行用例，永不返回"""
+    code = 0
+    try:
+        os.setpgid(0, 0)
+        signal.signal(signal.SIGPIPE, signal.SIG_DFL)
+        for fd, path, flags in ((0, stdin, os.O_RDONLY),
+                                (1, stdout, os.O_WRONLY | os.O_CREAT | os.O_TRUNC),
+                                (2, stderr, os.O_WRONLY | os.O_CREAT | os.O_TRUNC)):
+            opened = os.open(path, flags, 0o600)
+            os.dup2(opened, fd)
+            os.close(opened)
+        sys.stdin = io.TextIOWrapper(io.open(0, "rb", closefd=False), encoding="utf-8")
+        sys.stdout = io.TextIOWrapper(io.open(1, "wb", closefd=False), encoding="utf-8", write_through=False)
+        sys.stderr = io.TextIOWrapper(io.open(2, "wb", closefd=False), encoding="utf-8", write_through=True)
+
+        # CPU时间的硬上限由父进程按墙钟兜底，这里只防止子进程脱离父进程后无限运行
+        cpu_seconds = cpu_limit_ms // 1000 + 1
+        resource.setrlimit(resource.RLIMIT_CPU, (cpu_seconds, cpu_seconds + 1))
+        if memory_limit_kb > 0:
+            limit = memory_limit_kb * 1024 + base_address_space()
+            resource.setrlimit(resource.RLIMIT_AS, (limit, limit))
+        if output_limit_kb > 0:
+            # 解释器默认忽略SIGXFSZ，恢复默认动作使写超限时直接以该信号结束
+            signal.signal(signal.SIGXFSZ, signal.SIG_DFL)
+            limit = output_limit_kb * 1024
+            resource.setrlimit(resource.RLIMIT_FSIZE, (limit, limit))
+
+        os.chdir(case_dir)
+        sys.path[0] = case_dir
+        sys.argv = [os.path.join(case_dir, SOLUTION)]
+        runpy.run_path(sys.argv[0], run_name="__main__")
+    except SystemExit as e:
+        if e.code is None:
+            code = 0
+        elif isinstance(e.code, int):
+            code = e.code
+        else:
+            print(e.code, file=sys.stderr)
+            code = 1
+    except MemoryError:
+        # 以SIGUSR1结束，与用户自己的退出码区分开
+        signal.signal(signal.SIGUSR1, signal.SIG_DFL)
+        os.kill(os.getpid(), signal.SIGUSR1)
+    except BaseException:
+        traceback.print_exc()
+        code = 1
+    try:
+        sys.stdout.flush()
+        sys.stderr.flush()
+    except BaseException:
+        code = code or 1
+    os._exit(code)
+
+
+def base_address_space():
+    """当前进程已占用的虚拟地址空间，fork出的子进程从这里起步"""
+    try:
+        with open("/proc/self/statm") as statm:
+            return int(statm.read().split()[0]) * os.sysconf("SC_PAGE_SIZE")
+    except OSError:
+        return 0
+
+
+def wait_child(pid, cpu_limit_ms, wall_limit_ms):
+    """等待子进程结束，CPU时间或墙钟时间超限时杀死整个进程组"""
+    deadline = time.monotonic() + wall_limit_ms / 1000.0
+    pidfd = os.pidfd_open(pid) if hasattr(os, "pidfd_open") else None
+    timed_out = False
+    try:
+        while True:
+            finished, status, usage = os.wait4(pid, os.WNOHANG)
+            if finished:
+                return status, usage, timed_out
+            remaining = deadline - time.monotonic()
+            if not timed_out and (remaining <= 0 or cpu_time_ms(pid) > cpu_limit_ms):
+                timed_out = True
+                kill_group(pid)
+                remaining = 1
+            timeout = min(remaining, CPU_POLL_SECONDS)
+            if pidfd is not None:
+                poller = select.poll()
+                poller.register(pidfd, select.POLLIN)
+                poller.poll(max(1, int(timeout * 1000)))
+            else:
+                time.sleep(min(timeout, 0.0005))
+    finally:
+        if pidfd is not None:
+            os.close(pidfd)
+
+
+def cpu_time_ms(pid):
+    """子进程自身已消耗的CPU时间，读取失败时视为0"""
+    try:
+        with open("/proc/%d/stat" % pid) as stat:
+            fields = stat.read().rsplit(")", 1)[1].split()
+        return (int(fields[11]) + int(fields[12])) * 1000 // TICKS_PER_SECOND
+    except (OSError, IndexError, ValueError):
+        return 0
+
+
+def kill_group(pid):
+    for target in (lambda: os.killpg(pid, signal.SIGKILL), lambda: os.kill(pid, signal.SIGKILL)):
+        try:
+            target()
+        except OSError:
+            pass
+
+
+def become_subreaper():
+    """成为子进程收养者，脱离父进程的孙进程被zygote而不是系统的init收养"""
+    try:
+        import ctypes
+        libc = ctypes.CDLL(None, use_errno=True)
+        libc.prctl(PR_SET_CHILD_SUBREAPER, 1, 0, 0, 0)
+    except (OSError, AttributeError):
+        pass
+
+
+def children():
+    """zygote当前的直接子进程，包括收养的孤儿进程"""
+    pids = set()
+    try:
+        for task in os.listdir("/proc/self/task"):
+            with open("/proc/self/task/%s/children" % task) as listing:
+                pids.update(int(pid) for pid in listing.read().split())
+    except (OSError, ValueError):
+        pass
+    return pids
+
+
+def reap():
+    """回收已结束的子进程，包括收养的孤儿进程"""
+    while True:
+        try:
+            pid, _ = os.waitpid(-1, os.WNOHANG)
+        except ChildProcessError:
+            return
+        if pid == 0:
+            return
+
+
+def kill_strays():
+    """杀死并回收zygote的全部子孙，被杀进程的子进程会被收养，下一轮再杀
+
+    :return: 是否已没有残留进程
+    """
+    for _ in range(KILL_ROUNDS):
+        reap()
+        strays = children()
+        if not strays:
+            return True
+        for pid in strays:
+            kill_group(pid)
+        time.sleep(KILL_WAIT_SECONDS)
+    reap()
+    return not children()
+
+
+def run_case(fields):
+    case_dir, stdin, stdout, stderr = fields[1:5]
+    cpu_limit_ms, wall_limit_ms, memory_limit_kb, output_limit_kb = (int(value) for value in fields[5:9])
+
+    start = time.monotonic()
+    pid = os.fork()
+    if pid == 0:
+        run_child(case_dir, stdin, stdout, stderr, cpu_limit_ms, memory_limit_kb, output_limit_kb)
+    status, usage, timed_out = wait_child(pid, cpu_limit_ms, wall_limit_ms)
+    wall_us = int((time.monotonic() - start) * 1_000_000)
+    # 子进程可能留下后台进程，一并清理；脱离进程组的进程已被收养，逐个杀死，杀不干净时销毁运行器
+    kill_group(pid)
+    recycle = 0 if kill_strays() else 1
+
+    cpu_us = int((usage.ru_utime + usage.ru_stime) * 1_000_000)
+    peak_kb = usage.ru_maxrss
+    exit_code = os.waitstatus_to_exitcode(status)
+    if timed_out or exit_code == -signal.SIGXCPU or cpu_us > cpu_limit_ms * 1000:
+        verdict = "TLE"
+    elif exit_code == -signal.SIGUSR1 or memory_limit_kb > 0 and peak_kb > memory_limit_kb:
+        verdict = "MLE"
+    elif exit_code == -signal.SIGXFSZ:
+        verdict = "OLE"
+    elif exit_code != 0:
+        verdict = "RE"
+    else:
+        verdict = "OK"
+    return "DONE %s %d %d %d %d %d" % (verdict, exit_code, cpu_us, wall_us, peak_kb, recycle)
+
+
+def main():
+    become_subreaper()
+    control = sys.stdout
+    control.write("READY\n")
+    control.flush()
+    for line in sys.stdin:
+        fields = line.split()
+        if len(fields) != 9 or fields[0] != "RUN":
+            control.write("ERROR bad request\n")
+        else:
+            try:
+                control.write(run_case(fields) + "\n")
+            except OSError:
+                control.write("DONE SE -1 0 0 0 1\n")
+        control.flush()
+
+
+if __name__ == "__main__":
+    main()
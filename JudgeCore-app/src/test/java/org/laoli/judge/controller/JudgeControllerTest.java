@@ -1,20 +1,29 @@
 package org.laoli.judge.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.ExecutionConfig;
 import org.laoli.judge.model.aggregate.JudgeResult;
 import org.laoli.judge.model.dto.JudgeRequest;
 import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
 import org.laoli.judge.service.IJudgeService;
+import org.laoli.judge.service.testdata.TestCaseSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -62,7 +71,8 @@ class JudgeControllerTest {
                 .caseResults(caseResult)
                 .build();
 
-        when(judgeService.judge(anyList(), anyString(), eq(Language.PYTHON), anyLong(), anyLong()))
+        when(judgeService.judge(anyList(), anyString(), eq(Language.PYTHON), anyLong(), anyLong(),
+                eq(CompileProfile.STANDARD)))
                 .thenReturn(judgeResult);
 
         ResponseEntity<org.laoli.judge.model.dto.JudgeResponse> response = judgeController.judge(request);
@@ -92,6 +102,56 @@ class JudgeControllerTest {
         assertEquals("SYSTEM_ERROR", response.getBody().getStatus());
     }
 
+    @Test
+    void testJudge_CompileProfile() {
+        JudgeRequest request = new JudgeRequest();
+        request.setCode("print('Hello')");
+        request.setLanguage("PYTHON");
+        request.setTimeLimit(1000L);
+        request.setMemoryLimit(4194304L);
+        request.setCompileProfile("optimized");
+
+        JudgeRequest.TestCaseDto testCaseDto = new JudgeRequest.TestCaseDto();
+        testCaseDto.setInput("test");
+        testCaseDto.setExpectedOutput("Hello");
+        request.setCases(List.of(testCaseDto));
+
+        JudgeResult judgeResult = JudgeResult.builder()
+                .status(SimpleResult.ACCEPTED)
+                .message("Accepted")
+                .build();
+
+        when(judgeService.judge(anyList(), anyString(), eq(Language.PYTHON), anyLong(), anyLong(),
+                eq(CompileProfile.OPTIMIZED)))
+                .thenReturn(judgeResult);
+
+        ResponseEntity<org.laoli.judge.model.dto.JudgeResponse> response = judgeController.judge(request);
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("ACCEPTED", response.getBody().getStatus());
+    }
+
+    @Test
+    void testJudge_UnsupportedCompileProfile() {
+        JudgeRequest request = new JudgeRequest();
+        request.setCode("print('Hello')");
+        request.setLanguage("PYTHON");
+        request.setTimeLimit(1000L);
+        request.setMemoryLimit(4194304L);
+        request.setCompileProfile("turbo");
+
+        JudgeRequest.TestCaseDto testCaseDto = new JudgeRequest.TestCaseDto();
+        testCaseDto.setInput("test");
+        testCaseDto.setExpectedOutput("Hello");
+        request.setCases(List.of(testCaseDto));
+
+        ResponseEntity<org.laoli.judge.model.dto.JudgeResponse> response = judgeController.judge(request);
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("SYSTEM_ERROR", response.getBody().getStatus());
+        verifyNoInteractions(judgeService);
+    }
+
     @Test
     void testJudge_CompilationError() {
         JudgeRequest request = new JudgeRequest();
@@ -112,7 +172,8 @@ class JudgeControllerTest {
                 .memoryUsed(0L)
                 .build();
 
-        when(judgeService.judge(anyList(), anyString(), eq(Language.PYTHON), anyLong(), anyLong()))
+        when(judgeService.judge(anyList(), anyString(), eq(Language.PYTHON), anyLong(), anyLong(),
+                eq(CompileProfile.STANDARD)))
                 .thenReturn(judgeResult);
 
         ResponseEntity<org.laoli.judge.model.dto.JudgeResponse> response = judgeController.judge(request);
@@ -122,6 +183,43 @@ class JudgeControllerTest {
         assertEquals("COMPILATION_ERROR", response.getBody().getStatus());
     }
 
+    @Test
+    void testJudgeStream_ReadsCasesAfterHeader(@TempDir Path ioDir) {
+        ExecutionConfig executionConfig = new ExecutionConfig();
+        executionConfig.getFileIo().setDir(ioDir.toString());
+        JudgeController controller = new JudgeController(judgeService, null, new ObjectMapper(), executionConfig);
+        String body = """
+                {"code": "print(input())", "language": "python", "timeLimit": 1000, "memoryLimit": 65536}
+                {"input": "1", "expectedOutput": "1"}
+                {"input": "2", "expectedOutput": "2"}
+                """;
+
+        when(judgeService.judgeStreamAsync(any(), eq("print(input())"), eq(Language.PYTHON), eq(1000L), eq(65536L),
+                eq(CompileProfile.STANDARD), any()))
+                .thenAnswer(invocation -> {
+                    TestCaseSource cases = invocation.getArgument(0);
+                    assertEquals("1", cases.next().inputData().text());
+                    assertEquals("2", cases.next().expectedData().text());
+                    assertNull(cases.next());
+                    cases.close();
+                    return CompletableFuture.completedFuture(JudgeResult.builder()
+                            .status(SimpleResult.ACCEPTED)
+                            .message("Accepted")
+                            .build());
+                });
+
+        ResponseEntity<org.laoli.judge.model.dto.JudgeResponse> response = controller.judgeStream(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8))).join();
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("ACCEPTED", response.getBody().getStatus());
+
+        ResponseEntity<org.laoli.judge.model.dto.JudgeResponse> rejected = controller.judgeStream(
+                new ByteArrayInputStream("{\"code\": \"x\", \"cases\": []}".getBytes(StandardCharsets.UTF_8)))
+                .join();
+        assertEquals(HttpStatus.BAD_REQUEST, rejected.getStatusCode());
+    }
+
     @Test
     void testHealth() {
         ResponseEntity<String> response = judgeController.health();
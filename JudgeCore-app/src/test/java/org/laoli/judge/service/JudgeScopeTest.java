@@ -0,0 +1,69 @@
+package org.laoli.judge.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JudgeScope Tests")
+class JudgeScopeTest {
+
+    @Test
+    @DisplayName("Should cap the time limit by the remaining time")
+    void shouldCapTimeBudget() {
+        assertEquals(1000L, JudgeScope.unbounded().timeBudget(1000L));
+        assertTrue(JudgeScope.withTimeout(200).timeBudget(1000L) <= 200);
+
+        JudgeScope expired = JudgeScope.withTimeout(0);
+        assertTrue(expired.isExpired());
+        assertEquals(0L, expired.timeBudget(1000L));
+        CancellationException error = assertThrows(CancellationException.class, expired::check);
+        assertEquals("Deadline exceeded", error.getMessage());
+    }
+
+    @Test
+    @DisplayName("Should cancel tracked cases, including ones tracked after cancellation")
+    void shouldCancelTrackedCases() {
+        JudgeScope scope = JudgeScope.unbounded();
+        CompletableFuture<String> running = scope.track(new CompletableFuture<>());
+
+        scope.cancel();
+
+        assertTrue(running.isCancelled());
+        assertTrue(scope.track(new CompletableFuture<>()).isCancelled());
+        assertThrows(CancellationException.class, scope::check);
+    }
+
+    @Test
+    @DisplayName("Should interrupt a case running on the calling thread")
+    void shouldInterruptWaitingThread() throws Exception {
+        JudgeScope scope = JudgeScope.unbounded();
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        Thread worker = new Thread(() -> {
+            try {
+                scope.interruptibly(() -> {
+                    started.countDown();
+                    Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                    return null;
+                });
+            } catch (Throwable e) {
+                failure.set(e);
+            }
+        });
+        worker.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        scope.cancel();
+        worker.join(TimeUnit.SECONDS.toMillis(5));
+
+        assertFalse(worker.isAlive());
+        assertInstanceOf(InterruptedException.class, failure.get());
+    }
+}
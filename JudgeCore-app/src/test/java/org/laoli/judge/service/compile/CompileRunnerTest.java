@@ -0,0 +1,112 @@
+package org.laoli.judge.service.compile;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.config.SandboxConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.cgroup.CgroupManager;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.laoli.judge.service.monitor.ProcessTreeSampler;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CompileRunner Tests")
+class CompileRunnerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CompileConfig config;
+    private ProcessTreeSampler sampler;
+    private TimeoutWheel timeoutWheel;
+    private CompileRunner compileRunner;
+
+    @BeforeEach
+    void setUp() {
+        config = new CompileConfig();
+        config.getLimits().setTimeoutMs(500);
+        config.getLimits().setMemoryMb(64);
+        config.getLimits().setOutputKb(4);
+        ExecutionConfig executionConfig = new ExecutionConfig();
+        sampler = new ProcessTreeSampler(executionConfig);
+        sampler.start();
+        timeoutWheel = new TimeoutWheel(executionConfig);
+        timeoutWheel.start();
+        compileRunner = new CompileRunner(config, new CgroupManager(new SandboxConfig()), sampler, timeoutWheel,
+                new LanguageCommandFactory());
+    }
+
+    @AfterEach
+    void tearDown() {
+        timeoutWheel.stop();
+        sampler.stop();
+    }
+
+    @Test
+    @DisplayName("Should report success and compiler errors as before")
+    void shouldReportCompilerExitStatus() throws Exception {
+        assertEquals(SimpleResult.ACCEPTED, run("true").status());
+
+        JudgeResult error = run("echo 'solution.c:1: error'; exit 1");
+        assertEquals(SimpleResult.COMPILATION_ERROR, error.status());
+        assertEquals("solution.c:1: error\n", error.message());
+    }
+
+    @Test
+    @DisplayName("Should stop compiles that run past the time limit")
+    void shouldStopSlowCompiles() throws Exception {
+        long start = System.nanoTime();
+        JudgeResult result = run("sleep 30");
+
+        assertEquals(SimpleResult.COMPILE_TIME_LIMIT_EXCEEDED, result.status());
+        assertTrue(System.nanoTime() - start < 10_000_000_000L);
+    }
+
+    @Test
+    @DisplayName("Should stop compiles whose output exceeds the limit and keep the beginning")
+    void shouldStopVerboseCompiles() throws Exception {
+        JudgeResult result = run("yes error");
+
+        assertEquals(SimpleResult.COMPILE_OUTPUT_LIMIT_EXCEEDED, result.status());
+        assertTrue(result.message().contains("error\nerror\n"));
+        assertTrue(result.message().length() < 8 * 1024);
+    }
+
+    @Test
+    @DisplayName("Should stop compiles that exceed the memory limit")
+    void shouldStopMemoryHungryCompiles() throws Exception {
+        JudgeResult result = run("exec python3 -c 'import time; b = bytearray(512 << 20); time.sleep(5)'"
+                + " || exec perl -e '$x = \"x\" x (512 << 20); sleep 5'");
+
+        assertEquals(SimpleResult.COMPILE_MEMORY_LIMIT_EXCEEDED, result.status());
+    }
+
+    @Test
+    @DisplayName("Should record compile resource use per language")
+    void shouldRecordPerLanguageStats() throws Exception {
+        run("true");
+        run("sleep 30");
+
+        @SuppressWarnings("unchecked")
+        Map<String, CompileRunner.ResourceStats> stats =
+                (Map<String, CompileRunner.ResourceStats>) compileRunner.metricsSnapshot();
+        CompileRunner.ResourceStats shell = stats.get("SH");
+        assertEquals(2, shell.compiles());
+        assertEquals(1, shell.timeouts());
+        assertEquals(0, shell.outputExceeded());
+    }
+
+    private JudgeResult run(String script) throws Exception {
+        return compileRunner.run("SH", tempDir, new ProcessBuilder("sh", "-c", script));
+    }
+}
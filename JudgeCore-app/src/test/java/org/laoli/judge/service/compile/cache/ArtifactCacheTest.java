@@ -0,0 +1,177 @@
+package org.laoli.judge.service.compile.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ArtifactCache Tests")
+class ArtifactCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private CompileConfig config;
+    private ArtifactCache artifactCache;
+    private final AtomicInteger builds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        config = new CompileConfig();
+        config.getCache().setDir(tempDir.resolve("cache").toString());
+        artifactCache = newCache();
+    }
+
+    private ArtifactCache newCache() {
+        ArtifactCache cache = new ArtifactCache(config);
+        cache.start();
+        return cache;
+    }
+
+    private Path workDir(String name) throws Exception {
+        return Files.createDirectories(tempDir.resolve(name));
+    }
+
+    private JudgeResult build(Path workDir, String binary) throws java.io.IOException {
+        builds.incrementAndGet();
+        Files.writeString(workDir.resolve("solution"), binary);
+        return JudgeResult.builder().status(SimpleResult.ACCEPTED).build();
+    }
+
+    @Test
+    @DisplayName("Should restore artifacts of identical source without compiling again")
+    void shouldRestoreArtifacts() throws Exception {
+        String key = artifactCache.key("CPP", "g++ 13", "int main(){}");
+        Path first = workDir("first");
+        Path second = workDir("second");
+
+        artifactCache.compile(key, first, () -> build(first, "binary"));
+        JudgeResult result = artifactCache.compile(key, second, () -> build(second, "other"));
+
+        assertEquals(SimpleResult.ACCEPTED, result.status());
+        assertEquals("binary", Files.readString(second.resolve("solution")));
+        assertEquals(1, builds.get());
+        ArtifactCache.CacheStats stats = (ArtifactCache.CacheStats) artifactCache.metricsSnapshot();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+    }
+
+    @Test
+    @DisplayName("Should use different keys for different toolchains")
+    void shouldKeyOnToolchain() {
+        assertNotEquals(artifactCache.key("CPP", "g++ 12", "x"), artifactCache.key("CPP", "g++ 13", "x"));
+        assertNotEquals(artifactCache.key("C", "gcc", "x"), artifactCache.key("CPP", "gcc", "x"));
+    }
+
+    @Test
+    @DisplayName("Should cache compilation errors and rewrite the work dir in messages")
+    void shouldCacheCompilationErrors() throws Exception {
+        String key = artifactCache.key("JAVA", "javac 17", "class Main {");
+        Path first = workDir("first");
+        Path second = workDir("second");
+
+        artifactCache.compile(key, first, () -> {
+            builds.incrementAndGet();
+            return JudgeResult.builder().status(SimpleResult.COMPILATION_ERROR)
+                    .message(first.resolve("Main.java") + ":1: error: reached end of file").build();
+        });
+        JudgeResult result = artifactCache.compile(key, second, () -> fail("should not compile again"));
+
+        assertEquals(SimpleResult.COMPILATION_ERROR, result.status());
+        assertEquals(second.resolve("Main.java") + ":1: error: reached end of file", result.message());
+        assertEquals(1, builds.get());
+    }
+
+    @Test
+    @DisplayName("Should share one build between concurrent identical compiles")
+    void shouldShareConcurrentBuild() throws Exception {
+        String key = artifactCache.key("CPP", "g++ 13", "slow");
+        Path first = workDir("first");
+        Path second = workDir("second");
+        CountDownLatch building = new CountDownLatch(1);
+
+        CompletableFuture<JudgeResult> leader = CompletableFuture.supplyAsync(() -> {
+            try {
+                return artifactCache.compile(key, first, () -> {
+                    building.countDown();
+                    TimeUnit.MILLISECONDS.sleep(200);
+                    return build(first, "binary");
+                });
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(building.await(1, TimeUnit.SECONDS));
+        JudgeResult result = artifactCache.compile(key, second, () -> build(second, "other"));
+
+        assertEquals(SimpleResult.ACCEPTED, leader.get().status());
+        assertEquals(SimpleResult.ACCEPTED, result.status());
+        assertEquals("binary", Files.readString(second.resolve("solution")));
+        assertEquals(1, builds.get());
+        assertEquals(1, ((ArtifactCache.CacheStats) artifactCache.metricsSnapshot()).shared());
+    }
+
+    @Test
+    @DisplayName("Should not cache system errors")
+    void shouldNotCacheSystemErrors() throws Exception {
+        String key = artifactCache.key("GO", "go 1.22", "package main");
+        for (String name : new String[]{"first", "second"}) {
+            artifactCache.compile(key, workDir(name), () -> {
+                builds.incrementAndGet();
+                return JudgeResult.builder().status(SimpleResult.SYSTEM_ERROR).build();
+            });
+        }
+        assertEquals(2, builds.get());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used entries over the byte budget")
+    void shouldEvictLeastRecentlyUsed() throws Exception {
+        config.getCache().setMaxSizeMb(1);
+        String payload = "x".repeat(400 * 1024);
+        String[] keys = {artifactCache.key("C", "gcc", "a"), artifactCache.key("C", "gcc", "b"),
+                artifactCache.key("C", "gcc", "c")};
+        for (int i = 0; i < 2; i++) {
+            Path dir = workDir("fill" + i);
+            artifactCache.compile(keys[i], dir, () -> build(dir, payload));
+        }
+        // 访问a后它比b更新，写入c时淘汰b
+        Path touch = workDir("touch");
+        artifactCache.compile(keys[0], touch, () -> build(touch, payload));
+        Path third = workDir("third");
+        artifactCache.compile(keys[2], third, () -> build(third, payload));
+
+        ArtifactCache.CacheStats stats = (ArtifactCache.CacheStats) artifactCache.metricsSnapshot();
+        assertEquals(1, stats.evicted());
+        assertEquals(2, stats.entries());
+        assertFalse(Files.exists(tempDir.resolve("cache").resolve(keys[1])));
+        assertTrue(Files.exists(tempDir.resolve("cache").resolve(keys[0])));
+    }
+
+    @Test
+    @DisplayName("Should reload entries from disk after a restart")
+    void shouldReloadAfterRestart() throws Exception {
+        String key = artifactCache.key("RUST", "rustc 1.80", "fn main(){}");
+        Path first = workDir("first");
+        artifactCache.compile(key, first, () -> build(first, "binary"));
+
+        ArtifactCache restarted = newCache();
+        Path second = workDir("second");
+        restarted.compile(key, second, () -> build(second, "other"));
+
+        assertEquals("binary", Files.readString(second.resolve("solution")));
+        assertEquals(1, builds.get());
+    }
+}
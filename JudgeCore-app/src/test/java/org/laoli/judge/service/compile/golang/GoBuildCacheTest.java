@@ -0,0 +1,89 @@
+package org.laoli.judge.service.compile.golang;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.CompileConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("GoBuildCache Tests")
+class GoBuildCacheTest {
+
+    @TempDir
+    Path tempDir;
+
+    private GoBuildCache goBuildCache;
+    private Path cacheDir;
+
+    @BeforeEach
+    void setUp() {
+        CompileConfig config = new CompileConfig();
+        config.getGo().setDir(tempDir.toString());
+        config.getGo().setWarmup(false);
+        config.getGo().setMaxSizeMb(1);
+        config.getGo().setTrimIntervalSeconds(3600);
+        goBuildCache = new GoBuildCache(config);
+        goBuildCache.start();
+        cacheDir = tempDir.resolve("build");
+    }
+
+    @AfterEach
+    void tearDown() {
+        goBuildCache.stop();
+    }
+
+    private Path entry(String name, long modifiedMillis) throws Exception {
+        Path file = cacheDir.resolve(name.substring(0, 2)).resolve(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[512 * 1024]);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modifiedMillis));
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should remove least recently used entries once over the size limit")
+    void shouldTrimOldestEntries() throws Exception {
+        long now = System.currentTimeMillis();
+        Path oldest = entry("0a11-d", now - 30_000);
+        Path older = entry("1b22-d", now - 20_000);
+        Path newest = entry("2c33-d", now - 10_000);
+        Files.writeString(cacheDir.resolve("README"), "go build cache");
+
+        goBuildCache.trim();
+
+        assertFalse(Files.exists(oldest));
+        assertFalse(Files.exists(older));
+        assertTrue(Files.exists(newest));
+        assertTrue(Files.exists(cacheDir.resolve("README")));
+        GoBuildCache.GoCacheStats stats = (GoBuildCache.GoCacheStats) goBuildCache.metricsSnapshot();
+        assertEquals(1, stats.trims());
+        assertEquals(512 * 1024, stats.sizeBytes());
+    }
+
+    @Test
+    @DisplayName("Should replace inherited Go settings with the fixed build environment")
+    void shouldFixEnvironment() {
+        ProcessBuilder pb = new ProcessBuilder("go", "build");
+        pb.environment().put("GOFLAGS", "-mod=vendor");
+        pb.environment().put("GOROOT_FINAL", "/somewhere");
+        pb.environment().put("CGO_CFLAGS", "-O0");
+
+        Map<String, String> environment = goBuildCache.configure(pb).environment();
+
+        assertEquals("off", environment.get("GO111MODULE"));
+        assertEquals("", environment.get("GOFLAGS"));
+        assertEquals("0", environment.get("CGO_ENABLED"));
+        assertEquals(cacheDir.toString(), environment.get("GOCACHE"));
+        assertEquals(tempDir.resolve("path").toString(), environment.get("GOPATH"));
+        assertFalse(environment.containsKey("GOROOT_FINAL"));
+        assertFalse(environment.containsKey("CGO_CFLAGS"));
+    }
+}
@@ -0,0 +1,99 @@
+package org.laoli.judge.service.compile.javac;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("InProcessJavac Tests")
+class InProcessJavacTest {
+
+    @TempDir
+    Path workDir;
+
+    private CompileConfig config;
+    private InProcessJavac javac;
+
+    @BeforeEach
+    void setUp() {
+        config = new CompileConfig();
+        javac = new InProcessJavac(config);
+        javac.start();
+        assertTrue(javac.isAvailable());
+    }
+
+    @AfterEach
+    void tearDown() {
+        javac.stop();
+    }
+
+    private JudgeResult compile(String sourceCode) throws Exception {
+        Path sourceFile = workDir.resolve("Main.java");
+        Files.writeString(sourceFile, sourceCode);
+        return javac.compile(sourceFile, sourceCode);
+    }
+
+    @Test
+    @DisplayName("Should write class files next to the source")
+    void shouldWriteClassFiles() throws Exception {
+        JudgeResult result = compile("public class Main { static class Inner { } "
+                + "public static void main(String[] args) { System.out.println(new Inner()); } }");
+
+        assertEquals(SimpleResult.ACCEPTED, result.status());
+        assertTrue(Files.isRegularFile(workDir.resolve("Main.class")));
+        assertTrue(Files.isRegularFile(workDir.resolve("Main$Inner.class")));
+    }
+
+    @Test
+    @DisplayName("Should report diagnostics in javac format")
+    void shouldReportDiagnostics() throws Exception {
+        JudgeResult result = compile("public class Main {");
+
+        assertEquals(SimpleResult.COMPILATION_ERROR, result.status());
+        assertTrue(result.message().startsWith(workDir.resolve("Main.java") + ":1: error:"), result.message());
+        assertTrue(result.message().contains("1 error"));
+        assertFalse(Files.exists(workDir.resolve("Main.class")));
+    }
+
+    @Test
+    @DisplayName("Should not expose the service class path to user code")
+    void shouldNotExposeServiceClassPath() throws Exception {
+        JudgeResult result = compile("import org.laoli.judge.config.CompileConfig;\n"
+                + "public class Main { public static void main(String[] args) { } }");
+
+        assertEquals(SimpleResult.COMPILATION_ERROR, result.status());
+    }
+
+    @Test
+    @DisplayName("Should reuse the file manager across compiles on the same worker")
+    void shouldCompileRepeatedly() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            JudgeResult result = compile("public class Main { public static void main(String[] args) { "
+                    + "System.out.println(" + i + "); } }");
+            assertEquals(SimpleResult.ACCEPTED, result.status());
+        }
+    }
+
+    @Test
+    @DisplayName("Should time out a compile that exceeds the limit")
+    void shouldTimeOut() throws Exception {
+        javac.stop();
+        config.getJavac().setTimeoutMs(1);
+        javac = new InProcessJavac(config);
+        javac.start();
+
+        JudgeResult result = compile("public class Main { public static void main(String[] args) { } }");
+
+        assertEquals(SimpleResult.COMPILE_TIME_LIMIT_EXCEEDED, result.status());
+        assertTrue(result.message().contains("timed out"));
+    }
+}
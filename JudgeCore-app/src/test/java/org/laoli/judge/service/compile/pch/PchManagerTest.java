@@ -0,0 +1,122 @@
+package org.laoli.judge.service.compile.pch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.config.SandboxConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.compile.BuildFile;
+import org.laoli.judge.service.compile.CompileRunner;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.cgroup.CgroupManager;
+import org.laoli.judge.service.execute.watchdog.TimeoutWheel;
+import org.laoli.judge.service.monitor.ProcessTreeSampler;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("PchManager Tests")
+class PchManagerTest {
+
+    private static final String[] COMMAND = {"g++", "-std=c++17", "-O2"};
+
+    @TempDir
+    Path tempDir;
+
+    private ProcessTreeSampler sampler;
+    private TimeoutWheel timeoutWheel;
+    private PchManager pchManager;
+
+    @BeforeEach
+    void setUp() {
+        CompileConfig config = new CompileConfig();
+        config.getPch().setDir(tempDir.resolve("pch").toString());
+        ExecutionConfig executionConfig = new ExecutionConfig();
+        sampler = new ProcessTreeSampler(executionConfig);
+        sampler.start();
+        timeoutWheel = new TimeoutWheel(executionConfig);
+        timeoutWheel.start();
+        pchManager = new PchManager(config, new CompileRunner(config, new CgroupManager(new SandboxConfig()), sampler,
+                timeoutWheel, new LanguageCommandFactory()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pchManager.stop();
+        timeoutWheel.stop();
+        sampler.stop();
+    }
+
+    @Test
+    @DisplayName("Should find the first include after comments and blank lines")
+    void shouldFindFirstInclude() {
+        assertEquals("bits/stdc++.h", PchManager.firstInclude("#include <bits/stdc++.h>\nint main(){}"));
+        assertEquals("bits/stdc++.h",
+                PchManager.firstInclude("// solution\n/* author */\n\n  # include<bits/stdc++.h>\n"));
+        assertEquals("vector", PchManager.firstInclude("#include \"vector\"\n"));
+        assertNull(PchManager.firstInclude("#define N 100\n#include <bits/stdc++.h>\n"));
+        assertNull(PchManager.firstInclude("int main() { return 0; }"));
+    }
+
+    @Test
+    @DisplayName("Should use the precompiled header once built and fall back to plain compiles otherwise")
+    void shouldUsePrecompiledHeader() throws Exception {
+        String toolchain = BuildFile.toolchain(COMMAND, "g++", "--version");
+        assumeTrue(toolchain != null, "g++ not available");
+        pchManager.prepare("CPP", COMMAND, toolchain);
+        for (int i = 0; i < 1200 && ((PchManager.PchStats) pchManager.metricsSnapshot()).ready() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(1, ((PchManager.PchStats) pchManager.metricsSnapshot()).ready());
+
+        assertEquals(SimpleResult.ACCEPTED, compile(toolchain,
+                "#include <bits/stdc++.h>\nint main() { std::vector<int> v{1}; return v.size() - 1; }").status());
+        assertEquals(SimpleResult.ACCEPTED, compile(toolchain,
+                "#include <cstdio>\nint main() { return 0; }").status());
+        JudgeResult error = compile(toolchain, "#include <bits/stdc++.h>\nint main() { return missing; }");
+        assertEquals(SimpleResult.COMPILATION_ERROR, error.status());
+
+        PchManager.PchStats stats = (PchManager.PchStats) pchManager.metricsSnapshot();
+        assertEquals(2, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(0, stats.fallbacks());
+
+        // 预编译头损坏后去掉它重新编译，并在后台重建
+        Path gch;
+        try (Stream<Path> dirs = Files.list(tempDir.resolve("pch"))) {
+            gch = dirs.findFirst().orElseThrow().resolve("bits/stdc++.h.gch");
+        }
+        try (FileChannel channel = FileChannel.open(gch, StandardOpenOption.WRITE)) {
+            channel.truncate(1000);
+        }
+        assertEquals(SimpleResult.ACCEPTED, compile(toolchain, "#include <bits/stdc++.h>\nint main() { }").status());
+        stats = (PchManager.PchStats) pchManager.metricsSnapshot();
+        assertEquals(1, stats.fallbacks());
+        for (int i = 0; i < 1200 && ((PchManager.PchStats) pchManager.metricsSnapshot()).ready() == 0; i++) {
+            Thread.sleep(100);
+        }
+        assertTrue(Files.size(gch) > 1000);
+    }
+
+    private JudgeResult compile(String toolchain, String sourceCode) throws Exception {
+        Path workDir = Files.createTempDirectory(tempDir, "work");
+        Path source = workDir.resolve("solution.cpp");
+        Files.writeString(source, sourceCode);
+        List<String> command = new ArrayList<>(List.of(COMMAND));
+        command.addAll(List.of("-o", "cpp_solution", source.toString()));
+        return pchManager.compile("CPP", toolchain, sourceCode, workDir, command);
+    }
+}
@@ -0,0 +1,101 @@
+package org.laoli.judge.service.compile.profile;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.CompileConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.enums.CompileProfile;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.compile.Compiler;
+import org.laoli.judge.service.compile.cache.ArtifactCache;
+import org.laoli.judge.service.compile.cache.CachingCompiler;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("MeteredCompiler Tests")
+class MeteredCompilerTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final List<CompileProfile> builds = new ArrayList<>();
+    private CompileProfileMetrics metrics;
+    private Compiler compiler;
+
+    /** 按档位写出不同产物的编译器，工具链标识随档位变化 */
+    private final Compiler profiled = new Compiler() {
+        @Override
+        public JudgeResult compile(String sourceCode, Path workDir) throws java.io.IOException {
+            return compile(sourceCode, workDir, CompileProfile.STANDARD);
+        }
+
+        @Override
+        public JudgeResult compile(String sourceCode, Path workDir, CompileProfile profile)
+                throws java.io.IOException {
+            builds.add(profile);
+            Files.writeString(workDir.resolve("solution"), profile.name());
+            return JudgeResult.builder().status(SimpleResult.ACCEPTED).build();
+        }
+
+        @Override
+        public String toolchain(CompileProfile profile) {
+            return "cc -" + profile;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        CompileConfig config = new CompileConfig();
+        config.getCache().setDir(tempDir.resolve("cache").toString());
+        ArtifactCache cache = new ArtifactCache(config);
+        cache.start();
+        metrics = new CompileProfileMetrics();
+        compiler = new MeteredCompiler("CPP", new CachingCompiler("CPP", profiled, cache), metrics);
+    }
+
+    private Path workDir(String name) throws Exception {
+        return Files.createDirectories(tempDir.resolve(name));
+    }
+
+    @Test
+    @DisplayName("Should keep artifacts of different profiles apart")
+    void shouldCacheProfilesSeparately() throws Exception {
+        Path fast = workDir("fast");
+        Path optimized = workDir("optimized");
+        Path again = workDir("again");
+
+        compiler.compile("int main(){}", fast, CompileProfile.FAST);
+        compiler.compile("int main(){}", optimized, CompileProfile.OPTIMIZED);
+        compiler.compile("int main(){}", again, CompileProfile.OPTIMIZED);
+
+        assertEquals(List.of(CompileProfile.FAST, CompileProfile.OPTIMIZED), builds);
+        assertEquals("FAST", Files.readString(fast.resolve("solution")));
+        assertEquals("OPTIMIZED", Files.readString(again.resolve("solution")));
+    }
+
+    @Test
+    @DisplayName("Should record compiles and runs per language and profile")
+    @SuppressWarnings("unchecked")
+    void shouldRecordPerProfile() throws Exception {
+        compiler.compile("int main(){}", workDir("a"), CompileProfile.FAST);
+        compiler.compile("int main(){}", workDir("b"));
+        metrics.recordRun("CPP", CompileProfile.FAST, 30);
+        metrics.recordRun("CPP", CompileProfile.FAST, 10);
+
+        Map<String, CompileProfileMetrics.ProfileStats> snapshot =
+                (Map<String, CompileProfileMetrics.ProfileStats>) metrics.metricsSnapshot();
+        assertEquals(1, snapshot.get("CPP/FAST").compiles());
+        assertEquals(2, snapshot.get("CPP/FAST").runs());
+        assertEquals(20.0, snapshot.get("CPP/FAST").avgRunMs());
+        assertEquals(1, snapshot.get("CPP/STANDARD").compiles());
+        assertEquals(0, snapshot.get("CPP/STANDARD").runs());
+    }
+}
@@ -0,0 +1,73 @@
+package org.laoli.judge.service.execute.cgroup;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.SandboxConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("CgroupManager Tests")
+class CgroupManagerTest {
+
+    private static SandboxConfig config(Path root, String instanceId) {
+        SandboxConfig config = new SandboxConfig();
+        config.getCgroup().setRoot(root.toString());
+        config.getCgroup().setInstanceId(instanceId);
+        return config;
+    }
+
+    @Test
+    @DisplayName("Should only remove stale groups created by this instance")
+    void shouldRemoveOnlyOwnStaleGroups(@TempDir Path mount) throws Exception {
+        Path root = Files.createDirectories(mount.resolve("judgecore"));
+        Files.writeString(mount.resolve("cgroup.controllers"), "cpu memory pids");
+        Files.writeString(root.resolve("cgroup.controllers"), "cpu memory pids");
+        Path own = Files.createDirectory(root.resolve("run-node1-7"));
+        Path other = Files.createDirectory(root.resolve("run-node2-7"));
+        Path prefixed = Files.createDirectory(root.resolve("run-node1-b-7"));
+
+        // 临时目录中新建的分组没有memory.max，探测失败后回退，但启动清理已经执行
+        CgroupManager manager = new CgroupManager(config(root, "node1"), mount);
+        manager.init();
+
+        assertFalse(manager.isAvailable());
+        assertFalse(Files.exists(own));
+        assertTrue(Files.exists(other));
+        assertTrue(Files.exists(prefixed));
+    }
+
+    @Test
+    @DisplayName("Should match own group names exactly")
+    void shouldMatchOwnGroupNames(@TempDir Path mount) {
+        CgroupManager manager = new CgroupManager(config(mount, "node1"), mount);
+
+        assertEquals("run-node1-", manager.groupPrefix());
+        assertTrue(manager.isOwnGroup(mount.resolve("run-node1-42")));
+        assertFalse(manager.isOwnGroup(mount.resolve("run-node1-")));
+        assertFalse(manager.isOwnGroup(mount.resolve("run-node1-b-42")));
+        assertFalse(manager.isOwnGroup(mount.resolve("run-node12-42")));
+        assertFalse(manager.isOwnGroup(mount.resolve("probe-node1")));
+    }
+
+    @Test
+    @DisplayName("Should derive a safe instance id")
+    void shouldDeriveInstanceId() {
+        assertEquals("judge_a.1", CgroupManager.instanceId(" judge/a.1 "));
+        assertTrue(CgroupManager.instanceId("").endsWith("-" + ProcessHandle.current().pid()));
+        assertTrue(CgroupManager.instanceId(null).matches("[A-Za-z0-9_.-]+"));
+    }
+
+    @Test
+    @DisplayName("Should not create groups when cgroup v2 is not mounted")
+    void shouldFallBackWithoutCgroupFs(@TempDir Path mount) {
+        CgroupManager manager = new CgroupManager(config(mount.resolve("judgecore"), "node1"), mount);
+        manager.init();
+
+        assertFalse(manager.isAvailable());
+        assertNull(manager.create(1024));
+    }
+}
@@ -0,0 +1,90 @@
+package org.laoli.judge.service.execute.cgroup;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.SandboxConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RunCgroup Tests")
+class RunCgroupTest {
+
+    @TempDir
+    Path dir;
+
+    private RunCgroup group;
+
+    @BeforeEach
+    void setUp() {
+        group = new RunCgroup(dir, new CgroupManager(new SandboxConfig(), dir));
+    }
+
+    @Test
+    @DisplayName("Should wrap the command to join the group before exec")
+    void shouldWrapCommand() {
+        String[] wrapped = group.wrap(new String[] { "firejail", "--quiet", "./main" });
+
+        assertArrayEquals(new String[] { "/bin/sh", "-c", "echo $$ > \"$0\" && exec \"$@\"",
+                dir.resolve("cgroup.procs").toString(), "firejail", "--quiet", "./main" }, wrapped);
+    }
+
+    @Test
+    @DisplayName("Should write limits in bytes and skip missing interface files")
+    void shouldWriteLimits() throws Exception {
+        Files.writeString(dir.resolve("memory.swap.max"), "max");
+        Files.writeString(dir.resolve("pids.max"), "max");
+
+        group.limitMemory(256 * 1024);
+        group.limitPids(0);
+
+        assertEquals(String.valueOf(256L * 1024 * 1024), Files.readString(dir.resolve("memory.max")));
+        assertEquals("0", Files.readString(dir.resolve("memory.swap.max")));
+        assertFalse(Files.exists(dir.resolve("memory.oom.group")));
+        assertEquals("max", Files.readString(dir.resolve("pids.max")));
+
+        group.limitPids(64);
+        assertEquals("64", Files.readString(dir.resolve("pids.max")));
+    }
+
+    @Test
+    @DisplayName("Should parse peak memory, cpu usage and oom kills")
+    void shouldParseAccounting() throws Exception {
+        assertFalse(group.hasPeakMemory());
+        assertEquals(-1, group.peakMemoryKb());
+        assertEquals(0, group.cpuTimeMicros());
+
+        Files.writeString(dir.resolve("memory.peak"), "10485760\n");
+        Files.writeString(dir.resolve("cpu.stat"), "usage_usec 123456\nuser_usec 100000\nsystem_usec 23456\n");
+        Files.writeString(dir.resolve("memory.events"), "low 0\nhigh 0\nmax 3\noom 1\noom_kill 1\n");
+
+        assertTrue(group.hasPeakMemory());
+        assertEquals(10240, group.peakMemoryKb());
+        assertEquals(123456, group.cpuTimeMicros());
+        assertTrue(group.oomKilled());
+    }
+
+    @Test
+    @DisplayName("Should treat malformed interface files as missing values")
+    void shouldIgnoreMalformedFiles() throws Exception {
+        Files.writeString(dir.resolve("memory.peak"), "max\n");
+        Files.writeString(dir.resolve("memory.events"), "oom_kill x\n");
+
+        assertEquals(-1, group.peakMemoryKb());
+        assertFalse(group.oomKilled());
+    }
+
+    @Test
+    @DisplayName("Should kill through cgroup.kill when available")
+    void shouldKillThroughKillFile() throws Exception {
+        Files.writeString(dir.resolve("cgroup.kill"), "0");
+
+        group.kill();
+
+        assertEquals("1", Files.readString(dir.resolve("cgroup.kill")));
+    }
+}
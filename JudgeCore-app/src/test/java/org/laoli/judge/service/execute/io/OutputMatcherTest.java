@@ -0,0 +1,73 @@
+package org.laoli.judge.service.execute.io;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.laoli.judge.util.ProcessUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("OutputMatcher Tests")
+class OutputMatcherTest {
+
+    private static final String[] OUTPUTS = {
+            "", " ", "3", "3\n", "\n3", " 3 \r\n", "1 2\n3", "1 2\r\n3\r\n", "1 2\r3", "1  2\n3",
+            "1 2\n\n3", "1 2\n3\n\n\n", "\t1 2\n3", "12\n3", "1 2\n34", "中文\r\n输出", "中文\n输出 "
+    };
+
+    @Test
+    @DisplayName("Should agree with normalized string comparison")
+    void shouldAgreeWithNormalizedComparison() {
+        for (String expected : OUTPUTS) {
+            for (String actual : OUTPUTS) {
+                boolean equal = ProcessUtils.normalizeOutput(expected).equals(ProcessUtils.normalizeOutput(actual));
+                assertEquals(equal, matches(actual, expected), () -> "'" + actual + "' vs '" + expected + "'");
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle CRLF split across chunks")
+    void shouldHandleSplitCarriageReturn() {
+        OutputMatcher matcher = new OutputMatcher("1\n2");
+        byte[] bytes = "1\r\n2".getBytes(StandardCharsets.UTF_8);
+        matcher.feed(bytes, 0, 2);
+        matcher.feed(bytes, 2, 2);
+        assertTrue(matcher.matches());
+    }
+
+    @Test
+    @DisplayName("Should match against a normalized off-heap expected output without consuming it")
+    void shouldMatchDirectBuffer() {
+        byte[] normalized = ProcessUtils.normalizeOutput("1 2\r\n3\n").getBytes(StandardCharsets.UTF_8);
+        ByteBuffer expected = ByteBuffer.allocateDirect(normalized.length).put(normalized).flip();
+
+        for (String actual : new String[] { "1 2\n3", "1 2\r\n3\r\n\n" }) {
+            OutputMatcher matcher = new OutputMatcher(expected);
+            byte[] bytes = actual.getBytes(StandardCharsets.UTF_8);
+            matcher.feed(bytes, 0, bytes.length);
+            assertTrue(matcher.matches());
+        }
+        assertEquals(normalized.length, expected.remaining());
+    }
+
+    @Test
+    @DisplayName("Should normalize bytes the same way as strings")
+    void shouldNormalizeBytesLikeStrings() {
+        for (String output : OUTPUTS) {
+            ByteBuffer normalized = ProcessUtils.normalizeOutput(ByteBuffer.wrap(output.getBytes(StandardCharsets.UTF_8)));
+            assertEquals(ProcessUtils.normalizeOutput(output), StandardCharsets.UTF_8.decode(normalized).toString(),
+                    () -> "'" + output + "'");
+        }
+    }
+
+    private boolean matches(String actual, String expected) {
+        OutputMatcher matcher = new OutputMatcher(expected);
+        byte[] bytes = actual.getBytes(StandardCharsets.UTF_8);
+        matcher.feed(bytes, 0, bytes.length);
+        return matcher.matches();
+    }
+}
@@ -0,0 +1,142 @@
+package org.laoli.judge.service.execute.io;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.ExecutionConfig;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StreamPump Tests")
+@EnabledOnOs(OS.LINUX)
+class StreamPumpTest {
+
+    private StreamPump streamPump;
+
+    @BeforeEach
+    void setUp() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.getOutput().setLimitKb(4096);
+        config.getPump().setMaxThreads(2);
+        streamPump = new StreamPump(config);
+        streamPump.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        streamPump.stop();
+    }
+
+    @Test
+    @DisplayName("Should not block a process writing more than the pipe capacity")
+    void shouldDrainOutputLargerThanPipe() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "head -c 1000000 /dev/zero | tr '\\0' 'a'").start();
+        PumpedProcess pumped = streamPump.attach(process);
+
+        assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        pumped.finish(1000);
+        assertEquals(1_000_000, pumped.stdout().length());
+    }
+
+    @Test
+    @DisplayName("Should capture stdout and stderr separately")
+    void shouldCaptureStdoutAndStderr() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "echo out; echo err >&2; exit 3").start();
+        PumpedProcess pumped = streamPump.attach(process);
+
+        assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        pumped.finish(1000);
+        assertEquals("out\n", pumped.stdout());
+        assertEquals("err\n", pumped.stderr());
+        assertEquals(3, process.exitValue());
+    }
+
+    @Test
+    @DisplayName("Should spill output above the memory threshold and compare it from disk")
+    void shouldSpillLargeOutput() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "head -c 2000000 /dev/zero | tr '\\0' 'a'; echo").start();
+        PumpedProcess pumped = streamPump.attach(process);
+
+        assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        pumped.finish(1000);
+        OutputCapture output = pumped.output();
+        assertTrue(output.spilled());
+        assertEquals(2_000_001, output.size());
+        assertEquals(OutputCapture.PREVIEW_BYTES, output.text().length());
+        assertTrue(output.matches("a".repeat(2_000_000) + "\r\n"));
+        assertFalse(output.matches("a".repeat(1_999_999)));
+        pumped.abandon();
+    }
+
+    @Test
+    @DisplayName("Should spill into the configured directory and delete the file on release")
+    void shouldSpillIntoConfiguredDir(@TempDir Path spillDir) throws Exception {
+        ExecutionConfig config = new ExecutionConfig();
+        config.getOutput().setSpillDir(spillDir.toString());
+        StreamPump pump = new StreamPump(config);
+        pump.start();
+        try {
+            Process process = new ProcessBuilder("sh", "-c", "head -c 2000000 /dev/zero | tr '\\0' 'a'").start();
+            PumpedProcess pumped = pump.attach(process);
+
+            assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+            pumped.finish(1000);
+            assertTrue(pumped.output().spilled());
+            try (Stream<Path> files = Files.list(spillDir)) {
+                assertEquals(1, files.count());
+            }
+            pumped.abandon();
+            try (Stream<Path> files = Files.list(spillDir)) {
+                assertEquals(0, files.count());
+            }
+        } finally {
+            pump.stop();
+        }
+    }
+
+    @Test
+    @DisplayName("Should kill a process whose output exceeds the limit")
+    void shouldKillOnOutputLimit() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "yes").start();
+        PumpedProcess pumped = streamPump.attach(process);
+
+        assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        pumped.finish(1000);
+        assertTrue(pumped.output().limitExceeded());
+        assertEquals(4096 * 1024, pumped.output().size());
+        pumped.abandon();
+    }
+
+    @Test
+    @DisplayName("Should release the reader threads when a grandchild keeps the pipe open")
+    void shouldReleaseReadersOnAbandon() throws Exception {
+        // 父进程稍后才退出，读取线程已阻塞在仍被孙进程持有的管道上
+        Process process = new ProcessBuilder("sh", "-c", "sleep 30 & echo $!; sleep 0.5").start();
+        PumpedProcess pumped = streamPump.attach(process);
+        assertTrue(process.waitFor(5, TimeUnit.SECONDS));
+        pumped.finish(200);
+        long grandchild = Long.parseLong(pumped.stdout().trim());
+        try {
+            assertFalse(pumped.finishAsync().isDone());
+            pumped.abandon();
+
+            // 只有两个读取线程，仍被占住时下一个进程的输出无法搬运
+            Process next = new ProcessBuilder("sh", "-c", "echo next").start();
+            PumpedProcess nextPumped = streamPump.attach(next);
+            assertTrue(next.waitFor(5, TimeUnit.SECONDS));
+            assertDoesNotThrow(() -> nextPumped.finishAsync().get(5, TimeUnit.SECONDS));
+            assertEquals("next\n", nextPumped.stdout());
+        } finally {
+            ProcessHandle.of(grandchild).ifPresent(ProcessHandle::destroyForcibly);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.laoli.judge.service.execute.watchdog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.laoli.judge.config.ExecutionConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TimeoutWheel Tests")
+class TimeoutWheelTest {
+
+    private TimeoutWheel timeoutWheel;
+
+    @BeforeEach
+    void setUp() {
+        ExecutionConfig config = new ExecutionConfig();
+        config.getWatchdog().setTickMs(1);
+        config.getWatchdog().setWheelSize(16);
+        timeoutWheel = new TimeoutWheel(config);
+        timeoutWheel.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        timeoutWheel.stop();
+    }
+
+    @Test
+    @DisplayName("Should fire no earlier than the delay")
+    void shouldFireAfterDelay() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        TimeoutWheel.Timeout timeout = timeoutWheel.schedule(30, fired::countDown);
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+        assertTrue(timeout.isExpired());
+        assertFalse(timeout.cancel());
+    }
+
+    @Test
+    @DisplayName("Should fire timeouts longer than one wheel round")
+    void shouldFireAfterSeveralRounds() throws Exception {
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+        timeoutWheel.schedule(100, fired::countDown);
+
+        assertTrue(fired.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should not fire a cancelled timeout")
+    void shouldNotFireCancelledTimeout() throws Exception {
+        AtomicBoolean fired = new AtomicBoolean();
+        TimeoutWheel.Timeout timeout = timeoutWheel.schedule(20, () -> fired.set(true));
+
+        assertTrue(timeout.cancel());
+        TimeUnit.MILLISECONDS.sleep(60);
+        assertFalse(fired.get());
+        assertFalse(timeout.isExpired());
+    }
+}
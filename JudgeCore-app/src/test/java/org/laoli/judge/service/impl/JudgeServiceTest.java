@@ -7,27 +7,43 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.config.PipelineConfig;
 import org.laoli.judge.model.aggregate.JudgeResult;
 import org.laoli.judge.model.entity.CaseResult;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.CaseListener;
+import org.laoli.judge.service.JudgeScope;
 import org.laoli.judge.service.compile.Compiler;
 import org.laoli.judge.service.compile.CompilerFactory;
+import org.laoli.judge.service.compile.profile.CompileProfileMetrics;
 import org.laoli.judge.service.execute.CodeExecutor;
+import org.laoli.judge.service.execute.CodeExecutorFactory;
 import org.laoli.judge.service.execute.LanguageCommandFactory;
 import org.laoli.judge.service.summarize.ISummarize;
 import org.laoli.judge.service.comparator.OutputComparator;
+import org.laoli.judge.service.pipeline.JudgePipeline;
+import org.laoli.judge.service.problem.ProblemStore;
+import org.laoli.judge.service.testdata.StreamingTestCaseSource;
 import org.laoli.judge.service.validation.InputValidator;
 import org.laoli.judge.service.monitor.PerformanceMonitor;
 
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +60,9 @@ public class JudgeServiceTest {
         @Mock
         private CodeExecutor executor;
 
+        @Mock
+        private CodeExecutorFactory codeExecutorFactory;
+
         @Mock
         private LanguageCommandFactory languageCommandFactory;
 
@@ -62,6 +81,18 @@ public class JudgeServiceTest {
         @Mock
         private PerformanceMonitor performanceMonitor;
 
+        @Spy
+        private ExecutionConfig executionConfig = new ExecutionConfig();
+
+        @Mock
+        private CompileProfileMetrics compileProfileMetrics;
+
+        @Spy
+        private JudgePipeline judgePipeline = new JudgePipeline(new PipelineConfig());
+
+        @Mock
+        private ProblemStore problemStore;
+
         @InjectMocks
         private JudgeService judgeService;
 
@@ -69,9 +100,11 @@ public class JudgeServiceTest {
         private static final Language JAVA = Language.JAVA;
         private static final long DEFAULT_TIME_LIMIT = 1000L;
         private static final long DEFAULT_MEMORY_LIMIT = 4096L;
+        private static final long IDLE_TIMEOUT_MS = 5000L;
 
         @BeforeEach
         void setUp() {
+                when(codeExecutorFactory.getExecutor(any())).thenReturn(executor);
                 doAnswer(invocation -> {
                         Long[] time = invocation.getArgument(0);
                         Long[] memory = invocation.getArgument(1);
@@ -330,7 +363,8 @@ public class JudgeServiceTest {
                                         .status(SimpleResult.COMPILATION_ERROR)
                                         .message("Compilation failed: syntax error")
                                         .build();
-                        when(mockCompiler.compile(anyString(), any(Path.class))).thenReturn(compilationError);
+                        when(mockCompiler.compile(anyString(), any(Path.class), eq(CompileProfile.STANDARD)))
+                                        .thenReturn(compilationError);
 
                         JudgeResult result = judgeService.judge(testCases, "invalid code", JAVA, DEFAULT_TIME_LIMIT,
                                         DEFAULT_MEMORY_LIMIT);
@@ -637,4 +671,330 @@ public class JudgeServiceTest {
                         assertEquals(SimpleResult.WRONG_ANSWER, result.status());
                 }
         }
+
+        @Nested
+        @DisplayName("Parallel Execution Scenarios")
+        class ParallelExecutionTests {
+
+                @BeforeEach
+                void enableParallel() {
+                        executionConfig.getParallel().setEnabled(true);
+                        executionConfig.getParallel().setConcurrency(4);
+                        doAnswer(invocation -> {
+                                invocation.<Runnable>getArgument(0).run();
+                                return null;
+                        }).when(executorService).execute(any(Runnable.class));
+                        when(inputValidator.validate(anyString(), eq(JAVA), anyList(), anyLong(), anyLong()))
+                                        .thenReturn(null);
+                        when(compilerFactory.getCompiler(JAVA)).thenReturn(mock(Compiler.class));
+                        when(languageCommandFactory.getCommand(eq(JAVA), any(Path.class)))
+                                        .thenAnswer(invocation -> new String[] { "java", "-cp",
+                                                        invocation.getArgument(1).toString(), "Main" });
+                }
+
+                private void stubCases(Map<String, CompletableFuture<CaseResult>> futures) {
+                        when(executor.executeAsync(any(), any(), any(), anyLong(), anyLong()))
+                                        .thenAnswer(invocation -> futures
+                                                        .get(invocation.<TestCase>getArgument(0).input()));
+                }
+
+                private CaseResult result(SimpleResult status, long time) {
+                        return CaseResult.builder().status(status).executionTime(time).memoryUsed(1024L).build();
+                }
+
+                private CompletableFuture<CaseResult> delayed(CaseResult result, long delayMs) {
+                        return CompletableFuture.supplyAsync(() -> result,
+                                        CompletableFuture.delayedExecutor(delayMs, TimeUnit.MILLISECONDS));
+                }
+
+                @Test
+                @DisplayName("Should run every case and sum execution time when all pass")
+                void shouldAcceptWhenAllCasesPass() throws Exception {
+                        List<TestCase> testCases = List.of(
+                                        TestCase.builder().input("0").expectedOutput("0").build(),
+                                        TestCase.builder().input("1").expectedOutput("1").build(),
+                                        TestCase.builder().input("2").expectedOutput("2").build(),
+                                        TestCase.builder().input("3").expectedOutput("3").build(),
+                                        TestCase.builder().input("4").expectedOutput("4").build());
+                        stubCases(Map.of(
+                                        "0", delayed(result(SimpleResult.ACCEPTED, 10L), 30),
+                                        "1", CompletableFuture.completedFuture(result(SimpleResult.ACCEPTED, 20L)),
+                                        "2", delayed(result(SimpleResult.ACCEPTED, 30L), 10),
+                                        "3", CompletableFuture.completedFuture(result(SimpleResult.ACCEPTED, 40L)),
+                                        "4", delayed(result(SimpleResult.ACCEPTED, 50L), 20)));
+
+                        JudgeResult result = judgeService.judge(testCases, VALID_CODE, JAVA, DEFAULT_TIME_LIMIT,
+                                        DEFAULT_MEMORY_LIMIT);
+
+                        assertEquals(SimpleResult.ACCEPTED, result.status());
+                        assertEquals(150L, result.executionTime());
+                        verify(executor, times(5)).executeAsync(any(), any(), any(), anyLong(), anyLong());
+                        verify(executor, never()).execute(any(), any(), any(), anyLong(), anyLong());
+                }
+
+                @Test
+                @DisplayName("Should report the lowest-index failure and cancel later running cases")
+                void shouldReportLowestIndexFailure() {
+                        List<TestCase> testCases = List.of(
+                                        TestCase.builder().input("0").expectedOutput("0").build(),
+                                        TestCase.builder().input("1").expectedOutput("1").build(),
+                                        TestCase.builder().input("2").expectedOutput("2").build(),
+                                        TestCase.builder().input("3").expectedOutput("3").build());
+                        CompletableFuture<CaseResult> hanging = new CompletableFuture<>();
+                        stubCases(Map.of(
+                                        "0", delayed(result(SimpleResult.ACCEPTED, 10L), 50),
+                                        "1", delayed(result(SimpleResult.TIME_LIMIT_EXCEEDED, 100L), 100),
+                                        "2", delayed(result(SimpleResult.WRONG_ANSWER, 5L), 20),
+                                        "3", hanging));
+
+                        JudgeResult result = judgeService.judge(testCases, VALID_CODE, JAVA, DEFAULT_TIME_LIMIT,
+                                        DEFAULT_MEMORY_LIMIT);
+
+                        assertEquals(SimpleResult.TIME_LIMIT_EXCEEDED, result.status());
+                        assertEquals(110L, result.executionTime());
+                        assertTrue(hanging.isCancelled());
+                }
+
+                @Test
+                @DisplayName("Should not start queued cases after an earlier failure")
+                void shouldNotStartCasesAfterFailure() {
+                        executionConfig.getParallel().setConcurrency(1);
+                        List<TestCase> testCases = List.of(
+                                        TestCase.builder().input("0").expectedOutput("0").build(),
+                                        TestCase.builder().input("1").expectedOutput("1").build(),
+                                        TestCase.builder().input("2").expectedOutput("2").build());
+                        stubCases(Map.of(
+                                        "0", CompletableFuture.completedFuture(result(SimpleResult.RUNTIME_ERROR, 5L)),
+                                        "1", CompletableFuture.completedFuture(result(SimpleResult.ACCEPTED, 5L)),
+                                        "2", CompletableFuture.completedFuture(result(SimpleResult.ACCEPTED, 5L))));
+
+                        JudgeResult result = judgeService.judge(testCases, VALID_CODE, JAVA, DEFAULT_TIME_LIMIT,
+                                        DEFAULT_MEMORY_LIMIT);
+
+                        assertEquals(SimpleResult.RUNTIME_ERROR, result.status());
+                        verify(executor, times(1)).executeAsync(any(), any(), any(), anyLong(), anyLong());
+                }
+        }
+
+        @Nested
+        @DisplayName("Problem Store Tests")
+        class ProblemStoreTests {
+
+                @Test
+                @DisplayName("Should judge against the stored cases of the latest version")
+                void shouldJudgeStoredCases() throws Exception {
+                        when(inputValidator.validateSubmission(anyString(), eq(JAVA), anyLong(), anyLong()))
+                                        .thenReturn(null);
+                        when(problemStore.resolveVersion("a-plus-b", null)).thenReturn(2L);
+                        when(problemStore.load("a-plus-b", 2L)).thenReturn(List.of(
+                                        TestCase.builder().input("1 2").expectedOutput("3").build()));
+                        when(compilerFactory.getCompiler(JAVA)).thenReturn(mock(Compiler.class));
+                        when(languageCommandFactory.getCommand(eq(JAVA), any(Path.class)))
+                                        .thenReturn(new String[] { "java", "Main" });
+                        when(executor.execute(any(), any(), any(), anyLong(), anyLong()))
+                                        .thenReturn(CaseResult.builder()
+                                                        .status(SimpleResult.ACCEPTED)
+                                                        .executionTime(20L)
+                                                        .memoryUsed(512L)
+                                                        .build());
+
+                        JudgeResult result = judgeService.judgeProblem("a-plus-b", null, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD);
+
+                        assertEquals(SimpleResult.ACCEPTED, result.status());
+                        verify(inputValidator, never()).validate(any(), any(), any(), any(), any());
+                        verify(executor).execute(eq(TestCase.builder().input("1 2").expectedOutput("3").build()),
+                                        any(), any(), anyLong(), anyLong());
+                }
+
+                @Test
+                @DisplayName("Should return SYSTEM_ERROR without compiling when the problem does not exist")
+                void shouldRejectUnknownProblem() throws Exception {
+                        when(inputValidator.validateSubmission(anyString(), eq(JAVA), anyLong(), anyLong()))
+                                        .thenReturn(null);
+                        when(problemStore.resolveVersion("missing", 3L)).thenReturn(null);
+
+                        JudgeResult result = judgeService.judgeProblem("missing", 3L, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD);
+
+                        assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+                        assertTrue(result.message().contains("missing"));
+                        verify(compilerFactory, never()).getCompiler(any());
+                }
+        }
+
+        @Nested
+        @DisplayName("Streaming Tests")
+        class StreamingTests {
+
+                @BeforeEach
+                void stubValidation() {
+                        when(inputValidator.validateSubmission(anyString(), eq(JAVA), anyLong(), anyLong()))
+                                        .thenReturn(null);
+                        when(inputValidator.validating(any())).thenAnswer(invocation -> invocation.getArgument(0));
+                        when(compilerFactory.getCompiler(JAVA)).thenReturn(mock(Compiler.class));
+                        when(languageCommandFactory.getCommand(eq(JAVA), any(Path.class)))
+                                        .thenReturn(new String[] { "java", "Main" });
+                }
+
+                @Test
+                @DisplayName("Should start running cases before the upload completes and report each case")
+                void shouldRunCasesAsTheyArrive() throws Exception {
+                        CountDownLatch firstCaseStarted = new CountDownLatch(1);
+                        when(executor.execute(any(), any(), any(), anyLong(), anyLong())).thenAnswer(invocation -> {
+                                firstCaseStarted.countDown();
+                                return CaseResult.builder().status(SimpleResult.ACCEPTED).executionTime(10L)
+                                                .memoryUsed(256L).build();
+                        });
+                        StreamingTestCaseSource source = new StreamingTestCaseSource(() -> { }, IDLE_TIMEOUT_MS);
+                        source.offer(List.of(TestCase.builder().input("1").expectedOutput("1").build()));
+                        List<Integer> reported = new CopyOnWriteArrayList<>();
+
+                        CompletableFuture<JudgeResult> future = judgeService.judgeStreamAsync(source, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD,
+                                        (index, caseResult) -> reported.add(index));
+
+                        assertTrue(firstCaseStarted.await(5, TimeUnit.SECONDS));
+                        assertFalse(future.isDone());
+                        source.offer(List.of(TestCase.builder().input("2").expectedOutput("2").build()));
+                        source.complete();
+
+                        JudgeResult result = future.get(5, TimeUnit.SECONDS);
+                        assertEquals(SimpleResult.ACCEPTED, result.status());
+                        assertEquals(20L, result.executionTime());
+                        assertEquals(List.of(0, 1), reported);
+                }
+
+                @Test
+                @DisplayName("Should stop reading the upload after the first failed case")
+                void shouldCloseSourceAfterFailure() throws Exception {
+                        when(executor.execute(any(), any(), any(), anyLong(), anyLong()))
+                                        .thenReturn(CaseResult.builder().status(SimpleResult.WRONG_ANSWER)
+                                                        .executionTime(5L).memoryUsed(256L).build());
+                        StreamingTestCaseSource source = new StreamingTestCaseSource(() -> { }, IDLE_TIMEOUT_MS);
+                        source.offer(List.of(TestCase.builder().input("1").expectedOutput("2").build()));
+
+                        JudgeResult result = judgeService.judgeStreamAsync(source, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD,
+                                        CaseListener.NONE).get(5, TimeUnit.SECONDS);
+
+                        assertEquals(SimpleResult.WRONG_ANSWER, result.status());
+                        source.offer(List.of(TestCase.builder().input("3").expectedOutput("3").build()));
+                        assertNull(source.next());
+                }
+
+                @Test
+                @DisplayName("Should return SYSTEM_ERROR when the upload is interrupted")
+                void shouldFailWhenUploadIsInterrupted() throws Exception {
+                        StreamingTestCaseSource source = new StreamingTestCaseSource(() -> { }, IDLE_TIMEOUT_MS);
+                        source.fail(new IllegalStateException("client cancelled"));
+
+                        JudgeResult result = judgeService.judgeStreamAsync(source, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD,
+                                        CaseListener.NONE).get(5, TimeUnit.SECONDS);
+
+                        assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+                        assertTrue(result.message().contains("client cancelled"));
+                        verify(executor, never()).execute(any(), any(), any(), anyLong(), anyLong());
+                }
+
+                @Test
+                @DisplayName("Should stop waiting for the upload when the scope is cancelled")
+                void shouldInterruptUploadWaitOnCancel() throws Exception {
+                        CountDownLatch requested = new CountDownLatch(1);
+                        StreamingTestCaseSource source = new StreamingTestCaseSource(requested::countDown,
+                                        TimeUnit.SECONDS.toMillis(30));
+                        JudgeScope scope = JudgeScope.unbounded();
+
+                        CompletableFuture<JudgeResult> future = judgeService.judgeStreamAsync(source, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD,
+                                        CaseListener.NONE, scope);
+                        assertTrue(requested.await(5, TimeUnit.SECONDS));
+                        scope.cancel();
+
+                        JudgeResult result = future.get(5, TimeUnit.SECONDS);
+                        assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+                        assertEquals("Judge cancelled", result.message());
+                }
+
+                @Test
+                @DisplayName("Should return SYSTEM_ERROR when no cases arrive within the idle timeout")
+                void shouldFailWhenUploadIsIdle() throws Exception {
+                        StreamingTestCaseSource source = new StreamingTestCaseSource(() -> { }, 50);
+
+                        JudgeResult result = judgeService.judgeStreamAsync(source, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD,
+                                        CaseListener.NONE).get(5, TimeUnit.SECONDS);
+
+                        assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+                        assertTrue(result.message().contains("No test cases received"));
+                        verify(executor, never()).execute(any(), any(), any(), anyLong(), anyLong());
+                }
+        }
+
+        @Nested
+        @DisplayName("Cancellation Tests")
+        class CancellationTests {
+
+                private final List<TestCase> testCases = List.of(
+                                TestCase.builder().input("1 2").expectedOutput("3").build());
+                private final Compiler compiler = mock(Compiler.class);
+
+                @BeforeEach
+                void stubValidation() {
+                        when(inputValidator.validate(anyString(), eq(JAVA), anyList(), anyLong(), anyLong()))
+                                        .thenReturn(null);
+                        when(compilerFactory.getCompiler(JAVA)).thenReturn(compiler);
+                        when(languageCommandFactory.getCommand(eq(JAVA), any(Path.class)))
+                                        .thenReturn(new String[] { "java", "Main" });
+                }
+
+                @Test
+                @DisplayName("Should interrupt the running case when the scope is cancelled")
+                void shouldInterruptRunningCaseOnCancel() throws Exception {
+                        CountDownLatch started = new CountDownLatch(1);
+                        when(executor.execute(any(), any(), any(), anyLong(), anyLong())).thenAnswer(invocation -> {
+                                started.countDown();
+                                Thread.sleep(TimeUnit.SECONDS.toMillis(30));
+                                return CaseResult.builder().status(SimpleResult.ACCEPTED).build();
+                        });
+                        JudgeScope scope = JudgeScope.unbounded();
+
+                        CompletableFuture<JudgeResult> future = judgeService.judgeAsync(testCases, VALID_CODE, JAVA,
+                                        DEFAULT_TIME_LIMIT, DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD, scope);
+                        assertTrue(started.await(5, TimeUnit.SECONDS));
+                        scope.cancel();
+
+                        JudgeResult result = future.get(5, TimeUnit.SECONDS);
+                        assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+                        assertEquals("Judge cancelled", result.message());
+                }
+
+                @Test
+                @DisplayName("Should cap the case time limit by the time left before the deadline")
+                void shouldCapTimeLimitByDeadline() throws Exception {
+                        when(executor.execute(any(), any(), any(), anyLong(), anyLong()))
+                                        .thenReturn(CaseResult.builder().status(SimpleResult.ACCEPTED)
+                                                        .executionTime(10L).memoryUsed(256L).build());
+
+                        JudgeResult result = judgeService.judgeAsync(testCases, VALID_CODE, JAVA, 60000L,
+                                        DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD, JudgeScope.withTimeout(5000))
+                                        .get(5, TimeUnit.SECONDS);
+
+                        assertEquals(SimpleResult.ACCEPTED, result.status());
+                        verify(executor).execute(any(), any(), any(), longThat(limit -> limit <= 5000), anyLong());
+                }
+
+                @Test
+                @DisplayName("Should not compile a submission whose deadline has already passed")
+                void shouldSkipExpiredSubmission() throws Exception {
+                        JudgeResult result = judgeService.judgeAsync(testCases, VALID_CODE, JAVA, DEFAULT_TIME_LIMIT,
+                                        DEFAULT_MEMORY_LIMIT, CompileProfile.STANDARD, JudgeScope.withTimeout(0))
+                                        .get(5, TimeUnit.SECONDS);
+
+                        assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+                        assertEquals("Deadline exceeded", result.message());
+                        verify(compiler, never()).compile(anyString(), any(Path.class), any());
+                }
+        }
 }
@@ -0,0 +1,62 @@
+package org.laoli.judge.service.monitor;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.laoli.judge.util.ProcessUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SampledRun Tests")
+@EnabledOnOs(OS.LINUX)
+class SampledRunTest {
+
+    private static final long GROUP_CPU_MICROS = 3_600_000_000L;
+
+    private static SampledRun sample(int launcherDepth, Long groupCpuMicros) {
+        SampledRun run = new SampledRun(ProcessHandle.current(), 0, 0, launcherDepth,
+                groupCpuMicros == null ? null : () -> groupCpuMicros, null, ConcurrentHashMap.newKeySet());
+        run.sample();
+        return run;
+    }
+
+    @Test
+    @DisplayName("Should not count the launcher root without a run group")
+    void shouldSkipLauncherWithoutGroup() {
+        assertEquals(0, sample(1, null).cpuTimeMicros());
+    }
+
+    @Test
+    @DisplayName("Should take group cpu time minus the sampled launcher cpu time")
+    void shouldSubtractLauncherFromGroup() {
+        SampledRun run = sample(1, GROUP_CPU_MICROS);
+        long launcherNow = ProcessUtils.readProcStat(ProcessHandle.current().pid()).cpuMicros();
+
+        long cpuMicros = run.cpuTimeMicros();
+        assertTrue(cpuMicros < GROUP_CPU_MICROS);
+        assertTrue(cpuMicros >= GROUP_CPU_MICROS - launcherNow);
+    }
+
+    @Test
+    @DisplayName("Should take the whole group cpu time when there is no launcher")
+    void shouldUseGroupWithoutLauncher() {
+        assertEquals(GROUP_CPU_MICROS, sample(0, GROUP_CPU_MICROS).cpuTimeMicros());
+    }
+
+    @Test
+    @DisplayName("Should count a child renamed to the launcher name as user code")
+    void shouldNotTrustProcessName() throws Exception {
+        Process child = new ProcessBuilder("/bin/sh", "-c",
+                "printf firejail > /proc/$$/comm; while :; do :; done").start();
+        try {
+            Thread.sleep(200);
+            assertEquals("firejail", ProcessUtils.readProcStat(child.pid()).command());
+            assertTrue(sample(1, null).cpuTimeMicros() > 0);
+        } finally {
+            child.destroyForcibly().waitFor();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.laoli.judge.service.pipeline;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PipelineStage Tests")
+class PipelineStageTest {
+
+    private PipelineStage stage;
+
+    @AfterEach
+    void tearDown() {
+        if (stage != null) {
+            stage.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Should complete with the task result and fail with the task exception")
+    void shouldCompleteWithTaskOutcome() throws Exception {
+        stage = new PipelineStage("test", 2, 4);
+
+        assertEquals(42, stage.submit(() -> 42).get(1, TimeUnit.SECONDS));
+        CompletableFuture<Object> failed = stage.submit(() -> {
+            throw new IOException("disk full");
+        });
+        ExecutionException e = assertThrows(ExecutionException.class, () -> failed.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IOException.class, e.getCause());
+
+        PipelineStage.StageStats stats = stage.stats();
+        assertEquals(2, stats.submitted());
+        assertEquals(2, stats.completed());
+        assertEquals(1, stats.failed());
+    }
+
+    @Test
+    @DisplayName("Should block the submitter while the queue is full")
+    void shouldBlockWhenQueueIsFull() throws Exception {
+        stage = new PipelineStage("test", 1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        stage.submit(() -> release.await(5, TimeUnit.SECONDS));
+        // 等待第一个任务被线程取走，第二个任务占满队列
+        for (int i = 0; i < 100 && stage.stats().active() == 0; i++) {
+            Thread.sleep(10);
+        }
+        stage.submit(() -> true);
+        assertEquals(1, stage.stats().queued());
+
+        CompletableFuture<CompletableFuture<Boolean>> third = CompletableFuture.supplyAsync(
+                () -> stage.submit(() -> true));
+        Thread.sleep(100);
+        assertFalse(third.isDone());
+
+        release.countDown();
+        assertTrue(third.get(1, TimeUnit.SECONDS).get(1, TimeUnit.SECONDS));
+        assertEquals(1, stage.stats().blocked());
+    }
+}
@@ -0,0 +1,116 @@
+package org.laoli.judge.service.problem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.config.ProblemConfig;
+import org.laoli.judge.model.entity.ProblemVersion;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.service.testdata.TestDataCache;
+import org.laoli.judge.service.validation.InputValidator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ProblemStore Tests")
+class ProblemStoreTest {
+
+    @TempDir
+    Path root;
+
+    private ProblemConfig config;
+    private TestDataCache cache;
+    private ProblemStore store;
+
+    @BeforeEach
+    void setUp() {
+        config = new ProblemConfig();
+        config.setDir(root.toString());
+        cache = new TestDataCache(new ExecutionConfig());
+        store = new ProblemStore(config, new InputValidator(), cache);
+    }
+
+    @Test
+    @DisplayName("Should store versions and load cases with normalized expected output")
+    void shouldStoreAndLoadVersions() throws Exception {
+        ProblemVersion first = store.ingest("a-plus-b", List.of(
+                TestCase.builder().input("1 2\n").expectedOutput("3\r\n").build(),
+                TestCase.builder().input("2 2\n").expectedOutput("4  \n\n").build()));
+        ProblemVersion second = store.ingest("a-plus-b", List.of(
+                TestCase.builder().input("5 5\n").expectedOutput("10").build()));
+
+        assertEquals(1, first.version());
+        assertEquals(2, first.caseCount());
+        assertEquals(2, second.version());
+        assertEquals(2L, store.resolveVersion("a-plus-b", null));
+        assertEquals(1L, store.resolveVersion("a-plus-b", 1L));
+        assertNull(store.resolveVersion("a-plus-b", 3L));
+        assertNull(store.resolveVersion("unknown", null));
+        assertEquals(List.of(1L, 2L), store.versions("a-plus-b").stream().map(ProblemVersion::version).toList());
+
+        List<TestCase> cases = store.load("a-plus-b", 1);
+        assertTrue(cases.get(0).offHeap());
+        assertEquals("1 2\n", cases.get(0).input());
+        assertEquals("3", cases.get(0).expectedOutput());
+        assertEquals("4", cases.get(1).expectedOutput());
+        assertEquals(first.checksum(), store.describe("a-plus-b", 1).checksum());
+    }
+
+    @Test
+    @DisplayName("Should share off-heap data for identical content across versions")
+    void shouldShareCachedData() throws Exception {
+        List<TestCase> testCases = List.of(TestCase.builder().input("1 2").expectedOutput("3").build());
+        store.ingest("a-plus-b", testCases);
+        store.ingest("a-plus-b", testCases);
+
+        TestCase first = store.load("a-plus-b", 1).get(0);
+        TestCase second = store.load("a-plus-b", 2).get(0);
+
+        assertSame(first.inputData(), second.inputData());
+        TestDataCache.CacheStats stats = (TestDataCache.CacheStats) cache.metricsSnapshot();
+        assertEquals(2, stats.misses());
+        assertEquals(2, stats.hits());
+        assertEquals(2, stats.entries());
+    }
+
+    @Test
+    @DisplayName("Should validate cases and problem id at ingest")
+    void shouldValidateAtIngest() {
+        assertThrows(IllegalArgumentException.class, () -> store.ingest("a-plus-b", List.of()));
+        assertThrows(IllegalArgumentException.class, () -> store.ingest("../etc", List.of(
+                TestCase.builder().input("1").expectedOutput("1").build())));
+        assertFalse(Files.exists(root.resolve("a-plus-b").resolve("1")));
+    }
+
+    @Test
+    @DisplayName("Should reject a version whose files changed on disk")
+    void shouldDetectCorruptedData() throws Exception {
+        store.ingest("echo", List.of(TestCase.builder().input("hi").expectedOutput("hi").build()));
+        Files.writeString(root.resolve("echo").resolve("1").resolve("0.out"), "bye");
+
+        assertThrows(IOException.class, () -> store.load("echo", 1));
+        assertEquals(1, ((ProblemStore.StoreStats) store.metricsSnapshot()).checksumFailures());
+
+        config.setVerifyChecksums(false);
+        assertEquals("bye", store.load("echo", 1).get(0).expectedOutput());
+    }
+
+    @Test
+    @DisplayName("Should delete a version and keep numbering after the latest")
+    void shouldDeleteVersion() throws Exception {
+        TestCase testCase = TestCase.builder().input("1").expectedOutput("1").build();
+        store.ingest("echo", List.of(testCase));
+        store.ingest("echo", List.of(testCase));
+
+        assertTrue(store.delete("echo", 1));
+        assertFalse(store.delete("echo", 1));
+        assertNull(store.resolveVersion("echo", 1L));
+        assertEquals(3, store.ingest("echo", List.of(testCase)).version());
+    }
+}
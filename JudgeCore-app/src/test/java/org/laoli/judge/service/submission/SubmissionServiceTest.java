@@ -0,0 +1,113 @@
+package org.laoli.judge.service.submission;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.laoli.judge.config.SubmissionConfig;
+import org.laoli.judge.model.aggregate.JudgeResult;
+import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.CaseListener;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SubmissionService Tests")
+class SubmissionServiceTest {
+
+    private SubmissionService service;
+
+    private SubmissionService create(int maxSubmissions, long ttlSeconds) {
+        SubmissionConfig config = new SubmissionConfig();
+        config.setMaxSubmissions(maxSubmissions);
+        config.setTtlSeconds(ttlSeconds);
+        service = new SubmissionService(config);
+        return service;
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private static CaseResult caseResult(SimpleResult status) {
+        return CaseResult.builder().status(status).executionTime(10).memoryUsed(1024L)
+                .input("1 2").expectedOutput("3").actualOutput("3").build();
+    }
+
+    private static JudgeResult judgeResult(SimpleResult status) {
+        return JudgeResult.builder().status(status).message(status.name()).build();
+    }
+
+    @Test
+    @DisplayName("Should replay progress to late subscribers and deliver the final result")
+    void shouldReplayProgress() throws Exception {
+        create(10, 600);
+        AtomicReference<CaseListener> listener = new AtomicReference<>();
+        CompletableFuture<JudgeResult> judged = new CompletableFuture<>();
+        Submission submission = service.submit(caseListener -> {
+            listener.set(caseListener);
+            return judged;
+        });
+        listener.get().onCase(0, caseResult(SimpleResult.ACCEPTED));
+
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch finished = new CountDownLatch(1);
+        service.subscribe(submission, new Submission.Subscriber() {
+            @Override
+            public void onCase(int index, CaseResult result) {
+                events.add("case" + index + ":" + result.status());
+            }
+
+            @Override
+            public void onFinish(JudgeResult result) {
+                events.add("result:" + result.status());
+                finished.countDown();
+            }
+        });
+        listener.get().onCase(1, caseResult(SimpleResult.ACCEPTED));
+        judged.complete(judgeResult(SimpleResult.ACCEPTED));
+
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of("case0:ACCEPTED", "case1:ACCEPTED", "result:ACCEPTED"), events);
+        assertSame(submission, service.get(submission.id()));
+        assertEquals(Submission.State.FINISHED, submission.state());
+        assertNull(submission.progress().get(0).result().actualOutput());
+    }
+
+    @Test
+    @DisplayName("Should reject when every stored submission is judging and evict finished ones otherwise")
+    void shouldBoundStore() {
+        create(1, 600);
+        CompletableFuture<JudgeResult> judged = new CompletableFuture<>();
+        Submission first = service.submit(caseListener -> judged);
+
+        assertThrows(RejectedExecutionException.class,
+                () -> service.submit(caseListener -> new CompletableFuture<>()));
+
+        judged.complete(judgeResult(SimpleResult.WRONG_ANSWER));
+        Submission second = service.submit(caseListener -> CompletableFuture.failedFuture(
+                new IllegalStateException("boom")));
+        assertNull(service.get(first.id()));
+        assertEquals(SimpleResult.SYSTEM_ERROR, service.get(second.id()).result().status());
+    }
+
+    @Test
+    @DisplayName("Should expire finished submissions after the ttl")
+    void shouldExpireFinished() throws Exception {
+        create(10, 0);
+        Submission submission = service.submit(caseListener ->
+                CompletableFuture.completedFuture(judgeResult(SimpleResult.ACCEPTED)));
+        Thread.sleep(5);
+
+        assertNull(service.get(submission.id()));
+        assertEquals(0, ((SubmissionService.SubmissionStats) service.metricsSnapshot()).stored());
+    }
+}
@@ -1,23 +1,30 @@
 package org.laoli.judge.service.test;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.laoli.judge.config.PipelineConfig;
 import org.laoli.judge.model.dto.CodeTestRequest;
 import org.laoli.judge.model.dto.CodeTestRequest.CodeTestCase;
 import org.laoli.judge.model.dto.CodeTestResponse;
 import org.laoli.judge.model.dto.CodeTestResponse.TestStatus;
 import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.enums.CompileProfile;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
 import org.laoli.judge.service.compile.Compiler;
 import org.laoli.judge.service.compile.CompilerFactory;
+import org.laoli.judge.service.compile.profile.CompileProfileMetrics;
 import org.laoli.judge.service.execute.CodeExecutor;
+import org.laoli.judge.service.execute.CodeExecutorFactory;
 import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.pipeline.JudgePipeline;
 import org.laoli.judge.service.validation.InputValidator;
 
 import java.util.Collections;
@@ -34,6 +41,9 @@ class CodeTestServiceTest {
         @Mock
         private CodeExecutor executor;
 
+        @Mock
+        private CodeExecutorFactory codeExecutorFactory;
+
         @Mock
         private LanguageCommandFactory languageCommandFactory;
 
@@ -43,6 +53,12 @@ class CodeTestServiceTest {
         @Mock
         private InputValidator inputValidator;
 
+        @Mock
+        private CompileProfileMetrics compileProfileMetrics;
+
+        @Spy
+        private JudgePipeline judgePipeline = new JudgePipeline(new PipelineConfig());
+
         @InjectMocks
         private org.laoli.judge.service.test.impl.CodeTestService codeTestService;
 
@@ -51,6 +67,11 @@ class CodeTestServiceTest {
         private static final long DEFAULT_TIME_LIMIT = 1000L;
         private static final long DEFAULT_MEMORY_LIMIT = 4096L;
 
+        @BeforeEach
+        void setUp() {
+                lenient().when(codeExecutorFactory.getExecutor(any())).thenReturn(executor);
+        }
+
         @Nested
         @DisplayName("Code Execution Tests (No Test Cases)")
         class CodeExecutionTests {
@@ -284,7 +305,7 @@ class CodeTestServiceTest {
                                         .executionTime(0)
                                         .memoryUsed(0)
                                         .build();
-                        when(mockCompiler.compile(anyString(), any())).thenReturn(compileError);
+                        when(mockCompiler.compile(anyString(), any(), eq(CompileProfile.FAST))).thenReturn(compileError);
 
                         CodeTestResponse response = codeTestService.executeTest(request);
 
@@ -0,0 +1,70 @@
+package org.laoli.judge.service.testdata;
+
+import com.fasterxml.jackson.core.JsonParser;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.model.entity.TestCase;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("NdjsonTestCaseSource Tests")
+class NdjsonTestCaseSourceTest {
+
+    @TempDir
+    Path dir;
+
+    private static JsonParser parser(String body, int maxDataBytes) throws Exception {
+        return NdjsonTestCaseSource.parser(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), maxDataBytes);
+    }
+
+    @Test
+    @DisplayName("Should spool each line to files and delete them on close")
+    void shouldSpoolCasesToFiles() throws Exception {
+        NdjsonTestCaseSource source = new NdjsonTestCaseSource(parser("""
+                {"input": "1 2\\n", "expectedOutput": "3\\r\\n", "note": {"skip": [1]}}
+                {"expectedOutput": "中文"}
+                """, 1024), dir, 1024);
+
+        TestCase first = source.next();
+        assertEquals("1 2\n", first.inputData().text());
+        assertEquals("1 2\n", Files.readString(first.inputData().source()));
+        assertEquals(4, first.inputData().length());
+        assertEquals("3", first.expectedData().text());
+        TestCase second = source.next();
+        assertEquals(0, second.inputData().length());
+        assertEquals("中文", second.expectedData().text());
+        assertNull(source.next());
+
+        source.close();
+        try (var files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop writing a value over the size limit and reject malformed lines")
+    void shouldRejectOversizedAndMalformedCases() throws Exception {
+        NdjsonTestCaseSource oversized = new NdjsonTestCaseSource(
+                parser("{\"input\": \"" + "中".repeat(10) + "\"}", 1024), dir, 16);
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, oversized::next);
+        assertTrue(error.getMessage().contains("input at index 0"));
+        oversized.close();
+
+        NdjsonTestCaseSource tooLong = new NdjsonTestCaseSource(
+                parser("{\"expectedOutput\": \"" + "x".repeat(4096) + "\"}", 1024), dir, 1024);
+        error = assertThrows(IllegalArgumentException.class, tooLong::next);
+        assertTrue(error.getMessage().contains("expected output at index 0 exceeds maximum size of 1024"));
+        tooLong.close();
+
+        NdjsonTestCaseSource malformed = new NdjsonTestCaseSource(parser("[1, 2]", 1024), dir, 16);
+        assertThrows(IllegalArgumentException.class, malformed::next);
+        malformed.close();
+    }
+}
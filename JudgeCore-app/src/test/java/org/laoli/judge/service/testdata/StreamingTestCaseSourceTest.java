@@ -0,0 +1,93 @@
+package org.laoli.judge.service.testdata;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.laoli.judge.model.entity.TestCase;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("StreamingTestCaseSource Tests")
+class StreamingTestCaseSourceTest {
+
+    private static final long IDLE_TIMEOUT_MS = 5000;
+
+    private static TestCase testCase(String input) {
+        return TestCase.builder().input(input).expectedOutput(input).build();
+    }
+
+    @Test
+    @DisplayName("Should request the next batch only when the buffered cases are drained")
+    void shouldRequestWhenDrained() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        StreamingTestCaseSource source = new StreamingTestCaseSource(requests::incrementAndGet, IDLE_TIMEOUT_MS);
+        source.offer(List.of(testCase("0"), testCase("1")));
+
+        assertEquals("0", source.next().input());
+        assertEquals(0, requests.get());
+        assertEquals("1", source.next().input());
+        assertEquals(1, requests.get());
+
+        source.offer(List.of(testCase("2")));
+        source.complete();
+        assertEquals("2", source.next().input());
+        assertNull(source.next());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    @DisplayName("Should request again immediately after an empty batch")
+    void shouldRequestAfterEmptyBatch() {
+        AtomicInteger requests = new AtomicInteger();
+        StreamingTestCaseSource source = new StreamingTestCaseSource(requests::incrementAndGet, IDLE_TIMEOUT_MS);
+
+        source.offer(List.of());
+
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    @DisplayName("Should wait for a batch that arrives later")
+    void shouldWaitForLaterBatch() throws Exception {
+        StreamingTestCaseSource source = new StreamingTestCaseSource(() -> { }, IDLE_TIMEOUT_MS);
+        Thread uploader = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            source.offer(List.of(testCase("late")));
+        });
+        uploader.start();
+
+        assertEquals("late", source.next().input());
+        uploader.join();
+    }
+
+    @Test
+    @DisplayName("Should fail a read that waits longer than the idle timeout")
+    void shouldFailWhenIdle() {
+        StreamingTestCaseSource source = new StreamingTestCaseSource(() -> { }, 50);
+        source.offer(List.of(testCase("0")));
+
+        assertDoesNotThrow(source::next);
+        IOException e = assertThrows(IOException.class, source::next);
+        assertTrue(e.getMessage().contains("50ms"));
+    }
+
+    @Test
+    @DisplayName("Should fail reads after the upload fails and ignore batches after close")
+    void shouldFailAndClose() throws Exception {
+        StreamingTestCaseSource failed = new StreamingTestCaseSource(() -> { }, IDLE_TIMEOUT_MS);
+        failed.fail(new IllegalStateException("reset"));
+        assertThrows(IOException.class, failed::next);
+
+        StreamingTestCaseSource closed = new StreamingTestCaseSource(() -> { }, IDLE_TIMEOUT_MS);
+        closed.close();
+        closed.offer(List.of(testCase("0")));
+        assertNull(closed.next());
+    }
+}
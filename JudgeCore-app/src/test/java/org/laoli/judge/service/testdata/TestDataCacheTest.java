@@ -0,0 +1,78 @@
+package org.laoli.judge.service.testdata;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.laoli.judge.config.ExecutionConfig;
+import org.laoli.judge.model.entity.TestData;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TestDataCache Tests")
+class TestDataCacheTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Should keep data off-heap and serve repeated loads from the cache")
+    void shouldCacheByHash() throws Exception {
+        TestDataCache cache = new TestDataCache(new ExecutionConfig());
+        Path file = Files.writeString(dir.resolve("0.in"), "1 2\n");
+
+        TestData first = cache.load("h1", file);
+        TestData second = cache.load("h1", file);
+
+        assertSame(first, second);
+        assertTrue(first.buffer().isDirect());
+        assertEquals("1 2\n", first.text());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        first.writeTo(out);
+        assertEquals("1 2\n", out.toString());
+        assertEquals(0.5, ((TestDataCache.CacheStats) cache.metricsSnapshot()).hitRate());
+    }
+
+    @Test
+    @DisplayName("Should evict the least recently used data over the byte budget")
+    void shouldEvictOverBudget() throws Exception {
+        ExecutionConfig config = new ExecutionConfig();
+        config.getDataCache().setBudgetMb(1);
+        TestDataCache cache = new TestDataCache(config);
+        Path a = Files.write(dir.resolve("a"), new byte[400 * 1024]);
+        Path b = Files.write(dir.resolve("b"), new byte[400 * 1024]);
+        Path c = Files.write(dir.resolve("c"), new byte[400 * 1024]);
+
+        cache.load("a", a);
+        cache.load("b", b);
+        cache.load("a", a);
+        cache.load("c", c);
+
+        TestDataCache.CacheStats stats = (TestDataCache.CacheStats) cache.metricsSnapshot();
+        assertEquals(1, stats.evicted());
+        assertEquals(2, stats.entries());
+        assertEquals(800 * 1024, stats.bytes());
+        cache.load("a", a);
+        assertEquals(2, ((TestDataCache.CacheStats) cache.metricsSnapshot()).hits());
+    }
+
+    @Test
+    @DisplayName("Should map files above the file IO threshold without caching them")
+    void shouldMapLargeFiles() throws Exception {
+        ExecutionConfig config = new ExecutionConfig();
+        config.getFileIo().setThresholdKb(1);
+        TestDataCache cache = new TestDataCache(config);
+        Path file = Files.write(dir.resolve("big"), new byte[4096]);
+
+        TestData data = cache.load("big", file);
+
+        assertEquals(file, data.source());
+        assertEquals(4096, data.length());
+        TestDataCache.CacheStats stats = (TestDataCache.CacheStats) cache.metricsSnapshot();
+        assertEquals(1, stats.mapped());
+        assertEquals(0, stats.entries());
+    }
+}
@@ -9,9 +9,12 @@ import org.junit.jupiter.params.provider.NullAndEmptySource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.laoli.judge.model.aggregate.JudgeResult;
 import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.entity.TestData;
 import org.laoli.judge.model.enums.Language;
 import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.testdata.TestCaseSource;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -140,7 +143,7 @@ class InputValidatorTest {
         @DisplayName("Should reject oversized test case input")
         void shouldRejectOversizedTestCaseInput() {
             String validCode = "public class Main { }";
-            String oversizedInput = "x".repeat(102401);
+            String oversizedInput = "x".repeat(InputValidator.MAX_TEST_CASE_SIZE + 1);
             List<TestCase> oversizedCases = List.of(
                     TestCase.builder()
                             .input(oversizedInput)
@@ -153,6 +156,54 @@ class InputValidatorTest {
             assertTrue(result.message().toLowerCase().contains("exceeds"));
         }
 
+        @Test
+        @DisplayName("Should reject test data over the total size limit")
+        void shouldRejectOversizedTotalTestData() {
+            String validCode = "public class Main { }";
+            // 所有用例共用同一块缓冲区，只按长度校验，不需要为总量分配内存
+            ByteBuffer largeInput = ByteBuffer.allocate(InputValidator.MAX_TEST_CASE_SIZE);
+            List<TestCase> largeCases = new ArrayList<>();
+            for (long total = 0; total <= InputValidator.MAX_TOTAL_TEST_DATA_SIZE;
+                    total += InputValidator.MAX_TEST_CASE_SIZE) {
+                largeCases.add(sizedCase(largeInput));
+            }
+            JudgeResult result = validator.validate(validCode, Language.JAVA, largeCases, 1000L, 4096L);
+            assertNotNull(result);
+            assertEquals(SimpleResult.SYSTEM_ERROR, result.status());
+            assertTrue(result.message().contains("Total test data"));
+        }
+
+        @Test
+        @DisplayName("Should validate streamed test cases as they are read")
+        void shouldValidateStreamedTestCases() throws Exception {
+            TestCaseSource source = validator.validating(TestCaseSource.of(List.of(
+                    TestCase.builder().input("1 2").expectedOutput("3").build(),
+                    sizedCase(ByteBuffer.allocate(InputValidator.MAX_TEST_CASE_SIZE + 1)))));
+
+            assertEquals("1 2", source.next().input());
+            IllegalArgumentException error = assertThrows(IllegalArgumentException.class, source::next);
+            assertTrue(error.getMessage().contains("index 1"));
+            assertThrows(IllegalArgumentException.class,
+                    () -> validator.validating(TestCaseSource.of(List.of())).next());
+        }
+
+        @Test
+        @DisplayName("Should validate byte test cases by length without decoding")
+        void shouldValidateByteTestCases() {
+            String validCode = "public class Main { }";
+            byte[] binary = { (byte) 0xff, 0, (byte) 0xfe, '\r', '\n' };
+            List<TestCase> binaryCases = List.of(TestCase.ofBytes(ByteBuffer.wrap(binary), ByteBuffer.wrap(binary)));
+            assertNull(validator.validate(validCode, Language.JAVA, binaryCases, 1000L, 4096L));
+            assertEquals(5, binaryCases.get(0).inputLength());
+            assertEquals(3, binaryCases.get(0).expectedLength());
+
+            List<TestCase> oversizedCases = List.of(TestCase.ofBytes(
+                    ByteBuffer.allocate(InputValidator.MAX_TEST_CASE_SIZE + 1), ByteBuffer.allocate(0)));
+            JudgeResult result = validator.validate(validCode, Language.JAVA, oversizedCases, 1000L, 4096L);
+            assertNotNull(result);
+            assertTrue(result.message().toLowerCase().contains("exceeds"));
+        }
+
         @Test
         @DisplayName("Should accept valid test cases")
         void shouldAcceptValidTestCases() {
@@ -257,6 +308,13 @@ class InputValidatorTest {
         }
     }
 
+    /**
+     * 以给定缓冲区作为输入的字节用例，期望输出为空；多个用例可以共用同一块缓冲区
+     */
+    private static TestCase sizedCase(ByteBuffer input) {
+        return TestCase.of(TestData.of(input.duplicate()), TestData.of(ByteBuffer.allocate(0)));
+    }
+
     private List<TestCase> createTestCases(int count) {
         List<TestCase> cases = new ArrayList<>();
         for (int i = 0; i < count; i++) {
@@ -0,0 +1,92 @@
+package org.laoli.systemTest;
+
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.laoli.judge.model.entity.CaseResult;
+import org.laoli.judge.model.entity.TestCase;
+import org.laoli.judge.model.enums.Language;
+import org.laoli.judge.model.enums.SimpleResult;
+import org.laoli.judge.service.compile.CompilerFactory;
+import org.laoli.judge.service.execute.CodeExecutor;
+import org.laoli.judge.service.execute.CodeExecutorFactory;
+import org.laoli.judge.service.execute.LanguageCommandFactory;
+import org.laoli.judge.service.execute.impl.FirejailExecutor;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @Description 常驻运行器与逐用例启动进程的执行耗时对比
+ * @Author laoli
+ * @Date 2026/10/16
+ */
+@Slf4j
+@SpringBootTest(properties = {
+        "sandbox.enabled=false",
+        "sandbox.cgroup.enabled=false",
+        "judge.execution.warm-jvm.enabled=true",
+        "judge.execution.warm-python.enabled=true"
+})
+public class ExecutorBenchmarkTest {
+
+    private static final int ROUNDS = 50;
+
+    private static final TestCase CASE = new TestCase("1 2\n", "3\n");
+
+    @Resource
+    private CompilerFactory compilerFactory;
+
+    @Resource
+    private LanguageCommandFactory languageCommandFactory;
+
+    @Resource
+    private CodeExecutorFactory codeExecutorFactory;
+
+    @Resource
+    private FirejailExecutor forkExecutor;
+
+    @Test
+    public void benchmarkJava() throws Exception {
+        String javaCode = "import java.util.Scanner;\n" +
+                "public class Main {\n" +
+                "    public static void main(String[] args) {\n" +
+                "        Scanner scanner = new Scanner(System.in);\n" +
+                "        System.out.println(scanner.nextInt() + scanner.nextInt());\n" +
+                "    }\n" +
+                "}";
+        benchmark(Language.JAVA, javaCode);
+    }
+
+    @Test
+    public void benchmarkPython() throws Exception {
+        String pythonCode = "a, b = map(int, input().split())\n" +
+                "print(a + b)";
+        benchmark(Language.PYTHON, pythonCode);
+    }
+
+    private void benchmark(Language language, String sourceCode) throws Exception {
+        Path workDir = Files.createTempDirectory("benchmark_");
+        compilerFactory.getCompiler(language).compile(sourceCode, workDir);
+        String[] command = languageCommandFactory.getCommand(language, workDir);
+
+        long fork = run(forkExecutor, workDir, command);
+        long warm = run(codeExecutorFactory.getExecutor(language), workDir, command);
+        log.info("{} x{}: fork-per-case {} ms/case, warm runner {} ms/case", language, ROUNDS,
+                fork / ROUNDS / 1_000_000.0, warm / ROUNDS / 1_000_000.0);
+    }
+
+    private long run(CodeExecutor executor, Path workDir, String[] command) throws Exception {
+        // 预热一次，不计入耗时
+        executor.execute(CASE, workDir, command, 2000, 1 << 18);
+        long start = System.nanoTime();
+        for (int i = 0; i < ROUNDS; i++) {
+            CaseResult result = executor.execute(CASE, workDir, command, 2000, 1 << 18);
+            assertEquals(SimpleResult.ACCEPTED, result.status(), result.message());
+        }
+        return System.nanoTime() - start;
+    }
+}